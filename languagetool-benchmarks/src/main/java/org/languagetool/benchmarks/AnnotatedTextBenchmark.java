@@ -0,0 +1,88 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Position mapping in a large (about 1 MB) document with many markup segments,
+ * as done for every match by {@link AnnotatedText#getOriginalTextPositionFor(int, boolean)}.
+ * @since 5.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotatedTextBenchmark {
+
+  private static final int DOCUMENT_SIZE = 1_000_000;
+  private static final int MATCHES = 500;
+
+  private AnnotatedTextBuilder builder;
+  private AnnotatedText annotatedText;
+  private int[] matchPositions;
+
+  @Setup
+  public void setup() throws IOException {
+    String text = BenchmarkCorpus.load("en");
+    builder = new AnnotatedTextBuilder();
+    int length = 0;
+    int paragraph = 0;
+    while (length < DOCUMENT_SIZE) {
+      builder.addMarkup("<p id=\"p" + paragraph + "\">", "\n\n");
+      for (String sentence : text.split("\n")) {
+        builder.addText(sentence);
+        builder.addMarkup("<br/>");
+        length += sentence.length() + 5;
+      }
+      builder.addMarkup("</p>");
+      paragraph++;
+    }
+    annotatedText = builder.build();
+    int plainTextLength = annotatedText.getPlainText().length();
+    Random random = new Random(42);
+    matchPositions = new int[MATCHES];
+    for (int i = 0; i < MATCHES; i++) {
+      matchPositions[i] = random.nextInt(plainTextLength - 10);
+    }
+  }
+
+  @Benchmark
+  public void mapMatchPositions(Blackhole bh) {
+    for (int pos : matchPositions) {
+      bh.consume(annotatedText.getOriginalTextPositionFor(pos, false));
+      bh.consume(annotatedText.getOriginalTextPositionFor(pos + 5, true));
+    }
+  }
+
+  @Benchmark
+  public AnnotatedText build() {
+    return builder.build();
+  }
+
+}
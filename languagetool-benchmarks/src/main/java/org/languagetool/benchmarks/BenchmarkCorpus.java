@@ -0,0 +1,53 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.tools.StringTools;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fixed texts the benchmarks run on, so that results can be compared across commits.
+ * The corpora live in {@code org/languagetool/benchmarks/corpus/<lang>.txt} and must
+ * not be changed, as that would make old and new results incomparable.
+ * @since 5.3
+ */
+final class BenchmarkCorpus {
+
+  private static final String CORPUS_DIR = "/org/languagetool/benchmarks/corpus/";
+
+  private BenchmarkCorpus() {
+  }
+
+  /**
+   * @param languageCode a language code like {@code en-US}, the corpus is chosen by its first part only
+   */
+  static String load(String languageCode) throws IOException {
+    String lang = languageCode.replaceFirst("-.*", "");
+    String path = CORPUS_DIR + lang + ".txt";
+    try (InputStream stream = BenchmarkCorpus.class.getResourceAsStream(path)) {
+      if (stream == null) {
+        throw new IOException("No benchmark corpus found for '" + languageCode + "' at " + path);
+      }
+      return StringTools.readStream(stream, "utf-8");
+    }
+  }
+
+}
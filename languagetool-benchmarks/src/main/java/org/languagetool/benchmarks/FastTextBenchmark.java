@@ -0,0 +1,97 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.language.FastText;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * fastText language identification of the corpus lines, in-process ({@link org.languagetool.language.FastTextModel})
+ * vs. the external {@code fasttext predict-prob} process. The model isn't part of the repository, so it needs to be
+ * given, e.g. {@code -p fasttextModel=/path/to/lid.176.bin -p fasttextBinary=/path/to/fasttext}. Use {@code -t 8} to
+ * see how both scale with concurrent requests.
+ * @since 5.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FastTextBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class FastTextState {
+
+    @Param({""})
+    public String fasttextModel;
+
+    @Param({""})
+    public String fasttextBinary;
+
+    FastText inProcess;
+    FastText subprocess;
+    List<String> lines;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+      if (fasttextModel.isEmpty() || fasttextBinary.isEmpty()) {
+        throw new IllegalStateException("Set the model and binary with -p fasttextModel=... -p fasttextBinary=...");
+      }
+      inProcess = new FastText(new File(fasttextModel));
+      subprocess = new FastText(new File(fasttextModel), new File(fasttextBinary));
+      lines = new ArrayList<>();
+      for (String lang : new String[]{"en", "de", "fr", "es", "nl", "pl"}) {
+        for (String line : BenchmarkCorpus.load(lang).split("\n")) {
+          if (!line.trim().isEmpty()) {
+            lines.add(line);
+          }
+        }
+      }
+    }
+
+  }
+
+  @Benchmark
+  public void inProcess(FastTextState state, Blackhole bh) throws IOException {
+    for (String line : state.lines) {
+      bh.consume(state.inProcess.runFasttext(line, Collections.emptyList()));
+    }
+  }
+
+  @Benchmark
+  public void inProcessBatch(FastTextState state, Blackhole bh) throws IOException {
+    bh.consume(state.inProcess.runFasttext(state.lines, Collections.emptyList()));
+  }
+
+  @Benchmark
+  public void subprocess(FastTextState state, Blackhole bh) throws IOException {
+    for (String line : state.lines) {
+      bh.consume(state.subprocess.runFasttext(line, Collections.emptyList()));
+    }
+  }
+
+}
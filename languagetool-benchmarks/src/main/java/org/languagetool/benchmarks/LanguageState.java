@@ -0,0 +1,104 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.TextLevelRule;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.languagetool.rules.patterns.RuleSet;
+import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Shared JMH state: one {@link JLanguageTool} per language plus the output of every
+ * pipeline stage, so each benchmark can measure its stage in isolation.
+ * @since 5.3
+ */
+@State(Scope.Benchmark)
+public class LanguageState {
+
+  @Param({"en-US", "de-DE", "fr", "es", "nl", "pl-PL"})
+  public String languageCode;
+
+  Language language;
+  JLanguageTool lt;
+  String text;
+  AnnotatedText annotatedText;
+  List<String> sentences;
+  List<AnalyzedSentence> rawSentences;
+  List<AnalyzedSentence> analyzedSentences;
+  RuleSet ruleSet;
+  List<List<AbstractPatternRule>> patternRulesPerSentence;
+  // where the matches of patternRulesPerSentence could start, null if unknown:
+  List<List<int[]>> patternRuleStartHintsPerSentence;
+  List<SpellingCheckRule> spellingRules;
+  List<TextLevelRule> textLevelRules;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    language = Languages.getLanguageForShortCode(languageCode);
+    lt = new JLanguageTool(language);
+    text = BenchmarkCorpus.load(languageCode);
+    annotatedText = new AnnotatedTextBuilder().addText(text).build();
+    sentences = lt.sentenceTokenize(text);
+    rawSentences = new ArrayList<>();
+    for (String sentence : sentences) {
+      rawSentences.add(lt.getRawAnalyzedSentence(sentence));
+    }
+    analyzedSentences = lt.analyzeText(text);
+    // the rule set the checker itself uses by default:
+    ruleSet = lt.getActiveRulesForLevel(JLanguageTool.Level.DEFAULT);
+    List<Rule> activeRules = ruleSet.allRules();
+    patternRulesPerSentence = new ArrayList<>();
+    patternRuleStartHintsPerSentence = new ArrayList<>();
+    for (AnalyzedSentence sentence : analyzedSentences) {
+      RuleSet.Selection selection = ruleSet.selectRules(sentence);
+      List<AbstractPatternRule> patternRules = new ArrayList<>();
+      List<int[]> startHints = new ArrayList<>();
+      for (int i = 0; i < selection.getRules().size(); i++) {
+        Rule rule = selection.getRules().get(i);
+        if (rule instanceof AbstractPatternRule) {
+          patternRules.add((AbstractPatternRule) rule);
+          startHints.add(selection.getMatchStartHints(i));
+        }
+      }
+      patternRulesPerSentence.add(patternRules);
+      patternRuleStartHintsPerSentence.add(startHints);
+    }
+    textLevelRules = activeRules.stream()
+      .filter(rule -> rule instanceof TextLevelRule)
+      .map(rule -> (TextLevelRule) rule)
+      .collect(Collectors.toList());
+    spellingRules = lt.getAllSpellingCheckRules().stream()
+      .filter(activeRules::contains)
+      .collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,54 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching of the pattern rules (from {@code grammar.xml}) that the rule set pre-selected for each sentence,
+ * at the match starts it found.
+ * @since 5.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatternRuleBenchmark {
+
+  @Benchmark
+  public void matchPatternRules(LanguageState state, Blackhole bh) throws IOException {
+    for (int i = 0; i < state.analyzedSentences.size(); i++) {
+      AnalyzedSentence sentence = state.analyzedSentences.get(i);
+      List<AbstractPatternRule> rules = state.patternRulesPerSentence.get(i);
+      List<int[]> startHints = state.patternRuleStartHintsPerSentence.get(i);
+      for (int j = 0; j < rules.size(); j++) {
+        bh.consume(rules.get(j).match(sentence, startHints.get(j)));
+      }
+    }
+  }
+
+}
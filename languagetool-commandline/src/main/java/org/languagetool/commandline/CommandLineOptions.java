@@ -59,6 +59,7 @@ public class CommandLineOptions {
   private boolean autoDetect = false;
   private boolean xmlFiltering = false;
   private boolean lineByLine = false;
+  private boolean stream = false;
   private boolean enableTempOff = false;
   private JLanguageTool.Level level = JLanguageTool.Level.DEFAULT;
   @Nullable
@@ -125,6 +126,20 @@ public class CommandLineOptions {
     this.lineByLine = lineByLine;
   }
 
+  /**
+   * @since 5.3
+   */
+  public boolean isStream() {
+    return stream;
+  }
+
+  /**
+   * @since 5.3
+   */
+  public void setStream(boolean stream) {
+    this.stream = stream;
+  }
+
   public boolean isEnableTempOff() {
     return enableTempOff;
   }
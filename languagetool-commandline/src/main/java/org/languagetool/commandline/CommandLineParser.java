@@ -49,6 +49,14 @@ class CommandLineParser {
         options.setVerbose(true);
       } else if (args[i].equals("--line-by-line")) {
         options.setLineByLine(true);
+        if (options.isStream()) {
+          throw new IllegalArgumentException("You cannot use \"line by line\" analysis in streaming mode");
+        }
+      } else if (args[i].equals("--stream")) {
+        options.setStream(true);
+        if (options.isLineByLine()) {
+          throw new IllegalArgumentException("You cannot use \"line by line\" analysis in streaming mode");
+        }
       } else if (args[i].equals("--enable-temp-off")) {
         options.setEnableTempOff(true);
       } else if (args[i].equals("--level")) {
@@ -145,6 +153,9 @@ class CommandLineParser {
         if (options.isLineByLine()) {
           throw new IllegalArgumentException("JSON output format is not implemented for \"line by line\" analysis");
         }
+        if (options.isStream()) {
+          throw new IllegalArgumentException("JSON output format is not implemented for streaming mode");
+        }
         if (options.isBitext()) {
           throw new IllegalArgumentException("JSON output format is not implemented for Bitext");
         }
@@ -241,6 +252,8 @@ class CommandLineParser {
             + "  --fasttextbinary FILE    fasttext executable (optional), see https://fasttext.cc/docs/en/support.html\n"
             + "  --xmlfilter              remove XML/HTML elements from input before checking (deprecated)\n"
             + "  --line-by-line           work on file line by line (for development, e.g. inside an IDE)\n"
+            + "  --stream                 check input of any size with constant memory, printing results while\n"
+            + "                           reading; rules that check the whole text only see nearby paragraphs\n"
             + "  --enable-temp-off        enable all temp_off rules (for testing and development)\n"
             + "  --level level            enable the given level (currently only 'PICKY')"
     );
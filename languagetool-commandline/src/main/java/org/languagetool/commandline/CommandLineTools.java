@@ -36,6 +36,7 @@ import org.languagetool.tools.Tools;
 
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -143,6 +144,41 @@ public final class CommandLineTools {
     return ruleMatches.size();
   }
 
+  /**
+   * Check text of any size read from {@code reader} with bounded memory and print results
+   * to System.out as soon as they are available.
+   *
+   * @param isXmlFormat whether to print the result in XML format
+   * @return Number of rule matches to the input text.
+   * @since 5.3
+   * @see JLanguageTool#checkStream(Reader, JLanguageTool.Level, JLanguageTool.StreamChunkListener)
+   */
+  public static int checkStream(Reader reader, JLanguageTool lt, boolean isXmlFormat,
+                                JLanguageTool.Level level) throws IOException {
+    long startTime = System.currentTimeMillis();
+    PrintStream out = new PrintStream(System.out, true, "UTF-8");
+    RuleMatchAsXmlSerializer serializer = new RuleMatchAsXmlSerializer();
+    if (isXmlFormat) {
+      out.print(serializer.ruleMatchesToXml(emptyList(), "", DEFAULT_CONTEXT_SIZE, StringTools.ApiPrintMode.START_API, lt.getLanguage(), emptyList()));
+    }
+    int[] matchCount = {0};
+    int[] sentenceCount = {0};
+    lt.checkStream(reader, level, (chunk, chunkOffset, matches) -> {
+      if (isXmlFormat) {
+        out.print(serializer.ruleMatchesToXml(matches, chunk, DEFAULT_CONTEXT_SIZE, StringTools.ApiPrintMode.CONTINUE_API, lt.getLanguage(), emptyList()));
+      } else {
+        printMatches(matches, matchCount[0], chunk, DEFAULT_CONTEXT_SIZE, lt.getLanguage());
+      }
+      matchCount[0] += matches.size();
+      sentenceCount[0] += lt.sentenceTokenize(chunk).size();
+    });
+    if (isXmlFormat) {
+      out.print(serializer.ruleMatchesToXml(emptyList(), "", DEFAULT_CONTEXT_SIZE, StringTools.ApiPrintMode.END_API, lt.getLanguage(), emptyList()));
+    }
+    displayTimeStats(startTime, sentenceCount[0], isXmlFormat);
+    return matchCount[0];
+  }
+
   private static void displayTimeStats(long startTime,
                                        long sentCount, boolean isXmlFormat) {
     long endTime = System.currentTimeMillis();
@@ -271,6 +271,29 @@ class Main {
     }
   }
 
+  private void runOnFileStreaming(String filename, String encoding, JLanguageTool.Level level) throws IOException {
+    if (bitextMode || profileRules || options.isApplySuggestions() || options.isTaggerOnly() || options.isAutoDetect()) {
+      throw new IllegalArgumentException("Streaming mode only supports checking, not bitext mode, profiling, " +
+        "applying suggestions, tagging or language detection");
+    }
+    if (options.isVerbose()) {
+      lt.setOutput(System.err);
+    }
+    if (!options.isXmlFormat()) {
+      if (isStdIn(filename)) {
+        System.err.println("Working on STDIN...");
+      } else {
+        System.err.println("Working on " + filename + "...");
+      }
+    }
+    try (InputStreamReader reader = getInputStreamReader(filename, encoding)) {
+      CommandLineTools.checkStream(reader, lt, options.isXmlFormat(), level);
+    }
+    if (options.isListUnknown() && !options.isXmlFormat()) {
+      System.out.println("Unknown words: " + lt.getUnknownWords());
+    }
+  }
+
   private void handleLine(ApiPrintMode mode, int lineOffset, StringBuilder sb, JLanguageTool.Level level) throws IOException {
     int matches = 0;
     String s = filterXML(sb.toString());
@@ -321,7 +344,9 @@ class Main {
         if (file.isDirectory()) {
           runRecursive(file.getAbsolutePath(), encoding, xmlFiltering, level);
         } else {
-          if (options.isLineByLine()) {
+          if (options.isStream()) {
+            runOnFileStreaming(file.getAbsolutePath(), encoding, level);
+          } else if (options.isLineByLine()) {
             runOnFileLineByLine(file.getAbsolutePath(), encoding, level);
           } else {
             runOnFile(file.getAbsolutePath(), encoding, xmlFiltering);
@@ -458,7 +483,9 @@ class Main {
     if (options.isRecursive()) {
       prg.runRecursive(options.getFilename(), options.getEncoding(), options.isXmlFiltering(), options.getLevel());
     } else {
-      if (options.isLineByLine()) {
+      if (options.isStream()) {
+        prg.runOnFileStreaming(options.getFilename(), options.getEncoding(), options.getLevel());
+      } else if (options.isLineByLine()) {
         prg.runOnFileLineByLine(options.getFilename(), options.getEncoding(), options.getLevel());
       } else {
         prg.runOnFile(options.getFilename(), options.getEncoding(), options.isXmlFiltering());
@@ -0,0 +1,126 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link SharedResultCache} that stores one file per entry in a directory. Several
+ * processes on the same machine (or on machines sharing a network file system) can use
+ * the same directory. Files are written to a temporary name first and then renamed, so
+ * readers never see partial entries. Entries expire a given time after they have been
+ * written; expired files are deleted from time to time by the process writing entries.
+ * @since 5.3
+ */
+@Experimental
+public class FileSharedResultCache implements SharedResultCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(FileSharedResultCache.class);
+  private static final long MIN_SWEEP_INTERVAL_MILLIS = 1000;
+
+  private final Path dir;
+  private final long maxAgeMillis;
+  private final long sweepIntervalMillis;
+  // only accessed by put(), which is called from one background thread:
+  private long nextSweep;
+
+  /**
+   * @param maxAge time after which an entry is not used anymore and will be deleted
+   */
+  public FileSharedResultCache(File dir, long maxAge, TimeUnit timeUnit) {
+    if (!dir.isDirectory()) {
+      throw new IllegalArgumentException("Not a directory: " + dir);
+    }
+    if (maxAge <= 0) {
+      throw new IllegalArgumentException("maxAge must be > 0: " + maxAge);
+    }
+    this.dir = dir.toPath();
+    this.maxAgeMillis = timeUnit.toMillis(maxAge);
+    this.sweepIntervalMillis = Math.max(maxAgeMillis / 10, MIN_SWEEP_INTERVAL_MILLIS);
+  }
+
+  @Nullable
+  @Override
+  public byte[] get(String key) {
+    try {
+      Path file = dir.resolve(key);
+      if (isExpired(file, System.currentTimeMillis())) {
+        return null;
+      }
+      return Files.readAllBytes(file);
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException e) {
+      logger.warn("Could not read shared cache entry " + key, e);
+      return null;
+    }
+  }
+
+  @Override
+  public void put(String key, byte[] value) {
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(dir, key, ".tmp");
+      Files.write(tmp, value);
+      Files.move(tmp, dir.resolve(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      logger.warn("Could not write shared cache entry " + key, e);
+      if (tmp != null) {
+        tmp.toFile().delete();
+      }
+    }
+    long now = System.currentTimeMillis();
+    if (now >= nextSweep) {
+      nextSweep = now + sweepIntervalMillis;
+      deleteExpired(now);
+    }
+  }
+
+  /**
+   * Delete all expired entries, including temporary files left behind by crashed processes.
+   */
+  void deleteExpired(long now) {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+      for (Path file : files) {
+        try {
+          if (isExpired(file, now)) {
+            Files.deleteIfExists(file);
+          }
+        } catch (NoSuchFileException ignored) {
+          // deleted by another process in the meantime
+        } catch (IOException e) {
+          logger.warn("Could not delete expired shared cache entry " + file, e);
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Could not delete expired shared cache entries in " + dir, e);
+    }
+  }
+
+  private boolean isExpired(Path file, long now) throws IOException {
+    return now - Files.getLastModifiedTime(file).toMillis() > maxAgeMillis;
+  }
+}
@@ -0,0 +1,56 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link SharedResultCache} that keeps its entries in memory. Useful for tests and for
+ * sharing a tier between {@link ResultCache}s in the same process.
+ * @since 5.3
+ */
+@Experimental
+public class InMemorySharedResultCache implements SharedResultCache {
+
+  private final Cache<String, byte[]> entries;
+
+  /**
+   * @param maxEntries maximum number of entries to keep
+   */
+  public InMemorySharedResultCache(long maxEntries) {
+    entries = CacheBuilder.newBuilder().maximumSize(maxEntries).build();
+  }
+
+  @Nullable
+  @Override
+  public byte[] get(String key) {
+    return entries.getIfPresent(key);
+  }
+
+  @Override
+  public void put(String key, byte[] value) {
+    entries.put(key, value);
+  }
+
+  public long size() {
+    return entries.size();
+  }
+}
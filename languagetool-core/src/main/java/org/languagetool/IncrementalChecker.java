@@ -0,0 +1,451 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.languagetool.JLanguageTool.Level;
+import org.languagetool.JLanguageTool.ParagraphHandling;
+import org.languagetool.JLanguageTool.SentenceData;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+import org.languagetool.rules.patterns.RuleSet;
+import org.languagetool.tools.StringTools;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks successive versions of a text that belong to the same text session (e.g.
+ * a document being edited) and only does the work needed for what has changed:
+ * sentences that are the same as in the previous version are neither analyzed
+ * nor checked again, and {@link TextLevelRule}s are only run again on the paragraphs
+ * around the change (as far as {@link TextLevelRule#minToCheckParagraph()} allows).
+ * The result is the complete list of matches plus the delta to the previous version.
+ *
+ * <p>Remote rules are not run by this class. A session is started from scratch
+ * when its language, level or configuration key differs from the previous check.
+ * Like {@link JLanguageTool#check(AnnotatedText)}, checking stops when the text
+ * seems to have too many errors or the {@link JLanguageTool.CheckCancelledCallback} of the
+ * {@link JLanguageTool} asks to stop.
+ *
+ * <p>Thread-safe, one instance is meant to be shared by all checks.
+ * @since 5.3
+ */
+@Experimental
+public class IncrementalChecker {
+
+  private final Cache<SessionKey, Session> sessions;
+
+  /**
+   * @param maxSessions maximum number of text sessions to remember
+   * @param expireAfterAccessMinutes forget a session after it hasn't been used for this time
+   */
+  public IncrementalChecker(long maxSessions, long expireAfterAccessMinutes) {
+    sessions = CacheBuilder.newBuilder()
+      .maximumSize(maxSessions)
+      .expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES)
+      .build();
+  }
+
+  /**
+   * Check the text and compare the result to the previous check of the same session.
+   * @param lt the checker to use, its rules must match {@code configKey}
+   * @param owner who the session belongs to (e.g. a user id or remote address), as session ids
+   *              are chosen by the clients and the delta includes matches of the previous text
+   * @param textSessionId identifies the text session of {@code owner}
+   * @param configKey anything that identifies the configuration of {@code lt} (enabled rules etc.),
+   *                  must implement {@code equals()}
+   * @throws ErrorRateTooHighException if the text seems to have too many errors, see {@link JLanguageTool#setMaxErrorsPerWordRate(float)}
+   */
+  public Delta check(JLanguageTool lt, String owner, long textSessionId, Object configKey, AnnotatedText text, Level level) throws IOException {
+    SessionKey key = new SessionKey(owner, textSessionId);
+    Session session;
+    try {
+      session = sessions.get(key, Session::new);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    synchronized (session) {
+      if (!session.isFor(lt.getLanguage(), level, configKey)) {
+        session.reset(lt.getLanguage(), level, configKey);
+      }
+      try {
+        return session.update(lt, text, level);
+      } catch (CancelledException e) {
+        // the client won't know the session's state anymore, so start from scratch next time:
+        sessions.invalidate(key);
+        return new Delta(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), true);
+      }
+    }
+  }
+
+  /**
+   * Forget everything about the given text session.
+   */
+  public void forget(String owner, long textSessionId) {
+    sessions.invalidate(new SessionKey(owner, textSessionId));
+  }
+
+  /**
+   * The result of an incremental check.
+   */
+  public static class Delta {
+    private final List<RuleMatch> matches;
+    private final List<RuleMatch> added;
+    private final List<RuleMatch> removed;
+    private final boolean reset;
+
+    Delta(List<RuleMatch> matches, List<RuleMatch> added, List<RuleMatch> removed, boolean reset) {
+      this.matches = Collections.unmodifiableList(matches);
+      this.added = Collections.unmodifiableList(added);
+      this.removed = Collections.unmodifiableList(removed);
+      this.reset = reset;
+    }
+
+    /** All matches of the current text, like {@link JLanguageTool#check(AnnotatedText)} returns them. */
+    public List<RuleMatch> getMatches() {
+      return matches;
+    }
+
+    /** Matches that were not part of the previous result. */
+    public List<RuleMatch> getAdded() {
+      return added;
+    }
+
+    /** Matches of the previous result (with the previous text's positions) that are no longer valid. */
+    public List<RuleMatch> getRemoved() {
+      return removed;
+    }
+
+    /** Whether the session had no previous result (e.g. it's new or has expired), so that all matches are new. */
+    public boolean isReset() {
+      return reset;
+    }
+  }
+
+  private static class SessionKey {
+    private final String owner;
+    private final long textSessionId;
+
+    SessionKey(String owner, long textSessionId) {
+      this.owner = Objects.requireNonNull(owner);
+      this.textSessionId = textSessionId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      SessionKey other = (SessionKey) o;
+      return textSessionId == other.textSessionId && owner.equals(other.owner);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(owner, textSessionId);
+    }
+  }
+
+  /** Thrown when the {@link JLanguageTool.CheckCancelledCallback} asks to stop. */
+  private static class CancelledException extends RuntimeException {
+  }
+
+  private static class Session {
+    private Language language;
+    private Level level;
+    private Object configKey;
+    private List<String> texts = Collections.emptyList();
+    private List<AnalyzedSentence> analyzed = Collections.emptyList();
+    // matches of sentence-level rules, positions relative to the sentence:
+    private List<List<RuleMatch>> sentenceMatches = Collections.emptyList();
+    // matches of text-level rules by rule id, positions relative to the plain text:
+    private Map<String, List<RuleMatch>> textLevelMatches = new HashMap<>();
+    private int length;
+    private int originalLength;
+    private List<RuleMatch> result = Collections.emptyList();
+
+    boolean isFor(Language language, Level level, Object configKey) {
+      return language.equals(this.language) && level == this.level && Objects.equals(configKey, this.configKey);
+    }
+
+    void reset(Language language, Level level, Object configKey) {
+      this.language = language;
+      this.level = level;
+      this.configKey = configKey;
+      texts = Collections.emptyList();
+      analyzed = Collections.emptyList();
+      sentenceMatches = Collections.emptyList();
+      textLevelMatches = new HashMap<>();
+      length = 0;
+      originalLength = 0;
+      result = Collections.emptyList();
+    }
+
+    Delta update(JLanguageTool lt, AnnotatedText text, Level level) throws IOException {
+      boolean fresh = texts.isEmpty();
+      List<String> newTexts = lt.sentenceTokenize(text.getPlainText());
+      int oldSize = texts.size();
+      int newSize = newTexts.size();
+
+      int prefix = 0;
+      while (prefix < oldSize && prefix < newSize && texts.get(prefix).equals(newTexts.get(prefix))) {
+        prefix++;
+      }
+      if (prefix == oldSize && newSize > oldSize || prefix == newSize && oldSize > newSize) {
+        prefix--;  // the last sentence is analyzed differently (paragraph end), so it can't be re-used elsewhere
+      }
+      prefix = Math.max(prefix, 0);
+      int suffix = 0;
+      while (suffix < oldSize - prefix && suffix < newSize - prefix &&
+             texts.get(oldSize - 1 - suffix).equals(newTexts.get(newSize - 1 - suffix))) {
+        suffix++;
+      }
+      boolean unchanged = !fresh && prefix + suffix == newSize && oldSize == newSize;
+
+      RuleSet rules = lt.getActiveRulesForLevel(level);
+      List<AnalyzedSentence> newAnalyzed = new ArrayList<>(newSize);
+      List<List<RuleMatch>> newSentenceMatches = new ArrayList<>(newSize);
+      for (int i = 0; i < newSize; i++) {
+        if (i < prefix) {
+          newAnalyzed.add(analyzed.get(i));
+          newSentenceMatches.add(sentenceMatches.get(i));
+        } else if (i >= newSize - suffix) {
+          int oldIndex = i - newSize + oldSize;
+          newAnalyzed.add(analyzed.get(oldIndex));
+          newSentenceMatches.add(sentenceMatches.get(oldIndex));
+        } else {
+          if (lt.isCheckCancelled()) {
+            throw new CancelledException();
+          }
+          AnalyzedSentence sentence = lt.getAnalyzedSentence(newTexts.get(i));
+          if (i == newSize - 1) {
+            sentence = JLanguageTool.markAsParagraphEnd(sentence);
+          }
+          newAnalyzed.add(sentence);
+          newSentenceMatches.add(lt.checkAnalyzedSentence(ParagraphHandling.NORMAL, rules.selectRules(sentence), sentence, false));
+        }
+      }
+
+      List<SentenceData> sentences = lt.computeSentenceData(newAnalyzed, newTexts);
+      int matchCount = 0;
+      int wordCount = 0;
+      for (int i = 0; i < newSize; i++) {
+        matchCount += newSentenceMatches.get(i).size();
+        wordCount += sentences.get(i).wordCount;
+        lt.checkErrorRate(matchCount, wordCount, text);
+      }
+      int newLength = text.getPlainText().length();
+      Map<String, List<RuleMatch>> newTextLevelMatches = new HashMap<>();
+      for (Rule rule : rules.allRules()) {
+        if (!(rule instanceof TextLevelRule)) {
+          continue;
+        }
+        if (lt.isCheckCancelled()) {
+          throw new CancelledException();
+        }
+        TextLevelRule textRule = (TextLevelRule) rule;
+        List<RuleMatch> oldMatches = textLevelMatches.get(rule.getFullId());
+        List<RuleMatch> matches;
+        if (unchanged && oldMatches != null) {
+          matches = oldMatches;
+        } else if (fresh || oldMatches == null || textRule.minToCheckParagraph() < 0 || newSize == 0) {
+          matches = Arrays.asList(textRule.match(newAnalyzed, text));
+        } else {
+          matches = updateTextLevelMatches(textRule, oldMatches, newAnalyzed, sentences, prefix, newSize - suffix, newLength - length, text);
+        }
+        newTextLevelMatches.put(rule.getFullId(), matches);
+      }
+
+      List<RuleMatch> newResult = new ArrayList<>();
+      for (List<RuleMatch> matches : newTextLevelMatches.values()) {
+        for (RuleMatch match : matches) {
+          newResult.add(lt.adjustTextLevelRuleMatchPos(match, sentences, text));
+        }
+      }
+      for (int i = 0; i < newSize; i++) {
+        SentenceData sentence = sentences.get(i);
+        for (RuleMatch match : newSentenceMatches.get(i)) {
+          newResult.add(lt.adjustRuleMatchPos(match, sentence.startOffset, sentence.startColumn, sentence.startLine, sentence.text, text));
+        }
+      }
+      newResult = lt.filterMatches(newResult, text);
+
+      // compare the old matches at the position they'd have in the new text, so that
+      // matches behind the change don't show up as removed and added again:
+      int changeStart = prefix < newSize ? sentences.get(prefix).startOffset : newLength;
+      int changeEnd = suffix > 0 ? sentences.get(newSize - suffix).startOffset : newLength;
+      int newOriginalLength = text.getTextWithMarkup().length();
+      int originalChangeStart = originalPosition(text, changeStart, newLength, newOriginalLength);
+      int originalChangeEnd = originalPosition(text, changeEnd, newLength, newOriginalLength);
+      int originalDelta = newOriginalLength - originalLength;
+      Map<RuleMatch, RuleMatch> oldByShifted = new HashMap<>();
+      for (RuleMatch match : result) {
+        if (fresh || match.getToPos() <= originalChangeStart) {
+          oldByShifted.put(match, match);
+        } else if (match.getFromPos() >= originalChangeEnd - originalDelta) {
+          oldByShifted.put(shift(match, originalDelta, newLength - length), match);
+        }
+      }
+      Set<RuleMatch> newSet = new HashSet<>(newResult);
+      List<RuleMatch> added = new ArrayList<>();
+      for (RuleMatch match : newResult) {
+        if (!oldByShifted.containsKey(match)) {
+          added.add(match);
+        }
+      }
+      Set<RuleMatch> kept = new HashSet<>();
+      for (Map.Entry<RuleMatch, RuleMatch> entry : oldByShifted.entrySet()) {
+        if (newSet.contains(entry.getKey())) {
+          kept.add(entry.getValue());
+        }
+      }
+      List<RuleMatch> removed = new ArrayList<>();
+      for (RuleMatch match : result) {
+        if (!kept.contains(match)) {
+          removed.add(match);
+        }
+      }
+
+      texts = newTexts;
+      analyzed = newAnalyzed;
+      sentenceMatches = newSentenceMatches;
+      textLevelMatches = newTextLevelMatches;
+      length = newLength;
+      originalLength = newOriginalLength;
+      result = newResult;
+      return new Delta(newResult, added, removed, fresh);
+    }
+
+    /**
+     * Re-run a text-level rule on the paragraphs around the changed sentences {@code [changedFrom, changedTo)}:
+     * matches in the paragraphs that may depend on the change are replaced, all others are kept (and shifted
+     * by {@code lengthDelta} if they are behind the change). To get the replaced paragraphs right, the rule
+     * gets to see twice the context that {@link TextLevelRule#minToCheckParagraph()} asks for.
+     */
+    private List<RuleMatch> updateTextLevelMatches(TextLevelRule rule, List<RuleMatch> oldMatches, List<AnalyzedSentence> newAnalyzed,
+                                                   List<SentenceData> sentences, int changedFrom, int changedTo, int lengthDelta,
+                                                   AnnotatedText text) throws IOException {
+      int[] paragraphs = paragraphIndices(newAnalyzed);
+      if (changedFrom >= changedTo) {
+        // sentences were only removed: the paragraphs next to the removal are affected
+        changedFrom = Math.max(changedFrom - 1, 0);
+        changedTo = Math.min(changedTo + 1, newAnalyzed.size());
+      }
+      int n = rule.minToCheckParagraph();
+      int firstPara = paragraphs[changedFrom];
+      int lastPara = paragraphs[changedTo - 1];
+      int replaceFrom = firstSentenceOf(paragraphs, firstPara - n);
+      int replaceTo = lastSentenceOf(paragraphs, lastPara + n);
+      int runFrom = firstSentenceOf(paragraphs, firstPara - 2 * n);
+      int runTo = lastSentenceOf(paragraphs, lastPara + 2 * n);
+
+      int replaceStart = sentences.get(replaceFrom).startOffset;
+      int replaceEnd = endOffset(sentences.get(replaceTo - 1));
+      int replaceEndInOldText = replaceEnd - lengthDelta;
+      List<RuleMatch> matches = new ArrayList<>();
+      for (RuleMatch match : oldMatches) {
+        if (match.getToPos() <= replaceStart) {
+          matches.add(match);
+        } else if (match.getFromPos() >= replaceEndInOldText) {
+          matches.add(shift(match, lengthDelta));
+        } else if (match.getFromPos() < replaceStart || match.getToPos() > replaceEndInOldText) {
+          // spans the border of the replaced paragraphs, so we can't tell which part is still valid
+          return Arrays.asList(rule.match(newAnalyzed, text));
+        }
+      }
+      int runStart = sentences.get(runFrom).startOffset;
+      StringBuilder runText = new StringBuilder();
+      for (SentenceData sentence : sentences.subList(runFrom, runTo)) {
+        runText.append(sentence.text);
+      }
+      AnnotatedText runAnnotatedText = new AnnotatedTextBuilder().addText(runText.toString()).build();
+      for (RuleMatch match : rule.match(newAnalyzed.subList(runFrom, runTo), runAnnotatedText)) {
+        RuleMatch shifted = shift(match, runStart);
+        if (shifted.getFromPos() >= replaceStart && shifted.getToPos() <= replaceEnd) {
+          matches.add(shifted);
+        }
+      }
+      return matches;
+    }
+
+    private int[] paragraphIndices(List<AnalyzedSentence> sentences) {
+      boolean singleLineBreaksMarksPara = language.getSentenceTokenizer().singleLineBreaksMarksPara();
+      int[] paragraphs = new int[sentences.size()];
+      int paragraph = 0;
+      for (int i = 0; i < sentences.size(); i++) {
+        paragraphs[i] = paragraph;
+        if (StringTools.isParagraphEnd(sentences.get(i).getText(), singleLineBreaksMarksPara)) {
+          paragraph++;
+        }
+      }
+      return paragraphs;
+    }
+
+    private static int firstSentenceOf(int[] paragraphs, int paragraph) {
+      int i = 0;
+      while (i < paragraphs.length && paragraphs[i] < paragraph) {
+        i++;
+      }
+      return i;
+    }
+
+    private static int lastSentenceOf(int[] paragraphs, int paragraph) {
+      int i = paragraphs.length;
+      while (i > 0 && paragraphs[i - 1] > paragraph) {
+        i--;
+      }
+      return i;
+    }
+
+    private static int originalPosition(AnnotatedText text, int plainTextPosition, int plainTextLength, int originalLength) {
+      return plainTextPosition < plainTextLength ? text.getOriginalTextPositionFor(plainTextPosition, false) : originalLength;
+    }
+
+    private static int endOffset(SentenceData sentence) {
+      return sentence.startOffset + sentence.text.length();
+    }
+
+    @NotNull
+    private static RuleMatch shift(RuleMatch match, int offset) {
+      return shift(match, offset, offset);
+    }
+
+    /**
+     * @param offset added to the offset position (which refers to the original text for adjusted matches)
+     * @param patternOffset added to the pattern position (which always refers to the plain text)
+     */
+    @NotNull
+    private static RuleMatch shift(RuleMatch match, int offset, int patternOffset) {
+      if (offset == 0 && patternOffset == 0) {
+        return match;
+      }
+      RuleMatch shifted = new RuleMatch(match);
+      shifted.setOffsetPosition(match.getFromPos() + offset, match.getToPos() + offset);
+      shifted.setPatternPosition(match.getPatternFromPos() + patternOffset, match.getPatternToPos() + patternOffset);
+      return shifted;
+    }
+  }
+
+}
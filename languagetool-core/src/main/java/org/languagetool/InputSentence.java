@@ -18,9 +18,14 @@
  */
 package org.languagetool;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.rules.CategoryId;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -75,6 +80,74 @@ class InputSentence {
     return text;
   }
   
+  /**
+   * A key for {@link SharedResultCache} that, unlike {@link #hashCode()}, is the same in all
+   * processes running this LanguageTool version. Returns {@code null} for sentences checked
+   * with user-specific speller words, as hashing these for every sentence would be too expensive.
+   * @since 5.3
+   */
+  @Nullable
+  String getSharedCacheKey() {
+    if (userConfig != null && (!userConfig.getAcceptedWords().isEmpty() || userConfig.hasLinguServices())) {
+      return null;
+    }
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    putString(hasher, JLanguageTool.VERSION);
+    putString(hasher, JLanguageTool.BUILD_DATE);
+    putString(hasher, text);
+    putString(hasher, lang.getShortCodeWithCountryAndVariant());
+    putString(hasher, motherTongue != null ? motherTongue.getShortCodeWithCountryAndVariant() : null);
+    putSorted(hasher, disabledRules);
+    putSorted(hasher, disabledRuleCategories);
+    putSorted(hasher, enabledRules);
+    putSorted(hasher, enabledRuleCategories);
+    putUserConfig(hasher, userConfig);
+    hasher.putLong(textSessionID != null ? textSessionID : -1);
+    if (altLanguages != null) {
+      for (Language altLanguage : altLanguages) {
+        putString(hasher, altLanguage.getShortCodeWithCountryAndVariant());
+      }
+    }
+    putString(hasher, mode.name());
+    putString(hasher, level.name());
+    return hasher.hash().toString();
+  }
+
+  // all that UserConfig.equals() compares, not just its hashCode(), as a collision would mean wrong matches:
+  private static void putUserConfig(Hasher hasher, @Nullable UserConfig userConfig) {
+    if (userConfig == null) {
+      hasher.putInt(-1);
+      return;
+    }
+    hasher.putInt(userConfig.getMaxSpellingSuggestions());
+    putString(hasher, userConfig.getUserDictName());
+    Map<String, Integer> configValues = userConfig.getConfigValues();
+    hasher.putInt(configValues.size());
+    configValues.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e -> {
+      putString(hasher, e.getKey());
+      hasher.putInt(e.getValue());
+    });
+    hasher.putBoolean(userConfig.filterDictionaryMatches());
+    putString(hasher, userConfig.getAbTest());
+  }
+
+  private static void putSorted(Hasher hasher, Set<?> set) {
+    if (set == null) {
+      hasher.putInt(-1);
+      return;
+    }
+    hasher.putInt(set.size());
+    set.stream().map(Object::toString).sorted().forEach(s -> putString(hasher, s));
+  }
+
+  private static void putString(Hasher hasher, String s) {
+    if (s == null) {
+      hasher.putInt(-1);
+    } else {
+      hasher.putInt(s.length()).putString(s, StandardCharsets.UTF_8);
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == null) return false;
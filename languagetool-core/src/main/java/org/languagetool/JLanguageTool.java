@@ -19,6 +19,7 @@
 package org.languagetool;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.broker.*;
@@ -38,6 +39,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.io.Reader;
 import java.net.JarURLConnection;
 import java.net.URL;
 import java.util.*;
@@ -184,6 +186,7 @@ public class JLanguageTool {
   private final List<RuleMatchFilter> matchFilters = new LinkedList<>();
 
   private CheckCancelledCallback checkCancelledCallback;
+  private RuleProfiler ruleProfiler;
 
   private PrintStream printStream;
   private boolean listUnknownWords;
@@ -443,6 +446,17 @@ public class JLanguageTool {
     this.checkCancelledCallback = callback;
   }
 
+  /**
+   * Measure run time and matches per rule for a sample of the checked sentences.
+   *
+   * @param ruleProfiler the profiler to record to, or {@code null} to disable profiling
+   * @since 5.3
+   */
+  @Experimental
+  public void setRuleProfiler(@Nullable RuleProfiler ruleProfiler) {
+    this.ruleProfiler = ruleProfiler;
+  }
+
   /**
    * Gets the ResourceBundle (i18n strings) for the default language of the user's system.
    */
@@ -896,7 +910,21 @@ public class JLanguageTool {
    */
   public List<RuleMatch> check(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
       Mode mode, Level level, @Nullable ExecutorService remoteRulesThreadPool, @Nullable Long textSessionID) throws IOException {
-      List<String> sentences;
+    return check(annotatedText, tokenizeText, paraMode, listener, mode, level, remoteRulesThreadPool, textSessionID, true);
+  }
+
+  /**
+   * Like {@link #check(AnnotatedText, boolean, ParagraphHandling, RuleMatchListener, Mode, Level, ExecutorService, Long)},
+   * but remote rules can be skipped, e.g. to answer faster when a server is overloaded.
+   *
+   * @param checkRemoteRules if {@code false}, remote rules are not run at all
+   * @since 5.3
+   */
+  @Experimental
+  public List<RuleMatch> check(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
+      Mode mode, Level level, @Nullable ExecutorService remoteRulesThreadPool, @Nullable Long textSessionID,
+      boolean checkRemoteRules) throws IOException {
+    List<String> sentences;
     if (tokenizeText) {
       sentences = sentenceTokenize(annotatedText.getPlainText());
     } else {
@@ -919,7 +947,7 @@ public class JLanguageTool {
     // -> need to distinguish offsets / matches
     Map<Integer, List<RuleMatch>> cachedResults = new HashMap<>();
     Map<Integer, Integer> matchOffset = new HashMap<>();
-    if (remoteRulesThreadPool != null && mode != Mode.TEXTLEVEL_ONLY) {
+    if (checkRemoteRules && remoteRulesThreadPool != null && mode != Mode.TEXTLEVEL_ONLY) {
       // trigger remote rules to run on whole text at once, at the start, then we wait for the results
       remoteRuleTasks = new LinkedList<>();
       checkRemoteRules(remoteRulesThreadPool, rules.allRules(), analyzedSentences, mode, level,
@@ -928,7 +956,7 @@ public class JLanguageTool {
 
     long textCheckStart = System.currentTimeMillis();
     List<RuleMatch> ruleMatches = performCheck(analyzedSentences, sentences, rules,
-      paraMode, annotatedText, listener, mode, level, remoteRulesThreadPool == null);
+      paraMode, annotatedText, listener, mode, level, checkRemoteRules && remoteRulesThreadPool == null);
     long textCheckEnd = System.currentTimeMillis();
 
     fetchRemoteRuleResults(mode, level, analyzedSentences, remoteMatches, remoteRuleTasks, remoteRules,
@@ -940,7 +968,46 @@ public class JLanguageTool {
     }
 
     ruleMatches.addAll(remoteMatches);
+    return filterMatches(ruleMatches, annotatedText);
+  }
+
+  /**
+   * Check text of any size with bounded memory: the text is read and checked in chunks of
+   * complete paragraphs, and matches are passed to the listener in order once their chunk is done.
+   * Text-level rules only see the paragraphs around each chunk, even those that usually look
+   * at the complete text (like {@link GenericUnpairedBracketsRule}). Positions are relative to the
+   * complete input, use {@link #checkStream(Reader, Level, StreamChunkListener)} for inputs of
+   * {@link Integer#MAX_VALUE} characters and more.
+   * @since 5.3
+   */
+  @Experimental
+  public void checkStream(Reader reader, RuleMatchListener listener) throws IOException {
+    checkStream(reader, Level.DEFAULT, (chunk, chunkOffset, matches) -> {
+      for (RuleMatch match : matches) {
+        RuleMatch shiftedMatch = new RuleMatch(match);
+        shiftedMatch.setOffsetPosition(Math.toIntExact(chunkOffset + match.getFromPos()), Math.toIntExact(chunkOffset + match.getToPos()));
+        shiftedMatch.setPatternPosition(Math.toIntExact(chunkOffset + match.getPatternFromPos()), Math.toIntExact(chunkOffset + match.getPatternToPos()));
+        listener.matchFound(shiftedMatch);
+      }
+    });
+  }
+
+  /**
+   * Like {@link #checkStream(Reader, RuleMatchListener)}, but passes the matches chunk by chunk,
+   * together with the chunk's text.
+   * @since 5.3
+   */
+  @Experimental
+  public void checkStream(Reader reader, Level level, StreamChunkListener listener) throws IOException {
+    unknownWords = new HashSet<>();
+    new StreamCheck(this, level, listener).run(reader);
+  }
 
+  /**
+   * Apply the filters that run once over the complete list of matches of a text.
+   * @since 5.3
+   */
+  List<RuleMatch> filterMatches(List<RuleMatch> ruleMatches, AnnotatedText annotatedText) {
     // rules can create matches with rule IDs different from the original rule (see e.g. RemoteRules)
     // so while we can't avoid execution of these rules, we still want disabling them to work
     // so do another pass with ignoreRule here
@@ -960,10 +1027,16 @@ public class JLanguageTool {
 
   private final Map<Level, RuleSet> ruleSetCache = new ConcurrentHashMap<>();
 
-  private RuleSet getActiveRulesForLevel(Level level) {
+  /**
+   * The active rules that {@link #check} uses for the given level, as a rule set that can select
+   * the rules that might match a sentence.
+   * @since 5.3
+   */
+  @ApiStatus.Internal
+  public RuleSet getActiveRulesForLevel(Level level) {
     return ruleSetCache.computeIfAbsent(level, l -> {
       List<Rule> allRules = getAllActiveRules();
-      return RuleSet.textLemmaHinted(l == Level.DEFAULT ? allRules.stream().filter(rule -> !rule.hasTag(Tag.picky)).collect(Collectors.toList()) : allRules);
+      return RuleSet.compiled(l == Level.DEFAULT ? allRules.stream().filter(rule -> !rule.hasTag(Tag.picky)).collect(Collectors.toList()) : allRules);
     });
   }
 
@@ -1234,8 +1307,21 @@ public class JLanguageTool {
    */
   public List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode,
                                                List<Rule> rules, AnalyzedSentence analyzedSentence, boolean checkRemoteRules) throws IOException {
+    return checkAnalyzedSentence(paraMode, new RuleSet.Selection(rules, null), analyzedSentence, checkRemoteRules);
+  }
+
+  /**
+   * Like {@link #checkAnalyzedSentence(ParagraphHandling, List, AnalyzedSentence, boolean)}, but pattern rules
+   * only look for matches where the {@link RuleSet.Selection} says they could start.
+   * @since 5.3
+   */
+  List<RuleMatch> checkAnalyzedSentence(ParagraphHandling paraMode,
+                                        RuleSet.Selection selection, AnalyzedSentence analyzedSentence, boolean checkRemoteRules) throws IOException {
     List<RuleMatch> sentenceMatches = new ArrayList<>();
-    for (Rule rule : rules) {
+    RuleProfiler profiler = ruleProfiler != null && ruleProfiler.shouldSample() ? ruleProfiler : null;
+    List<Rule> rules = selection.getRules();
+    for (int i = 0; i < rules.size(); i++) {
+      Rule rule = rules.get(i);
       if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
         break;
       }
@@ -1249,7 +1335,16 @@ public class JLanguageTool {
       if (paraMode == ParagraphHandling.ONLYPARA) {
         continue;
       }
-      RuleMatch[] thisMatches = rule.match(analyzedSentence);
+      int[] matchStartHints = selection.getMatchStartHints(i);
+      RuleMatch[] thisMatches;
+      if (profiler != null) {
+        long startBytes = RuleProfiler.currentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        thisMatches = match(rule, analyzedSentence, matchStartHints);
+        profiler.record(rule, System.nanoTime() - startNanos, RuleProfiler.currentThreadAllocatedBytes() - startBytes, thisMatches.length);
+      } else {
+        thisMatches = match(rule, analyzedSentence, matchStartHints);
+      }
       Collections.addAll(sentenceMatches, thisMatches);
     }
     if (sentenceMatches.isEmpty()) {
@@ -1265,6 +1360,13 @@ public class JLanguageTool {
     return applyCustomFilters(new SameRuleGroupFilter().filter(sentenceMatches), text);
   }
 
+  private static RuleMatch[] match(Rule rule, AnalyzedSentence sentence, @Nullable int[] matchStartHints) throws IOException {
+    if (matchStartHints != null && rule instanceof AbstractPatternRule) {
+      return ((AbstractPatternRule) rule).match(sentence, matchStartHints);
+    }
+    return rule.match(sentence);
+  }
+
   private boolean ignoreRule(Rule rule) {
     Category ruleCategory = rule.getCategory();
     boolean isCategoryDisabled = (disabledRuleCategories.contains(ruleCategory.getId()) || rule.getCategory().isDefaultOff())
@@ -1662,6 +1764,22 @@ public class JLanguageTool {
     return transformed;
   }
 
+  /**
+   * Receives the results of {@link #checkStream(Reader, Level, StreamChunkListener)}.
+   * @since 5.3
+   */
+  @Experimental
+  public interface StreamChunkListener {
+    /**
+     * Called for each chunk of the input, in order.
+     * @param chunk the text of the chunk, consisting of complete paragraphs (unless a paragraph is very long)
+     * @param chunkOffset the position of the chunk in the complete input
+     * @param matches the matches in this chunk, sorted by position - their offsets are relative to
+     *                {@code chunk}, their line numbers are relative to the complete input
+     */
+    void chunkChecked(String chunk, long chunkOffset, List<RuleMatch> matches) throws IOException;
+  }
+
   /**
    * Callback for checking if result of {@link #check(String)} is still needed.
    */
@@ -1674,11 +1792,11 @@ public class JLanguageTool {
 
   static class SentenceData {
     final AnalyzedSentence analyzed;
-    private final String text;
-    private final int startOffset;
-    private final int startLine;
-    private final int startColumn;
-    private final int wordCount;
+    final String text;
+    final int startOffset;
+    final int startLine;
+    final int startColumn;
+    final int wordCount;
 
     SentenceData(AnalyzedSentence analyzed, String text, int startOffset, int startLine, int startColumn) {
       this.analyzed = analyzed;
@@ -1699,6 +1817,7 @@ public class JLanguageTool {
     private final RuleMatchListener listener;
     private final Mode mode;
     private final Level level;
+    private Map<String, Rule> rulesByFullId;  // for the shared result cache, created on first use
 
     TextCheckCallable(RuleSet rules, List<SentenceData> sentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText,
@@ -1734,6 +1853,7 @@ public class JLanguageTool {
     private List<RuleMatch> getTextLevelRuleMatches() throws IOException {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       List<AnalyzedSentence> analyzedSentences = null;
+      RuleProfiler profiler = ruleProfiler != null && ruleProfiler.shouldSample() ? ruleProfiler : null;
       for (Rule rule : rules.allRules()) {
         if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
           break;
@@ -1742,27 +1862,18 @@ public class JLanguageTool {
           if (analyzedSentences == null) {
             analyzedSentences = sentences.stream().map(s -> s.analyzed).collect(Collectors.toList());
           }
-          RuleMatch[] matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
+          RuleMatch[] matches;
+          if (profiler != null) {
+            long startBytes = RuleProfiler.currentThreadAllocatedBytes();
+            long startNanos = System.nanoTime();
+            matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
+            profiler.record(rule, System.nanoTime() - startNanos, RuleProfiler.currentThreadAllocatedBytes() - startBytes, matches.length);
+          } else {
+            matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
+          }
           List<RuleMatch> adaptedMatches = new ArrayList<>();
           for (RuleMatch match : matches) {
-            LineColumnPosition from = findLineColumn(match.getFromPos());
-            LineColumnPosition to = findLineColumn(match.getToPos());
-            int newFromPos;
-            int newToPos;
-            try {
-              newFromPos = annotatedText.getOriginalTextPositionFor(match.getFromPos(), false);
-              newToPos = annotatedText.getOriginalTextPositionFor(match.getToPos() - 1, true) + 1;
-            } catch (RuntimeException e) {
-              throw new RuntimeException("Getting positions failed for match " + match, e);
-            }
-            RuleMatch newMatch = new RuleMatch(match);
-            newMatch.setOffsetPosition(newFromPos, newToPos);
-            newMatch.setLine(from.line);
-            newMatch.setEndLine(to.line);
-            newMatch.setColumn(from.column - (from.line == 0 ? 1 : 0));
-            newMatch.setEndColumn(to.column - (to.line == 0 ? 1 : 0));
-            newMatch.setSuggestedReplacementObjects(extendSuggestions(match.getSuggestedReplacementObjects()));
-            adaptedMatches.add(newMatch);
+            adaptedMatches.add(adjustTextLevelRuleMatchPos(match, sentences, annotatedText));
           }
           ruleMatches.addAll(adaptedMatches);
           if (listener != null) {
@@ -1795,9 +1906,15 @@ public class JLanguageTool {
                     disabledRules, disabledRuleCategories,
                     enabledRules, enabledRuleCategories, userConfig, altLanguages, mode, level);
             sentenceMatches = cache.getIfPresent(cacheKey);
+            if (sentenceMatches == null && cache.hasSharedCache()) {
+              sentenceMatches = cache.getIfPresentInSharedCache(cacheKey, this::getRuleByFullId, sentence.analyzed);
+            }
           }
           if (sentenceMatches == null) {
-            sentenceMatches = checkAnalyzedSentence(paraMode, rules.rulesForSentence(sentence.analyzed), sentence.analyzed, checkRemoteRules);
+            sentenceMatches = checkAnalyzedSentence(paraMode, rules.selectRules(sentence.analyzed), sentence.analyzed, checkRemoteRules);
+            if (cache != null) {
+              cache.putInSharedCache(cacheKey, sentenceMatches, this::getRuleByFullId);
+            }
           }
           if (cache != null) {
             cache.put(cacheKey, sentenceMatches);
@@ -1811,15 +1928,7 @@ public class JLanguageTool {
               }
             }
           }
-          float errorsPerWord = ruleMatches.size() / (float) wordCounter;
-          //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + ruleMatches.size() + " / " + wordCounter + ")");
-          if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && wordCounter > 25) {
-            //CommonWords commonWords = new CommonWords();
-            throw new ErrorRateTooHighException("Text checking was stopped due to too many errors (more than " + String.format("%.0f", maxErrorsPerWordRate*100) +
-                    "% of words seem to have an error). Are you sure you have set the correct text language? Language set: " + JLanguageTool.this.language.getName() +
-                    ", text length: " + annotatedText.getPlainText().length());
-            //        ", text length: " + annotatedText.getPlainText().length() + ", common word count: " + commonWords.getKnownWordsPerLanguage(annotatedText.getPlainText()));
-          }
+          checkErrorRate(ruleMatches.size(), wordCounter, annotatedText);
         } catch (ErrorRateTooHighException e) {
           throw e;
         } catch (Exception e) {
@@ -1830,37 +1939,97 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
-    private LineColumnPosition findLineColumn(int offset) {
-      if (sentences.isEmpty()) return new LineColumnPosition(0, 0);
-
-      SentenceData sentence = findSentenceContaining(offset);
-      String prefix = sentence.text.substring(0, offset - sentence.startOffset);
-      return new LineColumnPosition(
-        sentence.startLine + countLineBreaks(prefix),
-        processColumnChange(sentence.startColumn, prefix));
+    private synchronized Rule getRuleByFullId(String fullId) {
+      if (rulesByFullId == null) {
+        rulesByFullId = new HashMap<>();
+        for (Rule rule : rules.allRules()) {
+          rulesByFullId.putIfAbsent(rule.getFullId(), rule);
+        }
+      }
+      return rulesByFullId.get(fullId);
     }
+  }
 
-    private SentenceData findSentenceContaining(int offset) {
-      int low = 0;
-      int high = sentences.size() - 1;
-      while (low <= high) {
-        int mid = (low + high) / 2;
-        SentenceData sentence = sentences.get(mid);
-        if (sentence.startOffset < offset) low = mid + 1;
-        else if (sentence.startOffset > offset) high = mid - 1;
-        else return sentence;
-      }
-      return sentences.get(low - 1);
+  /**
+   * Whether the {@link CheckCancelledCallback} asks to stop checking.
+   * @since 5.3
+   */
+  boolean isCheckCancelled() {
+    return checkCancelledCallback != null && checkCancelledCallback.checkCancelled();
+  }
+
+  /**
+   * @throws ErrorRateTooHighException if more words seem to have an error than {@link #setMaxErrorsPerWordRate(float)} allows
+   * @since 5.3
+   */
+  void checkErrorRate(int matchCount, int wordCount, AnnotatedText annotatedText) {
+    float errorsPerWord = matchCount / (float) wordCount;
+    //System.out.println("errorPerWord " + errorsPerWord + " (matches: " + matchCount + " / " + wordCount + ")");
+    if (maxErrorsPerWordRate > 0 && errorsPerWord > maxErrorsPerWordRate && wordCount > 25) {
+      //CommonWords commonWords = new CommonWords();
+      throw new ErrorRateTooHighException("Text checking was stopped due to too many errors (more than " + String.format("%.0f", maxErrorsPerWordRate*100) +
+              "% of words seem to have an error). Are you sure you have set the correct text language? Language set: " + language.getName() +
+              ", text length: " + annotatedText.getPlainText().length());
+      //        ", text length: " + annotatedText.getPlainText().length() + ", common word count: " + commonWords.getKnownWordsPerLanguage(annotatedText.getPlainText()));
     }
+  }
 
-    private class LineColumnPosition {
-      int line;
-      int column;
+  /**
+   * Change the positions of a {@link TextLevelRule} match, which refer to the plain text
+   * of {@code sentences}, so they refer to the original text and carry line and column.
+   * @since 5.3
+   */
+  RuleMatch adjustTextLevelRuleMatchPos(RuleMatch match, List<SentenceData> sentences, AnnotatedText annotatedText) {
+    LineColumnPosition from = findLineColumn(sentences, match.getFromPos());
+    LineColumnPosition to = findLineColumn(sentences, match.getToPos());
+    int newFromPos;
+    int newToPos;
+    try {
+      newFromPos = annotatedText.getOriginalTextPositionFor(match.getFromPos(), false);
+      newToPos = annotatedText.getOriginalTextPositionFor(match.getToPos() - 1, true) + 1;
+    } catch (RuntimeException e) {
+      throw new RuntimeException("Getting positions failed for match " + match, e);
+    }
+    RuleMatch newMatch = new RuleMatch(match);
+    newMatch.setOffsetPosition(newFromPos, newToPos);
+    newMatch.setLine(from.line);
+    newMatch.setEndLine(to.line);
+    newMatch.setColumn(from.column - (from.line == 0 ? 1 : 0));
+    newMatch.setEndColumn(to.column - (to.line == 0 ? 1 : 0));
+    newMatch.setSuggestedReplacementObjects(extendSuggestions(match.getSuggestedReplacementObjects()));
+    return newMatch;
+  }
+
+  private LineColumnPosition findLineColumn(List<SentenceData> sentences, int offset) {
+    if (sentences.isEmpty()) return new LineColumnPosition(0, 0);
+
+    SentenceData sentence = findSentenceContaining(sentences, offset);
+    String prefix = sentence.text.substring(0, offset - sentence.startOffset);
+    return new LineColumnPosition(
+      sentence.startLine + countLineBreaks(prefix),
+      processColumnChange(sentence.startColumn, prefix));
+  }
+
+  private static SentenceData findSentenceContaining(List<SentenceData> sentences, int offset) {
+    int low = 0;
+    int high = sentences.size() - 1;
+    while (low <= high) {
+      int mid = (low + high) / 2;
+      SentenceData sentence = sentences.get(mid);
+      if (sentence.startOffset < offset) low = mid + 1;
+      else if (sentence.startOffset > offset) high = mid - 1;
+      else return sentence;
+    }
+    return sentences.get(low - 1);
+  }
+
+  private static class LineColumnPosition {
+    int line;
+    int column;
 
-      private LineColumnPosition(int line, int column) {
-        this.line = line;
-        this.column = column;
-      }
+    private LineColumnPosition(int line, int column) {
+      this.line = line;
+      this.column = column;
     }
   }
 
@@ -25,6 +25,7 @@ import org.languagetool.chunking.Chunker;
 import org.languagetool.language.Contributor;
 import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.MmapLanguageModel;
 import org.languagetool.rules.RemoteRuleConfig;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.neuralnetwork.Word2VecModel;
@@ -168,7 +169,9 @@ public abstract class Language {
   protected LanguageModel initLanguageModel(File indexDir, LanguageModel languageModel) {
     if (languageModel == null) {
       File topIndexDir = new File(indexDir, getShortCode());
-      if (topIndexDir.exists()) {
+      if (topIndexDir.exists() && MmapLanguageModel.isMmapDirectory(topIndexDir)) {
+        languageModel = new MmapLanguageModel(topIndexDir);
+      } else if (topIndexDir.exists()) {
         languageModel = new LuceneLanguageModel(topIndexDir);
       } else if (noLmWarningPrinted.compareAndSet(false, true)) {
         System.err.println("WARN: ngram index dir " + topIndexDir + " not found for " + getName());
@@ -18,19 +18,17 @@
  */
 package org.languagetool;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
 import org.languagetool.rules.patterns.RuleSet;
 
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.function.Function;
 
 /**
  * A variant of {@link JLanguageTool} that uses several threads for rule matching.
@@ -44,8 +42,17 @@ import java.util.stream.IntStream;
  */
 public class MultiThreadedJLanguageTool extends JLanguageTool {
   
+  // more tasks than threads, so threads that finish early can steal work:
+  private static final int TASKS_PER_THREAD = 4;
+  // below this estimated cost, splitting the work further isn't worth it:
+  private static final double MIN_TILE_COST_NANOS = 200_000;
+  // used for rules that haven't been run yet:
+  private static final double DEFAULT_RULE_COST_NANOS = 20_000;
+
   private final int threadPoolSize;
-  private final ExecutorService threadPool;
+  private final ForkJoinPool threadPool;
+  // the measured cost of the rules in nanoseconds per sentence, used to size the tiles of work in performCheck:
+  private final Map<Rule, Double> ruleCosts = new ConcurrentHashMap<>();
 
   public MultiThreadedJLanguageTool(Language language) {
     this(language, null);
@@ -117,6 +124,8 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
   }
   
   /**
+   * The executor that analyzes and checks the sentences. If it's a {@link ForkJoinPool}, the work is
+   * split up while it runs; for other executors it's split into tasks up front.
    * @return a fixed size executor with the given number of threads
    */
   protected ExecutorService getExecutorService() {
@@ -129,38 +138,30 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
       return super.analyzeSentences(sentences);
     }
 
-    List<AnalyzedSentence> analyzedSentences = new ArrayList<>();
-    
-    ExecutorService executorService = getExecutorService();
-
-    int j = 0;
-    
-    List<Callable<AnalyzedSentence>> callables = new ArrayList<>();
-    for (String sentence : sentences) {
-      AnalyzeSentenceCallable analyzeSentenceCallable = 
-          ++j < sentences.size() 
-            ? new AnalyzeSentenceCallable(sentence)
-            : new ParagraphEndAnalyzeSentenceCallable(sentence);
-      callables.add(analyzeSentenceCallable);
+    AnalyzedSentence[] result = new AnalyzedSentence[sentences.size()];
+    int batchSize = Math.max(1, sentences.size() / (getThreadPoolSize() * TASKS_PER_THREAD));
+    AnalyzeTask task = new AnalyzeTask(sentences, result, 0, sentences.size(), batchSize);
+    ExecutorService executor = getExecutorService();
+    if (executor instanceof ForkJoinPool) {
+      ((ForkJoinPool) executor).invoke(task);
+    } else {
+      List<AnalyzeTask> batches = new ArrayList<>();
+      task.addBatches(batches);
+      runAll(executor, batches, batch -> {
+        batch.analyze();
+        return null;
+      });
     }
-    
-    try {
-      List<Future<AnalyzedSentence>> futures = executorService.invokeAll(callables);
-      for (Future<AnalyzedSentence> future : futures) {
-        AnalyzedSentence analyzedSentence = future.get();
-        rememberUnknownWords(analyzedSentence);
-        printSentenceInfo(analyzedSentence);
-        analyzedSentences.add(analyzedSentence);
-      }
-      
-    } catch (InterruptedException | ExecutionException e) {
-      throw new RuntimeException(e);
+
+    List<AnalyzedSentence> analyzedSentences = new ArrayList<>(result.length);
+    for (AnalyzedSentence analyzedSentence : result) {
+      rememberUnknownWords(analyzedSentence);
+      printSentenceInfo(analyzedSentence);
+      analyzedSentences.add(analyzedSentence);
     }
-    
     return analyzedSentences;
   }
   
-  
   @Override
   protected List<RuleMatch> performCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentenceTexts,
                                          RuleSet ruleSet, ParagraphHandling paraMode,
@@ -169,67 +170,319 @@ public class MultiThreadedJLanguageTool extends JLanguageTool {
     List<SentenceData> sentences = computeSentenceData(analyzedSentences, sentenceTexts);
 
     Map<Rule, BitSet> map = new HashMap<>();
+    // where the matches of a rule could start, by sentence, if the rule set knows that:
+    Map<Rule, Map<AnalyzedSentence, int[]>> hintsByRule = new HashMap<>();
     for (int i = 0; i < sentences.size(); i++) {
-      for (Rule rule : ruleSet.rulesForSentence(sentences.get(i).analyzed)) {
+      AnalyzedSentence sentence = sentences.get(i).analyzed;
+      RuleSet.Selection selection = ruleSet.selectRules(sentence);
+      List<Rule> selectedRules = selection.getRules();
+      for (int k = 0; k < selectedRules.size(); k++) {
+        Rule rule = selectedRules.get(k);
         map.computeIfAbsent(rule, __ -> new BitSet()).set(i);
+        int[] matchStartHints = selection.getMatchStartHints(k);
+        if (matchStartHints != null) {
+          hintsByRule.computeIfAbsent(rule, __ -> new IdentityHashMap<>()).put(sentence, matchStartHints);
+        }
       }
     }
+    List<Rule> rules = new ArrayList<>();
+    List<BitSet> applicable = new ArrayList<>();
+    List<Map<AnalyzedSentence, int[]>> startHints = new ArrayList<>();
+    double totalCost = 0;
+    for (Rule rule : allRules) {
+      BitSet bits = map.get(rule);
+      if (bits != null) {
+        rules.add(rule);
+        applicable.add(bits);
+        startHints.add(hintsByRule.get(rule));
+        totalCost += getCost(rule) * bits.cardinality();
+      }
+    }
+    if (rules.isEmpty()) {
+      return applyCustomFilters(new ArrayList<>(), annotatedText);
+    }
 
-    AtomicInteger ruleIndex = new AtomicInteger();
-    Map<Integer, List<RuleMatch>> ruleMatches = new TreeMap<>();
-    List<Future<?>> futures = IntStream.range(0, getThreadPoolSize()).mapToObj(__ -> getExecutorService().submit(() -> {
-      while (true) {
-        int index = ruleIndex.getAndIncrement();
-        if (index >= allRules.size()) return null;
-
-        Rule rule = allRules.get(index);
-        BitSet applicable = map.get(rule);
-        if (applicable == null) continue;
-
-        // less need for special treatment of remote rules when execution is already parallel
-        List<RuleMatch> matches = new TextCheckCallable(RuleSet.plain(Collections.singletonList(rule)),
-          RuleSet.filterList(applicable, sentences),
-          paraMode, annotatedText, listener, mode, level, true).call();
-        if (!matches.isEmpty()) {
-          synchronized (ruleMatches) {
-            ruleMatches.put(index, matches);
-          }
-        }
+    // enough tiles to keep all threads busy even if the cost estimates are off:
+    double maxTileCost = Math.max(MIN_TILE_COST_NANOS, totalCost / (getThreadPoolSize() * TASKS_PER_THREAD));
+    CheckContext context = new CheckContext(rules, applicable, startHints, sentences, paraMode, annotatedText, listener, mode, level, maxTileCost);
+    CheckTile tile = new CheckTile(context, 0, rules.size(), 0, sentences.size());
+    List<RuleMatch> ruleMatches;
+    ExecutorService executor = getExecutorService();
+    if (executor instanceof ForkJoinPool) {
+      ruleMatches = ((ForkJoinPool) executor).invoke(tile);
+    } else {
+      // tasks on other executors can't fork, so split into all tiles first:
+      List<CheckTile> tiles = new ArrayList<>();
+      tile.addTiles(tiles);
+      ruleMatches = new ArrayList<>();
+      for (List<RuleMatch> matches : runAll(executor, tiles, CheckTile::check)) {
+        ruleMatches.addAll(matches);
       }
-    })).collect(Collectors.toList());
+    }
+    return applyCustomFilters(ruleMatches, annotatedText);
+  }
 
+  /**
+   * Runs {@code function} on all {@code tasks} with {@code executor}, returning the results in order.
+   */
+  private static <T, R> List<R> runAll(ExecutorService executor, List<T> tasks, Function<T, R> function) {
+    List<Callable<R>> callables = new ArrayList<>(tasks.size());
+    for (T task : tasks) {
+      callables.add(() -> function.apply(task));
+    }
     try {
-      for (Future<?> future : futures) {
-        future.get();
+      List<R> results = new ArrayList<>(tasks.size());
+      for (Future<R> future : executor.invokeAll(callables)) {
+        results.add(future.get());
       }
+      return results;
     } catch (InterruptedException | ExecutionException e) {
       throw new RuntimeException(e);
     }
+  }
+
+  private double getCost(Rule rule) {
+    return ruleCosts.getOrDefault(rule, DEFAULT_RULE_COST_NANOS);
+  }
 
-    return applyCustomFilters(Lists.newArrayList(Iterables.concat(ruleMatches.values())), annotatedText);
+  private void recordCost(Rule rule, long nanos, int sentenceCount) {
+    double cost = nanos / (double) sentenceCount;
+    ruleCosts.merge(rule, cost, (oldCost, newCost) -> oldCost * 0.8 + newCost * 0.2);
   }
 
-  private class AnalyzeSentenceCallable implements Callable<AnalyzedSentence> {
-    private final String sentence;
+  private static class CheckContext {
+    private final List<Rule> rules;
+    private final List<BitSet> applicable;
+    private final List<Map<AnalyzedSentence, int[]>> startHints;
+    private final List<SentenceData> sentences;
+    private final ParagraphHandling paraMode;
+    private final AnnotatedText annotatedText;
+    private final RuleMatchListener listener;
+    private final Mode mode;
+    private final Level level;
+    private final double maxTileCost;
+
+    private CheckContext(List<Rule> rules, List<BitSet> applicable, List<Map<AnalyzedSentence, int[]>> startHints,
+                         List<SentenceData> sentences, ParagraphHandling paraMode,
+                         AnnotatedText annotatedText, RuleMatchListener listener, Mode mode, Level level, double maxTileCost) {
+      this.rules = rules;
+      this.applicable = applicable;
+      this.startHints = startHints;
+      this.sentences = sentences;
+      this.paraMode = paraMode;
+      this.annotatedText = annotatedText;
+      this.listener = listener;
+      this.mode = mode;
+      this.level = level;
+      this.maxTileCost = maxTileCost;
+    }
+  }
+
+  /**
+   * Checks the rules {@code [ruleFrom, ruleTo)} on the sentences {@code [sentenceFrom, sentenceTo)}.
+   * Tiles that are too expensive are split in two, first by rules and then, for a single
+   * sentence-level rule, by sentences. The matches of both halves are concatenated, so no
+   * shared result structure is needed.
+   */
+  private class CheckTile extends RecursiveTask<List<RuleMatch>> {
+    private final CheckContext ctx;
+    private final int ruleFrom;
+    private final int ruleTo;
+    private final int sentenceFrom;
+    private final int sentenceTo;
 
-    private AnalyzeSentenceCallable(String sentence) {
-      this.sentence = sentence;
+    private CheckTile(CheckContext ctx, int ruleFrom, int ruleTo, int sentenceFrom, int sentenceTo) {
+      this.ctx = ctx;
+      this.ruleFrom = ruleFrom;
+      this.ruleTo = ruleTo;
+      this.sentenceFrom = sentenceFrom;
+      this.sentenceTo = sentenceTo;
     }
 
     @Override
-    public AnalyzedSentence call() throws Exception {
-      return getAnalyzedSentence(sentence);
+    protected List<RuleMatch> compute() {
+      CheckTile[] halves = split();
+      if (halves == null) {
+        return check();
+      }
+      CheckTile left = halves[0];
+      CheckTile right = halves[1];
+      left.fork();
+      List<RuleMatch> rightMatches = right.compute();
+      List<RuleMatch> leftMatches = left.join();
+      if (rightMatches.isEmpty()) {
+        return leftMatches;
+      } else if (leftMatches.isEmpty()) {
+        return rightMatches;
+      }
+      List<RuleMatch> result = new ArrayList<>(leftMatches.size() + rightMatches.size());
+      result.addAll(leftMatches);
+      result.addAll(rightMatches);
+      return result;
+    }
+
+    /**
+     * Adds the tiles that {@link #compute} would check, in order.
+     */
+    private void addTiles(List<CheckTile> tiles) {
+      CheckTile[] halves = split();
+      if (halves == null) {
+        tiles.add(this);
+      } else {
+        halves[0].addTiles(tiles);
+        halves[1].addTiles(tiles);
+      }
+    }
+
+    /**
+     * @return the two halves of this tile, or {@code null} if it's cheap enough or can't be split
+     */
+    @Nullable
+    private CheckTile[] split() {
+      double cost = 0;
+      for (int i = ruleFrom; i < ruleTo; i++) {
+        cost += cost(i);
+      }
+      if (cost <= ctx.maxTileCost) {
+        return null;
+      }
+      if (ruleTo - ruleFrom > 1) {
+        int mid = splitRulesByCost();
+        return new CheckTile[]{new CheckTile(ctx, ruleFrom, mid, sentenceFrom, sentenceTo),
+                               new CheckTile(ctx, mid, ruleTo, sentenceFrom, sentenceTo)};
+      } else if (sentenceTo - sentenceFrom > 1 && !(ctx.rules.get(ruleFrom) instanceof TextLevelRule)) {
+        // text-level rules need all sentences at once, so only sentence-level rules get split here
+        int mid = (sentenceFrom + sentenceTo) >>> 1;
+        return new CheckTile[]{new CheckTile(ctx, ruleFrom, ruleTo, sentenceFrom, mid),
+                               new CheckTile(ctx, ruleFrom, ruleTo, mid, sentenceTo)};
+      }
+      return null;
+    }
+
+    private double cost(int ruleIndex) {
+      return getCost(ctx.rules.get(ruleIndex)) * ctx.applicable.get(ruleIndex).get(sentenceFrom, sentenceTo).cardinality();
+    }
+
+    private int splitRulesByCost() {
+      double[] costs = new double[ruleTo - ruleFrom];
+      double total = 0;
+      for (int i = ruleFrom; i < ruleTo; i++) {
+        costs[i - ruleFrom] = cost(i);
+        total += costs[i - ruleFrom];
+      }
+      double sum = 0;
+      for (int i = ruleFrom; i < ruleTo - 1; i++) {
+        sum += costs[i - ruleFrom];
+        if (sum >= total / 2) {
+          return i + 1;
+        }
+      }
+      return ruleTo - 1;
+    }
+
+    private List<RuleMatch> check() {
+      List<RuleMatch> result = new ArrayList<>();
+      List<SentenceData> tileSentences = ctx.sentences.subList(sentenceFrom, sentenceTo);
+      for (int i = ruleFrom; i < ruleTo; i++) {
+        Rule rule = ctx.rules.get(i);
+        BitSet applicable = ctx.applicable.get(i).get(sentenceFrom, sentenceTo);
+        if (applicable.isEmpty()) {
+          continue;
+        }
+        long startTime = System.nanoTime();
+        try {
+          // less need for special treatment of remote rules when execution is already parallel
+          result.addAll(new TextCheckCallable(singleRuleSet(rule, ctx.startHints.get(i)),
+            RuleSet.filterList(applicable, tileSentences),
+            ctx.paraMode, ctx.annotatedText, ctx.listener, ctx.mode, ctx.level, true).call());
+        } catch (RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+        recordCost(rule, System.nanoTime() - startTime, applicable.cardinality());
+      }
+      return result;
     }
   }
-  
-  private final class ParagraphEndAnalyzeSentenceCallable extends AnalyzeSentenceCallable {
-    private ParagraphEndAnalyzeSentenceCallable(String sentence) {
-      super(sentence);
+
+  /**
+   * A rule set of just {@code rule} that keeps the match start hints found by the original rule set.
+   */
+  private static RuleSet singleRuleSet(Rule rule, @Nullable Map<AnalyzedSentence, int[]> matchStartHints) {
+    List<Rule> rules = Collections.singletonList(rule);
+    if (matchStartHints == null) {
+      return RuleSet.plain(rules);
+    }
+    return new RuleSet() {
+      @Override
+      public List<Rule> allRules() {
+        return rules;
+      }
+
+      @Override
+      public List<Rule> rulesForSentence(AnalyzedSentence sentence) {
+        return rules;
+      }
+
+      @Override
+      public Selection selectRules(AnalyzedSentence sentence) {
+        return new Selection(rules, new int[][]{matchStartHints.get(sentence)});
+      }
+    };
+  }
+
+  /**
+   * Analyzes the sentences {@code [from, to)}, splitting the range in two while it's larger than the batch size.
+   */
+  private class AnalyzeTask extends RecursiveAction {
+    private final List<String> sentences;
+    private final AnalyzedSentence[] result;
+    private final int from;
+    private final int to;
+    private final int batchSize;
+
+    private AnalyzeTask(List<String> sentences, AnalyzedSentence[] result, int from, int to, int batchSize) {
+      this.sentences = sentences;
+      this.result = result;
+      this.from = from;
+      this.to = to;
+      this.batchSize = batchSize;
     }
 
     @Override
-    public AnalyzedSentence call() throws Exception {
-      return markAsParagraphEnd(super.call());
+    protected void compute() {
+      if (to - from > batchSize) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new AnalyzeTask(sentences, result, from, mid, batchSize),
+                  new AnalyzeTask(sentences, result, mid, to, batchSize));
+        return;
+      }
+      analyze();
+    }
+
+    /**
+     * Adds the batches that {@link #compute} would analyze.
+     */
+    private void addBatches(List<AnalyzeTask> batches) {
+      if (to - from > batchSize) {
+        int mid = (from + to) >>> 1;
+        new AnalyzeTask(sentences, result, from, mid, batchSize).addBatches(batches);
+        new AnalyzeTask(sentences, result, mid, to, batchSize).addBatches(batches);
+      } else {
+        batches.add(this);
+      }
+    }
+
+    private void analyze() {
+      try {
+        for (int i = from; i < to; i++) {
+          AnalyzedSentence analyzedSentence = getAnalyzedSentence(sentences.get(i));
+          result[i] = i == sentences.size() - 1 ? markAsParagraphEnd(analyzedSentence) : analyzedSentence;
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
     }
   }
 }
@@ -21,11 +21,18 @@ package org.languagetool;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
  * A cache to speed up text checking for use cases where sentences are checked more than once. This
@@ -36,10 +43,16 @@ import java.util.concurrent.TimeUnit;
  * Using a cache with bitext rules isn't supported either.
  * It is okay however, to use the same cache for {@link JLanguageTool} objects with different languages, as
  * cached results are not used for a different language.
+ * Optionally, a {@link SharedResultCache} can be used as a second tier for sentence matches: it's
+ * asked when a sentence isn't in the local cache and filled in the background with newly
+ * computed matches.
  * @since 3.7
  */
 public class ResultCache {
 
+  private static final Logger logger = LoggerFactory.getLogger(ResultCache.class);
+  private static final int SHARED_CACHE_QUEUE_SIZE = 1000;
+
   /**
    * rules can fail individually, results can be partial ->
    * store list if success (can be empty), null -> failure/not checked
@@ -48,6 +61,15 @@ public class ResultCache {
   private final Cache<InputSentence, List<RuleMatch>> matchesCache;
   private final Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache;
 
+  @Nullable
+  private final SharedResultCache sharedCache;
+  @Nullable
+  private final ExecutorService sharedCacheWriter;
+  private final LongAdder sharedHits = new LongAdder();
+  private final LongAdder sharedMisses = new LongAdder();
+  private final LongAdder sharedErrors = new LongAdder();
+  private final LongAdder sharedDroppedWrites = new LongAdder();
+
   /**
    * Create a cache that expires items 5 minutes after the latest read access.
    * @param maxSize maximum cache size in number of sentences
@@ -61,6 +83,17 @@ public class ResultCache {
    * @param expireAfter time to expire sentences from the cache after last read access 
    */
   public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit) {
+    this(maxSize, expireAfter, timeUnit, null);
+  }
+
+  /**
+   * @param maxSize maximum cache size in number of sentences
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @param sharedCache a second tier for sentence matches, or {@code null}
+   * @since 5.3
+   */
+  @Experimental
+  public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit, @Nullable SharedResultCache sharedCache) {
     if (maxSize < 0) {
       throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
     }
@@ -79,6 +112,16 @@ public class ResultCache {
             recordStats().
             expireAfterAccess(expireAfter, timeUnit).
             build();
+    this.sharedCache = sharedCache;
+    if (sharedCache != null) {
+      // writes are best effort: if the shared tier can't keep up, skip entries instead of piling them up
+      sharedCacheWriter = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(SHARED_CACHE_QUEUE_SIZE),
+        new ThreadFactoryBuilder().setNameFormat("lt-shared-cache-writer-%d").setDaemon(true).build(),
+        (task, executor) -> sharedDroppedWrites.increment());
+    } else {
+      sharedCacheWriter = null;
+    }
   }
   
   class MatchesWeigher implements Weigher<InputSentence, List<RuleMatch>> {
@@ -134,6 +177,94 @@ public class ResultCache {
     sentenceCache.put(key, aSentence);
   }
 
+  boolean hasSharedCache() {
+    return sharedCache != null;
+  }
+
+  /**
+   * Look up the matches of a sentence in the shared tier and add them to the local tier if found.
+   * @param rules the active rules by full id, to restore the matches
+   * @param sentence the analyzed form of the sentence
+   * @return {@code null} if there's no shared tier or no usable entry in it
+   */
+  @Nullable
+  List<RuleMatch> getIfPresentInSharedCache(InputSentence key, Function<String, Rule> rules, AnalyzedSentence sentence) {
+    if (sharedCache == null) {
+      return null;
+    }
+    String sharedKey = key.getSharedCacheKey();
+    if (sharedKey == null) {
+      return null;
+    }
+    try {
+      byte[] data = sharedCache.get(sharedKey);
+      List<RuleMatch> matches = data != null ? ResultCacheSerializer.deserialize(data, rules, sentence) : null;
+      if (matches == null) {
+        sharedMisses.increment();
+        return null;
+      }
+      sharedHits.increment();
+      matchesCache.put(key, matches);
+      return matches;
+    } catch (Exception e) {
+      sharedErrors.increment();
+      logger.warn("Could not read from shared result cache", e);
+      return null;
+    }
+  }
+
+  /**
+   * Add newly computed matches of a sentence to the shared tier, asynchronously. Does nothing
+   * if there's no shared tier.
+   * @param rules the active rules by full id
+   */
+  void putInSharedCache(InputSentence key, List<RuleMatch> sentenceMatches, Function<String, Rule> rules) {
+    if (sharedCacheWriter == null) {
+      return;
+    }
+    String sharedKey = key.getSharedCacheKey();
+    if (sharedKey == null) {
+      return;
+    }
+    sharedCacheWriter.execute(() -> {
+      try {
+        byte[] data = ResultCacheSerializer.serialize(sentenceMatches, rules);
+        if (data != null) {
+          sharedCache.put(sharedKey, data);
+        }
+      } catch (Exception e) {
+        sharedErrors.increment();
+        logger.warn("Could not write to shared result cache", e);
+      }
+    });
+  }
+
+  /** @since 5.3 */
+  public long getSharedHitCount() {
+    return sharedHits.sum();
+  }
+
+  /** @since 5.3 */
+  public long getSharedMissCount() {
+    return sharedMisses.sum();
+  }
+
+  /**
+   * Number of failed reads from or writes to the shared tier.
+   * @since 5.3
+   */
+  public long getSharedErrorCount() {
+    return sharedErrors.sum();
+  }
+
+  /**
+   * Number of writes to the shared tier skipped because too many were pending.
+   * @since 5.3
+   */
+  public long getSharedDroppedWriteCount() {
+    return sharedDroppedWrites.sum();
+  }
+
   /** @since 4.1 */
   public Cache<InputSentence, List<RuleMatch>> getMatchesCache() {
     return matchesCache;
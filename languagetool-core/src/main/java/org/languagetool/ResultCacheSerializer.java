@@ -0,0 +1,219 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Compact binary form of the rule matches of one sentence, as stored in a {@link SharedResultCache}.
+ * Rules are stored by their full id and resolved against the active rules when reading, the
+ * analyzed sentence is not stored at all but taken from the reading process.
+ * @since 5.3
+ */
+final class ResultCacheSerializer {
+
+  private static final byte FORMAT_VERSION = 1;
+
+  private ResultCacheSerializer() {
+  }
+
+  /**
+   * @param rules the active rules by full id
+   * @return {@code null} if a match refers to a rule that {@code rules} doesn't resolve to
+   *   the very same object, as such a match couldn't be restored faithfully, or if a match's
+   *   suggestions haven't been computed yet, as this is called in the background and computing
+   *   suggestions that may never be needed is too expensive
+   */
+  @Nullable
+  static byte[] serialize(List<RuleMatch> matches, Function<String, Rule> rules) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + matches.size() * 128);
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeByte(FORMAT_VERSION);
+    writeVarInt(out, matches.size());
+    for (RuleMatch match : matches) {
+      Rule rule = match.getRule();
+      if (rules.apply(rule.getFullId()) != rule || !match.areSuggestionsComputed()) {
+        return null;
+      }
+      writeString(out, rule.getFullId());
+      writeVarInt(out, match.getFromPos());
+      writeVarInt(out, match.getToPos());
+      writeVarInt(out, match.getPatternFromPos());
+      writeVarInt(out, match.getPatternToPos());
+      // line and column are -1 when not set:
+      writeVarInt(out, match.getLine() + 1);
+      writeVarInt(out, match.getEndLine() + 1);
+      writeVarInt(out, match.getColumn() + 1);
+      writeVarInt(out, match.getEndColumn() + 1);
+      writeString(out, match.getMessage());
+      writeString(out, match.getShortMessage());
+      writeString(out, match.getUrl() != null ? match.getUrl().toString() : null);
+      out.writeByte(match.getType().ordinal());
+      out.writeBoolean(match.isAutoCorrect());
+      writeFeatures(out, match.getFeatures());
+      List<SuggestedReplacement> replacements = match.getSuggestedReplacementObjects();
+      writeVarInt(out, replacements.size());
+      for (SuggestedReplacement replacement : replacements) {
+        writeString(out, replacement.getReplacement());
+        writeString(out, replacement.getShortDescription());
+        writeString(out, replacement.getSuffix());
+        Float confidence = replacement.getConfidence();
+        out.writeBoolean(confidence != null);
+        if (confidence != null) {
+          out.writeFloat(confidence);
+        }
+        out.writeByte(replacement.getType().ordinal());
+        writeFeatures(out, replacement.getFeatures());
+      }
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @param rules the active rules by full id
+   * @param sentence the sentence the matches refer to
+   * @return {@code null} if the data uses another format version or refers to a rule that {@code rules} doesn't know
+   */
+  @Nullable
+  static List<RuleMatch> deserialize(byte[] data, Function<String, Rule> rules, AnalyzedSentence sentence) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    if (in.readByte() != FORMAT_VERSION) {
+      return null;
+    }
+    int matchCount = readVarInt(in);
+    List<RuleMatch> matches = new ArrayList<>(matchCount);
+    for (int i = 0; i < matchCount; i++) {
+      Rule rule = rules.apply(readString(in));
+      if (rule == null) {
+        return null;
+      }
+      int fromPos = readVarInt(in);
+      int toPos = readVarInt(in);
+      int patternFromPos = readVarInt(in);
+      int patternToPos = readVarInt(in);
+      int line = readVarInt(in) - 1;
+      int endLine = readVarInt(in) - 1;
+      int column = readVarInt(in) - 1;
+      int endColumn = readVarInt(in) - 1;
+      String message = readString(in);
+      String shortMessage = readString(in);
+      RuleMatch match = new RuleMatch(rule, sentence, fromPos, toPos, patternFromPos, patternToPos, message, shortMessage);
+      match.setLine(line);
+      match.setEndLine(endLine);
+      match.setColumn(column);
+      match.setEndColumn(endColumn);
+      String url = readString(in);
+      if (url != null) {
+        match.setUrl(new URL(url));
+      }
+      match.setType(RuleMatch.Type.values()[in.readByte()]);
+      match.setAutoCorrect(in.readBoolean());
+      match.setFeatures(readFeatures(in));
+      int replacementCount = readVarInt(in);
+      List<SuggestedReplacement> replacements = new ArrayList<>(replacementCount);
+      for (int j = 0; j < replacementCount; j++) {
+        SuggestedReplacement replacement = new SuggestedReplacement(readString(in), readString(in), readString(in));
+        if (in.readBoolean()) {
+          replacement.setConfidence(in.readFloat());
+        }
+        replacement.setType(SuggestedReplacement.SuggestionType.values()[in.readByte()]);
+        replacement.setFeatures(readFeatures(in));
+        replacements.add(replacement);
+      }
+      match.setSuggestedReplacementObjects(replacements);
+      matches.add(match);
+    }
+    return matches;
+  }
+
+  private static void writeFeatures(DataOutput out, Map<String, Float> features) throws IOException {
+    writeVarInt(out, features.size());
+    for (Map.Entry<String, Float> entry : features.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeFloat(entry.getValue());
+    }
+  }
+
+  private static SortedMap<String, Float> readFeatures(DataInput in) throws IOException {
+    int size = readVarInt(in);
+    if (size == 0) {
+      return Collections.emptySortedMap();
+    }
+    SortedMap<String, Float> features = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      features.put(readString(in), in.readFloat());
+    }
+    return features;
+  }
+
+  // length + 1, so that 0 can stand for null; unlike writeUTF(), this has no 64k limit
+  private static void writeString(DataOutput out, @Nullable String s) throws IOException {
+    if (s == null) {
+      writeVarInt(out, 0);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(out, bytes.length + 1);
+      out.write(bytes);
+    }
+  }
+
+  @Nullable
+  private static String readString(DataInput in) throws IOException {
+    int length = readVarInt(in) - 1;
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeVarInt(DataOutput out, int value) throws IOException {
+    if (value < 0) {
+      throw new IllegalArgumentException("Negative value: " + value);
+    }
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable-length integer");
+  }
+}
@@ -0,0 +1,45 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A second tier for {@link ResultCache} that can be shared by several processes,
+ * e.g. all nodes of a server cluster, so that a sentence checked on one node
+ * doesn't need to be checked again on another one. Entries are opaque byte arrays
+ * stored under a key that is stable across processes and LanguageTool versions
+ * never share keys. Implementations must be thread-safe. {@link #get(String)} is
+ * called on the checking thread and should return quickly, giving up (and returning
+ * {@code null}) instead of waiting long for a slow backend. {@link #put(String, byte[])}
+ * is called from a background thread.
+ * @since 5.3
+ */
+@Experimental
+public interface SharedResultCache {
+
+  /**
+   * @return the value stored for {@code key}, or {@code null} if there's none or the backend isn't available
+   */
+  @Nullable
+  byte[] get(String key);
+
+  void put(String key, byte[] value);
+
+}
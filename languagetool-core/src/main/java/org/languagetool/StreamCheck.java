@@ -0,0 +1,197 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.JLanguageTool.Level;
+import org.languagetool.JLanguageTool.Mode;
+import org.languagetool.JLanguageTool.ParagraphHandling;
+import org.languagetool.JLanguageTool.SentenceData;
+import org.languagetool.JLanguageTool.StreamChunkListener;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+import org.languagetool.rules.patterns.RuleSet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The implementation of {@link JLanguageTool#checkStream(Reader, Level, StreamChunkListener)}:
+ * the input is split into chunks of complete paragraphs, each chunk is analyzed and checked
+ * as a whole (in parallel for a {@link MultiThreadedJLanguageTool}), and text-level rules
+ * see the chunk together with the chunks around it. Only those chunks are kept in memory.
+ */
+class StreamCheck {
+
+  /** chunks end at the first paragraph end after this many characters */
+  static final int CHUNK_SIZE = 50_000;
+  /** chunks without a paragraph end are cut at a sentence end after this many characters */
+  static final int MAX_CHUNK_SIZE = 1_000_000;
+
+  private final JLanguageTool lt;
+  private final Level level;
+  private final StreamChunkListener listener;
+  private final RuleSet rules;
+  private final List<TextLevelRule> textLevelRules = new ArrayList<>();
+  private final int contextChunks;
+  // the chunks not emitted yet plus the ones needed as context for them:
+  private final List<Chunk> window = new ArrayList<>();
+  private int nextToEmit = 0;
+  private long offset = 0;
+  private int line = 0;
+
+  StreamCheck(JLanguageTool lt, Level level, StreamChunkListener listener) {
+    this.lt = lt;
+    this.level = level;
+    this.listener = listener;
+    this.rules = lt.getActiveRulesForLevel(level);
+    int maxParagraphs = 1;
+    for (Rule rule : rules.allRules()) {
+      if (rule instanceof TextLevelRule) {
+        textLevelRules.add((TextLevelRule) rule);
+        // rules that want the full text (-1) only get to see the context window
+        maxParagraphs = Math.max(maxParagraphs, ((TextLevelRule) rule).minToCheckParagraph());
+      }
+    }
+    // every chunk has at least one paragraph, so this is enough context:
+    this.contextChunks = maxParagraphs;
+  }
+
+  void run(Reader reader) throws IOException {
+    char[] buffer = new char[8192];
+    StringBuilder sb = new StringBuilder();
+    int len;
+    while ((len = reader.read(buffer)) != -1) {
+      sb.append(buffer, 0, len);
+      while (sb.length() >= CHUNK_SIZE) {
+        int end = getChunkEnd(sb);
+        if (end <= 0) {
+          break;
+        }
+        addChunk(sb.substring(0, end));
+        sb.delete(0, end);
+      }
+    }
+    if (sb.length() > 0) {
+      addChunk(sb.toString());
+    }
+    while (nextToEmit < window.size()) {
+      emit(nextToEmit++);
+    }
+  }
+
+  private int getChunkEnd(StringBuilder sb) {
+    int end;
+    if (lt.getLanguage().getSentenceTokenizer().singleLineBreaksMarksPara()) {
+      int pos = sb.lastIndexOf("\n");
+      end = pos == -1 ? -1 : pos + 1;
+    } else {
+      int pos = sb.lastIndexOf("\n\n");
+      int crPos = sb.lastIndexOf("\n\r\n");
+      end = Math.max(pos == -1 ? -1 : pos + 2, crPos == -1 ? -1 : crPos + 3);
+    }
+    if (end <= 0 && sb.length() >= MAX_CHUNK_SIZE) {
+      List<String> sentences = lt.sentenceTokenize(sb.toString());
+      // the last sentence might continue in the input not read yet:
+      end = sentences.size() > 1 ? sb.length() - sentences.get(sentences.size() - 1).length() : sb.length();
+    }
+    return end;
+  }
+
+  private void addChunk(String text) throws IOException {
+    List<String> sentences = lt.sentenceTokenize(text);
+    List<AnalyzedSentence> analyzed = lt.analyzeSentences(sentences);
+    AnnotatedText annotatedText = new AnnotatedTextBuilder().addText(text).build();
+    List<RuleMatch> sentenceMatches = lt.performCheck(analyzed, sentences, rules, ParagraphHandling.NORMAL,
+      annotatedText, null, Mode.ALL_BUT_TEXTLEVEL_ONLY, level, true);
+    window.add(new Chunk(text, offset, line, sentences, analyzed, annotatedText, sentenceMatches));
+    offset += text.length();
+    line += JLanguageTool.countLineBreaks(text);
+    while (nextToEmit + contextChunks < window.size()) {
+      emit(nextToEmit++);
+    }
+    while (nextToEmit > contextChunks) {
+      window.remove(0);
+      nextToEmit--;
+    }
+  }
+
+  private void emit(int index) throws IOException {
+    Chunk chunk = window.get(index);
+    List<RuleMatch> matches = new ArrayList<>(chunk.sentenceMatches);
+    if (!textLevelRules.isEmpty()) {
+      List<AnalyzedSentence> context = new ArrayList<>();
+      StringBuilder contextText = new StringBuilder();
+      int chunkStart = 0;
+      for (int i = Math.max(0, index - contextChunks); i < Math.min(window.size(), index + contextChunks + 1); i++) {
+        if (i == index) {
+          chunkStart = contextText.length();
+        }
+        context.addAll(window.get(i).analyzed);
+        contextText.append(window.get(i).text);
+      }
+      AnnotatedText contextAnnotatedText = new AnnotatedTextBuilder().addText(contextText.toString()).build();
+      int chunkEnd = chunkStart + chunk.text.length();
+      List<SentenceData> sentences = lt.computeSentenceData(chunk.analyzed, chunk.sentences);
+      for (TextLevelRule rule : textLevelRules) {
+        for (RuleMatch match : rule.match(context, contextAnnotatedText)) {
+          // matches in the context chunks are emitted with their own chunk
+          if (match.getFromPos() >= chunkStart && match.getToPos() <= chunkEnd) {
+            RuleMatch chunkMatch = new RuleMatch(match);
+            chunkMatch.setOffsetPosition(match.getFromPos() - chunkStart, match.getToPos() - chunkStart);
+            chunkMatch.setPatternPosition(match.getPatternFromPos() - chunkStart, match.getPatternToPos() - chunkStart);
+            matches.add(lt.adjustTextLevelRuleMatchPos(chunkMatch, sentences, chunk.annotatedText));
+          }
+        }
+      }
+    }
+    matches = lt.filterMatches(matches, chunk.annotatedText);
+    for (RuleMatch match : matches) {
+      match.setLine(match.getLine() + chunk.startLine);
+      match.setEndLine(match.getEndLine() + chunk.startLine);
+    }
+    listener.chunkChecked(chunk.text, chunk.offset, matches);
+  }
+
+  private static class Chunk {
+    private final String text;
+    private final long offset;
+    private final int startLine;
+    private final List<String> sentences;
+    private final List<AnalyzedSentence> analyzed;
+    private final AnnotatedText annotatedText;
+    private final List<RuleMatch> sentenceMatches;
+
+    Chunk(String text, long offset, int startLine, List<String> sentences, List<AnalyzedSentence> analyzed,
+          AnnotatedText annotatedText, List<RuleMatch> sentenceMatches) {
+      this.text = text;
+      this.offset = offset;
+      this.startLine = startLine;
+      this.sentences = sentences;
+      this.analyzed = analyzed;
+      this.annotatedText = annotatedText;
+      this.sentenceMatches = sentenceMatches;
+    }
+  }
+
+}
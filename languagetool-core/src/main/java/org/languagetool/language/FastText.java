@@ -28,6 +28,8 @@ import java.util.*;
 import static org.languagetool.language.LanguageIdentifier.canLanguageBeDetected;
 
 /**
+ * Language identification with a fastText model, either in-process with {@link FastTextModel} or
+ * by talking to an external {@code fasttext predict-prob} process.
  * @since 5.0
  */
 public class FastText {
@@ -35,19 +37,53 @@ public class FastText {
   private static final Logger logger = LoggerFactory.getLogger(FastText.class);
   private static final int K_HIGHEST_SCORES = 5;
 
+  private final FastTextModel model;
   private final Process fasttextProcess;
   private final BufferedReader fasttextIn;
   private final BufferedWriter fasttextOut;
 
+  /**
+   * Use an external fasttext process.
+   */
   public FastText(File modelPath, File binaryPath) throws IOException {
+    model = null;
     fasttextProcess = new ProcessBuilder(binaryPath.getPath(), "predict-prob", modelPath.getPath(), "-", "" + K_HIGHEST_SCORES).start();
     fasttextIn = new BufferedReader(new InputStreamReader(fasttextProcess.getInputStream(), StandardCharsets.UTF_8));
     fasttextOut = new BufferedWriter(new OutputStreamWriter(fasttextProcess.getOutputStream(), StandardCharsets.UTF_8));
   }
 
+  /**
+   * Load the model (a non-quantized {@code .bin} file) and run it in-process.
+   * @since 5.3
+   */
+  public FastText(File modelPath) throws IOException {
+    this(FastTextModel.load(modelPath));
+  }
+
+  /**
+   * @since 5.3
+   */
+  public FastText(FastTextModel model) {
+    this.model = Objects.requireNonNull(model);
+    fasttextProcess = null;
+    fasttextIn = null;
+    fasttextOut = null;
+  }
+
+  /**
+   * Whether the model runs in this JVM instead of an external process.
+   * @since 5.3
+   */
+  public boolean isInProcess() {
+    return model != null;
+  }
+
   public Map<String, Double> runFasttext(String text, List<String> additionalLanguageCodes) throws IOException {
-    Map<String, Double> probabilities = new HashMap<>();
     String joined = text.replace("\n", " ");
+    if (model != null) {
+      return toLanguageCodes(model.predict(joined, K_HIGHEST_SCORES), additionalLanguageCodes);
+    }
+    Map<String, Double> probabilities = new HashMap<>();
     String buffer;
     synchronized (this) {
       fasttextOut.write(joined);
@@ -85,8 +121,45 @@ public class FastText {
     return probabilities;
   }
 
+  /**
+   * Like {@link #runFasttext(String, List)} for several texts. In-process, the texts are scored
+   * in one go; with an external process, they are sent one after the other.
+   * @since 5.3
+   */
+  public List<Map<String, Double>> runFasttext(List<String> texts, List<String> additionalLanguageCodes) throws IOException {
+    List<Map<String, Double>> result = new ArrayList<>(texts.size());
+    if (model != null) {
+      List<String> joined = new ArrayList<>(texts.size());
+      for (String text : texts) {
+        joined.add(text.replace("\n", " "));
+      }
+      for (Map<String, Double> labelToProb : model.predict(joined, K_HIGHEST_SCORES)) {
+        result.add(toLanguageCodes(labelToProb, additionalLanguageCodes));
+      }
+    } else {
+      for (String text : texts) {
+        result.add(runFasttext(text, additionalLanguageCodes));
+      }
+    }
+    return result;
+  }
+
+  private static Map<String, Double> toLanguageCodes(Map<String, Double> labelToProb, List<String> additionalLanguageCodes) {
+    Map<String, Double> probabilities = new HashMap<>();
+    for (Map.Entry<String, Double> entry : labelToProb.entrySet()) {
+      String lang = entry.getKey();
+      String langCode = lang.substring(lang.lastIndexOf("__") + 2);
+      if (canLanguageBeDetected(langCode, additionalLanguageCodes)) {
+        probabilities.put(langCode, entry.getValue());
+      }
+    }
+    return probabilities;
+  }
+
   void destroy() {
-    fasttextProcess.destroy();
+    if (fasttextProcess != null) {
+      fasttextProcess.destroy();
+    }
   }
 
 }
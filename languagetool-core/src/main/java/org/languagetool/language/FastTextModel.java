@@ -0,0 +1,527 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import org.languagetool.Experimental;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * In-process inference for supervised fastText models in the {@code .bin} format, e.g. {@code lid.176.bin}
+ * from <a href="https://fasttext.cc/docs/en/language-identification.html">fasttext.cc</a>. Reproduces
+ * what {@code fasttext predict-prob} computes: the input rows of all words, character n-grams and word
+ * n-grams of a line are averaged and fed through the output layer (softmax, hierarchical softmax or
+ * one-vs-all). Quantized models ({@code .ftz}) are not supported.
+ * <p>The model is immutable after loading, so a single instance can be used by any number of threads.
+ * @since 5.3
+ */
+@Experimental
+public final class FastTextModel {
+
+  private static final int MAGIC = 793712314;
+  private static final int MAX_VERSION = 12;
+  private static final int LOSS_HS = 1;
+  private static final int LOSS_SOFTMAX = 3;
+  private static final int MODEL_SUPERVISED = 3;
+  private static final int TYPE_WORD = 0;
+  private static final String EOS = "</s>";
+  private static final String LABEL_PREFIX = "__label__";
+  private static final int FNV_OFFSET = (int) 2166136261L;
+  private static final int FNV_PRIME = 16777619;
+
+  private final int dim;
+  private final int wordNgrams;
+  private final int loss;
+  private final int bucket;
+  private final int minn;
+  private final int maxn;
+  private final int nwords;
+  private final long pruneIdxSize;
+  private final Map<String, Integer> wordIds;
+  private final String[] labels;
+  private final float[] input;   // (nwords + bucket) x dim
+  private final float[] output;  // nlabels x dim
+  private final int[] treeLeft;  // hierarchical softmax only
+  private final int[] treeRight;
+
+  private FastTextModel(DataReader in) throws IOException {
+    int magic = in.readInt();
+    int version = in.readInt();
+    if (magic != MAGIC || version > MAX_VERSION) {
+      throw new IOException("Not a fastText model file or unsupported version (magic: " + magic + ", version: " + version + ")");
+    }
+    dim = in.readInt();
+    in.readInt();  // ws
+    in.readInt();  // epoch
+    in.readInt();  // minCount
+    in.readInt();  // neg
+    wordNgrams = in.readInt();
+    loss = in.readInt();
+    int model = in.readInt();
+    bucket = in.readInt();
+    minn = in.readInt();
+    int maxnValue = in.readInt();
+    in.readInt();  // lrUpdateRate
+    in.readDouble();  // t
+    if (model != MODEL_SUPERVISED) {
+      throw new IOException("Only supervised fastText models can be used for prediction, got model type " + model);
+    }
+    // fastText 0.1.0 files did not use character n-grams for supervised models:
+    maxn = version == 11 ? 0 : maxnValue;
+
+    int size = in.readInt();
+    nwords = in.readInt();
+    int nlabels = in.readInt();
+    in.readLong();  // ntokens
+    pruneIdxSize = in.readLong();
+    wordIds = new HashMap<>(nwords * 4 / 3 + 1);
+    labels = new String[nlabels];
+    long[] labelCounts = new long[nlabels];
+    for (int i = 0; i < size; i++) {
+      String entry = in.readCString();
+      long count = in.readLong();
+      int type = in.readByte();
+      if (type == TYPE_WORD) {
+        wordIds.put(entry, i);
+      } else {
+        labels[i - nwords] = entry;
+        labelCounts[i - nwords] = count;
+      }
+    }
+    if (pruneIdxSize > 0) {
+      throw new IOException("Pruned fastText models are not supported");
+    }
+    if (in.readByte() != 0) {
+      throw new IOException("Quantized fastText models (.ftz) are not supported, use the .bin model");
+    }
+    input = readMatrix(in, nwords + (long) bucket, dim);
+    in.readByte();  // qout, only relevant for quantized models
+    output = readMatrix(in, nlabels, dim);
+    if (loss == LOSS_HS) {
+      treeLeft = new int[2 * nlabels - 1];
+      treeRight = new int[2 * nlabels - 1];
+      buildTree(labelCounts);
+    } else {
+      treeLeft = null;
+      treeRight = null;
+    }
+  }
+
+  /**
+   * Load a model, e.g. {@code lid.176.bin}.
+   */
+  public static FastTextModel load(File file) throws IOException {
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+      return new FastTextModel(new DataReader(in));
+    }
+  }
+
+  /**
+   * Predict the {@code k} most probable labels for a single line of text.
+   * @return label (as stored in the model, e.g. {@code __label__en}) to probability, most probable first
+   */
+  public Map<String, Double> predict(String text, int k) {
+    return predict(text, k, new Scratch());
+  }
+
+  /**
+   * Like {@link #predict(String, int)} for several texts, re-using the buffers between them.
+   */
+  public List<Map<String, Double>> predict(List<String> texts, int k) {
+    Scratch scratch = new Scratch();
+    List<Map<String, Double>> result = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      result.add(predict(text, k, scratch));
+    }
+    return result;
+  }
+
+  public int getDimension() {
+    return dim;
+  }
+
+  public int getLabelCount() {
+    return labels.length;
+  }
+
+  private Map<String, Double> predict(String text, int k, Scratch scratch) {
+    scratch.reset(k);
+    if (!computeHidden(text, scratch)) {
+      // like fastText, don't predict anything without a single known word or n-gram:
+      return new LinkedHashMap<>();
+    }
+    if (loss == LOSS_HS) {
+      dfs(treeLeft.length - 1, 0.0f, scratch);
+    } else {
+      float[] out = scratch.output;
+      for (int i = 0; i < labels.length; i++) {
+        out[i] = dotRow(output, i, scratch.hidden);
+      }
+      if (loss == LOSS_SOFTMAX) {
+        float max = out[0];
+        for (int i = 1; i < labels.length; i++) {
+          max = Math.max(max, out[i]);
+        }
+        float z = 0.0f;
+        for (int i = 0; i < labels.length; i++) {
+          out[i] = (float) Math.exp(out[i] - max);
+          z += out[i];
+        }
+        for (int i = 0; i < labels.length; i++) {
+          out[i] /= z;
+        }
+      } else {  // negative sampling and one-vs-all are both binary logistic losses
+        for (int i = 0; i < labels.length; i++) {
+          out[i] = sigmoid(out[i]);
+        }
+      }
+      for (int i = 0; i < labels.length; i++) {
+        scratch.offer(stdLog(out[i]), i);
+      }
+    }
+    Map<String, Double> result = new LinkedHashMap<>();
+    for (int i = 0; i < scratch.size; i++) {
+      result.put(labels[scratch.ids[i]], Math.exp(scratch.scores[i]));
+    }
+    return result;
+  }
+
+  /**
+   * @return false if no input row was found for {@code text}
+   */
+  private boolean computeHidden(String text, Scratch scratch) {
+    float[] hidden = scratch.hidden;
+    Arrays.fill(hidden, 0.0f);
+    scratch.wordHashCount = 0;
+    int count = 0;
+    int len = text.length();
+    int i = 0;
+    boolean eos = false;
+    while (!eos) {
+      while (i < len && isSeparator(text.charAt(i))) {
+        i++;
+      }
+      String token;
+      if (i < len) {
+        int start = i;
+        while (i < len && !isSeparator(text.charAt(i))) {
+          i++;
+        }
+        token = text.substring(start, i);
+        if (token.startsWith(LABEL_PREFIX)) {
+          continue;
+        }
+        eos = token.equals(EOS);
+      } else {
+        token = EOS;
+        eos = true;
+      }
+      byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+      Integer wid = wordIds.get(token);
+      if (wid != null) {
+        addRow(hidden, input, wid);
+        count++;
+      }
+      if (!eos) {
+        count += addSubwords(bytes, hidden);
+      }
+      scratch.addWordHash(hash(bytes));
+    }
+    count += addWordNgrams(scratch, hidden);
+    if (count == 0) {
+      return false;
+    }
+    float norm = 1.0f / count;
+    for (int j = 0; j < dim; j++) {
+      hidden[j] *= norm;
+    }
+    return true;
+  }
+
+  /**
+   * Adds the character n-grams of {@code <token>}, counting UTF-8 code points like fastText does.
+   */
+  private int addSubwords(byte[] token, float[] hidden) {
+    if (pruneIdxSize == 0) {
+      return 0;
+    }
+    int added = 0;
+    int length = token.length + 2;
+    for (int i = 0; i < length; i++) {
+      if (isContinuation(byteAt(token, i))) {
+        continue;
+      }
+      int h = FNV_OFFSET;
+      for (int j = i, n = 1; j < length && n <= maxn; n++) {
+        h = hashByte(h, byteAt(token, j++));
+        while (j < length && isContinuation(byteAt(token, j))) {
+          h = hashByte(h, byteAt(token, j++));
+        }
+        if (n >= minn && !(n == 1 && (i == 0 || j == length))) {
+          addRow(hidden, input, nwords + Integer.remainderUnsigned(h, bucket));
+          added++;
+        }
+      }
+    }
+    return added;
+  }
+
+  private int addWordNgrams(Scratch scratch, float[] hidden) {
+    if (pruneIdxSize == 0) {
+      return 0;
+    }
+    int added = 0;
+    int[] hashes = scratch.wordHashes;
+    for (int i = 0; i < scratch.wordHashCount; i++) {
+      long h = hashes[i];
+      for (int j = i + 1; j < scratch.wordHashCount && j < i + wordNgrams; j++) {
+        h = h * 116049371 + hashes[j];
+        addRow(hidden, input, nwords + (int) Long.remainderUnsigned(h, bucket));
+        added++;
+      }
+    }
+    return added;
+  }
+
+  private void dfs(int node, float score, Scratch scratch) {
+    if (score < stdLog(0.0f) || scratch.size == scratch.k && score < scratch.minScore()) {
+      return;
+    }
+    if (treeLeft[node] == -1 && treeRight[node] == -1) {
+      scratch.offer(score, node);
+      return;
+    }
+    float f = sigmoid(dotRow(output, node - labels.length, scratch.hidden));
+    dfs(treeLeft[node], score + stdLog(1.0f - f), scratch);
+    dfs(treeRight[node], score + stdLog(f), scratch);
+  }
+
+  /**
+   * Huffman tree over the label counts, built exactly like fastText does so the inner nodes
+   * match the rows of the output matrix.
+   */
+  private void buildTree(long[] counts) {
+    int osz = counts.length;
+    long[] nodeCounts = new long[2 * osz - 1];
+    Arrays.fill(nodeCounts, (long) 1e15);
+    Arrays.fill(treeLeft, -1);
+    Arrays.fill(treeRight, -1);
+    System.arraycopy(counts, 0, nodeCounts, 0, osz);
+    int leaf = osz - 1;
+    int node = osz;
+    for (int i = osz; i < 2 * osz - 1; i++) {
+      int[] mini = new int[2];
+      for (int j = 0; j < 2; j++) {
+        if (leaf >= 0 && nodeCounts[leaf] < nodeCounts[node]) {
+          mini[j] = leaf--;
+        } else {
+          mini[j] = node++;
+        }
+      }
+      treeLeft[i] = mini[0];
+      treeRight[i] = mini[1];
+      nodeCounts[i] = nodeCounts[mini[0]] + nodeCounts[mini[1]];
+    }
+  }
+
+  private void addRow(float[] hidden, float[] matrix, int row) {
+    int offset = row * dim;
+    for (int i = 0; i < dim; i++) {
+      hidden[i] += matrix[offset + i];
+    }
+  }
+
+  private float dotRow(float[] matrix, int row, float[] vector) {
+    int offset = row * dim;
+    float result = 0.0f;
+    for (int i = 0; i < dim; i++) {
+      result += matrix[offset + i] * vector[i];
+    }
+    return result;
+  }
+
+  private static float sigmoid(float x) {
+    return (float) (1.0 / (1.0 + Math.exp(-x)));
+  }
+
+  private static float stdLog(float x) {
+    return (float) Math.log(x + 1e-5);
+  }
+
+  private static boolean isSeparator(char c) {
+    return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\u000B' || c == '\f' || c == '\0';
+  }
+
+  private static boolean isContinuation(byte b) {
+    return (b & 0xC0) == 0x80;
+  }
+
+  // the token surrounded by '<' and '>', without copying it:
+  private static byte byteAt(byte[] token, int i) {
+    if (i == 0) {
+      return '<';
+    }
+    return i <= token.length ? token[i - 1] : (byte) '>';
+  }
+
+  // FNV-1a over signed bytes, as in fastText's Dictionary::hash
+  private static int hash(byte[] bytes) {
+    int h = FNV_OFFSET;
+    for (int i = 0; i < bytes.length; i++) {
+      h = hashByte(h, bytes[i]);
+    }
+    return h;
+  }
+
+  private static int hashByte(int h, byte b) {
+    return (h ^ b) * FNV_PRIME;
+  }
+
+  private float[] readMatrix(DataReader in, long expectedRows, int expectedCols) throws IOException {
+    long m = in.readLong();
+    long n = in.readLong();
+    if (m != expectedRows || n != expectedCols) {
+      throw new IOException("Unexpected matrix size " + m + "x" + n + ", expected " + expectedRows + "x" + expectedCols);
+    }
+    if (m * n > Integer.MAX_VALUE - 8) {
+      throw new IOException("Matrix too large: " + m + "x" + n);
+    }
+    float[] matrix = new float[(int) (m * n)];
+    in.readFloats(matrix);
+    return matrix;
+  }
+
+  /**
+   * Per-call buffers and the current top-k (a small array sorted by descending score).
+   */
+  private class Scratch {
+    private final float[] hidden = new float[dim];
+    private final float[] output = new float[labels.length];
+    private int[] wordHashes = new int[16];
+    private int wordHashCount;
+    private float[] scores = new float[0];
+    private int[] ids = new int[0];
+    private int k;
+    private int size;
+
+    void reset(int k) {
+      if (scores.length < k) {
+        scores = new float[k];
+        ids = new int[k];
+      }
+      this.k = k;
+      size = 0;
+    }
+
+    void addWordHash(int h) {
+      if (wordHashCount == wordHashes.length) {
+        wordHashes = Arrays.copyOf(wordHashes, wordHashCount * 2);
+      }
+      wordHashes[wordHashCount++] = h;
+    }
+
+    float minScore() {
+      return scores[size - 1];
+    }
+
+    void offer(float score, int id) {
+      if (k == 0 || size == k && score <= minScore()) {
+        return;
+      }
+      int pos = size == k ? k - 1 : size++;
+      while (pos > 0 && scores[pos - 1] < score) {
+        scores[pos] = scores[pos - 1];
+        ids[pos] = ids[pos - 1];
+        pos--;
+      }
+      scores[pos] = score;
+      ids[pos] = id;
+    }
+  }
+
+  /**
+   * Little-endian reads, as fastText writes its files on x86.
+   */
+  private static class DataReader {
+    private final InputStream in;
+    private final byte[] buffer = new byte[1 << 16];
+    private final ByteBuffer wrapped = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+
+    DataReader(InputStream in) {
+      this.in = in;
+    }
+
+    private void fill(int len) throws IOException {
+      int read = 0;
+      while (read < len) {
+        int n = in.read(buffer, read, len - read);
+        if (n < 0) {
+          throw new EOFException("Unexpected end of fastText model file");
+        }
+        read += n;
+      }
+    }
+
+    byte readByte() throws IOException {
+      fill(1);
+      return buffer[0];
+    }
+
+    int readInt() throws IOException {
+      fill(4);
+      return wrapped.getInt(0);
+    }
+
+    long readLong() throws IOException {
+      fill(8);
+      return wrapped.getLong(0);
+    }
+
+    double readDouble() throws IOException {
+      fill(8);
+      return wrapped.getDouble(0);
+    }
+
+    String readCString() throws IOException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+      int b;
+      while ((b = in.read()) != 0) {
+        if (b < 0) {
+          throw new EOFException("Unexpected end of fastText model file");
+        }
+        out.write(b);
+      }
+      return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    void readFloats(float[] target) throws IOException {
+      int chunk = buffer.length / 4;
+      for (int offset = 0; offset < target.length; offset += chunk) {
+        int len = Math.min(chunk, target.length - offset);
+        fill(len * 4);
+        wrapped.asFloatBuffer().get(target, offset, len);
+      }
+    }
+  }
+
+}
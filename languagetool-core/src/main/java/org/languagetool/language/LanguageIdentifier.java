@@ -109,14 +109,30 @@ public class LanguageIdentifier {
     }
   }
 
+  /**
+   * Use a fastText model for language identification. The model is run in-process if possible,
+   * the binary is only used for models {@link FastTextModel} cannot load (e.g. quantized {@code .ftz} files).
+   * @param fasttextBinary the fasttext executable, may be {@code null} since 5.3
+   */
   public void enableFasttext(File fasttextBinary, File fasttextModel) {
-    if (fasttextBinary != null && fasttextModel != null) {
-      try {
-        fastText = new FastText(fasttextModel, fasttextBinary);
-        logger.info("Started fasttext process for language identification: Binary " + fasttextBinary + " with model @ " + fasttextModel);
-      } catch (IOException e) {
-        throw new RuntimeException("Could not start fasttext process for language identification @ " + fasttextBinary + " with model @ " + fasttextModel, e);
+    if (fasttextModel == null) {
+      return;
+    }
+    try {
+      fastText = new FastText(fasttextModel);
+      logger.info("Loaded fasttext model for in-process language identification @ " + fasttextModel);
+      return;
+    } catch (IOException e) {
+      if (fasttextBinary == null) {
+        throw new RuntimeException("Could not load fasttext model for language identification @ " + fasttextModel, e);
       }
+      logger.warn("Could not load fasttext model @ " + fasttextModel + " in-process, falling back to the fasttext binary: " + e.getMessage());
+    }
+    try {
+      fastText = new FastText(fasttextModel, fasttextBinary);
+      logger.info("Started fasttext process for language identification: Binary " + fasttextBinary + " with model @ " + fasttextModel);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not start fasttext process for language identification @ " + fasttextBinary + " with model @ " + fasttextModel, e);
     }
   }
 
@@ -272,9 +288,14 @@ public class LanguageIdentifier {
         //System.out.println("newScore  : " + newScore);
         result = new AbstractMap.SimpleImmutableEntry<>(result.getKey(), newScore);
       } catch (Exception e) {
-        //fastText.destroy();
-        fastText = null;
-        logger.error("Fasttext disabled", e);
+        if (fastText != null && fastText.isInProcess()) {
+          // there's no external process that could have died, so keep the model for the next requests:
+          logger.error("Language detection failed for input of length " + text.length(), e);
+        } else {
+          //fastText.destroy();
+          fastText = null;
+          logger.error("Fasttext disabled", e);
+        }
       }
     }
     if (fastText == null && ngram == null) { // no else, value can change in if clause
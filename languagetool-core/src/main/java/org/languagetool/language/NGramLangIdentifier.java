@@ -33,16 +33,24 @@ import static org.languagetool.language.LanguageIdentifier.canLanguageBeDetected
 public class NGramLangIdentifier {
 
   private final static double EPSILON = 1e-4;
+  private final static double LOG_EPSILON = log(EPSILON);
+  private final static int START_TOKEN = 1;
+  private final static char SPACE = '\u2581';
 
-  private final Map<String, Integer> vocab;
+  // vocabulary as a trie: (node << 16 | char) -> child node, plus the token id of each node (or -1)
+  private final LongIntTable vocabTrie;
+  private final int[] nodeTokens;
   private final List<String[]> codes; // Elem format = {Name, 2-code (or "NULL"), 3-code}
+  private final String[] langCodes;
 
-  private final List<Map<String, Double>> knpBigramProbs;
+  // per language: (token1 << 32 | token2) -> log probability
+  private final List<LongDoubleTable> knpBigramLogProbs;
   private final int thresholdsStart;
   private final List<double[]> thresholds;
 
   private final int maxLength;
   private final ZipFile zipFile;
+  private final ThreadLocal<Scratch> scratch;
 
   public NGramLangIdentifier(File sourceModelZip, int maxLength) throws IOException {
     this.maxLength = maxLength;
@@ -59,17 +67,39 @@ public class NGramLangIdentifier {
         }
       }
     }
+    langCodes = new String[codes.size()];
+    for (int i = 0; i < codes.size(); i++) {
+      langCodes[i] = codes.get(i)[1].equals("NULL") ? codes.get(i)[2] : codes.get(i)[1]; //2-character code if possible
+    }
 
     //Load vocab - Line format = {token}
-    vocab = new HashMap<>();
-    try (BufferedReader br = getReader("vocab.txt")) {
-      String line;
-      int i = 0;
-      while ((line = br.readLine()) != null) {
-        vocab.put(line.split("\t")[0].trim(), i);
-        i++;
+    vocabTrie = new LongIntTable(1 << 16);
+    List<String> tokens = readLines("vocab.txt");
+    int nodeCount = 1;
+    int[] tokenOfNode = new int[1024];
+    Arrays.fill(tokenOfNode, -1);
+    for (int i = 0; i < tokens.size(); i++) {
+      String token = tokens.get(i).split("\t")[0].trim();
+      int node = 0;
+      for (int j = 0; j < token.length(); j++) {
+        long key = trieKey(node, token.charAt(j));
+        int child = vocabTrie.get(key);
+        if (child < 0) {
+          child = nodeCount++;
+          vocabTrie.put(key, child);
+          if (child == tokenOfNode.length) {
+            int oldLength = tokenOfNode.length;
+            tokenOfNode = Arrays.copyOf(tokenOfNode, oldLength * 2);
+            Arrays.fill(tokenOfNode, oldLength, tokenOfNode.length, -1);
+          }
+        }
+        node = child;
+      }
+      if (node > 0) {
+        tokenOfNode[node] = i;
       }
     }
+    nodeTokens = Arrays.copyOf(tokenOfNode, nodeCount);
 
     //Load thresholds
     thresholds = new ArrayList<>();
@@ -84,45 +114,49 @@ public class NGramLangIdentifier {
     }
 
     //Load transition matrices - Line format = {i} {j} {val}
-    knpBigramProbs = expectedFiles().stream().map(this::readLines).parallel().map(NGramLangIdentifier::loadDict).collect(Collectors.toList());
+    knpBigramLogProbs = expectedFiles().stream().map(this::readLines).parallel().map(NGramLangIdentifier::loadDict).collect(Collectors.toList());
+    scratch = ThreadLocal.withInitial(() -> new Scratch(maxLength, codes.size()));
   }
 
   public Map<String, Double> detectLanguages(String text, List<String> additionalLanguageCodes) {
-    List<Integer> enc = encode(text);
-    List<Double> finalProbs = new ArrayList<>();
-    List<int[]> keys = keys(enc);
+    Scratch s = scratch.get();
+    int tokenCount = encode(text, s);
+    double[] finalProbs = s.scores;
+    int[] enc = s.tokens;
 
     for (int i = 0; i < codes.size(); i++) {
+      LongDoubleTable logProbs = knpBigramLogProbs.get(i);
       double val = 0;
-      for (int[] key: keys) {
-        double prob = knpBigramProbs.get(i).getOrDefault(key[0] + "_" + key[1], EPSILON);
-        val += log(prob);
+      for (int j = 1; j < tokenCount; j++) {
+        val += logProbs.get(bigramKey(enc[j - 1], enc[j]), LOG_EPSILON);
       }
-      finalProbs.add(val);
+      finalProbs[i] = val;
     }
 
     Map<String, Double> result = new HashMap<>();
 
     if (text.length() >= this.thresholdsStart) {
       int argMax = 0;
-      for (int i = 1; i < finalProbs.size(); i++) {
-        if (finalProbs.get(i) > finalProbs.get(argMax)) {
+      for (int i = 1; i < codes.size(); i++) {
+        if (finalProbs[i] > finalProbs[argMax]) {
           argMax = i;
         }
       }
       int thresholdIndex = min(text.length(), maxLength) - this.thresholdsStart;
-      if (finalProbs.get(argMax) < thresholds.get(thresholdIndex)[argMax]) {
+      if (finalProbs[argMax] < thresholds.get(thresholdIndex)[argMax]) {
         result.put(NoopLanguage.SHORT_CODE, 100.0);
         return result;
       }
     }
 
-    finalProbs = finalProbs.stream().map(StrictMath::exp).collect(Collectors.toList());
-    finalProbs = normalize(finalProbs);
+    double tot = 0;
+    for (int i = 0; i < codes.size(); i++) {
+      finalProbs[i] = exp(finalProbs[i]);
+      tot += finalProbs[i];
+    }
     for (int i = 0; i < codes.size(); i++) {
-      String langCode = codes.get(i)[1].equals("NULL") ? codes.get(i)[2] : codes.get(i)[1]; //2-character code if possible
-      if (canLanguageBeDetected(langCode, additionalLanguageCodes)) {
-        result.put(langCode, finalProbs.get(i));
+      if (canLanguageBeDetected(langCodes[i], additionalLanguageCodes)) {
+        result.put(langCodes[i], finalProbs[i] / tot);
       }
     }
 
@@ -137,8 +171,7 @@ public class NGramLangIdentifier {
 
   private List<String> readLines(String path) {
     ArrayList<String> result = new ArrayList<>();
-    try {
-      BufferedReader br = getReader(path);
+    try (BufferedReader br = getReader(path)) {
       String line;
       while ((line = br.readLine()) != null) {
         result.add(line);
@@ -149,12 +182,15 @@ public class NGramLangIdentifier {
     return result;
   }
 
-  private static Map<String, Double> loadDict(List<String> lines)  {
-    Map<String, Double> tm = new HashMap<>();
+  private static LongDoubleTable loadDict(List<String> lines)  {
+    LongDoubleTable tm = new LongDoubleTable(lines.size());
     for(String line : lines) {
       String[] parts = line.trim().split(" ");
-      String key = String.join("_", Arrays.copyOfRange(parts, 0, parts.length-1));
-      tm.put(key, Double.parseDouble(parts[parts.length-1]));
+      if (parts.length != 3) {
+        continue;  // only bigrams are used for scoring
+      }
+      long key = bigramKey(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+      tm.put(key, log(Double.parseDouble(parts[2])));
     }
     return tm;
   }
@@ -168,56 +204,237 @@ public class NGramLangIdentifier {
     return result;
   }
 
-  private List<Integer> encode(String text) {
-    List<Integer> result = new ArrayList<>();
-    result.add(1); //Start of sentence token
+  /**
+   * Writes the token ids of the normalized text into {@code s.tokens}, using the longest
+   * vocabulary entry at each position (or token 0 for a single unknown character).
+   * @return the number of tokens, including the start token
+   */
+  private int encode(String text, Scratch s) {
+    int[] result = s.tokens;
+    int count = 0;
+    result[count++] = START_TOKEN;
     if (text.length() > maxLength) {
       text = text.substring(0, maxLength);
     }
     text = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase();
-    text = text.replaceAll("\\d+", "<NUM>");
-    text = text.replaceAll("[\\uac00-\\ud7a3]", "<KO>"); // Korean
-    text = text.replaceAll("[\\u3040-\\u30ff]", "<JA>"); // Japanese
-    text = text.replaceAll("[\\u4e00-\\u9FFF]", "<ZH>"); // Chinese
-    text = text.replaceAll("[\\u1780-\\u17FF]", "<KM>"); // Khmer
-    text = text.replaceAll("[\\u1700-\\u171F]", "<TL>"); // Tagalog
-    text = text.replaceAll("[\\u0530-\\u058F]", "<HY>"); // Armenian
-    text = text.replaceAll("[\\u0370-\\u03FF]", "<EL>"); // Greek
-    text = text.replaceAll("[\\u0B80-\\u0BFF]", "<TA>"); // Tamil
-    text = text.replaceAll("\\s+", "▁");
-    if (text.length() == 0) {
-      return result;
-    }
-    text = "▁" + text;
-
+    int length = normalize(text, s);
+    if (length == 0) {
+      return count;
+    }
+    char[] chars = s.chars;
     int cur = 0;
-    while (cur < text.length()) {
+    while (cur < length) {
       int tok = 0;
       int ci = 1;
-      for (int i = cur + 1; i <= text.length(); i++) {
-        int maybeTok = vocab.getOrDefault(text.substring(cur, i), -1);
-        if (maybeTok > -1) {
-          tok = maybeTok;
-          ci = i - cur;
+      int node = 0;
+      for (int i = cur; i < length; i++) {
+        node = vocabTrie.get(trieKey(node, chars[i]));
+        if (node < 0) {
+          break;
+        }
+        if (nodeTokens[node] > -1) {
+          tok = nodeTokens[node];
+          ci = i + 1 - cur;
         }
       }
       cur += ci;
-      result.add(tok);
+      result = s.ensureTokenCapacity(count + 1);
+      result[count++] = tok;
     }
-    return result;
+    return count;
+  }
+
+  /**
+   * Replaces numbers and characters of some scripts by placeholders and whitespace by '\u2581',
+   * writing the result with a leading '\u2581' to {@code s.chars}.
+   * @return the number of chars written, 0 if the text is empty
+   */
+  private static int normalize(String text, Scratch s) {
+    int length = 0;
+    s.ensureCharCapacity(1);
+    s.chars[length++] = SPACE;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      String placeholder = null;
+      if (c >= '0' && c <= '9') {
+        while (i + 1 < text.length() && text.charAt(i + 1) >= '0' && text.charAt(i + 1) <= '9') {
+          i++;
+        }
+        placeholder = "<NUM>";
+      } else if (c >= '\uac00' && c <= '\ud7a3') {
+        placeholder = "<KO>";  // Korean
+      } else if (c >= '\u3040' && c <= '\u30ff') {
+        placeholder = "<JA>";  // Japanese
+      } else if (c >= '\u4e00' && c <= '\u9FFF') {
+        placeholder = "<ZH>";  // Chinese
+      } else if (c >= '\u1780' && c <= '\u17FF') {
+        placeholder = "<KM>";  // Khmer
+      } else if (c >= '\u1700' && c <= '\u171F') {
+        placeholder = "<TL>";  // Tagalog
+      } else if (c >= '\u0530' && c <= '\u058F') {
+        placeholder = "<HY>";  // Armenian
+      } else if (c >= '\u0370' && c <= '\u03FF') {
+        placeholder = "<EL>";  // Greek
+      } else if (c >= '\u0B80' && c <= '\u0BFF') {
+        placeholder = "<TA>";  // Tamil
+      } else if (isWhitespace(c)) {
+        while (i + 1 < text.length() && isWhitespace(text.charAt(i + 1))) {
+          i++;
+        }
+        c = SPACE;
+      }
+      if (placeholder != null) {
+        s.ensureCharCapacity(length + placeholder.length());
+        placeholder.getChars(0, placeholder.length(), s.chars, length);
+        length += placeholder.length();
+      } else {
+        s.ensureCharCapacity(length + 1);
+        s.chars[length++] = c;
+      }
+    }
+    return length == 1 ? 0 : length;
+  }
+
+  // same as the regex class \s
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  private static long trieKey(int node, char c) {
+    return ((long) node << 16) | c;
   }
 
-  private List<int[]> keys(List<Integer> enc) {
-    //For now just bigrams
-    List<int[]> result = new ArrayList<>();
-    for (int i = 1; i < enc.size(); i++) {
-      result.add(new int[]{enc.get(i-1), enc.get(i)});
+  private static long bigramKey(int token1, int token2) {
+    return ((long) token1 << 32) | (token2 & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Buffers re-used by all calls of one thread.
+   */
+  private static class Scratch {
+    private char[] chars;
+    private int[] tokens;
+    private final double[] scores;
+
+    Scratch(int maxLength, int languages) {
+      // normalization can make the text longer, so these may still grow:
+      chars = new char[maxLength * 2 + 1];
+      tokens = new int[maxLength * 2 + 2];
+      scores = new double[languages];
     }
-    return result;
+
+    void ensureCharCapacity(int capacity) {
+      if (chars.length < capacity) {
+        chars = Arrays.copyOf(chars, Math.max(capacity, chars.length * 2));
+      }
+    }
+
+    int[] ensureTokenCapacity(int capacity) {
+      if (tokens.length < capacity) {
+        tokens = Arrays.copyOf(tokens, Math.max(capacity, tokens.length * 2));
+      }
+      return tokens;
+    }
+  }
+
+  /**
+   * Open addressing hash table from non-negative long keys to int values, -1 meaning "not found".
+   */
+  private static final class LongIntTable {
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntTable(int expectedSize) {
+      int capacity = tableCapacity(expectedSize);
+      keys = new long[capacity];
+      values = new int[capacity];
+      Arrays.fill(keys, -1);
+    }
+
+    int get(long key) {
+      int mask = keys.length - 1;
+      for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+        if (keys[i] == key) {
+          return values[i];
+        }
+        if (keys[i] == -1) {
+          return -1;
+        }
+      }
+    }
+
+    void put(long key, int value) {
+      if (2 * (size + 1) > keys.length) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, -1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+          if (oldKeys[i] != -1) {
+            put(oldKeys[i], oldValues[i]);
+          }
+        }
+      }
+      int mask = keys.length - 1;
+      int i = mix(key) & mask;
+      while (keys[i] != -1 && keys[i] != key) {
+        i = (i + 1) & mask;
+      }
+      if (keys[i] == -1) {
+        size++;
+      }
+      keys[i] = key;
+      values[i] = value;
+    }
+  }
+
+  /**
+   * Open addressing hash table from non-negative long keys to double values, sized once when loading.
+   */
+  private static final class LongDoubleTable {
+    private final long[] keys;
+    private final double[] values;
+
+    LongDoubleTable(int maxSize) {
+      int capacity = tableCapacity(maxSize);
+      keys = new long[capacity];
+      values = new double[capacity];
+      Arrays.fill(keys, -1);
+    }
+
+    double get(long key, double defaultValue) {
+      int mask = keys.length - 1;
+      for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+        if (keys[i] == key) {
+          return values[i];
+        }
+        if (keys[i] == -1) {
+          return defaultValue;
+        }
+      }
+    }
+
+    void put(long key, double value) {
+      int mask = keys.length - 1;
+      int i = mix(key) & mask;
+      while (keys[i] != -1 && keys[i] != key) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = key;
+      values[i] = value;
+    }
+  }
+
+  // power of two, at most half full
+  private static int tableCapacity(int size) {
+    return Integer.highestOneBit(Math.max(2 * size, 2) - 1) << 1;
   }
 
-  private List<Double> normalize(List<Double> vals) {
-    double tot = vals.stream().mapToDouble(f -> f).sum();
-    return vals.stream().map(n -> n/tot).collect(Collectors.toList());
+  private static int mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
   }
 }
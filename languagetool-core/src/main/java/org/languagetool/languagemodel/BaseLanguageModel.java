@@ -20,8 +20,8 @@ package org.languagetool.languagemodel;
 
 import org.languagetool.rules.ngrams.Probability;
 
-import java.util.List;
-import java.util.Locale;
+import java.util.*;
+import java.util.function.ToLongFunction;
 
 /**
  * The algorithm of a language model, independent of the way data
@@ -31,10 +31,22 @@ import java.util.Locale;
 public abstract class BaseLanguageModel implements LanguageModel {
 
   private static final boolean DEBUG = false;
-  
+  static final int DEFAULT_COUNT_CACHE_SIZE = 100_000;
+
+  private final NgramCountCache countCache;
   private Long totalTokenCount;
 
   public BaseLanguageModel()  {
+    this(DEFAULT_COUNT_CACHE_SIZE);
+  }
+
+  /**
+   * @param countCacheSize maximum number of ngram counts to cache for the probability calculations,
+   *                       {@code 0} to not cache counts (e.g. for models only used by another model)
+   * @since 5.3
+   */
+  protected BaseLanguageModel(int countCacheSize) {
+    countCache = countCacheSize > 0 ? new NgramCountCache(countCacheSize) : null;
   }
 
   public Probability getPseudoProbabilityStupidBackoff(List<String> context) {
@@ -62,7 +74,7 @@ public abstract class BaseLanguageModel implements LanguageModel {
 
   private long tryGetCount(List<String> context) {
     try {
-      return getCount(context);
+      return getCachedCount(context);
     } catch (RuntimeException ignored) {
       return 0;
     }
@@ -70,13 +82,37 @@ public abstract class BaseLanguageModel implements LanguageModel {
 
   @Override
   public Probability getPseudoProbability(List<String> context) {
+    return getPseudoProbability(context, this::getCachedCount);
+  }
+
+  /**
+   * The ngrams needed for all contexts are collected and each one is looked up only once.
+   * @since 5.3
+   */
+  @Override
+  public List<Probability> getPseudoProbabilities(List<List<String>> contexts) {
+    Set<List<String>> ngrams = new LinkedHashSet<>();
+    for (List<String> context : contexts) {
+      for (int i = 1; i <= context.size(); i++) {
+        ngrams.add(context.subList(0, i));
+      }
+    }
+    Map<List<String>, Long> counts = getCounts(ngrams);
+    List<Probability> result = new ArrayList<>(contexts.size());
+    for (List<String> context : contexts) {
+      result.add(getPseudoProbability(context, counts::get));
+    }
+    return result;
+  }
+
+  private Probability getPseudoProbability(List<String> context, ToLongFunction<List<String>> counts) {
     if (this.totalTokenCount == null) {
       this.totalTokenCount = getTotalTokenCount();
     }
     int maxCoverage = 0;
     int coverage = 0;
     // TODO: lm.getCount("_START_") returns 0 for Google data -- see getCount(String) in LuceneLanguageModel
-    long firstWordCount = getCount(context.get(0));
+    long firstWordCount = counts.applyAsLong(context.subList(0, 1));
     maxCoverage++;
     if (firstWordCount > 0) {
       coverage++;
@@ -88,7 +124,7 @@ public abstract class BaseLanguageModel implements LanguageModel {
     long totalCount = 0;
     for (int i = 2; i <= context.size(); i++) {
       List<String> subList = context.subList(0, i);
-      long phraseCount = getCount(subList);
+      long phraseCount = counts.applyAsLong(subList);
       //System.out.println(subList + " -> " +phraseCount);
       if (subList.size() == 3) {
         totalCount = phraseCount;
@@ -121,6 +157,79 @@ public abstract class BaseLanguageModel implements LanguageModel {
 
   public abstract long getTotalTokenCount();
 
+  /**
+   * Look up the counts of several ngrams, without using the cache. Sub classes can override this
+   * if their storage supports looking up many ngrams more efficiently than one by one.
+   * @param ngrams distinct ngrams
+   * @since 5.3
+   */
+  protected Map<List<String>, Long> fetchCounts(Collection<List<String>> ngrams) {
+    Map<List<String>, Long> result = new HashMap<>();
+    for (List<String> ngram : ngrams) {
+      result.put(ngram, getCount(ngram));
+    }
+    return result;
+  }
+
+  private long getCachedCount(List<String> ngram) {
+    if (countCache == null) {
+      return getCount(ngram);
+    }
+    Long count = countCache.getIfPresent(ngram);
+    if (count == null) {
+      count = getCount(ngram);
+      countCache.put(ngram, count);
+    }
+    return count;
+  }
+
+  /**
+   * Get the occurrence counts of several ngrams at once, like {@link #getCount(List)}.
+   * Duplicates are looked up only once, and ngrams in the cache are not looked up at all.
+   * @return a map with an entry for each distinct ngram
+   * @since 5.3
+   */
+  public Map<List<String>, Long> getCounts(Collection<List<String>> ngrams) {
+    Collection<List<String>> distinct = ngrams instanceof Set ? ngrams : new LinkedHashSet<>(ngrams);
+    if (countCache == null) {
+      return fetchCounts(distinct);
+    }
+    Map<List<String>, Long> result = new HashMap<>();
+    List<List<String>> missing = new ArrayList<>();
+    for (List<String> ngram : distinct) {
+      Long count = countCache.getIfPresent(ngram);
+      if (count != null) {
+        result.put(ngram, count);
+      } else {
+        missing.add(ngram);
+      }
+    }
+    if (!missing.isEmpty()) {
+      Map<List<String>, Long> fetched = fetchCounts(missing);
+      for (Map.Entry<List<String>, Long> entry : fetched.entrySet()) {
+        countCache.put(entry.getKey(), entry.getValue());
+      }
+      result.putAll(fetched);
+    }
+    return result;
+  }
+
+  /**
+   * Number of ngram count lookups answered by the cache.
+   * @since 5.3
+   */
+  public long getCountCacheHitCount() {
+    return countCache != null ? countCache.getHitCount() : 0;
+  }
+
+  /**
+   * Number of ngram count lookups not answered by the cache.
+   * @since 5.3
+   */
+  public long getCountCacheMissCount() {
+    return countCache != null ? countCache.getMissCount() : 0;
+  }
+
   private void debug(String message, Object... vars) {
     if (DEBUG) {
       System.out.printf(Locale.ENGLISH, message, vars);
@@ -20,6 +20,7 @@ package org.languagetool.languagemodel;
 
 import org.languagetool.rules.ngrams.Probability;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -41,6 +42,19 @@ public interface LanguageModel extends AutoCloseable {
    */
   Probability getPseudoProbability(List<String> context);
 
+  /**
+   * Like {@link #getPseudoProbability(List)} for several contexts, e.g. all contexts needed to
+   * check a sentence. Implementations can use this to look up the ngrams of all contexts at once.
+   * @since 5.3
+   */
+  default List<Probability> getPseudoProbabilities(List<List<String>> contexts) {
+    List<Probability> result = new ArrayList<>(contexts.size());
+    for (List<String> context : contexts) {
+      result.add(getPseudoProbability(context));
+    }
+    return result;
+  }
+
   @Override
   void close();
   
@@ -21,9 +21,7 @@ package org.languagetool.languagemodel;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 /**
  * Like {@link LuceneSingleIndexLanguageModel}, but can merge the results of
@@ -59,10 +57,10 @@ public class LuceneLanguageModel extends BaseLanguageModel {
     if (subDirs != null && subDirs.length > 0) {
       System.out.println("Running in multi-index mode with " + subDirs.length + " indexes: " + topIndexDir);
       for (File subDir : subDirs) {
-        lms.add(new LuceneSingleIndexLanguageModel(subDir));
+        lms.add(new LuceneSingleIndexLanguageModel(subDir, 0));
       }
     } else {
-      lms.add(new LuceneSingleIndexLanguageModel(topIndexDir));
+      lms.add(new LuceneSingleIndexLanguageModel(topIndexDir, 0));
     }
   }
 
@@ -76,6 +74,15 @@ public class LuceneLanguageModel extends BaseLanguageModel {
     return getCount(Arrays.asList(token));
   }
 
+  @Override
+  protected Map<List<String>, Long> fetchCounts(Collection<List<String>> ngrams) {
+    Map<List<String>, Long> result = new HashMap<>();
+    for (LuceneSingleIndexLanguageModel lm : lms) {
+      lm.fetchCounts(ngrams).forEach((ngram, count) -> result.merge(ngram, count, Long::sum));
+    }
+    return result;
+  }
+
   @Override
   public long getTotalTokenCount() {
     return lms.stream().mapToLong(lm -> lm.getTotalTokenCount()).sum();
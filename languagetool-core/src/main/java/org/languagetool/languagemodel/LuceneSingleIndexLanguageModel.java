@@ -18,11 +18,11 @@
  */
 package org.languagetool.languagemodel;
 
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.Term;
+import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.languagetool.Experimental;
 
 import java.io.File;
@@ -88,6 +88,14 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
    *                    {@code org.languagetool.dev.FrequencyIndexCreator}.
    */
   public LuceneSingleIndexLanguageModel(File topIndexDir)  {
+    this(topIndexDir, DEFAULT_COUNT_CACHE_SIZE);
+  }
+
+  /**
+   * @param countCacheSize see {@link BaseLanguageModel#BaseLanguageModel(int)}
+   */
+  LuceneSingleIndexLanguageModel(File topIndexDir, int countCacheSize)  {
+    super(countCacheSize);
     doValidateDirectory(topIndexDir);
     this.topIndexDir = topIndexDir;
     addIndex(topIndexDir, 1);
@@ -140,6 +148,72 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
     return getCount(Arrays.asList(token1));
   }
 
+  /**
+   * Looks up the ngrams of each size in sorted order with a single {@link TermsEnum},
+   * instead of running one query per ngram.
+   * @since 5.3
+   */
+  @Override
+  protected Map<List<String>, Long> fetchCounts(Collection<List<String>> ngrams) {
+    if (luceneSearcherMap.isEmpty()) {
+      // created without index by a sub class that provides counts via getCount()
+      return super.fetchCounts(ngrams);
+    }
+    Map<Integer, List<List<String>>> ngramsBySize = new TreeMap<>();
+    for (List<String> ngram : ngrams) {
+      if (ngram.size() > maxNgram) {
+        throw new RuntimeException("Requested " + ngram.size() + "gram but index has only up to " + maxNgram + "gram: " + ngram);
+      }
+      ngramsBySize.computeIfAbsent(ngram.size(), k -> new ArrayList<>()).add(ngram);
+    }
+    Map<List<String>, Long> result = new HashMap<>();
+    for (Map.Entry<Integer, List<List<String>>> entry : ngramsBySize.entrySet()) {
+      try {
+        fetchCounts(entry.getValue(), getLuceneSearcher(entry.getKey()), result);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return result;
+  }
+
+  private void fetchCounts(List<List<String>> ngrams, LuceneSearcher luceneSearcher, Map<List<String>, Long> result) throws IOException {
+    List<Map.Entry<BytesRef, List<String>>> sortedTerms = new ArrayList<>(ngrams.size());
+    for (List<String> ngram : ngrams) {
+      sortedTerms.add(new AbstractMap.SimpleImmutableEntry<>(new BytesRef(String.join(" ", ngram)), ngram));
+    }
+    // seeking in term order means the terms index is read front to back, at most once:
+    sortedTerms.sort(Map.Entry.comparingByKey());
+    Terms terms = MultiFields.getTerms(luceneSearcher.reader, "ngram");
+    if (terms == null) {
+      sortedTerms.forEach(term -> result.put(term.getValue(), 0L));
+      return;
+    }
+    Bits liveDocs = MultiFields.getLiveDocs(luceneSearcher.reader);
+    Set<String> countField = Collections.singleton("count");
+    TermsEnum termsEnum = terms.iterator();
+    PostingsEnum postings = null;
+    for (Map.Entry<BytesRef, List<String>> term : sortedTerms) {
+      long count = 0;
+      if (termsEnum.seekExact(term.getKey())) {
+        postings = termsEnum.postings(postings, PostingsEnum.NONE);
+        int docCount = 0;
+        int doc;
+        while ((doc = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (liveDocs != null && !liveDocs.get(doc)) {
+            continue;
+          }
+          if (++docCount > 2000) {
+            throw new RuntimeException("More than 2000 matches for '" + term.getKey().utf8ToString() +
+                                       "' not supported for performance reasons in " + luceneSearcher.directory);
+          }
+          count += Long.parseLong(luceneSearcher.reader.document(doc, countField).get("count"));
+        }
+      }
+      result.put(term.getValue(), count);
+    }
+  }
+
   @Override
   public long getTotalTokenCount() {
     LuceneSearcher luceneSearcher = getLuceneSearcher(1);
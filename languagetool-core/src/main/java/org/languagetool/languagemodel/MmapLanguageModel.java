@@ -0,0 +1,409 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import com.google.common.hash.Hashing;
+import org.languagetool.Experimental;
+
+import java.io.*;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Information about ngram occurrences, taken from memory-mapped files (one file per ngram level,
+ * called {@code 1grams.bin}, {@code 2grams.bin} etc.) as created by
+ * {@code org.languagetool.dev.bigdata.LuceneToMmapNgrams}. Compared to {@link LuceneLanguageModel},
+ * a lookup is just a search in a sorted array of ngram hashes, and the operating system's page
+ * cache is shared by all processes using the same files.
+ *
+ * <p>File format: a header (see {@link #HEADER_SIZE}), the sorted 64-bit hashes of all ngrams, then
+ * one 16-bit count per ngram in the same order. Counts below 32768 are stored exactly, larger ones
+ * on a logarithmic scale with a relative error below 0.1%. As only hashes are stored, a lookup of an
+ * unknown ngram can in theory return the count of another ngram, but with 64-bit hashes that is
+ * very unlikely (about 1 in 10^10 for a billion ngrams).
+ * @since 5.3
+ */
+@Experimental
+public class MmapLanguageModel extends BaseLanguageModel {
+
+  static final int MAGIC = 0x4C544E47;  // "LTNG"
+  static final int VERSION = 1;
+  /** magic, version, ngram size (int each), padding (int), ngram count, total token count (long each) */
+  static final int HEADER_SIZE = 32;
+
+  private static final int EXACT_COUNT_LIMIT = 1 << 15;
+  // 15 bits for log(count) up to log(Long.MAX_VALUE) = 43.7:
+  private static final double LOG_SCALE = 700.0;
+
+  private final Map<Integer, NgramFile> files = new HashMap<>();
+  private final File topDir;
+  private final int maxNgram;
+
+  /**
+   * @return true if {@code topDir} contains ngram files in the format of this class
+   */
+  public static boolean isMmapDirectory(File topDir) {
+    return getFile(topDir, 1).isFile();
+  }
+
+  /**
+   * @param topDir a directory with at least the files {@code 1grams.bin}, {@code 2grams.bin}, and {@code 3grams.bin}
+   */
+  public MmapLanguageModel(File topDir) {
+    this.topDir = topDir;
+    for (int ngramSize = 1; ngramSize <= 4; ngramSize++) {
+      File file = getFile(topDir, ngramSize);
+      if (file.isFile()) {
+        try {
+          files.put(ngramSize, new NgramFile(file, ngramSize));
+        } catch (IOException e) {
+          throw new RuntimeException("Could not open " + file, e);
+        }
+      }
+    }
+    for (int ngramSize = 1; ngramSize <= 3; ngramSize++) {
+      if (!files.containsKey(ngramSize)) {
+        throw new RuntimeException("Expected at least '1grams.bin', '2grams.bin', and '3grams.bin' but only got " +
+          files.keySet() + " in " + topDir.getAbsolutePath());
+      }
+    }
+    maxNgram = Collections.max(files.keySet());
+  }
+
+  static File getFile(File topDir, int ngramSize) {
+    return new File(topDir, ngramSize + "grams.bin");
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    if (tokens.size() > maxNgram) {
+      throw new RuntimeException("Requested " + tokens.size() + "gram but index has only up to " + maxNgram + "gram: " + tokens);
+    }
+    NgramFile file = files.get(tokens.size());
+    if (file == null) {
+      throw new RuntimeException("No " + tokens.size() + "grams.bin found in " + topDir);
+    }
+    return file.getCount(hash(String.join(" ", tokens)));
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    return files.get(1).getCount(hash(token1));
+  }
+
+  /**
+   * Looks up the ngrams of each size ordered by hash, so the mapped files are read front to back.
+   */
+  @Override
+  protected Map<List<String>, Long> fetchCounts(Collection<List<String>> ngrams) {
+    List<Map.Entry<Long, List<String>>> hashed = new ArrayList<>(ngrams.size());
+    for (List<String> ngram : ngrams) {
+      if (ngram.size() > maxNgram) {
+        throw new RuntimeException("Requested " + ngram.size() + "gram but index has only up to " + maxNgram + "gram: " + ngram);
+      }
+      hashed.add(new AbstractMap.SimpleImmutableEntry<>(hash(String.join(" ", ngram)), ngram));
+    }
+    hashed.sort(Comparator.comparing((Map.Entry<Long, List<String>> e) -> e.getValue().size()).thenComparing(Map.Entry::getKey));
+    Map<List<String>, Long> result = new HashMap<>();
+    for (Map.Entry<Long, List<String>> entry : hashed) {
+      NgramFile file = files.get(entry.getValue().size());
+      if (file == null) {
+        throw new RuntimeException("No " + entry.getValue().size() + "grams.bin found in " + topDir);
+      }
+      result.put(entry.getValue(), file.getCount(entry.getKey()));
+    }
+    return result;
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    return files.get(1).totalTokenCount;
+  }
+
+  @Override
+  public void close() {
+    // nothing to do: the mappings stay valid until garbage collected, even after closing their channels
+  }
+
+  @Override
+  public String toString() {
+    return topDir.toString();
+  }
+
+  /**
+   * The hash under which an ngram (tokens joined with a space) is stored.
+   */
+  static long hash(String ngram) {
+    return Hashing.murmur3_128().hashString(ngram, StandardCharsets.UTF_8).asLong();
+  }
+
+  static short quantize(long count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Negative count: " + count);
+    }
+    if (count < EXACT_COUNT_LIMIT) {
+      return (short) count;
+    }
+    long code = Math.round(Math.log(count) * LOG_SCALE);
+    return (short) (EXACT_COUNT_LIMIT | Math.min(code, EXACT_COUNT_LIMIT - 1));
+  }
+
+  static long dequantize(short quantized) {
+    int value = quantized & 0xFFFF;
+    if (value < EXACT_COUNT_LIMIT) {
+      return value;
+    }
+    return Math.round(Math.exp((value & (EXACT_COUNT_LIMIT - 1)) / LOG_SCALE));
+  }
+
+  /**
+   * One memory-mapped file. As a single mapping is limited to 2GB, larger files are mapped in segments.
+   */
+  private static class NgramFile {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long ngramCount;
+    private final long totalTokenCount;
+    private final long countsOffset;
+
+    NgramFile(File file, int ngramSize) throws IOException {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+           FileChannel channel = raf.getChannel()) {
+        long size = channel.size();
+        int segmentCount = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+          long start = (long) i << SEGMENT_BITS;
+          segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(1L << SEGMENT_BITS, size - start));
+          segments[i].order(ByteOrder.BIG_ENDIAN);
+        }
+        if (size < HEADER_SIZE || segments[0].getInt(0) != MAGIC) {
+          throw new IOException("Not an ngram file: " + file);
+        }
+        if (segments[0].getInt(4) != VERSION) {
+          throw new IOException("Unsupported ngram file version " + segments[0].getInt(4) + ", expected " + VERSION + ": " + file);
+        }
+        if (segments[0].getInt(8) != ngramSize) {
+          throw new IOException("Expected " + ngramSize + "grams, but file contains " + segments[0].getInt(8) + "grams: " + file);
+        }
+        ngramCount = segments[0].getLong(16);
+        totalTokenCount = segments[0].getLong(24);
+        countsOffset = HEADER_SIZE + ngramCount * 8;
+        if (size != countsOffset + ngramCount * 2) {
+          throw new IOException("Unexpected size " + size + " for " + ngramCount + " ngrams, file may be truncated: " + file);
+        }
+      }
+    }
+
+    // hashes are 8-byte aligned and segments are a multiple of 8 bytes, so a value never spans two segments
+    private long getHash(long index) {
+      long pos = HEADER_SIZE + index * 8;
+      return segments[(int) (pos >>> SEGMENT_BITS)].getLong((int) (pos & SEGMENT_MASK));
+    }
+
+    private short getQuantizedCount(long index) {
+      long pos = countsOffset + index * 2;
+      return segments[(int) (pos >>> SEGMENT_BITS)].getShort((int) (pos & SEGMENT_MASK));
+    }
+
+    long getCount(long hash) {
+      long index = find(hash);
+      return index >= 0 ? dequantize(getQuantizedCount(index)) : 0;
+    }
+
+    /**
+     * Interpolation search, as hashes are uniformly distributed. This needs far fewer probes
+     * (and thus page accesses) than a binary search. Falls back to binary search for small ranges
+     * or if interpolation doesn't converge quickly.
+     */
+    private long find(long hash) {
+      long lo = 0;
+      long hi = ngramCount - 1;
+      int interpolationSteps = 0;
+      while (lo <= hi) {
+        long loHash = getHash(lo);
+        long hiHash = getHash(hi);
+        if (hash < loHash || hash > hiHash) {
+          return -1;
+        }
+        long mid;
+        if (hi - lo > 16 && interpolationSteps++ < 8 && hiHash != loHash) {
+          double fraction = ((double) hash - loHash) / ((double) hiHash - loHash);
+          mid = Math.min(hi, Math.max(lo, lo + (long) (fraction * (hi - lo))));
+        } else {
+          mid = (lo + hi) >>> 1;
+        }
+        long midHash = getHash(mid);
+        if (midHash == hash) {
+          return mid;
+        } else if (midHash < hash) {
+          lo = mid + 1;
+        } else {
+          hi = mid - 1;
+        }
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * Writes one ngram file. Ngrams can be added in any order and more than once (their counts
+   * are summed up). To keep memory usage low, entries are first distributed by hash into temporary
+   * files which are then sorted one by one.
+   */
+  public static class Writer implements AutoCloseable {
+
+    private static final int BUCKET_BITS = 8;
+
+    private final File file;
+    private final int ngramSize;
+    private final File tempDir;
+    private final File[] bucketFiles = new File[1 << BUCKET_BITS];
+    private final DataOutputStream[] buckets = new DataOutputStream[1 << BUCKET_BITS];
+    private long totalTokenCount;
+
+    /**
+     * @param topDir the directory to write {@code <ngramSize>grams.bin} to
+     * @param tempDir directory for temporary files, needs about as much space as the resulting file
+     */
+    public Writer(File topDir, int ngramSize, File tempDir) throws IOException {
+      this.file = getFile(topDir, ngramSize);
+      this.ngramSize = ngramSize;
+      this.tempDir = tempDir;
+      for (int i = 0; i < buckets.length; i++) {
+        bucketFiles[i] = File.createTempFile(ngramSize + "grams-bucket-" + i + "-", ".tmp", tempDir);
+        buckets[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(bucketFiles[i]), 1 << 16));
+      }
+    }
+
+    /**
+     * Only relevant for the 1grams file, the {@link #getTotalTokenCount()} of the language model.
+     */
+    public void setTotalTokenCount(long totalTokenCount) {
+      this.totalTokenCount = totalTokenCount;
+    }
+
+    /**
+     * @param ngram the tokens of the ngram, joined by a space
+     */
+    public void add(String ngram, long count) throws IOException {
+      long hash = hash(ngram);
+      // flip the sign bit so that buckets are in signed order of the hashes:
+      int bucket = (int) ((hash ^ Long.MIN_VALUE) >>> (64 - BUCKET_BITS));
+      buckets[bucket].writeLong(hash);
+      buckets[bucket].writeLong(count);
+    }
+
+    @Override
+    public void close() throws IOException {
+      for (DataOutputStream bucket : buckets) {
+        bucket.close();
+      }
+      File countsFile = File.createTempFile(ngramSize + "grams-counts-", ".tmp", tempDir);
+      long ngramCount = 0;
+      try {
+        try (DataOutputStream hashOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+             DataOutputStream countOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(countsFile), 1 << 16))) {
+          hashOut.write(new byte[HEADER_SIZE]);  // written at the end, when the number of ngrams is known
+          for (File bucketFile : bucketFiles) {
+            ngramCount += writeBucket(bucketFile, hashOut, countOut);
+          }
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+          Files.copy(countsFile.toPath(), out);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+          raf.writeInt(MAGIC);
+          raf.writeInt(VERSION);
+          raf.writeInt(ngramSize);
+          raf.writeInt(0);
+          raf.writeLong(ngramCount);
+          raf.writeLong(totalTokenCount);
+        }
+      } finally {
+        countsFile.delete();
+        for (File bucketFile : bucketFiles) {
+          bucketFile.delete();
+        }
+      }
+    }
+
+    private static long writeBucket(File bucketFile, DataOutputStream hashOut, DataOutputStream countOut) throws IOException {
+      int size = (int) (bucketFile.length() / 16);
+      long[] hashes = new long[size];
+      long[] counts = new long[size];
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(bucketFile), 1 << 16))) {
+        for (int i = 0; i < size; i++) {
+          hashes[i] = in.readLong();
+          counts[i] = in.readLong();
+        }
+      }
+      sort(hashes, counts, 0, size - 1);
+      long written = 0;
+      int i = 0;
+      while (i < size) {
+        long hash = hashes[i];
+        long count = 0;
+        while (i < size && hashes[i] == hash) {
+          count += counts[i++];
+        }
+        hashOut.writeLong(hash);
+        countOut.writeShort(quantize(count));
+        written++;
+      }
+      return written;
+    }
+
+    // quicksort of hashes, moving counts along
+    private static void sort(long[] hashes, long[] counts, int lo, int hi) {
+      while (lo < hi) {
+        long pivot = hashes[(lo + hi) >>> 1];
+        int i = lo;
+        int j = hi;
+        while (i <= j) {
+          while (hashes[i] < pivot) i++;
+          while (hashes[j] > pivot) j--;
+          if (i <= j) {
+            long tmp = hashes[i]; hashes[i] = hashes[j]; hashes[j] = tmp;
+            tmp = counts[i]; counts[i] = counts[j]; counts[j] = tmp;
+            i++;
+            j--;
+          }
+        }
+        // recurse into the smaller part to limit stack depth
+        if (j - lo < hi - i) {
+          sort(hashes, counts, lo, j);
+          lo = i;
+        } else {
+          sort(hashes, counts, i, hi);
+          hi = j;
+        }
+      }
+    }
+  }
+}
@@ -20,7 +20,7 @@ package org.languagetool.languagemodel;
 
 import org.languagetool.rules.ngrams.Probability;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * Combines the results of several {@link LanguageModel}s.
@@ -53,6 +53,27 @@ public class MultiLanguageModel implements LanguageModel {
     return new Probability(prob, coverage/lms.size(), occurrences);
   }
 
+  @Override
+  public List<Probability> getPseudoProbabilities(List<List<String>> contexts) {
+    List<List<Probability>> lmProbs = new ArrayList<>(lms.size());
+    for (LanguageModel lm : lms) {
+      lmProbs.add(lm.getPseudoProbabilities(contexts));
+    }
+    List<Probability> result = new ArrayList<>(contexts.size());
+    for (int i = 0; i < contexts.size(); i++) {
+      double prob = 0;
+      float coverage = 0;
+      long occurrences = 0;
+      for (List<Probability> probs : lmProbs) {
+        prob += probs.get(i).getProb();
+        coverage += probs.get(i).getCoverage();
+        occurrences += probs.get(i).getOccurrences();
+      }
+      result.add(new Probability(prob, coverage/lms.size(), occurrences));
+    }
+    return result;
+  }
+
   @Override
   public void close() {
     lms.stream().forEach(LanguageModel::close);
@@ -0,0 +1,198 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A size-bounded cache from ngrams to their occurrence counts. The cache is split into shards
+ * with one lock each, so concurrent checks rarely wait for each other. Within a shard, the least
+ * recently used entry is the eviction candidate, but a new entry only replaces it if it has been
+ * requested more often recently (TinyLFU admission). The frequencies are estimated with a small
+ * count-min sketch that is halved periodically, so that one-off lookups, which are most lookups
+ * for rare ngrams, don't push out the frequent ones.
+ * @since 5.3
+ */
+class NgramCountCache {
+
+  private static final int SHARD_COUNT = 16;
+
+  private final Shard[] shards = new Shard[SHARD_COUNT];
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * @param maxSize maximum number of ngrams to cache
+   */
+  NgramCountCache(int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maxSize must be > 0: " + maxSize);
+    }
+    int shardSize = Math.max(1, maxSize / SHARD_COUNT);
+    for (int i = 0; i < SHARD_COUNT; i++) {
+      shards[i] = new Shard(shardSize);
+    }
+  }
+
+  /**
+   * @return the cached count or {@code null}
+   */
+  Long getIfPresent(List<String> ngram) {
+    int hash = spread(ngram.hashCode());
+    Long count = shardFor(hash).get(ngram, hash);
+    if (count != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return count;
+  }
+
+  /**
+   * Add a count, unless admission prefers to keep the entry that would be evicted for it.
+   */
+  void put(List<String> ngram, long count) {
+    int hash = spread(ngram.hashCode());
+    // copy, as the key may be a sub list of a larger list:
+    shardFor(hash).put(Collections.unmodifiableList(new ArrayList<>(ngram)), hash, count);
+  }
+
+  long getHitCount() {
+    return hits.sum();
+  }
+
+  long getMissCount() {
+    return misses.sum();
+  }
+
+  long size() {
+    long size = 0;
+    for (Shard shard : shards) {
+      size += shard.size();
+    }
+    return size;
+  }
+
+  private Shard shardFor(int hash) {
+    return shards[(hash >>> 28) & (SHARD_COUNT - 1)];
+  }
+
+  private static int spread(int hash) {
+    hash *= 0x9E3779B9;
+    return hash ^ (hash >>> 16);
+  }
+
+  private static class Shard {
+
+    private final int maxSize;
+    private final LinkedHashMap<List<String>, Long> entries;
+    private final FrequencySketch sketch;
+
+    Shard(int maxSize) {
+      this.maxSize = maxSize;
+      this.entries = new LinkedHashMap<>(16, 0.75f, true);
+      this.sketch = new FrequencySketch(maxSize);
+    }
+
+    synchronized Long get(List<String> ngram, int hash) {
+      sketch.increment(hash);
+      return entries.get(ngram);
+    }
+
+    synchronized void put(List<String> ngram, int hash, long count) {
+      if (entries.containsKey(ngram)) {
+        entries.put(ngram, count);
+        return;
+      }
+      if (entries.size() >= maxSize) {
+        Iterator<Map.Entry<List<String>, Long>> iterator = entries.entrySet().iterator();
+        List<String> victim = iterator.next().getKey();
+        if (sketch.frequency(hash) <= sketch.frequency(spread(victim.hashCode()))) {
+          return;
+        }
+        iterator.remove();
+      }
+      entries.put(ngram, count);
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Count-min sketch with four rows of 4-bit counters (stored in bytes for simplicity).
+   * All counters are halved once the number of increments reaches ten times the shard
+   * size, so the estimates reflect recent requests.
+   */
+  private static class FrequencySketch {
+
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97CB3127, 0xB492B66F, 0x9AE16A3B, 0xCBF29CE4};
+
+    private final int sampleSize;
+    private final int mask;
+    private byte[] counters;  // created on first use, as many models are never queried
+    private int additions;
+
+    FrequencySketch(int maxSize) {
+      int width = Integer.highestOneBit(Math.max(16, maxSize) * 2 - 1);
+      this.mask = width - 1;
+      this.sampleSize = 10 * maxSize;
+    }
+
+    void increment(int hash) {
+      if (counters == null) {
+        counters = new byte[SEEDS.length * (mask + 1)];
+      }
+      boolean added = false;
+      for (int row = 0; row < SEEDS.length; row++) {
+        int index = index(hash, row);
+        if (counters[index] < MAX_COUNT) {
+          counters[index]++;
+          added = true;
+        }
+      }
+      if (added && ++additions >= sampleSize) {
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] >>= 1;
+        }
+        additions /= 2;
+      }
+    }
+
+    int frequency(int hash) {
+      if (counters == null) {
+        return 0;
+      }
+      int frequency = MAX_COUNT;
+      for (int row = 0; row < SEEDS.length; row++) {
+        frequency = Math.min(frequency, counters[index(hash, row)]);
+      }
+      return frequency;
+    }
+
+    private int index(int hash, int row) {
+      int h = (hash ^ SEEDS[row]) * 0x85EBCA6B;
+      h ^= h >>> 13;
+      return row * (mask + 1) + (h & mask);
+    }
+  }
+}
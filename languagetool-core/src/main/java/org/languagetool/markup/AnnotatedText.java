@@ -20,9 +20,7 @@ package org.languagetool.markup;
 
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
 /**
  * A text with markup and with a mapping so error positions will refer to the original
@@ -42,15 +40,25 @@ public class AnnotatedText {
   }
 
   private final List<TextPart> parts;
-  private final Map<Integer, MappingValue> mapping;  // plain text position to original text (with markup) position
+  // plain text position to original text (with markup) position, sorted by plain text position:
+  private final int[] mappingPositions;
+  private final MappingValue[] mappingValues;
   private final Map<MetaDataKey, String> metaData;
   private final Map<String, String> customMetaData;
 
   AnnotatedText(List<TextPart> parts, Map<Integer, MappingValue> mapping, Map<MetaDataKey, String> metaData, Map<String, String> customMetaData) {
     this.parts = Objects.requireNonNull(parts);
-    this.mapping = Objects.requireNonNull(mapping);
     this.metaData = Objects.requireNonNull(metaData);
     this.customMetaData = Objects.requireNonNull(customMetaData);
+    SortedMap<Integer, MappingValue> sortedMapping = new TreeMap<>(Objects.requireNonNull(mapping));
+    mappingPositions = new int[sortedMapping.size()];
+    mappingValues = new MappingValue[sortedMapping.size()];
+    int i = 0;
+    for (Map.Entry<Integer, MappingValue> entry : sortedMapping.entrySet()) {
+      mappingPositions[i] = entry.getKey();
+      mappingValues[i] = entry.getValue();
+      i++;
+    }
   }
 
   /**
@@ -104,26 +112,18 @@ public class AnnotatedText {
     if (plainTextPosition < 0) {
       throw new IllegalArgumentException("plainTextPosition must be >= 0: " + plainTextPosition);
     }
-    if (mapping.isEmpty()) {
+    if (mappingPositions.length == 0) {
       return 0;
     }
-    int minDiff = Integer.MAX_VALUE;
-    MappingValue bestMatch = null;
-    // algorithm: find the closest lower position
-    for (Map.Entry<Integer, MappingValue> entry : mapping.entrySet()) {
-      int maybeClosePosition = entry.getKey();
-      if (plainTextPosition < maybeClosePosition) {
-        int diff = maybeClosePosition - plainTextPosition;
-        if (diff > 0 && diff < minDiff) {
-          bestMatch = entry.getValue();
-          minDiff = diff;
-        }
-      }
-    }
-    if (bestMatch == null) {
-      String msg = "mappings: " + (mapping.size() < 5 ? mapping : mapping.size());
+    // algorithm: find the closest mapped position that's larger than the given one
+    int idx = Arrays.binarySearch(mappingPositions, plainTextPosition);
+    idx = idx >= 0 ? idx + 1 : -idx - 1;
+    if (idx >= mappingPositions.length) {
+      String msg = "mappings: " + (mappingPositions.length < 5 ? Arrays.toString(mappingPositions) : mappingPositions.length);
       throw new RuntimeException("Could not map " + plainTextPosition + " to original position. isToPos: " + isToPos + ", " + msg);
     }
+    MappingValue bestMatch = mappingValues[idx];
+    int minDiff = mappingPositions[idx] - plainTextPosition;
     // we remove markup total length if usage of fake markup and need from position
     if (!isToPos && bestMatch.getFakeMarkupLength() > 0) {
       minDiff = bestMatch.getFakeMarkupLength();
@@ -21,6 +21,7 @@ package org.languagetool.rules;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
@@ -413,7 +414,17 @@ public class RuleMatch implements Comparable<RuleMatch> {
    */
   public void setLazySuggestedReplacements(@NotNull Supplier<List<SuggestedReplacement>> replacements) {
     Objects.requireNonNull(replacements, "replacements may not be null");
-    suggestedReplacements = Suppliers.memoize(replacements::get);
+    suggestedReplacements = new LazySuggestions(replacements);
+  }
+
+  /**
+   * Whether the suggested replacements are available without computing them, i.e.
+   * they have not been set lazily or the lazy supplier has already been used.
+   * @since 5.3
+   */
+  @ApiStatus.Internal
+  public boolean areSuggestionsComputed() {
+    return !(suggestedReplacements instanceof LazySuggestions) || ((LazySuggestions) suggestedReplacements).isComputed();
   }
 
   /**
@@ -529,4 +540,33 @@ public class RuleMatch implements Comparable<RuleMatch> {
       super(start, end);
     }
   }
+
+  /** Like {@code Suppliers.memoize()}, but can tell whether the value has been computed yet. */
+  private static class LazySuggestions implements Supplier<List<SuggestedReplacement>> {
+    private Supplier<List<SuggestedReplacement>> delegate;
+    private List<SuggestedReplacement> value;
+    private volatile boolean computed;
+
+    LazySuggestions(Supplier<List<SuggestedReplacement>> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public List<SuggestedReplacement> get() {
+      if (!computed) {
+        synchronized (this) {
+          if (!computed) {
+            value = delegate.get();
+            delegate = null;
+            computed = true;
+          }
+        }
+      }
+      return value;
+    }
+
+    boolean isComputed() {
+      return computed;
+    }
+  }
 }
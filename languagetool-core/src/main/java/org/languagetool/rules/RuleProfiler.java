@@ -0,0 +1,186 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.languagetool.Experimental;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Collects run time, allocated bytes and match count per rule id. Only a random sample
+ * of the checked sentences is measured (see {@link #shouldSample()}), so this is cheap
+ * enough to be always enabled in production. Thread-safe, one instance can be shared
+ * by all {@link org.languagetool.JLanguageTool} instances.
+ * @since 5.3
+ */
+@Experimental
+public class RuleProfiler {
+
+  private static final com.sun.management.ThreadMXBean threadBean = getAllocationCountingThreadBean();
+
+  private final int sampleRate;
+  private final ConcurrentMap<String, RuleStats> stats = new ConcurrentHashMap<>();
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param sampleRate measure on average one out of {@code sampleRate} sentences, use 1 to measure all sentences
+   */
+  public RuleProfiler(int sampleRate) {
+    if (sampleRate < 1) {
+      throw new IllegalArgumentException("sampleRate must be >= 1: " + sampleRate);
+    }
+    this.sampleRate = sampleRate;
+  }
+
+  private static com.sun.management.ThreadMXBean getAllocationCountingThreadBean() {
+    try {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+          return sunBean;
+        }
+      }
+    } catch (LinkageError ignored) {
+      // not a HotSpot-based JVM, no allocation counting
+    }
+    return null;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  /**
+   * Whether the next sentence (or text, for text-level rules) should be measured.
+   */
+  public boolean shouldSample() {
+    return sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+  }
+
+  /**
+   * @return the number of bytes allocated so far by the current thread, or 0 if the JVM cannot tell
+   */
+  public static long currentThreadAllocatedBytes() {
+    if (threadBean == null) {
+      return 0;
+    }
+    return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Record one measured run of {@code rule}.
+   */
+  public void record(Rule rule, long nanos, long allocatedBytes, int matchCount) {
+    String ruleId = rule.getId();
+    stats.computeIfAbsent(ruleId, RuleStats::new).add(nanos, allocatedBytes, matchCount);
+    for (Listener listener : listeners) {
+      listener.ruleProfiled(ruleId, nanos, allocatedBytes, matchCount);
+    }
+  }
+
+  public void addListener(Listener listener) {
+    listeners.add(Objects.requireNonNull(listener));
+  }
+
+  /**
+   * @return the rules with the highest total measured time, slowest first
+   */
+  public List<RuleStats> getSlowestRules(int limit) {
+    return stats.values().stream()
+      .sorted(Comparator.comparingLong(RuleStats::getTotalNanos).reversed())
+      .limit(limit)
+      .collect(Collectors.toList());
+  }
+
+  public void reset() {
+    stats.clear();
+  }
+
+  /**
+   * Gets informed about every measured rule run, e.g. to export the data to a monitoring system.
+   */
+  public interface Listener {
+    void ruleProfiled(String ruleId, long nanos, long allocatedBytes, int matchCount);
+  }
+
+  /**
+   * Aggregated measurements for one rule id. The counters are striped ({@link LongAdder}), so
+   * concurrent updates don't contend, but a snapshot taken while checks are running
+   * isn't necessarily consistent across the counters.
+   */
+  public static final class RuleStats {
+
+    private final String ruleId;
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+
+    RuleStats(String ruleId) {
+      this.ruleId = ruleId;
+    }
+
+    void add(long nanos, long bytes, int matchCount) {
+      samples.increment();
+      totalNanos.add(nanos);
+      allocatedBytes.add(bytes);
+      matches.add(matchCount);
+    }
+
+    public String getRuleId() {
+      return ruleId;
+    }
+
+    public long getSamples() {
+      return samples.sum();
+    }
+
+    public long getTotalNanos() {
+      return totalNanos.sum();
+    }
+
+    public long getAllocatedBytes() {
+      return allocatedBytes.sum();
+    }
+
+    public long getMatches() {
+      return matches.sum();
+    }
+
+    public double getAverageMillis() {
+      long count = getSamples();
+      return count == 0 ? 0 : getTotalNanos() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public String toString() {
+      return ruleId + ": " + getSamples() + " samples, " + getTotalNanos() / 1_000_000 + "ms";
+    }
+  }
+
+}
@@ -137,6 +137,8 @@ public abstract class ConfusionProbabilityRule extends Rule {
       // 2 tokens: first is always _START_ so there's no "real" context. Ignore these cases.
       return matches.toArray(new RuleMatch[0]);
     }
+    // collect the candidates of the whole sentence first, so their ngrams can be looked up at once:
+    List<Candidate> candidates = new ArrayList<>();
     int pos = 0;
     boolean realWordBefore = false;  // more advanced than simple checking for sentence start, as it skips quotes etc.
     for (GoogleToken googleToken : tokens) {
@@ -156,45 +158,102 @@ public abstract class ConfusionProbabilityRule extends Rule {
           boolean isEasilyConfused = confusionPair != null;
           if (isEasilyConfused) {
             List<ConfusionString> pairs = uppercase ? confusionPair.getUppercaseFirstCharTerms() : confusionPair.getTerms();
-            ConfusionString betterAlternative = getBetterAlternativeOrNull(tokens.get(pos), tokens, pairs, confusionPair.getFactor());
-            if (betterAlternative != null && !isException(text, googleToken.startPos, googleToken.endPos)) {
-              if (!confusionPair.isBidirectional() && betterAlternative.getString().equals(pairs.get(0).getString())) {
-                // only direction A -> B is possible, i.e. if A is used incorrectly, B is suggested - not vice versa
-                continue;
-              }
-              ConfusionString stringFromText = getConfusionString(pairs, tokens.get(pos));
-              String message = getMessage(stringFromText, betterAlternative);
-              List<String> suggestions = new ArrayList<>(getSuggestions(message));
-              if (!suggestions.contains(betterAlternative.getString())) {
-                suggestions.add(betterAlternative.getString());
-              }
-              if (pos > 0 && "_START_".equals(tokens.get(pos-1).token) && tokens.size() > pos+1 && tokens.get(pos+1).token != null && !tokens.get(pos+1).token.matches("\\w+")) {
-                // Let's assume there is not enough data for this. The original problem was a false alarm for
-                // "Resolves:" (-> "Resolved:")
-                continue;
-              }
-              if (isCoveredByAntiPattern(sentence, googleToken)) {
-                continue;
-              }
-              if (!isLocalException(sentence, googleToken)) {
-                String term1 = confusionPair.getTerms().get(0).getString();
-                String term2 = confusionPair.getTerms().get(1).getString();
-                String id = getId() + "_" + cleanId(term1) +  "_" + cleanId(term2);
-                String desc = getDescription(term1, term2);
-                String shortDesc = Tools.i18n(messages, "statistics_suggest_short_desc");
-                RuleMatch match = new RuleMatch(new SpecificIdRule(id, desc, messages, lm, language), sentence, googleToken.startPos, googleToken.endPos, message, shortDesc);
-                match.setSuggestedReplacements(suggestions);
-                matches.add(match);
-              }
+            if (pairs.size() != 2) {
+              throw new RuntimeException("Confusion set must be of size 2: " + pairs);
             }
+            candidates.add(new Candidate(pos, token, confusionPair, pairs, getAlternativeTerm(pairs, googleToken)));
           }
         }
       }
       pos++;
     }
+    calculateProbabilities(candidates, tokens);
+    for (Candidate candidate : candidates) {
+      pos = candidate.pos;
+      GoogleToken googleToken = tokens.get(pos);
+      ConfusionPair confusionPair = candidate.confusionPair;
+      List<ConfusionString> pairs = candidate.pairs;
+      ConfusionString betterAlternative = getBetterAlternativeOrNull(candidate, confusionPair.getFactor());
+      if (betterAlternative != null && !isException(text, googleToken.startPos, googleToken.endPos)) {
+        if (!confusionPair.isBidirectional() && betterAlternative.getString().equals(pairs.get(0).getString())) {
+          // only direction A -> B is possible, i.e. if A is used incorrectly, B is suggested - not vice versa
+          continue;
+        }
+        ConfusionString stringFromText = getConfusionString(pairs, googleToken);
+        String message = getMessage(stringFromText, betterAlternative);
+        List<String> suggestions = new ArrayList<>(getSuggestions(message));
+        if (!suggestions.contains(betterAlternative.getString())) {
+          suggestions.add(betterAlternative.getString());
+        }
+        if (pos > 0 && "_START_".equals(tokens.get(pos-1).token) && tokens.size() > pos+1 && tokens.get(pos+1).token != null && !tokens.get(pos+1).token.matches("\\w+")) {
+          // Let's assume there is not enough data for this. The original problem was a false alarm for
+          // "Resolves:" (-> "Resolved:")
+          continue;
+        }
+        if (isCoveredByAntiPattern(sentence, googleToken)) {
+          continue;
+        }
+        if (!isLocalException(sentence, googleToken)) {
+          String term1 = confusionPair.getTerms().get(0).getString();
+          String term2 = confusionPair.getTerms().get(1).getString();
+          String id = getId() + "_" + cleanId(term1) +  "_" + cleanId(term2);
+          String desc = getDescription(term1, term2);
+          String shortDesc = Tools.i18n(messages, "statistics_suggest_short_desc");
+          RuleMatch match = new RuleMatch(new SpecificIdRule(id, desc, messages, lm, language), sentence, googleToken.startPos, googleToken.endPos, message, shortDesc);
+          match.setSuggestedReplacements(suggestions);
+          matches.add(match);
+        }
+      }
+    }
     return matches.toArray(new RuleMatch[0]);
   }
 
+  /**
+   * Calculate the probabilities of the text's word and its alternative for all candidates,
+   * with a single batch of language model lookups.
+   */
+  private void calculateProbabilities(List<Candidate> candidates, List<GoogleToken> tokens) {
+    List<List<String>> contexts = new ArrayList<>();
+    for (Candidate candidate : candidates) {
+      GoogleToken token = tokens.get(candidate.pos);
+      candidate.wordContexts = getContexts(token, tokens, candidate.word);
+      candidate.otherWordContexts = getContexts(token, tokens, candidate.otherWord.getString());
+      if (candidate.wordContexts != null) {
+        contexts.addAll(candidate.wordContexts);
+      }
+      if (candidate.otherWordContexts != null) {
+        contexts.addAll(candidate.otherWordContexts);
+      }
+    }
+    List<Probability> probs = contexts.isEmpty() ? Collections.emptyList() : lm.getPseudoProbabilities(contexts);
+    int i = 0;
+    for (Candidate candidate : candidates) {
+      if (candidate.wordContexts != null) {
+        candidate.wordProb = getProbability(probs.subList(i, i + candidate.wordContexts.size()));
+        i += candidate.wordContexts.size();
+      }
+      if (candidate.otherWordContexts != null) {
+        candidate.otherWordProb = getProbability(probs.subList(i, i + candidate.otherWordContexts.size()));
+        i += candidate.otherWordContexts.size();
+      }
+    }
+  }
+
+  @Nullable
+  private List<List<String>> getContexts(GoogleToken token, List<GoogleToken> tokens, String term) {
+    if (grams == 3) {
+      return LanguageModelUtils.get3gramContexts(language, token, tokens, term);
+    } else if (grams == 4) {
+      return LanguageModelUtils.get4gramContexts(language, token, tokens, term);
+    } else {
+      throw new RuntimeException("Only 3grams and 4grams are supported");
+    }
+  }
+
+  private double getProbability(List<Probability> probs) {
+    return grams == 3 ? LanguageModelUtils.get3gramProbability(probs) : LanguageModelUtils.get4gramProbability(probs);
+  }
+
   private boolean isCoveredByAntiPattern(AnalyzedSentence sentence, GoogleToken googleToken) {
     AnalyzedTokenReadings[] tmpTokens = getSentenceWithImmunization(sentence).getTokensWithoutWhitespace();
     for (AnalyzedTokenReadings tmpToken : tmpTokens) {
@@ -287,15 +346,6 @@ public abstract class ConfusionProbabilityRule extends Rule {
     return grams;
   }
 
-  @Nullable
-  private ConfusionString getBetterAlternativeOrNull(GoogleToken token, List<GoogleToken> tokens, List<ConfusionString> confusionSet, long factor) {
-    if (confusionSet.size() != 2) {
-      throw new RuntimeException("Confusion set must be of size 2: " + confusionSet);
-    }
-    ConfusionString other = getAlternativeTerm(confusionSet, token);
-    return getBetterAlternativeOrNull(token, tokens, other, factor);
-  }
-
   private ConfusionString getAlternativeTerm(List<ConfusionString> confusionSet, GoogleToken token) {
     for (ConfusionString s : confusionSet) {
       if (!s.getString().equals(token.token)) {
@@ -314,20 +364,12 @@ public abstract class ConfusionProbabilityRule extends Rule {
     throw new RuntimeException("Not found in set '" + confusionSet + "': " + token);
   }
 
-  private ConfusionString getBetterAlternativeOrNull(GoogleToken token, List<GoogleToken> tokens, ConfusionString otherWord, long factor) {
-    String word = token.token;
-    double p1;
-    double p2;
-    if (grams == 3) {
-      p1 = LanguageModelUtils.get3gramProbabilityFor(language, lm, token, tokens, word);
-      p2 = LanguageModelUtils.get3gramProbabilityFor(language, lm, token, tokens, otherWord.getString());
-    } else if (grams == 4) {
-      p1 = LanguageModelUtils.get4gramProbabilityFor(language, lm, token, tokens, word);
-      p2 = LanguageModelUtils.get4gramProbabilityFor(language, lm, token, tokens, otherWord.getString());
-    } else {
-      throw new RuntimeException("Only 3grams and 4grams are supported");
-    }
-    debug("%.90f <- P(" + word + ") \n", p1);
+  @Nullable
+  private ConfusionString getBetterAlternativeOrNull(Candidate candidate, long factor) {
+    double p1 = candidate.wordProb;
+    double p2 = candidate.otherWordProb;
+    ConfusionString otherWord = candidate.otherWord;
+    debug("%.90f <- P(" + candidate.word + ") \n", p1);
     debug("%.90f <- P(" + otherWord + ")\n", p2);
     return p2 >= MIN_PROB && p2 > p1 * factor ? otherWord : null;
   }
@@ -343,6 +385,27 @@ public abstract class ConfusionProbabilityRule extends Rule {
     return antiPatterns;
   }
 
+  /** A word of the sentence that might be confused with another word. */
+  private static class Candidate {
+    private final int pos;
+    private final String word;
+    private final ConfusionPair confusionPair;
+    private final List<ConfusionString> pairs;
+    private final ConfusionString otherWord;
+    private List<List<String>> wordContexts;
+    private List<List<String>> otherWordContexts;
+    private double wordProb;
+    private double otherWordProb;
+
+    Candidate(int pos, String word, ConfusionPair confusionPair, List<ConfusionString> pairs, ConfusionString otherWord) {
+      this.pos = pos;
+      this.word = word;
+      this.confusionPair = confusionPair;
+      this.pairs = pairs;
+      this.otherWord = otherWord;
+    }
+  }
+
   private static class PathAndLanguage {
     private final String path;
     private final Language lang;
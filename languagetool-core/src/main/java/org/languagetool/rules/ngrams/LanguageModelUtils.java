@@ -21,6 +21,7 @@
 
 package org.languagetool.rules.ngrams;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.Language;
 import org.languagetool.languagemodel.LanguageModel;
@@ -129,31 +130,61 @@ public final class LanguageModelUtils {
 
 
   static double get3gramProbabilityFor(Language lang, LanguageModel lm, GoogleToken token, List<GoogleToken> tokens, String term) {
+    List<List<String>> contexts = get3gramContexts(lang, token, tokens, term);
+    return contexts != null ? get3gramProbability(lm.getPseudoProbabilities(contexts)) : 0.0;
+  }
+
+  static double get4gramProbabilityFor(Language lang, LanguageModel lm, GoogleToken token, List<GoogleToken> tokens, String term) {
+    List<List<String>> contexts = get4gramContexts(lang, token, tokens, term);
+    return contexts != null ? get4gramProbability(lm.getPseudoProbabilities(contexts)) : 0.0;
+  }
+
+  /**
+   * The contexts needed to calculate the 3gram probability of {@code term} at the position of {@code token},
+   * so that the probabilities of several terms can be looked up at once and combined with
+   * {@link #get3gramProbability(List)}.
+   * @return {@code null} if the term is not supported
+   * @since 5.3
+   */
+  @Nullable
+  static List<List<String>> get3gramContexts(Language lang, GoogleToken token, List<GoogleToken> tokens, String term) {
     Tokenizer tokenizer = getGoogleStyleWordTokenizer(lang);
     List<GoogleToken> newTokens = GoogleToken.getGoogleTokens(term, false, tokenizer);
-    Probability ngram3Left;
-    Probability ngram3Middle;
-    Probability ngram3Right;
     if (newTokens.size() == 1) {
-      List<String> leftContext = getContext(token, tokens, term, 0, 2);
-      ngram3Left = lm.getPseudoProbability(leftContext);
-      logger.trace(String.format("Left  : %.90f %s\n", ngram3Left.getProb(), Arrays.asList(leftContext)));
-      List<String> middleContext = getContext(token, tokens, term, 1, 1);
-      ngram3Middle = lm.getPseudoProbability(middleContext);
-      logger.trace(String.format("Middle: %.90f %s\n", ngram3Middle.getProb(), Arrays.asList(middleContext)));
-      List<String> rightContext = getContext(token, tokens, term, 2, 0);
-      ngram3Right = lm.getPseudoProbability(rightContext);
-      logger.trace(String.format("Right : %.90f %s\n", ngram3Right.getProb(), Arrays.asList(rightContext)));
+      return Arrays.asList(
+        getContext(token, tokens, term, 0, 2),
+        getContext(token, tokens, term, 1, 1),
+        getContext(token, tokens, term, 2, 0));
     } else if (newTokens.size() == 2) {
       // e.g. you're -> you 're
-      ngram3Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 1));
-      ngram3Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 0));
+      return Arrays.asList(
+        getContext(token, tokens, newTokens, 0, 1),
+        getContext(token, tokens, newTokens, 1, 0));
+    } else {
+      logger.warn("Words that consists of more than 2 tokens (according to Google tokenization) are not supported yet: " + term + " -> " + newTokens);
+      return null;
+    }
+  }
+
+  /**
+   * @param probs the probabilities of the contexts from {@link #get3gramContexts}
+   * @since 5.3
+   */
+  static double get3gramProbability(List<Probability> probs) {
+    Probability ngram3Left = probs.get(0);
+    Probability ngram3Middle;
+    Probability ngram3Right;
+    if (probs.size() == 3) {
+      ngram3Middle = probs.get(1);
+      ngram3Right = probs.get(2);
+      logger.trace(String.format("Left  : %.90f\n", ngram3Left.getProb()));
+      logger.trace(String.format("Middle: %.90f\n", ngram3Middle.getProb()));
+      logger.trace(String.format("Right : %.90f\n", ngram3Right.getProb()));
+    } else {
+      ngram3Right = probs.get(1);
       // we cannot just use new Probability(1.0, 1.0f) as that would always produce higher
       // probabilities than in the case of one token (eg. "your"):
       ngram3Middle = new Probability((ngram3Left.getProb() + ngram3Right.getProb()) / 2, 1.0f);
-    } else {
-      logger.warn("Words that consists of more than 2 tokens (according to Google tokenization) are not supported yet: " + term + " -> " + newTokens);
-      return 0.0;
     }
     if (ngram3Left.getCoverage() < ConfusionProbabilityRule.MIN_COVERAGE && ngram3Middle.getCoverage() < ConfusionProbabilityRule.MIN_COVERAGE && ngram3Right.getCoverage() < ConfusionProbabilityRule.MIN_COVERAGE) {
       logger.trace(String.format("  Min coverage of %.2f not reached: %.2f, %.2f, %.2f, assuming p=0\n", ConfusionProbabilityRule.MIN_COVERAGE, ngram3Left.getCoverage(), ngram3Middle.getCoverage(), ngram3Right.getCoverage()));
@@ -165,25 +196,47 @@ public final class LanguageModelUtils {
     }
   }
 
-  static double get4gramProbabilityFor(Language lang, LanguageModel lm, GoogleToken token, List<GoogleToken> tokens, String term) {
+  /**
+   * Like {@link #get3gramContexts}, but for 4grams.
+   * @return {@code null} if the term is not supported
+   * @since 5.3
+   */
+  @Nullable
+  static List<List<String>> get4gramContexts(Language lang, GoogleToken token, List<GoogleToken> tokens, String term) {
     Tokenizer tokenizer = getGoogleStyleWordTokenizer(lang);
     List<GoogleToken> newTokens = GoogleToken.getGoogleTokens(term, false, tokenizer);
-
-    Probability ngram4Left, ngram4MiddleLeft, ngram4MiddleRight, ngram4Right;
-
     if (newTokens.size() == 1) {
-      ngram4Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 3));
-      ngram4MiddleLeft = lm.getPseudoProbability(getContext(token, tokens, newTokens, 2, 1));
-      ngram4MiddleRight = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 2));
-      ngram4Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 3, 0));
+      return Arrays.asList(
+        getContext(token, tokens, newTokens, 0, 3),
+        getContext(token, tokens, newTokens, 2, 1),
+        getContext(token, tokens, newTokens, 1, 2),
+        getContext(token, tokens, newTokens, 3, 0));
     } else if (newTokens.size() == 2) {
-      ngram4Left = lm.getPseudoProbability(getContext(token, tokens, newTokens, 0, 2));
-      ngram4MiddleLeft = lm.getPseudoProbability(getContext(token, tokens, newTokens, 1, 1));
-      ngram4MiddleRight = ngram4MiddleLeft; // TODO: is this okay?
-      ngram4Right = lm.getPseudoProbability(getContext(token, tokens, newTokens, 2, 0));
+      return Arrays.asList(
+        getContext(token, tokens, newTokens, 0, 2),
+        getContext(token, tokens, newTokens, 1, 1),
+        getContext(token, tokens, newTokens, 2, 0));
     } else {
       logger.warn("Words that consists of more than 2 tokens (according to Google tokenization) are not supported yet: " + term + " -> " + newTokens);
-      return 0.0;
+      return null;
+    }
+  }
+
+  /**
+   * @param probs the probabilities of the contexts from {@link #get4gramContexts}
+   * @since 5.3
+   */
+  static double get4gramProbability(List<Probability> probs) {
+    Probability ngram4Left = probs.get(0);
+    Probability ngram4MiddleLeft = probs.get(1);
+    Probability ngram4MiddleRight;
+    Probability ngram4Right;
+    if (probs.size() == 4) {
+      ngram4MiddleRight = probs.get(2);
+      ngram4Right = probs.get(3);
+    } else {
+      ngram4MiddleRight = ngram4MiddleLeft; // TODO: is this okay?
+      ngram4Right = probs.get(2);
     }
     if (ngram4Left.getCoverage() < ConfusionProbabilityRule.MIN_COVERAGE &&
       ngram4MiddleLeft.getCoverage() < ConfusionProbabilityRule.MIN_COVERAGE &&
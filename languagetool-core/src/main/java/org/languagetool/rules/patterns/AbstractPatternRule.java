@@ -20,6 +20,7 @@
 package org.languagetool.rules.patterns;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
@@ -151,6 +152,17 @@ public abstract class AbstractPatternRule extends Rule {
     return null;
   }
 
+  /**
+   * Like {@link #match(AnalyzedSentence)}, but matches only need to be looked for at the given offsets.
+   * @param matchStartHints the sorted offsets in {@link AnalyzedSentence#getTokensWithoutWhitespace()} where
+   *                        a match could start (e.g. from {@link RuleSet.Selection}), or {@code null} if unknown
+   * @since 5.3
+   */
+  @ApiStatus.Internal
+  public RuleMatch[] match(AnalyzedSentence sentence, @Nullable int[] matchStartHints) throws IOException {
+    return match(sentence);
+  }
+
   /**
    * @since 2.3
    */
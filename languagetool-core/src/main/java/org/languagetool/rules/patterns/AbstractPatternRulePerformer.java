@@ -19,6 +19,7 @@
  */
 package org.languagetool.rules.patterns;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
@@ -60,12 +61,27 @@ public abstract class AbstractPatternRulePerformer {
   }
 
   protected void doMatch(AnalyzedSentence sentence, AnalyzedTokenReadings[] tokens, MatchConsumer consumer) throws IOException {
+    doMatch(sentence, tokens, null, consumer);
+  }
+
+  /**
+   * @param matchStartHints the sorted offsets in {@code tokens} where a match could start, or {@code null} to try all
+   * @since 5.3
+   */
+  protected void doMatch(AnalyzedSentence sentence, AnalyzedTokenReadings[] tokens, @Nullable int[] matchStartHints,
+                         MatchConsumer consumer) throws IOException {
     AbstractTokenBasedRule.TokenHint anchor = rule.anchorHint;
-    List<Integer> anchorIndices = anchor == null || isInterpretPosTagsPreDisambiguation() ? null : anchor.getPossibleIndices(sentence);
+    int[] startHints = isInterpretPosTagsPreDisambiguation() ? null : matchStartHints;
+    List<Integer> anchorIndices = anchor == null || startHints != null || isInterpretPosTagsPreDisambiguation() ? null : anchor.getPossibleIndices(sentence);
 
     int[] tokenPositions = new int[patternTokenMatchers.size()];
     int limit = rule.isSentStart() ? 1 : Math.max(0, tokens.length - patternSize + 1) + minOccurCorrection;
-    if (anchorIndices != null) {
+    if (startHints != null) {
+      for (int i : startHints) {
+        if (i >= limit) break;
+        matchFrom(i, tokens, consumer, tokenPositions);
+      }
+    } else if (anchorIndices != null) {
       for (Integer anchorIndex : anchorIndices) {
         int i = anchorIndex - anchor.tokenIndex;
         if (i >= 0 && i < limit) {
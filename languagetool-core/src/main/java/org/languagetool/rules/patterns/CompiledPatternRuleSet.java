@@ -0,0 +1,342 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedToken;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.rules.Rule;
+
+import java.util.*;
+
+/**
+ * A {@link RuleSet} that compiles the fixed-offset token constraints (token text, lemma and POS tag)
+ * of all its pattern rules into one shared automaton. A single left-to-right pass over a sentence
+ * then yields the applicable rules together with the token offsets where their matches could start.
+ * {@link #selectRules} returns those offsets along with the rules, so that {@link PatternRuleMatcher}
+ * only tries to match there.
+ * <p>
+ * Each compiled rule is entered by a "trigger" symbol (its most selective constraint); on each transition,
+ * the remaining constraints of that rule are checked relative to the implied match start.
+ * Rules without fixed-offset constraints are filtered by their first token hint, like in {@link RuleSet#textLemmaHinted}.
+ * @since 5.3
+ */
+final class CompiledPatternRuleSet extends RuleSet {
+
+  private static final int[] NO_SYMBOLS = new int[0];
+
+  private final List<Rule> allRules;
+  private final BitSet unclassified = new BitSet();
+  private final Map<String, BitSet> byToken = new HashMap<>();
+  private final Map<String, BitSet> byLemma = new HashMap<>();
+
+  // the automaton: symbols are interned token texts, lemmas and POS tags
+  private final Map<String, Integer> formSymbols = new HashMap<>();
+  private final Map<String, Integer> lemmaSymbols = new HashMap<>();
+  private final Map<String, Integer> posSymbols = new HashMap<>();
+  private final List<List<Transition>> transitionsBySymbol = new ArrayList<>();
+  private final Transition[][] transitions;
+  private final Constraint[][] constraintsByRule;
+
+  CompiledPatternRuleSet(List<? extends Rule> rules) {
+    allRules = Collections.unmodifiableList(rules);
+    constraintsByRule = new Constraint[allRules.size()][];
+    for (int i = 0; i < allRules.size(); i++) {
+      Rule rule = allRules.get(i);
+      if (rule instanceof AbstractTokenBasedRule) {
+        AbstractTokenBasedRule tokenRule = (AbstractTokenBasedRule) rule;
+        Constraint[] constraints = compile(tokenRule);
+        if (constraints.length > 0) {
+          constraintsByRule[i] = constraints;
+          Constraint trigger = constraints[0];
+          for (int symbol : trigger.symbols) {
+            transitionsBySymbol.get(symbol).add(new Transition(i, trigger.tokenIndex));
+          }
+          continue;
+        }
+        if (tokenRule.tokenHints != null) {
+          AbstractTokenBasedRule.TokenHint firstHint = tokenRule.tokenHints[0];
+          Map<String, BitSet> map = firstHint.inflected ? byLemma : byToken;
+          for (String hint : firstHint.lowerCaseValues) {
+            map.computeIfAbsent(hint, __ -> new BitSet()).set(i);
+          }
+          continue;
+        }
+      }
+      unclassified.set(i);
+    }
+    transitions = transitionsBySymbol.stream().map(list -> list.toArray(new Transition[0])).toArray(Transition[][]::new);
+    transitionsBySymbol.clear();
+  }
+
+  /**
+   * @return the constraints on the tokens at fixed offsets from the match start, the most selective one first
+   */
+  private Constraint[] compile(AbstractTokenBasedRule rule) {
+    if (rule instanceof PatternRule && ((PatternRule) rule).isInterpretPosTagsPreDisambiguation()) {
+      return new Constraint[0];
+    }
+    List<Constraint> result = new ArrayList<>();
+    List<PatternToken> patternTokens = rule.patternTokens;
+    for (int i = 0; i < patternTokens.size(); i++) {
+      PatternToken token = patternTokens.get(i);
+      if (token.getMinOccurrence() != 1 || token.getMaxOccurrence() != 1) {
+        break;
+      }
+      Set<String> forms = token.calcFormHints();
+      if (forms != null) {
+        result.add(new Constraint(i, false, internAll(formSymbols, lowerCase(forms))));
+      } else {
+        Set<String> lemmas = token.calcLemmaHints();
+        if (lemmas != null) {
+          result.add(new Constraint(i, false, internAll(lemmaSymbols, lowerCase(lemmas))));
+        }
+      }
+      String posTag = getRequiredPosTag(token);
+      if (posTag != null) {
+        result.add(new Constraint(i, true, internAll(posSymbols, Collections.singleton(posTag))));
+      }
+      if (token.getSkipNext() != 0) {
+        break;
+      }
+    }
+    // token texts and lemmas are more selective than POS tags, and fewer alternatives are more selective than more
+    result.sort(Comparator.comparing((Constraint c) -> c.pos).thenComparing(c -> c.symbols.length));
+    return result.toArray(new Constraint[0]);
+  }
+
+  @Nullable
+  private static String getRequiredPosTag(PatternToken token) {
+    String posTag = token.getPOStag();
+    if (posTag == null || token.getNegation() || token.getPOSNegation() || token.isPOStagRegularExpression() ||
+        token.hasOrGroup() || token.isReferenceElement() || PatternToken.UNKNOWN_TAG.equals(posTag)) {
+      return null;
+    }
+    return posTag;
+  }
+
+  private static Set<String> lowerCase(Set<String> values) {
+    Set<String> result = new HashSet<>();
+    for (String value : values) {
+      result.add(value.toLowerCase());
+    }
+    return result;
+  }
+
+  private int[] internAll(Map<String, Integer> symbolTable, Set<String> values) {
+    int[] result = new int[values.size()];
+    int i = 0;
+    for (String value : values) {
+      result[i++] = symbolTable.computeIfAbsent(value, __ -> {
+        transitionsBySymbol.add(new ArrayList<>());
+        return transitionsBySymbol.size() - 1;
+      });
+    }
+    Arrays.sort(result);
+    return result;
+  }
+
+  @Override
+  public List<Rule> allRules() {
+    return allRules;
+  }
+
+  @Override
+  public List<Rule> rulesForSentence(AnalyzedSentence sentence) {
+    return selectRules(sentence).getRules();
+  }
+
+  @Override
+  public Selection selectRules(AnalyzedSentence sentence) {
+    BitSet included = new BitSet();
+    included.or(unclassified);
+    if (!byLemma.isEmpty()) {
+      for (String lemma : sentence.getLemmaSet()) {
+        BitSet set = byLemma.get(lemma);
+        if (set != null) {
+          included.or(set);
+        }
+      }
+    }
+    if (!byToken.isEmpty()) {
+      for (String token : sentence.getTokenSet()) {
+        BitSet set = byToken.get(token);
+        if (set != null) {
+          included.or(set);
+        }
+      }
+    }
+
+    // the possible match starts as (rule index << 32 | start), so sorting groups them by rule:
+    int[][] symbolsAt = symbolize(sentence);
+    long[] starts = new long[16];
+    int startCount = 0;
+    for (int pos = 0; pos < symbolsAt.length; pos++) {
+      for (int symbol : symbolsAt[pos]) {
+        for (Transition transition : transitions[symbol]) {
+          int start = pos - transition.tokenIndex;
+          if (start >= 0 && accepts(constraintsByRule[transition.ruleIndex], symbolsAt, start)) {
+            if (startCount == starts.length) {
+              starts = Arrays.copyOf(starts, startCount * 2);
+            }
+            starts[startCount++] = (long) transition.ruleIndex << 32 | start;
+          }
+        }
+      }
+    }
+    Arrays.sort(starts, 0, startCount);
+    for (int k = 0; k < startCount; k++) {
+      included.set((int) (starts[k] >>> 32));
+    }
+
+    int ruleCount = included.cardinality();
+    List<Rule> rules = new ArrayList<>(ruleCount);
+    int[][] matchStartHints = startCount == 0 ? null : new int[ruleCount][];
+    int k = 0;
+    for (int i = included.nextSetBit(0); i >= 0; i = included.nextSetBit(i + 1)) {
+      int from = k;
+      while (k < startCount && (int) (starts[k] >>> 32) == i) {
+        k++;
+      }
+      if (k > from) {
+        matchStartHints[rules.size()] = distinctStarts(starts, from, k);
+      }
+      rules.add(allRules.get(i));
+    }
+    return new Selection(rules, matchStartHints);
+  }
+
+  private static int[] distinctStarts(long[] starts, int from, int to) {
+    int[] result = new int[to - from];
+    int count = 0;
+    for (int k = from; k < to; k++) {
+      int start = (int) starts[k];
+      if (count == 0 || result[count - 1] != start) {
+        result[count++] = start;
+      }
+    }
+    return count == result.length ? result : Arrays.copyOf(result, count);
+  }
+
+  /**
+   * @return for each non-blank token of the sentence, the symbols of its text, lemmas and POS tags
+   */
+  private int[][] symbolize(AnalyzedSentence sentence) {
+    AnalyzedTokenReadings[] tokens = sentence.getTokensWithoutWhitespace();
+    int[][] symbols = new int[tokens.length][];
+    int[] counts = new int[tokens.length];
+    for (String token : sentence.getTokenSet()) {
+      Integer symbol = formSymbols.get(token);
+      if (symbol != null) {
+        addSymbol(symbols, counts, symbol, sentence.getTokenOffsets(token));
+      }
+    }
+    for (String lemma : sentence.getLemmaSet()) {
+      Integer symbol = lemmaSymbols.get(lemma);
+      if (symbol != null) {
+        addSymbol(symbols, counts, symbol, sentence.getLemmaOffsets(lemma));
+      }
+    }
+    if (!posSymbols.isEmpty()) {
+      for (int i = 0; i < tokens.length; i++) {
+        for (AnalyzedToken reading : tokens[i]) {
+          String posTag = reading.getPOSTag();
+          Integer symbol = posTag == null ? null : posSymbols.get(posTag);
+          if (symbol != null) {
+            addSymbol(symbols, counts, symbol, i);
+          }
+        }
+      }
+    }
+    for (int i = 0; i < tokens.length; i++) {
+      int[] tokenSymbols = symbols[i];
+      symbols[i] = tokenSymbols == null ? NO_SYMBOLS :
+                   counts[i] == tokenSymbols.length ? tokenSymbols : Arrays.copyOf(tokenSymbols, counts[i]);
+    }
+    return symbols;
+  }
+
+  private static void addSymbol(int[][] symbols, int[] counts, int symbol, @Nullable List<Integer> offsets) {
+    if (offsets == null) return;
+    for (int i = 0; i < offsets.size(); i++) {
+      addSymbol(symbols, counts, symbol, offsets.get(i));
+    }
+  }
+
+  private static void addSymbol(int[][] symbols, int[] counts, int symbol, int offset) {
+    int[] tokenSymbols = symbols[offset];
+    int count = counts[offset];
+    if (tokenSymbols == null) {
+      symbols[offset] = tokenSymbols = new int[4];
+    } else {
+      for (int k = 0; k < count; k++) {
+        if (tokenSymbols[k] == symbol) return;
+      }
+      if (count == tokenSymbols.length) {
+        symbols[offset] = tokenSymbols = Arrays.copyOf(tokenSymbols, count * 2);
+      }
+    }
+    tokenSymbols[count] = symbol;
+    counts[offset] = count + 1;
+  }
+
+  private static boolean accepts(Constraint[] constraints, int[][] symbolsAt, int start) {
+    for (Constraint constraint : constraints) {
+      int pos = start + constraint.tokenIndex;
+      if (pos >= symbolsAt.length || !constraint.matches(symbolsAt[pos])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** A requirement that the token at the given pattern offset has one of the given symbols. */
+  private static class Constraint {
+    final int tokenIndex;
+    final boolean pos;
+    final int[] symbols;
+
+    Constraint(int tokenIndex, boolean pos, int[] symbols) {
+      this.tokenIndex = tokenIndex;
+      this.pos = pos;
+      this.symbols = symbols;
+    }
+
+    boolean matches(int[] tokenSymbols) {
+      for (int symbol : tokenSymbols) {
+        if (Arrays.binarySearch(symbols, symbol) >= 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static class Transition {
+    final int ruleIndex;
+    final int tokenIndex;
+
+    Transition(int ruleIndex, int tokenIndex) {
+      this.ruleIndex = ruleIndex;
+      this.tokenIndex = tokenIndex;
+    }
+  }
+
+}
@@ -18,6 +18,7 @@
  */
 package org.languagetool.rules.patterns;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
@@ -208,10 +209,15 @@ public class PatternRule extends AbstractTokenBasedRule {
 
   @Override
   public final RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
+    return match(sentence, null);
+  }
+
+  @Override
+  public final RuleMatch[] match(AnalyzedSentence sentence, @Nullable int[] matchStartHints) throws IOException {
     if (canBeIgnoredFor(sentence)) return RuleMatch.EMPTY_ARRAY;
 
     try {
-      RuleMatcher matcher = new PatternRuleMatcher(this, useList);
+      RuleMatcher matcher = new PatternRuleMatcher(this, useList, matchStartHints);
       return checkForAntiPatterns(sentence, matcher, matcher.match(sentence));
     } catch (IOException e) {
       throw new IOException("Error analyzing sentence: '" + sentence + "'", e);
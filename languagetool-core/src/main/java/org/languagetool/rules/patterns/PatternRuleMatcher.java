@@ -53,12 +53,23 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
           + SUGGESTION_END_TAG);
 
   private final boolean useList;
+  @Nullable
+  private final int[] matchStartHints;
   //private final Integer slowMatchThreshold;
   private static final boolean monitorRules = System.getProperty("monitorActiveRules") != null;
 
   PatternRuleMatcher(PatternRule rule, boolean useList) {
+    this(rule, useList, null);
+  }
+
+  /**
+   * @param matchStartHints the sorted token offsets where a match could start, or {@code null} to try all
+   * @since 5.3
+   */
+  PatternRuleMatcher(PatternRule rule, boolean useList, @Nullable int[] matchStartHints) {
     super(rule, rule.getLanguage().getUnifier());
     this.useList = useList;
+    this.matchStartHints = matchStartHints;
     //String slowMatchThresholdStr = System.getProperty("slowMatchThreshold");
     //slowMatchThreshold = slowMatchThresholdStr != null ? Integer.parseInt(slowMatchThresholdStr) : null;
   }
@@ -79,7 +90,7 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
       AnalyzedTokenReadings[] tokens = isInterpretPosTagsPreDisambiguation()
                                        ? sentence.getPreDisambigTokensWithoutWhitespace()
                                        : sentence.getTokensWithoutWhitespace();
-      doMatch(sentence, tokens, (tokenPositions, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken) -> {
+      doMatch(sentence, tokens, matchStartHints, (tokenPositions, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken) -> {
         RuleMatch ruleMatch = createRuleMatch(tokenPositions, tokens, firstMatchToken, lastMatchToken, firstMarkerMatchToken, lastMarkerMatchToken, sentence);
         if (ruleMatch != null) {
           ruleMatches.add(ruleMatch);
@@ -19,6 +19,7 @@
 package org.languagetool.rules.patterns;
 
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.rules.Rule;
 
@@ -44,6 +45,15 @@ public abstract class RuleSet {
    */
   public abstract List<Rule> rulesForSentence(AnalyzedSentence sentence);
 
+  /**
+   * Like {@link #rulesForSentence}, but also returns where the matches of the selected rules
+   * could start, if this rule set knows that.
+   * @since 5.3
+   */
+  public Selection selectRules(AnalyzedSentence sentence) {
+    return new Selection(rulesForSentence(sentence), null);
+  }
+
   /**
    * @return a simple RuleSet that returns all the rules from {@link #rulesForSentence}
    */
@@ -78,6 +88,16 @@ public abstract class RuleSet {
     return hinted(rules, false);
   }
 
+  /**
+   * @return a RuleSet whose {@link #rulesForSentence} excludes rules whose token texts, lemmas or POS tags
+   * at fixed offsets can't occur in the given sentence in the required order. For the applicable pattern rules,
+   * {@link #selectRules} also returns where their matches could start.
+   * @since 5.3
+   */
+  public static RuleSet compiled(List<? extends Rule> rules) {
+    return new CompiledPatternRuleSet(rules);
+  }
+
   private static RuleSet hinted(List<? extends Rule> rules, boolean withLemmaHints) {
     List<Rule> allRules = Collections.unmodifiableList(rules);
     Map<String, BitSet> byToken = new HashMap<>();
@@ -145,4 +165,40 @@ public abstract class RuleSet {
     return result;
   }
 
+  /**
+   * The rules selected for a sentence by {@link #selectRules}, and the offsets where their matches could start.
+   * @since 5.3
+   */
+  public static final class Selection {
+    private final List<Rule> rules;
+    @Nullable
+    private final int[][] matchStartHints;
+
+    /**
+     * @param matchStartHints for each rule, the sorted offsets in {@link AnalyzedSentence#getTokensWithoutWhitespace()}
+     *                        where its matches could start, or {@code null} (for all or single rules) if unknown
+     */
+    public Selection(List<Rule> rules, @Nullable int[][] matchStartHints) {
+      if (matchStartHints != null && matchStartHints.length != rules.size()) {
+        throw new IllegalArgumentException("Got " + matchStartHints.length + " match start hints for " + rules.size() + " rules");
+      }
+      this.rules = rules;
+      this.matchStartHints = matchStartHints;
+    }
+
+    public List<Rule> getRules() {
+      return rules;
+    }
+
+    /**
+     * @param index the index of the rule in {@link #getRules()}
+     * @return the sorted offsets in {@link AnalyzedSentence#getTokensWithoutWhitespace()} where a match
+     * of the rule could start, or {@code null} if they're unknown
+     */
+    @Nullable
+    public int[] getMatchStartHints(int index) {
+      return matchStartHints == null ? null : matchStartHints[index];
+    }
+  }
+
 }
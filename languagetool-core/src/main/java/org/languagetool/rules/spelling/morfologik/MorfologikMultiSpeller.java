@@ -23,6 +23,7 @@ import static org.languagetool.JLanguageTool.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
@@ -31,6 +32,7 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.UserConfig;
 import org.languagetool.rules.spelling.SpellingCheckRule;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -72,7 +74,14 @@ public class MorfologikMultiSpeller {
               return lines;
             }
           });
-  private static final Map<String,Dictionary> dicPathToDict = new HashMap<>();
+  private static final Map<String,Dictionary> dicPathToDict = new ConcurrentHashMap<>();
+  // Suggestions from the built-in dictionaries don't depend on the user, so the same typos
+  // made by different users (i.e. in different MorfologikMultiSpeller instances) can share them:
+  private static final Cache<SuggestionKey, List<String>> suggestionCache = CacheBuilder.newBuilder()
+          .maximumSize(20_000)
+          .expireAfterAccess(10, TimeUnit.MINUTES)
+          .recordStats()
+          .build();
 
   private final List<MorfologikSpeller> spellers;
   private final List<MorfologikSpeller> defaultDictSpellers;
@@ -259,10 +268,23 @@ public class MorfologikMultiSpeller {
     return wordResults;
   }
 
+  private List<String> getCachedSuggestionsFromDefaultDicts(String word) {
+    SuggestionKey key = new SuggestionKey(defaultDictSpellers, word);
+    List<String> suggestions = suggestionCache.getIfPresent(key);
+    if (suggestions == null) {
+      suggestions = Collections.unmodifiableList(getSuggestionsFromSpellers(word, defaultDictSpellers));
+      suggestionCache.put(key, suggestions);
+    }
+    return new ArrayList<>(suggestions);
+  }
+
   /**
    * The suggestions from all dictionaries (without duplicates).
    */
   public List<String> getSuggestions(String word) {
+    if (userDictSpellers.isEmpty()) {
+      return getCachedSuggestionsFromDefaultDicts(word);
+    }
     return getSuggestionsFromSpellers(word, spellers);
   }
 
@@ -281,7 +303,15 @@ public class MorfologikMultiSpeller {
    * @since 4.5
    */
   public List<String> getSuggestionsFromDefaultDicts(String word) {
-    return getSuggestionsFromSpellers(word, defaultDictSpellers);
+    return getCachedSuggestionsFromDefaultDicts(word);
+  }
+
+  /**
+   * The cache for suggestions from built-in dictionaries, shared by all instances, e.g. to monitor its hit rate.
+   * @since 5.3
+   */
+  public static Cache<?, List<String>> getSuggestionCache() {
+    return suggestionCache;
   }
 
   /**
@@ -293,6 +323,52 @@ public class MorfologikMultiSpeller {
     return convertsCase;
   }
 
+  /**
+   * Identifies a word and the dictionaries (by identity) and edit distances used to find suggestions for it.
+   */
+  private static class SuggestionKey {
+    private final List<Dictionary> dictionaries = new ArrayList<>();
+    private final int[] maxEditDistances;
+    private final String word;
+
+    SuggestionKey(List<MorfologikSpeller> spellers, String word) {
+      maxEditDistances = new int[spellers.size()];
+      for (int i = 0; i < spellers.size(); i++) {
+        dictionaries.add(spellers.get(i).getDictionary());
+        maxEditDistances[i] = spellers.get(i).getMaxEditDistance();
+      }
+      this.word = word;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      } else if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      SuggestionKey that = (SuggestionKey) o;
+      if (!word.equals(that.word) || !Arrays.equals(maxEditDistances, that.maxEditDistances) || dictionaries.size() != that.dictionaries.size()) {
+        return false;
+      }
+      for (int i = 0; i < dictionaries.size(); i++) {
+        if (dictionaries.get(i) != that.dictionaries.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = word.hashCode();
+      for (Dictionary dictionary : dictionaries) {
+        result = 31 * result + System.identityHashCode(dictionary);
+      }
+      return 31 * result + Arrays.hashCode(maxEditDistances);
+    }
+  }
+
   static class BufferedReaderWithSource {
     private final BufferedReader reader;
     private final String readerPath;
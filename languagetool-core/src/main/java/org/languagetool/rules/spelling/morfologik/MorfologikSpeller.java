@@ -57,7 +57,8 @@ public class MorfologikSpeller {
       });
 
   private final Dictionary dictionary;
-  private final Speller speller;
+  // Speller is not thread-safe, but the Dictionary is, so each thread gets its own Speller instead of locking:
+  private final ThreadLocal<Speller> speller;
   private final int maxEditDistance;
 
   /**
@@ -83,28 +84,35 @@ public class MorfologikSpeller {
     }
     this.dictionary = dictionary;
     this.maxEditDistance = maxEditDistance;
-    speller = new Speller(dictionary, maxEditDistance);
+    speller = ThreadLocal.withInitial(() -> new Speller(dictionary, maxEditDistance));
   }
 
   public boolean isMisspelled(String word) {
     if (word.isEmpty() || SpellingCheckRule.LANGUAGETOOL.equals(word) || SpellingCheckRule.LANGUAGETOOLER.equals(word)) {
       return false;
     }
-    synchronized (this) {
-      return speller.isMisspelled(word);
-    }
+    return speller.get().isMisspelled(word);
   }
 
-  public synchronized List<String> findReplacements(String word) {
-    return speller.findReplacements(word);
+  public List<String> findReplacements(String word) {
+    return speller.get().findReplacements(word);
   }
 
   /**
-   * @deprecated use (or introduce) other methods to this class which would take care of the necessary synchronization
+   * @deprecated use (or introduce) other methods to this class; since 5.3, this returns the current thread's
+   * {@link Speller}, which must not be used by other threads
    */
   @Deprecated
   public Speller getSpeller() {
-    return speller;
+    return speller.get();
+  }
+
+  Dictionary getDictionary() {
+    return dictionary;
+  }
+
+  int getMaxEditDistance() {
+    return maxEditDistance;
   }
 
   public List<WeightedSuggestion> getSuggestions(String word) {
@@ -188,7 +196,7 @@ public class MorfologikSpeller {
    * @since 2.5
    */
   public boolean convertsCase() {
-    return speller.convertsCase();
+    return speller.get().convertsCase();
   }
 
   @Override
@@ -196,7 +204,8 @@ public class MorfologikSpeller {
     return "dist=" + maxEditDistance;
   }
 
-  public synchronized int getFrequency(String word) {
+  public int getFrequency(String word) {
+    Speller speller = this.speller.get();
     int freq = speller.getFrequency(word);
     if (freq == 0 && !word.equals(word.toLowerCase())) {
       freq = speller.getFrequency(word.toLowerCase());
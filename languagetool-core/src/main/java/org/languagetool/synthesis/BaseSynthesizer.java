@@ -18,6 +18,8 @@
  */
 package org.languagetool.synthesis;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
@@ -33,7 +35,10 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -42,11 +47,18 @@ public class BaseSynthesizer implements Synthesizer {
 
   public final String SPELLNUMBER_TAG = "_spell_number_";
 
+  private static final int FORMS_CACHE_SIZE = 10_000;
+
   protected volatile List<String> possibleTags;
 
   private final String tagFileName;
   private final String resourceFileName;
-  private final IStemmer stemmer;
+  // stemmers are not thread-safe, so each thread gets its own instead of locking:
+  private final ThreadLocal<IStemmer> stemmer = ThreadLocal.withInitial(this::createStemmer);
+  // lemma + "|" + POS tag -> inflected forms:
+  private final Cache<String, List<String>> formsCache = CacheBuilder.newBuilder().maximumSize(FORMS_CACHE_SIZE).build();
+  // POS tag regex -> all tags from possibleTags it matches:
+  private final Map<String, List<String>> tagsByRegex = new ConcurrentHashMap<>();
   private final ManualSynthesizer manualSynthesizer;
   private final ManualSynthesizer removalSynthesizer;
   private final String sorosFileName;
@@ -61,7 +73,7 @@ public class BaseSynthesizer implements Synthesizer {
   public BaseSynthesizer(String sorosFileName, String resourceFileName, String tagFileName, Language lang) {
     this.resourceFileName = resourceFileName;
     this.tagFileName = tagFileName;
-    this.stemmer = createStemmer();
+    this.stemmer.get();  // fail early if the dictionary cannot be loaded
     this.sorosFileName = sorosFileName;
     this.numberSpeller = createNumberSpeller(lang.getShortCode());
     try {
@@ -147,12 +159,20 @@ public class BaseSynthesizer implements Synthesizer {
    * @param posTag the desired part-of-speech tag.
    */
   protected List<String> lookup(String lemma, String posTag) {
+    String key = lemma + "|" + posTag;
+    List<String> forms = formsCache.getIfPresent(key);
+    if (forms == null) {
+      forms = lookupUncached(key, lemma, posTag);
+      formsCache.put(key, forms);
+    }
+    return new ArrayList<>(forms);
+  }
+
+  private List<String> lookupUncached(String key, String lemma, String posTag) {
     List<String> results = new ArrayList<>();
-    synchronized (this) { // the stemmer is not thread-safe
-      List<WordData> wordForms = stemmer.lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(wd.getStem().toString());
-      }
+    List<WordData> wordForms = stemmer.get().lookup(key);
+    for (WordData wd : wordForms) {
+      results.add(wd.getStem().toString());
     }
     if (manualSynthesizer != null) {
       List<String> manualForms = manualSynthesizer.lookup(lemma, posTag);
@@ -188,24 +208,49 @@ public class BaseSynthesizer implements Synthesizer {
   @Override
   public String[] synthesize(AnalyzedToken token, String posTag, boolean posTagRegExp) throws IOException {
     if (posTagRegExp) {
-      initPossibleTags();
-      Pattern p;
-      try {
-        p = Pattern.compile(posTag);
-      } catch (PatternSyntaxException e) {
-        throw new RuntimeException("Error trying to synthesize POS tag " + posTag +
-                " (posTagRegExp: " + posTagRegExp + ") from token " + token.getToken(), e);
-      }
       List<String> results = new ArrayList<>();
+      for (String tag : getTagsMatching(posTag, token)) {
+        results.addAll(lookup(token.getLemma(), tag));
+      }
+      return results.toArray(new String[0]);
+    }
+    return synthesize(token, posTag);
+  }
+
+  private List<String> getTagsMatching(String posTagRegex, AnalyzedToken token) throws IOException {
+    try {
+      return getPossibleTagsMatching(posTagRegex);
+    } catch (PatternSyntaxException e) {
+      throw new RuntimeException("Error trying to synthesize POS tag " + posTagRegex +
+              " (posTagRegExp: true) from token " + token.getToken(), e);
+    }
+  }
+
+  /**
+   * Get the tags from the tag file that match a regular expression. The result is computed
+   * once per regular expression, so subclasses should use this instead of compiling the
+   * expression and matching it against {@link #possibleTags} themselves.
+   * @param posTagRegex a regular expression for part-of-speech tags
+   * @return the matching tags in the order of the tag file, not modifiable
+   * @throws PatternSyntaxException if {@code posTagRegex} is not a valid regular expression
+   * @since 5.3
+   */
+  protected List<String> getPossibleTagsMatching(String posTagRegex) throws IOException {
+    List<String> tags = tagsByRegex.get(posTagRegex);
+    if (tags == null) {
+      initPossibleTags();
+      Pattern p = Pattern.compile(posTagRegex);
+      tags = new ArrayList<>();
       for (String tag : possibleTags) {
         Matcher m = p.matcher(tag);
         if (m.matches()) {
-          results.addAll(lookup(token.getLemma(), tag));
+          tags.add(tag);
         }
       }
-      return results.toArray(new String[0]);
+      tags = Collections.unmodifiableList(tags);
+      tagsByRegex.put(posTagRegex, tags);
     }
-    return synthesize(token, posTag);
+    return tags;
   }
 
   @Override
@@ -215,10 +260,11 @@ public class BaseSynthesizer implements Synthesizer {
 
   /**
    * @since 2.5
-   * @return the stemmer interface to be used.
+   * @return the stemmer interface to be used. Since 5.3, this is the current thread's stemmer,
+   * so it must not be passed on to other threads.
    */
   public IStemmer getStemmer() {
-    return stemmer;
+    return stemmer.get();
   }
 
   protected void initPossibleTags() throws IOException {
@@ -18,6 +18,8 @@
  */
 package org.languagetool.tagging;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.WordData;
 import org.jetbrains.annotations.NotNull;
@@ -40,6 +42,7 @@ public abstract class BaseTagger implements Tagger {
   private static final String CUSTOM_MANUAL_ADDITIONS_FILE = "/added_custom.txt";
   private static final String MANUAL_REMOVALS_FILE = "/removed.txt";
   private static final String CUSTOM_MANUAL_REMOVALS_FILE = "/removed_custom.txt";
+  private static final int TAG_CACHE_SIZE = 20_000;
 
   protected final WordTagger wordTagger;
   protected final Locale locale;
@@ -47,6 +50,11 @@ public abstract class BaseTagger implements Tagger {
   private final boolean tagLowercaseWithUppercase;
   private final String dictionaryPath;
   private final Dictionary dictionary;
+  // word -> result of the word tagger, so frequent words don't need dictionary lookups:
+  private final Cache<String, List<TaggedWord>> tagCache = CacheBuilder.newBuilder()
+    .maximumSize(TAG_CACHE_SIZE)
+    .recordStats()
+    .build();
 
   /**
    * Get the filenames for manual additions, e.g., {@code /en/added.txt}.
@@ -181,15 +189,39 @@ public abstract class BaseTagger implements Tagger {
     return tokenReadings;
   }
 
+  /**
+   * The cache used by {@link #getTaggedWords(String)}, e.g. to monitor its hit rate.
+   * @since 5.3
+   */
+  public Cache<String, List<TaggedWord>> getTagCache() {
+    return tagCache;
+  }
+
+  /**
+   * Like {@code getWordTagger().tag(word)}, but cached. Subclasses that override {@link #tag(List)}
+   * should use this for their dictionary lookups.
+   * @return an unmodifiable list that's shared by all callers
+   * @since 5.3
+   */
+  protected List<TaggedWord> getTaggedWords(String word) {
+    List<TaggedWord> cached = tagCache.getIfPresent(word);
+    if (cached == null) {
+      List<TaggedWord> taggedWords = getWordTagger().tag(word);
+      cached = taggedWords.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(taggedWords);
+      tagCache.put(word, cached);
+    }
+    return cached;
+  }
+
   protected List<AnalyzedToken> getAnalyzedTokens(String word) {
     List<AnalyzedToken> result = new ArrayList<>();
     String lowerWord = word.toLowerCase(locale);
     boolean isLowercase = word.equals(lowerWord);
     boolean isMixedCase = StringTools.isMixedCase(word);
-    List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(word));
+    List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(word));
     List<AnalyzedToken> lowerTaggerTokens =
         ! isLowercase
-            ? asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord))
+            ? asAnalyzedTokenListForTaggedWords(word, getTaggedWords(lowerWord))
             : taggerTokens;
 
     //normal case:
@@ -204,7 +236,7 @@ public abstract class BaseTagger implements Tagger {
         && taggerTokens.isEmpty()
         && isLowercase) {
       List<AnalyzedToken> upperTaggerTokens = asAnalyzedTokenListForTaggedWords(word,
-            getWordTagger().tag(StringTools.uppercaseFirstChar(word)));
+            getTaggedWords(StringTools.uppercaseFirstChar(word)));
       if (!upperTaggerTokens.isEmpty()) {
         addTokens(upperTaggerTokens, result);
       }
@@ -33,8 +33,10 @@ import java.util.*;
 public class MorfologikTagger implements WordTagger {
 
   private final URL dictUrl;
+  // DictionaryLookup is not thread-safe, but cheap to keep per thread, so we don't create one per word:
+  private final ThreadLocal<DictionaryLookup> lookup = ThreadLocal.withInitial(this::createLookup);
 
-  private Dictionary dictionary;
+  private volatile Dictionary dictionary;
 
   private boolean internTags;
 
@@ -60,11 +62,25 @@ public class MorfologikTagger implements WordTagger {
     this.internTags = internTags;
   }
 
-  private synchronized Dictionary getDictionary() throws IOException {
-    if (dictionary == null) {
-      dictionary = Dictionary.read(dictUrl);
+  private Dictionary getDictionary() throws IOException {
+    Dictionary dict = dictionary;
+    if (dict == null) {
+      synchronized (this) {
+        dict = dictionary;
+        if (dict == null) {
+          dictionary = dict = Dictionary.read(dictUrl);
+        }
+      }
+    }
+    return dict;
+  }
+
+  private DictionaryLookup createLookup() {
+    try {
+      return new DictionaryLookup(getDictionary());
+    } catch (IOException e) {
+      throw new RuntimeException("Could not load dictionary from " + dictUrl, e);
     }
-    return dictionary;
   }
 
   public boolean getInternTags() {
@@ -77,23 +93,21 @@ public class MorfologikTagger implements WordTagger {
 
   @Override
   public List<TaggedWord> tag(String word) {
-    List<TaggedWord> result = new ArrayList<>();
-    try {
-      IStemmer dictLookup = new DictionaryLookup(getDictionary());
-      List<WordData> lookup = dictLookup.lookup(word);
-      for (WordData wordData : lookup) {
-        String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
-        // Remove frequency data from tags (if exists)
-        // The frequency data is in the last byte (without a separator)
-        if (dictionary.metadata.isFrequencyIncluded() && tag != null && tag.length() > 1) {
-          tag = tag.substring(0, tag.length() - 1);
-        }
-        String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
-        TaggedWord taggedWord = new TaggedWord(stem, (internTags && tag != null) ? tag.intern() : tag);
-        result.add(taggedWord);
+    DictionaryLookup dictLookup = lookup.get();
+    // the WordData objects are re-used by the lookup, so copy them before the next lookup on this thread:
+    List<WordData> wordDataList = dictLookup.lookup(word);
+    boolean frequencyIncluded = dictionary.metadata.isFrequencyIncluded();
+    List<TaggedWord> result = new ArrayList<>(wordDataList.size());
+    for (WordData wordData : wordDataList) {
+      String tag = wordData.getTag() == null ? null : wordData.getTag().toString();
+      // Remove frequency data from tags (if exists)
+      // The frequency data is in the last byte (without a separator)
+      if (frequencyIncluded && tag != null && tag.length() > 1) {
+        tag = tag.substring(0, tag.length() - 1);
       }
-    } catch (IOException e) {
-      throw new RuntimeException("Could not tag word '" + word + "'", e);
+      String stem = wordData.getStem() == null ? null : wordData.getStem().toString();
+      TaggedWord taggedWord = new TaggedWord(stem, (internTags && tag != null) ? tag.intern() : tag);
+      result.add(taggedWord);
     }
     return result;
   }
@@ -18,9 +18,12 @@
  */
 package org.languagetool.tools;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import org.languagetool.DetectedLanguage;
+import org.languagetool.Experimental;
+import org.languagetool.IncrementalChecker;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Tag;
@@ -30,6 +33,7 @@ import org.languagetool.rules.*;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.List;
@@ -89,22 +93,69 @@ public class RuleMatchesAsJsonSerializer {
    */
   public String ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
                                   DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint) {
-    ContextTools contextTools = new ContextTools();
-    contextTools.setEscapeHtml(false);
-    contextTools.setContextSize(contextSize);
-    contextTools.setErrorMarker(START_MARKER, "");
+    return ruleMatchesToJson(matches, hiddenMatches, null, text, contextSize, detectedLang, incompleteResultsReason, showPremiumHint);
+  }
+
+  /**
+   * Like {@link #ruleMatchesToJson(List, List, AnnotatedText, int, DetectedLanguage, String, boolean)}, but only
+   * writes the matches added since the previous check of the text session as 'matches' and adds a 'removedMatches'
+   * section with the matches of the previous check that are not valid anymore.
+   * @since 5.3
+   */
+  @Experimental
+  public String ruleMatchesToJson(IncrementalChecker.Delta delta, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                                  DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint) {
+    return ruleMatchesToJson(delta.getAdded(), hiddenMatches, delta, text, contextSize, detectedLang, incompleteResultsReason, showPremiumHint);
+  }
+
+  /**
+   * Like {@link #ruleMatchesToJson(List, List, AnnotatedText, int, DetectedLanguage, String, boolean)}, but writes
+   * the JSON as UTF-8 directly to {@code out} instead of building a string first, so long results need less memory
+   * and the first bytes can be sent earlier. {@code out} is not closed.
+   * @since 5.3
+   */
+  public void ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                                DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint,
+                                OutputStream out) throws IOException {
+    try (JsonGenerator g = createGenerator(out)) {
+      writeJson(g, matches, hiddenMatches, null, text, contextSize, detectedLang, incompleteResultsReason, showPremiumHint);
+    }
+  }
+
+  /**
+   * Like {@link #ruleMatchesToJson(IncrementalChecker.Delta, List, AnnotatedText, int, DetectedLanguage, String, boolean)},
+   * but writes the JSON as UTF-8 directly to {@code out}, which is not closed.
+   * @since 5.3
+   */
+  @Experimental
+  public void ruleMatchesToJson(IncrementalChecker.Delta delta, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                                DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint,
+                                OutputStream out) throws IOException {
+    try (JsonGenerator g = createGenerator(out)) {
+      writeJson(g, delta.getAdded(), hiddenMatches, delta, text, contextSize, detectedLang, incompleteResultsReason, showPremiumHint);
+    }
+  }
+
+  /**
+   * Write only the given matches, as a JSON object with a single array called {@code sectionName}, e.g. to
+   * send the matches found so far while a check is still running. {@code out} is not closed.
+   * @since 5.3
+   */
+  public void ruleMatchesToJson(String sectionName, List<RuleMatch> matches, AnnotatedText text, int contextSize,
+                                OutputStream out) throws IOException {
+    try (JsonGenerator g = createGenerator(out)) {
+      g.writeStartObject();
+      writeMatchesSection(sectionName, g, matches, text, createContextTools(contextSize));
+      g.writeEndObject();
+    }
+  }
+
+  private String ruleMatchesToJson(List<RuleMatch> matches, List<RuleMatch> hiddenMatches, IncrementalChecker.Delta delta, AnnotatedText text,
+                                   int contextSize, DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint) {
     StringWriter sw = new StringWriter();
     try {
       try (JsonGenerator g = factory.createGenerator(sw)) {
-        g.writeStartObject();
-        writeSoftwareSection(g, showPremiumHint);
-        writeWarningsSection(g, incompleteResultsReason);
-        writeLanguageSection(g, detectedLang);
-        writeMatchesSection("matches", g, matches, text, contextTools);
-        if (hiddenMatches != null && hiddenMatches.size() > 0) {
-          writeMatchesSection("hiddenMatches", g, hiddenMatches, text, contextTools);
-        }
-        g.writeEndObject();
+        writeJson(g, matches, hiddenMatches, delta, text, contextSize, detectedLang, incompleteResultsReason, showPremiumHint);
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -112,6 +163,38 @@ public class RuleMatchesAsJsonSerializer {
     return sw.toString();
   }
 
+  private JsonGenerator createGenerator(OutputStream out) throws IOException {
+    JsonGenerator g = factory.createGenerator(out, JsonEncoding.UTF8);
+    // the caller might still need the stream, e.g. to close a JSONP callback:
+    g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    return g;
+  }
+
+  private ContextTools createContextTools(int contextSize) {
+    ContextTools contextTools = new ContextTools();
+    contextTools.setEscapeHtml(false);
+    contextTools.setContextSize(contextSize);
+    contextTools.setErrorMarker(START_MARKER, "");
+    return contextTools;
+  }
+
+  private void writeJson(JsonGenerator g, List<RuleMatch> matches, List<RuleMatch> hiddenMatches, IncrementalChecker.Delta delta, AnnotatedText text,
+                         int contextSize, DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint) throws IOException {
+    ContextTools contextTools = createContextTools(contextSize);
+    g.writeStartObject();
+    writeSoftwareSection(g, showPremiumHint);
+    writeWarningsSection(g, incompleteResultsReason);
+    writeLanguageSection(g, detectedLang);
+    writeMatchesSection("matches", g, matches, text, contextTools);
+    if (hiddenMatches != null && hiddenMatches.size() > 0) {
+      writeMatchesSection("hiddenMatches", g, hiddenMatches, text, contextTools);
+    }
+    if (delta != null) {
+      writeRemovedMatchesSection(g, delta);
+    }
+    g.writeEndObject();
+  }
+
   private void writeSoftwareSection(JsonGenerator g, boolean showPremiumHint) throws IOException {
     if (compactMode == 1) {
       return;
@@ -187,6 +270,29 @@ public class RuleMatchesAsJsonSerializer {
     g.writeEndArray();
   }
 
+  /**
+   * Removed matches refer to the previous version of the text, so there's no context for them,
+   * only what a client needs to identify them among the matches it already has.
+   */
+  private void writeRemovedMatchesSection(JsonGenerator g, IncrementalChecker.Delta delta) throws IOException {
+    g.writeBooleanField("deltaReset", delta.isReset());
+    g.writeArrayFieldStart("removedMatches");
+    for (RuleMatch match : delta.getRemoved()) {
+      g.writeStartObject();
+      g.writeStringField("message", cleanSuggestion(match.getMessage()));
+      g.writeNumberField("offset", match.getFromPos());
+      g.writeNumberField("length", match.getToPos()-match.getFromPos());
+      g.writeObjectFieldStart("rule");
+      g.writeStringField("id", match.getRule().getId());
+      if (match.getRule() instanceof AbstractPatternRule && ((AbstractPatternRule) match.getRule()).getSubId() != null) {
+        g.writeStringField("subId", ((AbstractPatternRule) match.getRule()).getSubId());
+      }
+      g.writeEndObject();
+      g.writeEndObject();
+    }
+    g.writeEndArray();
+  }
+
   private String cleanSuggestion(String s) {
     if (lang != null) {
       return lang.toAdvancedTypography(s.replaceAll("<suggestion>", lang.getOpeningDoubleQuote()).replaceAll("</suggestion>", lang.getClosingDoubleQuote()));
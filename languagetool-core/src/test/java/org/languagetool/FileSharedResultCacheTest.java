@@ -0,0 +1,57 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class FileSharedResultCacheTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testExpiry() throws IOException {
+    File dir = tempFolder.newFolder();
+    FileSharedResultCache cache = new FileSharedResultCache(dir, 1, TimeUnit.HOURS);
+    assertNull(cache.get("key1"));
+    cache.put("key1", new byte[]{1, 2, 3});
+    cache.put("key2", new byte[]{4});
+    assertArrayEquals(new byte[]{1, 2, 3}, cache.get("key1"));
+    assertArrayEquals(new byte[]{4}, cache.get("key2"));
+
+    long twoHoursAgo = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2);
+    Files.setLastModifiedTime(new File(dir, "key1").toPath(), FileTime.fromMillis(twoHoursAgo));
+    assertNull(cache.get("key1"));
+    assertArrayEquals(new byte[]{4}, cache.get("key2"));
+
+    cache.deleteExpired(System.currentTimeMillis());
+    assertFalse(new File(dir, "key1").exists());
+    assertTrue(new File(dir, "key2").exists());
+  }
+}
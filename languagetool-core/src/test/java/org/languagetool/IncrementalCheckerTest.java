@@ -0,0 +1,187 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class IncrementalCheckerTest {
+
+  @Test
+  public void testDeltaMatchesFullCheck() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    lt.addRule(new BarRule());
+    IncrementalChecker checker = new IncrementalChecker(10, 10);
+    String[] versions = {
+      "A small toast. No error here.\n\nFoo go bar. First goes last there, please!",
+      "A small toast. No error here.\n\nFoo go bar. First goes last there, please! And a bar.",
+      "A big toast. No error here.\n\nFoo go bar. First goes last there, please! And a bar.",
+      "A big toast.\n\nFoo go bar. First goes last there, please! And a bar.",
+      "A big toast.\n\nFoo go bar. First goes last there, please! And a bar.",
+      "",
+      "Another bar. A small toast.",
+    };
+    List<RuleMatch> previous = Collections.emptyList();
+    for (String version : versions) {
+      AnnotatedText text = new AnnotatedTextBuilder().addText(version).build();
+      IncrementalChecker.Delta delta = checker.check(lt, "owner", 42L, "config", text, JLanguageTool.Level.DEFAULT);
+      List<RuleMatch> expected = lt.check(text);
+      assertEquals(version, describe(expected), describe(delta.getMatches()));
+      assertTrue(version, previous.containsAll(delta.getRemoved()));
+      assertTrue(version, delta.getMatches().containsAll(delta.getAdded()));
+      assertEquals(version, expected.size(), previous.size() - delta.getRemoved().size() + delta.getAdded().size());
+      previous = delta.getMatches();
+    }
+  }
+
+  @Test
+  public void testUnchangedTextHasEmptyDelta() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    IncrementalChecker checker = new IncrementalChecker(10, 10);
+    AnnotatedText text = new AnnotatedTextBuilder().addText("A small toast. Foo go bar.").build();
+    IncrementalChecker.Delta first = checker.check(lt, "owner", 1L, "config", text, JLanguageTool.Level.DEFAULT);
+    assertTrue(first.isReset());
+    assertFalse(first.getAdded().isEmpty());
+    assertTrue(first.getRemoved().isEmpty());
+    IncrementalChecker.Delta second = checker.check(lt, "owner", 1L, "config", text, JLanguageTool.Level.DEFAULT);
+    assertFalse(second.isReset());
+    assertTrue(second.getAdded().isEmpty());
+    assertTrue(second.getRemoved().isEmpty());
+    assertEquals(first.getMatches(), second.getMatches());
+    // a different configuration starts the session from scratch:
+    IncrementalChecker.Delta third = checker.check(lt, "owner", 1L, "other-config", text, JLanguageTool.Level.DEFAULT);
+    assertTrue(third.isReset());
+    assertEquals(first.getMatches().size(), third.getAdded().size());
+    // the same session id of another owner is another session:
+    IncrementalChecker.Delta other = checker.check(lt, "other-owner", 1L, "other-config", text, JLanguageTool.Level.DEFAULT);
+    assertTrue(other.isReset());
+  }
+
+  @Test
+  public void testMatchesBehindChangeAreKept() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    lt.addRule(new BarRule());
+    IncrementalChecker checker = new IncrementalChecker(10, 10);
+    AnnotatedText text1 = new AnnotatedTextBuilder().addText("A small toast. Foo go bar. A bar.").build();
+    IncrementalChecker.Delta first = checker.check(lt, "owner", 1L, "config", text1, JLanguageTool.Level.DEFAULT);
+    assertFalse(first.getMatches().isEmpty());
+    AnnotatedText text2 = new AnnotatedTextBuilder().addText("A very small toast. Foo go bar. A bar.").build();
+    IncrementalChecker.Delta second = checker.check(lt, "owner", 1L, "config", text2, JLanguageTool.Level.DEFAULT);
+    assertEquals(describe(lt.check(text2)), describe(second.getMatches()));
+    assertTrue(second.getAdded().isEmpty());
+    assertTrue(second.getRemoved().isEmpty());
+  }
+
+  @Test
+  public void testCancelledCheckForgetsSession() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    IncrementalChecker checker = new IncrementalChecker(10, 10);
+    AnnotatedText text = new AnnotatedTextBuilder().addText("A small toast. Foo go bar.").build();
+    checker.check(lt, "owner", 1L, "config", text, JLanguageTool.Level.DEFAULT);
+    lt.setCheckCancelledCallback(() -> true);
+    AnnotatedText changed = new AnnotatedTextBuilder().addText("A big toast. Foo go bar.").build();
+    IncrementalChecker.Delta cancelled = checker.check(lt, "owner", 1L, "config", changed, JLanguageTool.Level.DEFAULT);
+    assertTrue(cancelled.getMatches().isEmpty());
+    lt.setCheckCancelledCallback(null);
+    assertTrue(checker.check(lt, "owner", 1L, "config", changed, JLanguageTool.Level.DEFAULT).isReset());
+  }
+
+  @Test(expected = ErrorRateTooHighException.class)
+  public void testErrorRateTooHigh() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    lt.addRule(new EveryWordRule());
+    lt.setMaxErrorsPerWordRate(0.5f);
+    IncrementalChecker checker = new IncrementalChecker(10, 10);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      sb.append("A small toast. Foo go bar. ");
+    }
+    checker.check(lt, "owner", 1L, "config", new AnnotatedTextBuilder().addText(sb.toString()).build(), JLanguageTool.Level.DEFAULT);
+  }
+
+  private List<String> describe(List<RuleMatch> matches) {
+    return matches.stream()
+      .map(m -> m.getRule().getId() + "@" + m.getFromPos() + "-" + m.getToPos() + "/" + m.getLine() + ":" + m.getColumn())
+      .sorted()
+      .collect(Collectors.toList());
+  }
+
+  /** Marks every word. */
+  static class EveryWordRule extends Rule {
+    @Override
+    public String getId() {
+      return "EVERY_WORD";
+    }
+    @Override
+    public String getDescription() {
+      return "Test rule marking every word";
+    }
+    @Override
+    public RuleMatch[] match(AnalyzedSentence sentence) {
+      List<RuleMatch> matches = new ArrayList<>();
+      for (AnalyzedTokenReadings token : sentence.getTokensWithoutWhitespace()) {
+        if (!token.isSentenceStart()) {
+          matches.add(new RuleMatch(this, sentence, token.getStartPos(), token.getEndPos(), "word found"));
+        }
+      }
+      return toRuleMatchArray(matches);
+    }
+  }
+
+  /** Marks every "bar", with positions relative to the whole text like real text-level rules. */
+  static class BarRule extends TextLevelRule {
+    @Override
+    public String getId() {
+      return "BAR_TEXT_LEVEL";
+    }
+    @Override
+    public String getDescription() {
+      return "Test rule marking 'bar'";
+    }
+    @Override
+    public RuleMatch[] match(List<AnalyzedSentence> sentences) {
+      List<RuleMatch> matches = new ArrayList<>();
+      int pos = 0;
+      for (AnalyzedSentence sentence : sentences) {
+        for (AnalyzedTokenReadings token : sentence.getTokensWithoutWhitespace()) {
+          if (token.getToken().equals("bar")) {
+            matches.add(new RuleMatch(this, sentence, pos + token.getStartPos(), pos + token.getEndPos(), "bar found"));
+          }
+        }
+        pos += sentence.getCorrectedTextLength();
+      }
+      return toRuleMatchArray(matches);
+    }
+    @Override
+    public int minToCheckParagraph() {
+      return 0;
+    }
+  }
+
+}
@@ -21,10 +21,7 @@ package org.languagetool;
 import org.junit.Test;
 import org.languagetool.rules.CategoryId;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.List;
+import java.util.*;
 
 import static org.junit.Assert.*;
 
@@ -72,4 +69,26 @@ public class InputSentenceTest {
     assertNotEquals(inputSentence1a, inputSentence1aOtherAltLang);
   }
 
+  @Test
+  public void testSharedCacheKey() {
+    Language lang = Languages.getLanguageForShortCode("xx-XX");
+    Map<String, Integer> configValues1 = new HashMap<>();
+    configValues1.put("RULE1", 1);
+    configValues1.put("RULE2", 2);
+    Map<String, Integer> configValues2 = new HashMap<>();
+    configValues2.put("RULE1", 2);
+    configValues2.put("RULE2", 1);
+    String key1 = sentence(lang, new UserConfig(configValues1)).getSharedCacheKey();
+    assertNotNull(key1);
+    assertEquals(key1, sentence(lang, new UserConfig(new HashMap<>(configValues1))).getSharedCacheKey());
+    assertNotEquals(key1, sentence(lang, new UserConfig(configValues2)).getSharedCacheKey());
+    // user-specific words aren't part of the key, so such sentences aren't shared:
+    assertNull(sentence(lang, new UserConfig(Arrays.asList("foo1"))).getSharedCacheKey());
+  }
+
+  private static InputSentence sentence(Language lang, UserConfig userConfig) {
+    return new InputSentence("foo", lang, lang, new HashSet<>(), new HashSet<>(), new HashSet<>(), new HashSet<>(),
+            userConfig, new ArrayList<>(), JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT);
+  }
+
 }
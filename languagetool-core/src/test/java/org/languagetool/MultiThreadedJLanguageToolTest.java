@@ -27,12 +27,15 @@ import org.languagetool.rules.UppercaseSentenceStartRule;
 import org.languagetool.rules.patterns.AbstractPatternRule;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.*;
-import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 @SuppressWarnings("ResultOfObjectAllocationIgnored")
@@ -52,6 +55,55 @@ public class MultiThreadedJLanguageToolTest {
     assertEquals(ruleMatchIds1, ruleMatchIds2);
   }
   
+  @Test
+  public void testCheckLongText() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 300; i++) {
+      sb.append("A small toast. No error here. Foo go bar. First goes last there, please!\n\n");
+    }
+    String text = sb.toString();
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(new Demo(), 3);
+    JLanguageTool lt2 = new JLanguageTool(new Demo());
+    // run twice so the second run uses the measured rule costs to split the work:
+    for (int run = 0; run < 2; run++) {
+      List<RuleMatch> matches1 = lt1.check(text);
+      List<RuleMatch> matches2 = lt2.check(text);
+      assertThat(matches1.size(), is(matches2.size()));
+      for (int i = 0; i < matches1.size(); i++) {
+        assertThat(matches1.get(i).getRule().getId(), is(matches2.get(i).getRule().getId()));
+        assertThat(matches1.get(i).getFromPos(), is(matches2.get(i).getFromPos()));
+      }
+    }
+    lt1.shutdown();
+  }
+
+  @Test
+  public void testCustomExecutorService() throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    AtomicInteger taskCount = new AtomicInteger();
+    // not a ForkJoinPool, so the work has to be split into tasks up front:
+    ExecutorService countingExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+      @Override
+      public void execute(Runnable command) {
+        taskCount.incrementAndGet();
+        executor.execute(command);
+      }
+    };
+    MultiThreadedJLanguageTool lt1 = new MultiThreadedJLanguageTool(new Demo(), 2) {
+      @Override
+      protected ExecutorService getExecutorService() {
+        return countingExecutor;
+      }
+    };
+    lt1.setCleanOverlappingMatches(false);
+    JLanguageTool lt2 = new JLanguageTool(new Demo());
+    lt2.setCleanOverlappingMatches(false);
+    assertEquals(getRuleMatchIds(lt2), getRuleMatchIds(lt1));
+    assertTrue(taskCount.get() > 0);
+    lt1.shutdown();
+    executor.shutdown();
+  }
+
   @Test
   public void testShutdownException() throws IOException {
     MultiThreadedJLanguageTool tool = new MultiThreadedJLanguageTool(new Demo());
@@ -113,6 +165,40 @@ public class MultiThreadedJLanguageToolTest {
     lt.shutdown();
   }
 
+  @Test
+  public void testCheckStream() throws IOException {
+    MultiThreadedJLanguageTool lt = new MultiThreadedJLanguageTool(new FakeLanguage() {
+      @Override
+      protected synchronized List<AbstractPatternRule> getPatternRules() {
+        return Collections.emptyList();
+      }
+
+      @Override
+      public List<Rule> getRelevantRules(ResourceBundle messages, UserConfig userConfig, Language motherTongue, List<Language> altLanguages) {
+        return Arrays.asList(
+                new UppercaseSentenceStartRule(messages, this),
+                new MultipleWhitespaceRule(messages, this)  // a text-level rule
+        );
+      }
+    });
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      sb.append(i % 3 == 0 ? "my test  text. Another one.\n\n" : "This is fine. Really.\n\n");
+    }
+    String text = sb.toString();
+    List<RuleMatch> streamed = new ArrayList<>();
+    lt.checkStream(new StringReader(text), streamed::add);
+    List<RuleMatch> expected = lt.check(text);
+    assertThat(streamed.size(), is(expected.size()));
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(streamed.get(i).getRule().getId(), is(expected.get(i).getRule().getId()));
+      assertThat(streamed.get(i).getFromPos(), is(expected.get(i).getFromPos()));
+      assertThat(streamed.get(i).getToPos(), is(expected.get(i).getToPos()));
+      assertThat(streamed.get(i).getLine(), is(expected.get(i).getLine()));
+    }
+    lt.shutdown();
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testIllegalThreadPoolSize1() {
     new MultiThreadedJLanguageTool(new Demo(), 0);
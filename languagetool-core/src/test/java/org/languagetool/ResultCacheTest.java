@@ -0,0 +1,159 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.*;
+import org.languagetool.rules.patterns.AbstractPatternRule;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+
+  private final Language lang = new FakeLanguage() {
+    @Override
+    protected synchronized List<AbstractPatternRule> getPatternRules() {
+      return Collections.emptyList();
+    }
+    @Override
+    public List<Rule> getRelevantRules(ResourceBundle messages, UserConfig userConfig, Language motherTongue, List<Language> altLanguages) {
+      return Collections.singletonList(new CommaWhitespaceRule(messages));
+    }
+  };
+
+  @Test
+  public void testSharedCache() throws Exception {
+    InMemorySharedResultCache sharedCache = new InMemorySharedResultCache(100);
+    ResultCache cache1 = new ResultCache(1000, 5, TimeUnit.MINUTES, sharedCache);
+    ResultCache cache2 = new ResultCache(1000, 5, TimeUnit.MINUTES, sharedCache);
+    JLanguageTool lt1 = new JLanguageTool(lang, null, cache1);
+    JLanguageTool lt2 = new JLanguageTool(lang, null, cache2);
+    String text = "This is a test , with a comma.";
+
+    List<RuleMatch> matches1 = lt1.check(text);
+    assertThat(matches1.size(), is(1));
+    assertThat(cache1.getSharedMissCount(), is(1L));
+    // the shared cache is filled in the background:
+    for (int i = 0; i < 200 && sharedCache.size() == 0; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(sharedCache.size(), is(1L));
+
+    List<RuleMatch> matches2 = lt2.check(text);
+    assertThat(cache2.getSharedHitCount(), is(1L));
+    assertThat(cache2.getSharedMissCount(), is(0L));
+    assertThat(describe(matches2), is(describe(matches1)));
+
+    // now in the local tier, the shared one isn't asked again:
+    lt2.check(text);
+    assertThat(cache2.getSharedHitCount(), is(1L));
+    assertThat(cache2.getSharedErrorCount(), is(0L));
+  }
+
+  @Test
+  public void testSerializationRoundTrip() throws IOException {
+    JLanguageTool lt = new JLanguageTool(lang);
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("A test sentence.");
+    Rule rule = new FakeRule();
+    RuleMatch match = new RuleMatch(rule, sentence, 2, 6, 1, 3, "A message with <suggestion>sugg</suggestion>", null);
+    match.setLine(3);
+    match.setEndLine(4);
+    match.setColumn(5);
+    match.setEndColumn(6);
+    match.setUrl(new URL("https://example.com/rule"));
+    match.setType(RuleMatch.Type.UnknownWord);
+    match.setAutoCorrect(true);
+    match.setFeatures(new TreeMap<>(Collections.singletonMap("score", 0.5f)));
+    SuggestedReplacement replacement = new SuggestedReplacement("ästhetisch", "desc", null);
+    replacement.setConfidence(0.75f);
+    replacement.setType(SuggestedReplacement.SuggestionType.Curated);
+    match.setSuggestedReplacementObjects(Arrays.asList(replacement, new SuggestedReplacement("other")));
+    Function<String, Rule> rules = id -> id.equals(rule.getFullId()) ? rule : null;
+
+    byte[] data = ResultCacheSerializer.serialize(Collections.singletonList(match), rules);
+    assertNotNull(data);
+    List<RuleMatch> restored = ResultCacheSerializer.deserialize(data, rules, sentence);
+    assertNotNull(restored);
+    assertThat(restored.size(), is(1));
+    RuleMatch restoredMatch = restored.get(0);
+    assertSame(rule, restoredMatch.getRule());
+    assertSame(sentence, restoredMatch.getSentence());
+    assertThat(describe(restored), is(describe(Collections.singletonList(match))));
+    assertThat(restoredMatch.getPatternFromPos(), is(1));
+    assertThat(restoredMatch.getPatternToPos(), is(3));
+    assertThat(restoredMatch.getEndColumn(), is(6));
+    assertNull(restoredMatch.getShortMessage());
+    assertThat(restoredMatch.getUrl().toString(), is("https://example.com/rule"));
+    assertTrue(restoredMatch.isAutoCorrect());
+    assertThat(restoredMatch.getFeatures().get("score"), is(0.5f));
+    SuggestedReplacement restoredReplacement = restoredMatch.getSuggestedReplacementObjects().get(0);
+    assertThat(restoredReplacement.getShortDescription(), is("desc"));
+    assertNull(restoredReplacement.getSuffix());
+    assertThat(restoredReplacement.getConfidence(), is(0.75f));
+    assertThat(restoredReplacement.getType(), is(SuggestedReplacement.SuggestionType.Curated));
+
+    // unknown rules make the entry unusable:
+    assertNull(ResultCacheSerializer.deserialize(data, id -> null, sentence));
+    // and so do rules that aren't the active ones:
+    assertNull(ResultCacheSerializer.serialize(Collections.singletonList(match), id -> new FakeRule()));
+  }
+
+  @Test
+  public void testLazySuggestionsAreNotComputedForSerialization() throws IOException {
+    JLanguageTool lt = new JLanguageTool(lang);
+    AnalyzedSentence sentence = lt.getAnalyzedSentence("A test sentence.");
+    Rule rule = new FakeRule();
+    Function<String, Rule> rules = id -> id.equals(rule.getFullId()) ? rule : null;
+    RuleMatch match = new RuleMatch(rule, sentence, 2, 6, "A message");
+    int[] computations = {0};
+    match.setLazySuggestedReplacements(() -> {
+      computations[0]++;
+      return Collections.singletonList(new SuggestedReplacement("sugg"));
+    });
+    assertFalse(match.areSuggestionsComputed());
+    assertNull(ResultCacheSerializer.serialize(Collections.singletonList(match), rules));
+    assertThat(computations[0], is(0));
+
+    // once the suggestions are there (e.g. because they have been sent to the client), the entry can be shared:
+    assertThat(match.getSuggestedReplacements(), is(Collections.singletonList("sugg")));
+    assertTrue(match.areSuggestionsComputed());
+    assertNotNull(ResultCacheSerializer.serialize(Collections.singletonList(match), rules));
+    assertThat(computations[0], is(1));
+  }
+
+  private static String describe(List<RuleMatch> matches) {
+    StringBuilder sb = new StringBuilder();
+    for (RuleMatch match : matches) {
+      sb.append(match.getRule().getFullId()).append('/')
+        .append(match.getFromPos()).append('-').append(match.getToPos()).append('/')
+        .append(match.getLine()).append(':').append(match.getColumn()).append('/')
+        .append(match.getMessage()).append('/')
+        .append(match.getType()).append('/')
+        .append(match.getSuggestedReplacements()).append('\n');
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,142 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.*;
+
+public class FastTextModelTest {
+
+  private static final int DIM = 2;
+  private static final int BUCKET = 50;
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testSoftmaxPrediction() throws IOException {
+    FastTextModel model = FastTextModel.load(writeModel(3, false));
+    assertThat(model.getDimension(), is(DIM));
+    assertThat(model.getLabelCount(), is(2));
+    // known word, its own row dominates the character n-grams:
+    Map<String, Double> known = model.predict("hallo", 5);
+    assertThat(new ArrayList<>(known.keySet()), is(Arrays.asList("__label__de", "__label__en")));
+    assertTrue(known.get("__label__de") > 0.99);
+    assertEquals(1.0, known.get("__label__de") + known.get("__label__en"), 0.001);
+    // unknown word, only the character n-gram rows (which point to "en") are used:
+    Map<String, Double> unknown = model.predict("xyz", 5);
+    assertThat(unknown.keySet().iterator().next(), is("__label__en"));
+    assertThat(model.predict("hallo", 1).keySet(), is(Collections.singleton("__label__de")));
+  }
+
+  @Test
+  public void testHierarchicalSoftmaxPrediction() throws IOException {
+    FastTextModel model = FastTextModel.load(writeModel(1, false));
+    Map<String, Double> result = model.predict("hallo  hallo\thallo", 5);
+    assertThat(result.size(), is(2));
+    assertEquals(1.0, result.values().stream().mapToDouble(d -> d).sum(), 0.001);
+    Iterator<Double> it = result.values().iterator();
+    assertTrue(it.next() >= it.next());
+  }
+
+  @Test
+  public void testBatchPrediction() throws IOException {
+    FastTextModel model = FastTextModel.load(writeModel(3, false));
+    List<String> texts = Arrays.asList("hallo", "xyz", "", "hallo xyz äöü");
+    List<Map<String, Double>> batch = model.predict(texts, 5);
+    assertThat(batch.size(), is(texts.size()));
+    for (int i = 0; i < texts.size(); i++) {
+      assertThat(batch.get(i), is(model.predict(texts.get(i), 5)));
+    }
+  }
+
+  @Test
+  public void testNoInputRows() throws IOException {
+    // without "</s>" in the dictionary, an empty line has neither a known word nor character n-grams:
+    FastTextModel model = FastTextModel.load(writeModel(3, false, "hallo"));
+    assertTrue(model.predict("", 5).isEmpty());
+    assertFalse(model.predict("hallo", 5).isEmpty());
+  }
+
+  @Test(expected = IOException.class)
+  public void testQuantizedModelNotSupported() throws IOException {
+    FastTextModel.load(writeModel(3, true));
+  }
+
+  /**
+   * A tiny supervised model in fastText's binary format: the word "hallo" points to "de",
+   * all character n-gram buckets point to "en".
+   */
+  private File writeModel(int loss, boolean quantized) throws IOException {
+    return writeModel(loss, quantized, "</s>", "hallo");
+  }
+
+  private File writeModel(int loss, boolean quantized, String... words) throws IOException {
+    ByteBuffer buf = ByteBuffer.allocate(8192).order(ByteOrder.LITTLE_ENDIAN);
+    buf.putInt(793712314).putInt(12);
+    // args: dim, ws, epoch, minCount, neg, wordNgrams, loss, model, bucket, minn, maxn, lrUpdateRate, t
+    buf.putInt(DIM).putInt(5).putInt(5).putInt(1).putInt(5).putInt(2).putInt(loss).putInt(3)
+      .putInt(BUCKET).putInt(2).putInt(4).putInt(100).putDouble(1e-4);
+    String[] labels = {"__label__en", "__label__de"};
+    buf.putInt(words.length + labels.length).putInt(words.length).putInt(labels.length).putLong(100).putLong(-1);
+    for (String word : words) {
+      putEntry(buf, word, 10, 0);
+    }
+    putEntry(buf, labels[0], 20, 1);
+    putEntry(buf, labels[1], 10, 1);
+    buf.put((byte) (quantized ? 1 : 0));
+    if (!quantized) {
+      buf.putLong(words.length + BUCKET).putLong(DIM);
+      for (String word : words) {
+        buf.putFloat(0).putFloat(word.equals("hallo") ? 500 : 0);
+      }
+      for (int i = 0; i < BUCKET; i++) {
+        buf.putFloat(1).putFloat(0);
+      }
+      buf.put((byte) 0);
+      buf.putLong(labels.length).putLong(DIM);
+      buf.putFloat(1).putFloat(0);    // en
+      buf.putFloat(0).putFloat(1);    // de
+    }
+    File file = tempFolder.newFile();
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(buf.array(), 0, buf.position());
+    }
+    return file;
+  }
+
+  private void putEntry(ByteBuffer buf, String entry, long count, int type) {
+    buf.put(entry.getBytes(StandardCharsets.UTF_8)).put((byte) 0).putLong(count).put((byte) type);
+  }
+
+}
@@ -0,0 +1,79 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.languagetool.noop.NoopLanguage;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class NGramLangIdentifierTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testDetectLanguages() throws IOException {
+    NGramLangIdentifier identifier = new NGramLangIdentifier(writeModel(), 10);
+    Map<String, Double> de = identifier.detectLanguages("Hallo", Collections.emptyList());
+    assertTrue(de.get("de") > 0.99);
+    Map<String, Double> en = identifier.detectLanguages("hello", Collections.emptyList());
+    assertTrue(en.get("en") > 0.99);
+    // longest vocabulary match wins, "hal" alone is a different token:
+    Map<String, Double> prefix = identifier.detectLanguages("hal", Collections.emptyList());
+    assertTrue(prefix.get("en") > 0.99);
+    // numbers are replaced by a placeholder token:
+    Map<String, Double> number = identifier.detectLanguages("12345", Collections.emptyList());
+    assertTrue(number.get("de") > 0.99);
+    Map<String, Double> unknown = identifier.detectLanguages("qqqqqqq", Collections.emptyList());
+    assertThat(unknown, is(Collections.singletonMap(NoopLanguage.SHORT_CODE, 100.0)));
+  }
+
+  private File writeModel() throws IOException {
+    File file = tempFolder.newFile("ngrams.zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+      addEntry(out, "iso_codes.tsv", "English\ten\teng\t1\nFoo\tNULL\tfoo\t0\nGerman\tde\tdeu\t1\n");
+      addEntry(out, "vocab.txt", "<unk>\n<s>\n\u2581\n\u2581hallo\n\u2581hello\n\u2581hal\n<NUM>\n");
+      addEntry(out, "thresholds.txt", "5\n-20 -20\n-20 -20\n-20 -20\n-20 -20\n-20 -20\n");
+      addEntry(out, "00.txt", "1 4 0.9\n1 5 0.9\n");
+      addEntry(out, "01.txt", "1 3 0.9\n1 2 0.9\n2 6 0.9\n");
+    }
+    return file;
+  }
+
+  private void addEntry(ZipOutputStream out, String name, String content) throws IOException {
+    out.putNextEntry(new ZipEntry(name));
+    out.write(content.getBytes(StandardCharsets.UTF_8));
+    out.closeEntry();
+  }
+
+}
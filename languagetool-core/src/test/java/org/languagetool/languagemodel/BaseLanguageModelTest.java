@@ -25,6 +25,7 @@ import org.languagetool.rules.ngrams.Probability;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
@@ -48,6 +49,26 @@ public class BaseLanguageModelTest {
     }
   }
 
+  @Test
+  public void testPseudoProbabilities() throws IOException {
+    try (FakeLanguageModel lm = new FakeLanguageModel()) {
+      List<List<String>> contexts = Arrays.asList(
+        Arrays.asList("There", "are", "new"),
+        Arrays.asList("Their", "are", "new"),
+        Arrays.asList("There", "are"));
+      List<Probability> probs = lm.getPseudoProbabilities(contexts);
+      assertThat(probs.size(), is(3));
+      for (int i = 0; i < contexts.size(); i++) {
+        Probability single = lm.getPseudoProbability(contexts.get(i));
+        assertEquals(single.getProb(), probs.get(i).getProb(), 0.0);
+        assertThat(probs.get(i).getCoverage(), is(single.getCoverage()));
+      }
+      // the single lookups only needed ngrams already looked up by the batch:
+      assertThat(lm.getCountCacheMissCount(), is(6L));
+      assertThat(lm.getCountCacheHitCount(), is(8L));
+    }
+  }
+
   @Test(expected = IndexOutOfBoundsException.class)
   public void testPseudoProbabilityFail1() throws IOException {
     try (FakeLanguageModel lm = new FakeLanguageModel()) {
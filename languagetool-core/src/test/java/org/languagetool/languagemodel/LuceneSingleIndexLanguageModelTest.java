@@ -25,6 +25,8 @@ import org.languagetool.JLanguageTool;
 import java.io.File;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -43,6 +45,23 @@ public class LuceneSingleIndexLanguageModelTest extends LanguageModelTest {
     }
   }
 
+  @Test
+  public void testGetCounts() throws Exception {
+    URL ngramUrl = JLanguageTool.getDataBroker().getFromResourceDirAsUrl("/yy/ngram-index");
+    try (LuceneLanguageModel model = new LuceneLanguageModel(new File(ngramUrl.toURI()))) {
+      List<String> the = Arrays.asList("the");
+      List<String> theNice = Arrays.asList("the", "nice");
+      List<String> theNiceBuilding = Arrays.asList("the", "nice", "building");
+      List<String> notInHere = Arrays.asList("not-in-here");
+      Map<List<String>, Long> counts = model.getCounts(Arrays.asList(theNiceBuilding, the, notInHere, theNice, the));
+      assertThat(counts.size(), is(4));
+      assertThat(counts.get(the), is(55L));
+      assertThat(counts.get(theNice), is(3L));
+      assertThat(counts.get(theNiceBuilding), is(1L));
+      assertThat(counts.get(notInHere), is(0L));
+    }
+  }
+
   /**
    * Some values for average time per lookup on 2grams on a 3.7GB Lucene 4.8.1 index with 118,941,740 docs:
    * -no data in OS cache, index on external USB disk: 17626µs = 17ms
@@ -0,0 +1,80 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class MmapLanguageModelTest {
+
+  @Test
+  public void testLanguageModel() throws IOException {
+    File dir = Files.createTempDirectory("lt-mmap-ngrams").toFile();
+    try {
+      try (MmapLanguageModel.Writer writer = new MmapLanguageModel.Writer(dir, 1, dir)) {
+        writer.setTotalTokenCount(3);
+        writer.add("the", 50);
+        writer.add("nice", 7);
+        writer.add("the", 5);  // added twice, e.g. from two indexes
+        writer.add("many", 1_000_000);
+      }
+      try (MmapLanguageModel.Writer writer = new MmapLanguageModel.Writer(dir, 2, dir)) {
+        writer.add("the nice", 3);
+      }
+      try (MmapLanguageModel.Writer writer = new MmapLanguageModel.Writer(dir, 3, dir)) {
+        writer.add("the nice building", 1);
+      }
+      assertTrue(MmapLanguageModel.isMmapDirectory(dir));
+      try (MmapLanguageModel model = new MmapLanguageModel(dir)) {
+        assertThat(model.getCount("the"), is(55L));
+        assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+        assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
+        assertThat(model.getCount(Arrays.asList("nice", "the")), is(0L));
+        assertThat(model.getCount("not-in-here"), is(0L));
+        assertThat(Math.abs(model.getCount("many") - 1_000_000) < 1_000, is(true));
+        assertThat(model.getTotalTokenCount(), is(3L));
+      }
+    } finally {
+      for (File file : dir.listFiles()) {
+        file.delete();
+      }
+      dir.delete();
+    }
+  }
+
+  @Test
+  public void testQuantization() {
+    for (long count : new long[] {0, 1, 1000, 32767}) {
+      assertThat(MmapLanguageModel.dequantize(MmapLanguageModel.quantize(count)), is(count));
+    }
+    for (long count : new long[] {32768, 100_000, 123_456_789, 42_107_029_039L, Long.MAX_VALUE / 2}) {
+      long restored = MmapLanguageModel.dequantize(MmapLanguageModel.quantize(count));
+      assertTrue(count + " -> " + restored, Math.abs(restored - count) <= count * 0.001);
+    }
+  }
+
+}
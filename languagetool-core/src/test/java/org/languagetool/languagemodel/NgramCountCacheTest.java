@@ -0,0 +1,64 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NgramCountCacheTest {
+
+  @Test
+  public void testCache() {
+    NgramCountCache cache = new NgramCountCache(1000);
+    List<String> ngram = Arrays.asList("foo", "bar");
+    assertNull(cache.getIfPresent(ngram));
+    cache.put(ngram, 42);
+    assertThat(cache.getIfPresent(Arrays.asList("foo", "bar")), is(42L));
+    assertThat(cache.getHitCount(), is(1L));
+    assertThat(cache.getMissCount(), is(1L));
+  }
+
+  @Test
+  public void testFrequentNgramsSurviveOneOffLookups() {
+    NgramCountCache cache = new NgramCountCache(16_000);
+    List<String> frequent = Collections.singletonList("frequent");
+    for (int i = 0; i < 5; i++) {
+      if (cache.getIfPresent(frequent) == null) {
+        cache.put(frequent, 1);
+      }
+    }
+    for (int i = 0; i < 20_000; i++) {
+      List<String> rare = Collections.singletonList("rare" + i);
+      if (cache.getIfPresent(rare) == null) {
+        cache.put(rare, i);
+      }
+    }
+    assertTrue(cache.size() <= 16_000);
+    assertThat(cache.getIfPresent(frequent), is(1L));
+  }
+
+}
@@ -56,6 +56,19 @@ public class AnnotatedTextTest {
     assertThat(text.getOriginalTextPositionFor(8, false), is(11));
   }
 
+  @Test
+  public void testManySegments() {
+    AnnotatedTextBuilder builder = new AnnotatedTextBuilder();
+    for (int i = 0; i < 100; i++) {
+      builder.addMarkup("<x>").addText("ab");
+    }
+    AnnotatedText text = builder.build();
+    for (int pos = 0; pos < 200; pos++) {
+      int segment = pos / 2;
+      assertThat(text.getOriginalTextPositionFor(pos, false), is(5 * segment + 3 + pos % 2));
+    }
+  }
+
   @Test
   public void testIgnoreInterpretAs() {   // https://github.com/languagetool-org/languagetool/issues/1393
     AnnotatedText text = new AnnotatedTextBuilder().
@@ -0,0 +1,86 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RuleProfilerTest {
+
+  @Test
+  public void testProfiling() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    RuleProfiler profiler = new RuleProfiler(1);
+    List<String> profiledRuleIds = new ArrayList<>();
+    profiler.addListener((ruleId, nanos, allocatedBytes, matchCount) -> profiledRuleIds.add(ruleId));
+    lt.setRuleProfiler(profiler);
+    lt.check("This is a test. And another one.");
+    List<RuleProfiler.RuleStats> slowest = profiler.getSlowestRules(Integer.MAX_VALUE);
+    assertFalse(slowest.isEmpty());
+    assertFalse(profiledRuleIds.isEmpty());
+    for (int i = 1; i < slowest.size(); i++) {
+      assertTrue(slowest.get(i - 1).getTotalNanos() >= slowest.get(i).getTotalNanos());
+    }
+    assertEquals(1, profiler.getSlowestRules(1).size());
+    profiler.reset();
+    assertTrue(profiler.getSlowestRules(10).isEmpty());
+  }
+
+  @Test
+  public void testTimingsRecordedWithProfiler() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    RuleProfiler profiler = new RuleProfiler(1);
+    lt.setRuleProfiler(profiler);
+    lt.check("This is a test.");
+    List<RuleProfiler.RuleStats> stats = profiler.getSlowestRules(Integer.MAX_VALUE);
+    assertFalse(stats.isEmpty());
+    long totalNanos = 0;
+    for (RuleProfiler.RuleStats ruleStats : stats) {
+      assertTrue(ruleStats.getSamples() > 0);
+      totalNanos += ruleStats.getTotalNanos();
+    }
+    assertTrue(totalNanos > 0);
+  }
+
+  @Test
+  public void testNothingRecordedWithoutProfiler() throws IOException {
+    JLanguageTool lt = new JLanguageTool(TestTools.getDemoLanguage());
+    RuleProfiler profiler = new RuleProfiler(1);
+    List<String> profiledRuleIds = new ArrayList<>();
+    profiler.addListener((ruleId, nanos, allocatedBytes, matchCount) -> profiledRuleIds.add(ruleId));
+    lt.setRuleProfiler(profiler);
+    lt.setRuleProfiler(null);
+    lt.check("This is a test.");
+    assertTrue(profiledRuleIds.isEmpty());
+    assertTrue(profiler.getSlowestRules(10).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSampleRate() {
+    new RuleProfiler(0);
+  }
+
+}
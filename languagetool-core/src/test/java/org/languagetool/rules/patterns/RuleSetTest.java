@@ -26,8 +26,11 @@ import org.languagetool.FakeLanguage;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.languagetool.rules.patterns.PatternRuleBuilderHelper.*;
 import static org.languagetool.rules.patterns.RuleSet.textLemmaHinted;
 
@@ -68,11 +71,53 @@ public class RuleSetTest {
     assertRulesForSentence(textLemmaHinted(Arrays.asList(ruleOf(unsuitable), unrelated)), unrelated);
   }
 
+  @Test
+  public void compiledConstraintsAreHonored() {
+    PatternRule byText = ruleOf(token("Token"));
+    PatternRule byLemma = ruleOf(new PatternTokenBuilder().token("lemma").matchInflectedForms().build());
+    PatternRule byPos = ruleOf(pos("pos"));
+    PatternRule unrelated = ruleOf(posRegex("p.*"));
+    RuleSet ruleSet = RuleSet.compiled(Arrays.asList(
+      byText, ruleOf(csToken("unsuitable")), byLemma, ruleOf(pos("otherPos")), byPos, unrelated,
+      ruleOf(Arrays.asList(token("token"), token("next"))))
+    );
+    assertRulesForSentence(ruleSet, byText, byLemma, byPos, unrelated);
+  }
+
+  @Test
+  public void compiledRuleSetRecordsMatchStarts() {
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[]{
+      new AnalyzedTokenReadings(new AnalyzedToken("a", "DT", "a")),
+      new AnalyzedTokenReadings(new AnalyzedToken("token", "pos", "lemma")),
+      new AnalyzedTokenReadings(new AnalyzedToken("and", "CC", "and")),
+      new AnalyzedTokenReadings(new AnalyzedToken("Token", "pos", "lemma"))
+    });
+    PatternRule single = ruleOf(token("token"));
+    PatternRule pair = ruleOf(Arrays.asList(pos("DT"), new PatternTokenBuilder().token("lemma").matchInflectedForms().build()));
+    PatternRule optionalTail = ruleOf(Arrays.asList(token("a"), new PatternTokenBuilder().token("and").min(0).build()));
+    PatternRule byPos = ruleOf(pos("pos"));
+    PatternRule unclassified = ruleOf(posRegex("p.*"));
+    RuleSet ruleSet = RuleSet.compiled(Arrays.asList(single, unclassified, pair, optionalTail, byPos));
+    assertEquals(Arrays.asList(single, unclassified, pair, optionalTail, byPos), ruleSet.rulesForSentence(sentence));
+    RuleSet.Selection selection = ruleSet.selectRules(sentence);
+    assertEquals(Arrays.asList(single, unclassified, pair, optionalTail, byPos), selection.getRules());
+    assertArrayEquals(new int[]{1, 3}, selection.getMatchStartHints(0));
+    assertNull(selection.getMatchStartHints(1));
+    assertArrayEquals(new int[]{0}, selection.getMatchStartHints(2));
+    assertArrayEquals(new int[]{0}, selection.getMatchStartHints(3));
+    assertArrayEquals(new int[]{1, 3}, selection.getMatchStartHints(4));
+    assertNull(textLemmaHinted(Collections.singletonList(single)).selectRules(sentence).getMatchStartHints(0));
+  }
+
   private static void assertRulesForSentence(RuleSet ruleSet, PatternRule... expected) {
     assertEquals(Arrays.asList(expected), ruleSet.rulesForSentence(sampleSentence));
   }
 
   private static PatternRule ruleOf(PatternToken token) {
-    return new PatternRule("", new FakeLanguage(), Collections.singletonList(token), "", "", "");
+    return ruleOf(Collections.singletonList(token));
+  }
+
+  private static PatternRule ruleOf(List<PatternToken> tokens) {
+    return new PatternRule("", new FakeLanguage(), tokens, "", "", "");
   }
 }
@@ -21,6 +21,7 @@ package org.languagetool.rules.spelling.morfologik;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.List;
 
 import static java.util.Collections.*;
 import static org.hamcrest.core.Is.is;
@@ -62,6 +63,20 @@ public class MorfologikMultiSpellerTest {
     assertThat(speller.getSuggestions("Häusers").toString(), is("[Häuser]"));
   }
 
+  @Test
+  public void testSuggestionsAreSharedAcrossInstances() throws IOException {
+    assertThat(getSpeller().getSuggestions("Fxn").toString(), is("[Fän, Fön, Fün]"));
+    MorfologikMultiSpeller speller = getSpeller();
+    List<String> suggestions = speller.getSuggestions("Fxn");
+    assertThat(suggestions.toString(), is("[Fän, Fön, Fün]"));
+    suggestions.clear();  // must not modify the cached suggestions
+    assertThat(speller.getSuggestionsFromDefaultDicts("Fxn").toString(), is("[Fän, Fön, Fün]"));
+    // user dictionaries are not cached:
+    MorfologikMultiSpeller userSpeller = new MorfologikMultiSpeller("/xx/spelling/test.dict", null,
+      emptyList(), null, null, singletonList("Fyn"), 1);
+    assertThat(userSpeller.getSuggestions("Fxn").toString(), is("[Fyn]"));
+  }
+
   @Test(expected = RuntimeException.class)
   public void testInvalidFileName() throws IOException {
     new MorfologikMultiSpeller("/xx/spelling/test.dict.README", singletonList("/xx/spelling/test2.txt"), null, 1);
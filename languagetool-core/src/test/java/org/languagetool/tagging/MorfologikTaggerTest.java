@@ -25,7 +25,11 @@ import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 import org.languagetool.AnalyzedSentence;
@@ -58,6 +62,29 @@ public class MorfologikTaggerTest {
     assertThat(noResult.size(), is(0));
   }
 
+  @Test
+  public void testTagConcurrently() throws Exception {
+    URL url = MorfologikTaggerTest.class.getResource("/org/languagetool/tagging/test.dict");
+    MorfologikTagger tagger = new MorfologikTagger(url);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 1000; j++) {
+            List<TaggedWord> result = tagger.tag(j % 2 == 0 ? "lowercase" : "schön");
+            assertThat(result.get(0).getLemma(), is(j % 2 == 0 ? "lclemma" : "testlemma"));
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   @Test
   public void testPositionWithIgnoredChars() throws IOException {
     Demo demoLanguage = new Demo();
@@ -20,12 +20,17 @@ package org.languagetool.tools;
 
 import org.junit.Test;
 import org.languagetool.*;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -107,6 +112,28 @@ public class RuleMatchesAsJsonSerializerTest {
     assertTrue(json.contains("This\\ris ..."));
   }
   
+  @Test
+  public void testJsonToStream() throws IOException {
+    DetectedLanguage lang = new DetectedLanguage(Languages.getLanguageForShortCode("xx-XX"), Languages.getLanguageForShortCode("xx-XX")) ;
+    AnnotatedText text = new AnnotatedTextBuilder().addText("This is an text. Ümlaut.").build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.ruleMatchesToJson(matches, Collections.emptyList(), text, 5, lang, null, false, out);
+    out.write('\n');  // stream is still open
+    String expected = serializer.ruleMatchesToJson(matches, Collections.emptyList(), text, 5, lang, null, false);
+    assertEquals(expected + "\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testPartialMatchesToStream() throws IOException {
+    AnnotatedText text = new AnnotatedTextBuilder().addText("This is an text. Ümlaut.").build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.ruleMatchesToJson("partialMatches", matches, text, 5, out);
+    String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertTrue(json.startsWith("{\"partialMatches\":[{"));
+    assertTrue(json.contains("\"offset\":1,"));
+    assertFalse(json.contains("\"software\""));
+  }
+
   static class FakeRule extends Rule {
     FakeRule() {
       setLocQualityIssueType(ITSIssueType.Addition);
@@ -0,0 +1,121 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.MmapLanguageModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Converts the Lucene ngram indexes as created by {@link FrequencyIndexCreator} or
+ * {@link AggregatedNgramToLucene} to the memory-mapped format of {@link MmapLanguageModel}.
+ * Indexes in {@code index-1}, {@code index-2} etc. sub directories are merged.
+ * @since 5.3
+ */
+final class LuceneToMmapNgrams {
+
+  private LuceneToMmapNgrams() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.out.println("Usage: " + LuceneToMmapNgrams.class.getSimpleName() + " <luceneIndexTopDir> <outputDir>");
+      System.out.println("  <luceneIndexTopDir> is a directory with '1grams', '2grams', ... or 'index-1', 'index-2', ... sub directories");
+      System.out.println("  <outputDir> is where '1grams.bin', '2grams.bin', ... will be written, it's also used for temporary files");
+      System.exit(1);
+    }
+    File inputDir = new File(args[0]);
+    File outputDir = new File(args[1]);
+    if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+      throw new IOException("Could not create " + outputDir);
+    }
+    List<File> indexDirs = new ArrayList<>();
+    File[] subDirs = inputDir.listFiles((file, name) -> name.matches("index-\\d+"));
+    if (subDirs != null && subDirs.length > 0) {
+      indexDirs.addAll(Arrays.asList(subDirs));
+    } else {
+      indexDirs.add(inputDir);
+    }
+    long totalTokenCount;
+    try (LuceneLanguageModel lm = new LuceneLanguageModel(inputDir)) {
+      totalTokenCount = lm.getTotalTokenCount();
+    }
+    for (int ngramSize = 1; ngramSize <= 4; ngramSize++) {
+      List<File> ngramDirs = new ArrayList<>();
+      for (File indexDir : indexDirs) {
+        File ngramDir = new File(indexDir, ngramSize + "grams");
+        if (ngramDir.isDirectory()) {
+          ngramDirs.add(ngramDir);
+        }
+      }
+      if (ngramDirs.isEmpty()) {
+        continue;
+      }
+      long startTime = System.currentTimeMillis();
+      long ngrams = 0;
+      try (MmapLanguageModel.Writer writer = new MmapLanguageModel.Writer(outputDir, ngramSize, outputDir)) {
+        writer.setTotalTokenCount(totalTokenCount);
+        for (File ngramDir : ngramDirs) {
+          System.out.println("Converting " + ngramDir);
+          ngrams += convert(ngramDir, writer);
+        }
+      }
+      System.out.printf(Locale.ENGLISH, "Wrote %d %dgrams in %ds\n", ngrams, ngramSize, (System.currentTimeMillis() - startTime) / 1000);
+    }
+  }
+
+  private static long convert(File ngramDir, MmapLanguageModel.Writer writer) throws IOException {
+    long ngrams = 0;
+    try (FSDirectory directory = FSDirectory.open(ngramDir.getCanonicalFile().toPath());
+         IndexReader reader = DirectoryReader.open(directory)) {
+      Terms terms = MultiFields.getTerms(reader, "ngram");
+      if (terms == null) {
+        return 0;
+      }
+      Bits liveDocs = MultiFields.getLiveDocs(reader);
+      Set<String> countField = Collections.singleton("count");
+      TermsEnum termsEnum = terms.iterator();
+      PostingsEnum postings = null;
+      BytesRef term;
+      while ((term = termsEnum.next()) != null) {
+        postings = termsEnum.postings(postings, PostingsEnum.NONE);
+        long count = 0;
+        int doc;
+        while ((doc = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (liveDocs == null || liveDocs.get(doc)) {
+            count += Long.parseLong(reader.document(doc, countField).get("count"));
+          }
+        }
+        writer.add(term.utf8ToString(), count);
+        if (++ngrams % 10_000_000 == 0) {
+          System.out.printf(Locale.ENGLISH, "  %d ngrams...\n", ngrams);
+        }
+      }
+    }
+    return ngrams;
+  }
+}
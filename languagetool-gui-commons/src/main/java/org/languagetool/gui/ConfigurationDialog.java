@@ -25,6 +25,7 @@ import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Languages;
 import org.languagetool.languagemodel.LuceneLanguageModel;
+import org.languagetool.languagemodel.MmapLanguageModel;
 import org.languagetool.rules.Rule;
 
 import javax.swing.*;
@@ -1246,7 +1247,9 @@ public class ConfigurationDialog implements ActionListener {
         try {
           if (config.getLanguage() != null) {  // may happen in office context
             File checkDir = new File(newDir, config.getLanguage().getShortCode());
-            LuceneLanguageModel.validateDirectory(checkDir);
+            if (!MmapLanguageModel.isMmapDirectory(checkDir)) {
+              LuceneLanguageModel.validateDirectory(checkDir);
+            }
           }
           config.setNgramDirectory(newDir);
           ngramDirButton.setText(StringUtils.abbreviate(newDir.getAbsolutePath(), maxDirDisplayLength));
@@ -50,7 +50,7 @@ public class ArabicTagger extends BaseTagger {
     for (String word : sentenceTokens) {
       List<AnalyzedToken> l = new ArrayList<>();
       String striped = word.replaceAll("[" + Arabic.TASHKEEL_CHARS + "]", "");
-      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(striped));
+      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(striped));
       addTokens(taggerTokens, l);
       // additional tagging with prefixes
       // if not a stop word add more stemming
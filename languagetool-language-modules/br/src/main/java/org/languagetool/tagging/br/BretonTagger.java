@@ -76,8 +76,8 @@ public class BretonTagger extends BaseTagger {
       for (;;) {
         List<AnalyzedToken> l = new ArrayList<>();
         String lowerWord = probeWord.toLowerCase(conversionLocale);
-        taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(probeWord));
-        lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord));
+        taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(probeWord));
+        lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(lowerWord));
         boolean isLowercase = probeWord.equals(lowerWord);
 
         // Normal case.
@@ -92,7 +92,7 @@ public class BretonTagger extends BaseTagger {
         if (lowerTaggerTokens.isEmpty() && taggerTokens.isEmpty()) {
           if (isLowercase) {
             upperTaggerTokens = asAnalyzedTokenListForTaggedWords(word,
-                getWordTagger().tag(StringTools.uppercaseFirstChar(probeWord)));
+                getTaggedWords(StringTools.uppercaseFirstChar(probeWord)));
             if (!upperTaggerTokens.isEmpty()) {
               addTokens(upperTaggerTokens, l);
             }
@@ -79,8 +79,6 @@ public class CatalanSynthesizer extends BaseSynthesizer {
       }
       return new String[] { getSpelledNumber(strToSpell) };
     }
-    initPossibleTags();
-    Pattern p;
     boolean addDt = false; 
     String prep = ""; 
     Matcher mPrep = pPrep.matcher(posTag);
@@ -90,21 +88,13 @@ public class CatalanSynthesizer extends BaseSynthesizer {
         prep = mPrep.group(2); // add preposition before article
       }
     }
-    if (addDt) {
-      p = Pattern.compile("N.*|A.*|V.P.*|PX.");
-    } else {
-      p = Pattern.compile(posTag);
-    }
     List<String> results = new ArrayList<>();
     
-    for (String tag : possibleTags) {
-      Matcher m = p.matcher(tag);
-      if (m.matches()) {
-        if (addDt) {
-          lookupWithEl(token.getLemma(), tag, prep, results);
-        } else {
-          results.addAll(lookup(token.getLemma(), tag));
-        }
+    for (String tag : getPossibleTagsMatching(addDt ? "N.*|A.*|V.P.*|PX." : posTag)) {
+      if (addDt) {
+        lookupWithEl(token.getLemma(), tag, prep, results);
+      } else {
+        results.addAll(lookup(token.getLemma(), tag));
       }
     }       
     
@@ -129,44 +119,30 @@ public class CatalanSynthesizer extends BaseSynthesizer {
       return synthesize(token, posTag);
     }
     if (posTagRegExp) {
-      initPossibleTags();
-      Pattern p;
+      List<String> tags;
       try {
-        p = Pattern.compile(posTag);
+        tags = getPossibleTagsMatching(posTag);
       } catch (PatternSyntaxException e) {
         System.err.println("WARNING: Error trying to synthesize POS tag "
             + posTag + " from token " + token.getToken() + ": " + e.getMessage());
         return null;
       }
       List<String> results = new ArrayList<>();
-      for (String tag : possibleTags) {
-        Matcher m = p.matcher(tag);
-        if (m.matches()) {
-          results.addAll(lookup(token.getLemma(), tag));
-        }
+      for (String tag : tags) {
+        results.addAll(lookup(token.getLemma(), tag));
       }
       // if not found, try verbs from any regional variant
       if (results.isEmpty()) {
         Matcher mVerb = pVerb.matcher(posTag);
         if (mVerb.matches()) {
           if (!posTag.endsWith("0")) {
-            p = Pattern.compile(posTag.substring(0, posTag.length() - 1)
-                .concat("0"));
-            for (String tag : possibleTags) {
-              Matcher m = p.matcher(tag);
-              if (m.matches()) {
-                results.addAll(lookup(token.getLemma(), tag));
-              }
+            for (String tag : getPossibleTagsMatching(posTag.substring(0, posTag.length() - 1).concat("0"))) {
+              results.addAll(lookup(token.getLemma(), tag));
             }
           }
           if (results.isEmpty()) { // another try
-            p = Pattern.compile(posTag.substring(0, posTag.length() - 1)
-                .concat("."));
-            for (String tag : possibleTags) {
-              Matcher m = p.matcher(tag);
-              if (m.matches()) {
-                results.addAll(lookup(token.getLemma(), tag));
-              }
+            for (String tag : getPossibleTagsMatching(posTag.substring(0, posTag.length() - 1).concat("."))) {
+              results.addAll(lookup(token.getLemma(), tag));
             }
           }
         }
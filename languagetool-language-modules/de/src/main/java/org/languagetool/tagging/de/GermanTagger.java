@@ -120,6 +120,17 @@ public class GermanTagger extends BaseTagger {
     return verbInfos;
   }
 
+  // the lists from getTaggedWords() are shared, so don't add to them:
+  private static List<TaggedWord> concat(List<TaggedWord> list1, List<TaggedWord> list2) {
+    if (list2.isEmpty()) {
+      return list1;
+    }
+    List<TaggedWord> result = new ArrayList<>(list1.size() + list2.size());
+    result.addAll(list1);
+    result.addAll(list2);
+    return result;
+  }
+
   private List<TaggedWord> addStem(List<TaggedWord> analyzedWordResults, String stem) {
     List<TaggedWord> result = new ArrayList<>();
     for (TaggedWord tw : analyzedWordResults) {
@@ -177,7 +188,7 @@ public class GermanTagger extends BaseTagger {
   }
 
   private boolean matchesUppercaseAdjective(String unknownUppercaseToken) {
-    List<TaggedWord> temp = getWordTagger().tag(StringTools.lowercaseFirstChar(unknownUppercaseToken));
+    List<TaggedWord> temp = getTaggedWords(StringTools.lowercaseFirstChar(unknownUppercaseToken));
     return temp.size() > 0 && temp.get(0).getPosTag().startsWith("ADJ");
   }
 
@@ -203,25 +214,25 @@ public class GermanTagger extends BaseTagger {
       if (idxPos+2 < sentenceTokens.size() && sentenceTokens.get(idxPos+1).matches(genderGap)) {
         if (sentenceTokens.get(idxPos+2).matches("in(nen)?|r|e")) {  // "jede*r", "sein*e"
           taggerTokens = new ArrayList<>();
-          taggerTokens.addAll(getWordTagger().tag(word));
-          taggerTokens.addAll(getWordTagger().tag(word + sentenceTokens.get(idxPos+2)));
+          taggerTokens.addAll(getTaggedWords(word));
+          taggerTokens.addAll(getTaggedWords(word + sentenceTokens.get(idxPos+2)));
         }
       }
       if (taggerTokens == null) {
-        taggerTokens = getWordTagger().tag(word);
+        taggerTokens = getTaggedWords(word);
       }
 
       //Only first iteration. Consider ":" as a potential sentence start marker
       if ((firstWord || ":".equals(prevWord)) && taggerTokens.isEmpty() && ignoreCase) { // e.g. "Das" -> "das" at start of sentence
-        taggerTokens = getWordTagger().tag(word.toLowerCase());
+        taggerTokens = getTaggedWords(word.toLowerCase());
         firstWord = !StringUtils.isAlphanumeric(word);
       } else if (pos == 0 && ignoreCase) {   // "Haben", "Sollen", "Können", "Gerade" etc. at start of sentence
-        taggerTokens.addAll(getWordTagger().tag(word.toLowerCase()));
+        taggerTokens = concat(taggerTokens, getTaggedWords(word.toLowerCase()));
       } else if (pos > 1 && taggerTokens.isEmpty() && ignoreCase) {
         int idx = sentenceTokens.indexOf(word);
         // add lowercase token readings to words at start of direct speech
         if (idx > 2 && sentenceTokens.get(idx-1).contentEquals("„") && sentenceTokens.get(idx-3).contentEquals(":")) {
-          taggerTokens.addAll(getWordTagger().tag(word.toLowerCase()));
+          taggerTokens = concat(taggerTokens, getTaggedWords(word.toLowerCase()));
         }
       }
 
@@ -232,14 +243,14 @@ public class GermanTagger extends BaseTagger {
         //String prefixVerbLastPart = prefixedVerbLastPart(word);   // see https://github.com/languagetool-org/languagetool/issues/2740
         if (verbInfo != null) {   // e.g. "herumgeben" with "herum_geben" in spelling.txt
           String noPrefixForm = word.substring(verbInfo.prefix.length() + verbInfo.infix.length());   // infix can be "zu"
-          List<TaggedWord> tags = tag(noPrefixForm);
+          List<TaggedWord> tags = getTaggedWords(noPrefixForm);
           for (TaggedWord tag : tags) {
             if (tag.getPosTag() != null && (tag.getPosTag().startsWith("VER:") || tag.getPosTag().startsWith("PA2:"))) {  // e.g. "schicke" is verb and adjective
               readings.add(new AnalyzedToken(word, tag.getPosTag(), verbInfo.prefix + tag.getLemma()));
             }
           }
         /*} else if (prefixVerbLastPart != null) {   // "aufstöhnen" etc.
-          List<TaggedWord> taggedWords = getWordTagger().tag(prefixVerbLastPart);
+          List<TaggedWord> taggedWords = getTaggedWords(prefixVerbLastPart);
           String firstPart = word.replaceFirst(prefixVerbLastPart + "$", "");
           for (TaggedWord taggedWord : taggedWords) {
             readings.add(new AnalyzedToken(word, taggedWord.getPosTag(), firstPart+taggedWord.getLemma()));
@@ -264,7 +275,7 @@ public class GermanTagger extends BaseTagger {
                 String lastPart = RegExUtils.removePattern(word, "^(bitter|dunkel|erz|extra|früh|gemein|grund|hyper|lau|mega|minder|stock|super|tod|ultra|u[nr]|voll)");
                 if (lastPart.length() > 3) {
                   String firstPart = StringUtils.removeEnd(word, lastPart);
-                  List<TaggedWord> taggedWords = getWordTagger().tag(lastPart);
+                  List<TaggedWord> taggedWords = getTaggedWords(lastPart);
                   for (TaggedWord taggedWord : taggedWords) {
                     if (!(firstPart.length() == 2 && taggedWord.getPosTag().startsWith("VER"))) {
                       readings.add(new AnalyzedToken(word, taggedWord.getPosTag(), firstPart+taggedWord.getLemma()));
@@ -287,12 +298,12 @@ public class GermanTagger extends BaseTagger {
                   word = compoundedWord.get(compoundedWord.size() - 1);
                 }
                 
-                List<TaggedWord> linkedTaggerTokens = addStem(getWordTagger().tag(word), wordStem); //Try to analyze the last part found
+                List<TaggedWord> linkedTaggerTokens = addStem(getTaggedWords(word), wordStem); //Try to analyze the last part found
 
                 //Some words that are linked with a dash ('-') will be written in uppercase, even adjectives
                 if (wordOrig.contains("-") && linkedTaggerTokens.isEmpty() && matchesUppercaseAdjective(word)) {
                   word = StringTools.lowercaseFirstChar(word);
-                  linkedTaggerTokens = getWordTagger().tag(word);
+                  linkedTaggerTokens = getTaggedWords(word);
                 }
 
                 word = wordOrig;
@@ -317,7 +328,7 @@ public class GermanTagger extends BaseTagger {
             if (StringTools.startsWithUppercase(word)) {
               lastPart = StringTools.uppercaseFirstChar(lastPart);
             }
-            List<TaggedWord> partTaggerTokens = getWordTagger().tag(lastPart);
+            List<TaggedWord> partTaggerTokens = getTaggedWords(lastPart);
             if (partTaggerTokens.isEmpty()) {
               readings.add(getNoInfoToken(word));
             } else {
@@ -342,7 +353,7 @@ public class GermanTagger extends BaseTagger {
     // "aufstöhnen" (auf+stöhnen) etc.
     for (String prefix : VerbPrefixes.get()) {
       if (word.startsWith(prefix)) {
-        List<TaggedWord> tags = tag(word.replaceFirst("^" + prefix, ""));
+        List<TaggedWord> tags = getTaggedWords(word.replaceFirst("^" + prefix, ""));
         if (tags.stream().anyMatch(k -> k.getPosTag() != null && k.getPosTag().startsWith("VER"))) {
           return word.substring(prefix.length());
         }
@@ -353,7 +364,7 @@ public class GermanTagger extends BaseTagger {
 
   boolean isWeiseException(String word) {
     if (word.endsWith("erweise")) {  // "idealerweise" etc.
-      List<TaggedWord> tags = tag(StringUtils.removeEnd(word, "erweise"));
+      List<TaggedWord> tags = getTaggedWords(StringUtils.removeEnd(word, "erweise"));
       return tags.stream().anyMatch(k -> k.getPosTag() != null && k.getPosTag().startsWith("ADJ"));
     }
     return false;
@@ -381,7 +392,7 @@ public class GermanTagger extends BaseTagger {
       return Collections.emptyList();
     }
     String w = pos == 0 || "„".equals(previousWord) ? word.toLowerCase() : word;
-    List<TaggedWord> taggedWithE = getWordTagger().tag(w.concat("e"));
+    List<TaggedWord> taggedWithE = getTaggedWords(w.concat("e"));
     for (TaggedWord tagged : taggedWithE) {
       if (tagged.getPosTag().startsWith("VER:IMP:SIN")) {
         // do not overwrite manually removed tags
@@ -409,7 +420,7 @@ public class GermanTagger extends BaseTagger {
         }
         return list;
       }
-      List<TaggedWord> lowerCaseTags = getWordTagger().tag(word.toLowerCase());
+      List<TaggedWord> lowerCaseTags = getTaggedWords(word.toLowerCase());
       // do not add tag words whose lower case variant is an adverb (e.g, "Früher") to avoid false negatives for DE_CASE
       if (lowerCaseTags.stream().anyMatch(t -> t.getPosTag().startsWith("ADV"))) {
         return Collections.emptyList();
@@ -427,7 +438,7 @@ public class GermanTagger extends BaseTagger {
         break;
       }
       String femaleForm = word.substring(0, word.length()-1);
-      List<TaggedWord> taggedFemaleForm = getWordTagger().tag(femaleForm);
+      List<TaggedWord> taggedFemaleForm = getTaggedWords(femaleForm);
       boolean isSubstantivatedForm = taggedFemaleForm.stream().anyMatch(t -> t.getPosTag().equals("SUB:NOM:SIN:FEM:ADJ"));
       if (isSubstantivatedForm) {
         List<AnalyzedToken> list = new ArrayList<>();
@@ -47,6 +47,17 @@ public class GermanTaggerTest {
     assertTrue(lemmas.contains("Zahnarztverband"));
   }
   
+  @Test
+  public void testTagCache() throws IOException {
+    GermanTagger tagger = new GermanTagger();
+    // "Haben" at sentence start gets the readings of "haben" added, which must not end up in the cache for "Haben":
+    String first = tagger.tag(Arrays.asList("Haben", " ", "Sie")).get(0).toString();
+    long hits = tagger.getTagCache().stats().hitCount();
+    assertThat(tagger.tag(Arrays.asList("Haben", " ", "Sie")).get(0).toString(), is(first));
+    assertTrue(tagger.getTagCache().stats().hitCount() > hits);
+    assertThat(tagger.tag(Arrays.asList("Die", " ", "Haben")).get(2).toString(), is(new GermanTagger().tag(Arrays.asList("Die", " ", "Haben")).get(2).toString()));
+  }
+
   @Test
   public void testGenderGap() throws IOException {
     // https://github.com/languagetool-org/languagetool/issues/2417
@@ -24,7 +24,12 @@ import org.languagetool.AnalyzedToken;
 import org.languagetool.language.English;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertEquals;
 
@@ -72,4 +77,27 @@ public class EnglishSynthesizerTest {
     
   }
 
+  @Test
+  public void testSynthesizeConcurrently() throws Exception {
+    EnglishSynthesizer synth = new EnglishSynthesizer(new English());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < 500; j++) {
+            assertEquals("[was, were]", Arrays.toString(synth.synthesize(dummyToken("be"), "VBD")));
+            assertEquals("[tested, testing]", Arrays.toString(synth.synthesize(dummyToken("test"), "VBD|VBG", true)));
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
 }
@@ -67,21 +67,21 @@ public class SpanishTagger extends BaseTagger {
       final boolean isLowercase = word.equals(lowerWord);
       final boolean isMixedCase = StringTools.isMixedCase(word);
       final boolean isAllUpper = StringTools.isAllUppercase(word);
-      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(word));
+      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(word));
 
       // normal case:
       addTokens(taggerTokens, l);
       // tag non-lowercase (alluppercase or startuppercase), but not mixedcase
       // word with lowercase word tags:
       if (!isLowercase && !isMixedCase) {
-        List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord));
+        List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(lowerWord));
         addTokens(lowerTaggerTokens, l);
       }
       // tag all-uppercase proper nouns (ex. FRANCIA)
       if (isAllUpper) {
         final String firstUpper = StringTools.uppercaseFirstChar(lowerWord);
         List<AnalyzedToken> firstupperTaggerTokens = asAnalyzedTokenListForTaggedWords(word,
-            getWordTagger().tag(firstUpper));
+            getTaggedWords(firstUpper));
         addTokens(firstupperTaggerTokens, l);
       }
 
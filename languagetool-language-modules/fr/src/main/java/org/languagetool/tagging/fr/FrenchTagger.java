@@ -79,21 +79,21 @@ public class FrenchTagger extends BaseTagger {
       final boolean isLowercase = word.equals(lowerWord);
       final boolean isMixedCase = StringTools.isMixedCase(word);
       final boolean isAllUpper = StringTools.isAllUppercase(word);
-      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(word));
+      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(word));
       
       // normal case:
       addTokens(taggerTokens, l);
       // tag non-lowercase (alluppercase or startuppercase), but not mixedcase
       // word with lowercase word tags:
       if (!isLowercase && !isMixedCase) {
-        List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord));
+        List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(lowerWord));
         addTokens(lowerTaggerTokens, l);
       }
       
       //tag all-uppercase proper nouns (ex. FRANCE)
       if (l.isEmpty() && isAllUpper) {
         final String firstUpper = StringTools.uppercaseFirstChar(lowerWord);
-        List<AnalyzedToken> firstupperTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(firstUpper));
+        List<AnalyzedToken> firstupperTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(firstUpper));
         addTokens(firstupperTaggerTokens, l);
       }
 
@@ -150,7 +150,7 @@ public class FrenchTagger extends BaseTagger {
     Matcher matcher = PREFIXES_FOR_VERBS.matcher(word);
     if (matcher.matches()) {
       final String possibleVerb = matcher.group(2).toLowerCase();
-      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(possibleVerb));
+      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(possibleVerb));
       for (AnalyzedToken taggerToken : taggerTokens ) {
         final String posTag = taggerToken.getPOSTag();
         if (posTag != null) {
@@ -168,7 +168,7 @@ public class FrenchTagger extends BaseTagger {
     matcher = PREFIXES_NOUN_ADJ.matcher(word);
     if (matcher.matches()) {
       String possibleNoun = matcher.group(2).toLowerCase();
-      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(possibleNoun));
+      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(possibleNoun));
       for (AnalyzedToken taggerToken : taggerTokens ) {
         final String posTag = taggerToken.getPOSTag();
         if (posTag != null) {
@@ -181,7 +181,7 @@ public class FrenchTagger extends BaseTagger {
       }
       // with lower case
       if (additionalTaggedTokens.isEmpty()) {
-        taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(possibleNoun.toLowerCase()));
+        taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(possibleNoun.toLowerCase()));
         for (AnalyzedToken taggerToken : taggerTokens ) {
           final String posTag = taggerToken.getPOSTag();
           if (posTag != null) {
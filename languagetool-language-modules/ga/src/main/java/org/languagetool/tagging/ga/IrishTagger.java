@@ -51,8 +51,8 @@ public class IrishTagger extends BaseTagger {
       final List<AnalyzedToken> l = new ArrayList<>();
       final String lowerWord = Utils.toLowerCaseIrish(word);
 
-      taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(word));
-      lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord));
+      taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(word));
+      lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(lowerWord));
       final boolean isLowercase = word.equals(lowerWord);
 
       //normal case
@@ -76,7 +76,7 @@ public class IrishTagger extends BaseTagger {
         }
         if (isLowercase) {
           upperTaggerTokens = asAnalyzedTokenListForTaggedWords(word,
-              getWordTagger().tag(StringTools.uppercaseFirstChar(word)));
+              getTaggedWords(StringTools.uppercaseFirstChar(word)));
           if (!upperTaggerTokens.isEmpty()) {
             addTokens(upperTaggerTokens, l);
           } else {
@@ -107,13 +107,13 @@ public class IrishTagger extends BaseTagger {
     }
     for(Retaggable rt : tocheck) {
       boolean pfx = false;
-      List<TaggedWord> cur = getWordTagger().tag(rt.getWord());
+      List<TaggedWord> cur = getTaggedWords(rt.getWord());
       if(rt.getPrefix() != null && !rt.getPrefix().equals("")) {
         pfx = true;
         String tryword = rt.getPrefix() + Utils.lenite(rt.getWord());
-        List<TaggedWord> joined = getWordTagger().tag(tryword);
+        List<TaggedWord> joined = getTaggedWords(tryword);
         String hyphword = rt.getPrefix() + "-" + Utils.lenite(rt.getWord());
-        List<TaggedWord> hyphen = getWordTagger().tag(hyphword);
+        List<TaggedWord> hyphen = getTaggedWords(hyphword);
 
         if (!joined.isEmpty()) {
           cur = joined;
@@ -53,7 +53,7 @@ public class DutchTagger extends BaseTagger {
       final boolean isLowercase = word.equals(lowerWord);
       final boolean isMixedCase = StringTools.isMixedCase(word);
       final boolean isAllUpper = StringTools.isAllUppercase(word);
-      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(originalWord, getWordTagger().tag(word));
+      List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(originalWord, getTaggedWords(word));
       //List<AnalyzedToken> taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(word));
 
       // normal case:
@@ -61,7 +61,7 @@ public class DutchTagger extends BaseTagger {
       // tag non-lowercase (alluppercase or startuppercase), but not mixedcase
       // word with lowercase word tags:
       if (!isLowercase && !isMixedCase) {
-        List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(originalWord, getWordTagger().tag(lowerWord));
+        List<AnalyzedToken> lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(originalWord, getTaggedWords(lowerWord));
         addTokens(lowerTaggerTokens, l);
       }
 
@@ -69,7 +69,7 @@ public class DutchTagger extends BaseTagger {
       if (l.isEmpty() && isAllUpper) {
         final String firstUpper = StringTools.uppercaseFirstChar(lowerWord);
         List<AnalyzedToken> firstupperTaggerTokens = asAnalyzedTokenListForTaggedWords(originalWord,
-            getWordTagger().tag(firstUpper));
+            getTaggedWords(firstUpper));
         addTokens(firstupperTaggerTokens, l);
       }
 
@@ -83,7 +83,7 @@ public class DutchTagger extends BaseTagger {
         word2 = word2.replaceAll("([a-z])-([a-z])", "$1$2");
         
         if (!word2.equals(word)) {
-          List<AnalyzedToken> l2 = asAnalyzedTokenListForTaggedWords(originalWord, getWordTagger().tag(word2));
+          List<AnalyzedToken> l2 = asAnalyzedTokenListForTaggedWords(originalWord, getTaggedWords(word2));
           if (l2 != null) {
             addTokens(l2, l);
 
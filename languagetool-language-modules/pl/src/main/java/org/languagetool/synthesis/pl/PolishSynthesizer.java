@@ -19,13 +19,10 @@
 package org.languagetool.synthesis.pl;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import morfologik.stemming.DictionaryLookup;
@@ -33,11 +30,9 @@ import morfologik.stemming.IStemmer;
 import morfologik.stemming.WordData;
 
 import org.languagetool.AnalyzedToken;
-import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.synthesis.BaseSynthesizer;
 import org.languagetool.synthesis.Synthesizer;
-import org.languagetool.synthesis.SynthesizerTools;
 
 /**
  * Polish word form synthesizer. Based on project Morfologik.
@@ -55,8 +50,6 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
   private static final String COMP_TAG = "com";
   private static final String SUP_TAG = "sup";
 
-  private List<String> possibleTags;
-
   public PolishSynthesizer(Language lang) {
     super(RESOURCE_FILENAME, TAGS_FILE_NAME, lang);
   }
@@ -87,11 +80,6 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
     }
     String posTag = pos;
     if (posTagRegExp) {
-      if (possibleTags == null) {
-        try (InputStream stream = JLanguageTool.getDataBroker().getFromResourceDirAsStream(TAGS_FILE_NAME)) {
-          possibleTags = SynthesizerTools.loadWords(stream);
-        }
-      }
       IStemmer synthesizer = new DictionaryLookup(getDictionary());
       List<String> results = new ArrayList<>();
 
@@ -108,14 +96,10 @@ public class PolishSynthesizer extends BaseSynthesizer implements Synthesizer {
       }
 
       try {
-        Pattern p = Pattern.compile(posTag.replace('+', '|'));
-        for (String tag : possibleTags) {
-          Matcher m = p.matcher(tag);
-          if (m.matches()) {
-            List<String> wordForms = getWordForms(token, tag, isNegated, synthesizer);
-            if (wordForms != null) {
-              results.addAll(wordForms);
-            }
+        for (String tag : getPossibleTagsMatching(posTag.replace('+', '|'))) {
+          List<String> wordForms = getWordForms(token, tag, isNegated, synthesizer);
+          if (wordForms != null) {
+            results.addAll(wordForms);
           }
         }
       } catch (PatternSyntaxException e) {
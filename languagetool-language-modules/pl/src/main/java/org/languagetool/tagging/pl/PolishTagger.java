@@ -46,8 +46,8 @@ public class PolishTagger extends BaseTagger {
     for (String word : sentenceTokens) {
       List<AnalyzedToken> l = new ArrayList<>();
       String lowerWord = word.toLowerCase(locale);
-      taggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(word));
-      lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getWordTagger().tag(lowerWord));
+      taggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(word));
+      lowerTaggerTokens = asAnalyzedTokenListForTaggedWords(word, getTaggedWords(lowerWord));
       boolean isLowercase = word.equals(lowerWord);
 
       //normal case
@@ -62,7 +62,7 @@ public class PolishTagger extends BaseTagger {
       if (lowerTaggerTokens.isEmpty() && taggerTokens.isEmpty()) {
         if (isLowercase) {
           upperTaggerTokens = asAnalyzedTokenListForTaggedWords(word,
-              getWordTagger().tag(StringTools.uppercaseFirstChar(word)));
+              getTaggedWords(StringTools.uppercaseFirstChar(word)));
           if (!upperTaggerTokens.isEmpty()) {
             addTokens(upperTaggerTokens, l);
           } else {
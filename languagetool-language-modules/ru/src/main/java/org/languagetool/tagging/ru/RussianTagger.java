@@ -80,7 +80,7 @@ public class RussianTagger extends BaseTagger {
             
             
             if (maymissingyo) { 
-            if (getWordTagger().tag(word_ie).isEmpty()) {
+            if (getTaggedWords(word_ie).isEmpty()) {
             maymissingyo= false;
             }
             }
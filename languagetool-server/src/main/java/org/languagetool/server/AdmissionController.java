@@ -0,0 +1,191 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether a check is accepted before it starts, instead of letting it run into
+ * {@code maxCheckTimeMillis}. The cost of a check is estimated from its text length and the
+ * speed recently measured for checks of the same language, mode and level. The projected latency
+ * is the estimated cost of the checks in progress in the same or a more important {@link Lane},
+ * spread over the check threads, plus the check's own cost. Checks that would miss the latency
+ * target are degraded (remote rules are skipped) and rejected if they would miss it by far
+ * or can't be degraded, unless they don't need to wait for other checks at all.
+ * @since 5.3
+ */
+class AdmissionController {
+
+  /**
+   * Lanes in the order of their importance: checks in one lane only wait for checks
+   * in the same or a more important lane, so less important lanes are degraded and rejected first.
+   */
+  enum Lane { PREMIUM_TEXTLEVEL, PREMIUM, FREE_TEXTLEVEL, FREE }
+
+  // used until the first check of a language, mode and level has been measured:
+  static final double DEFAULT_MILLIS_PER_CHAR = 0.05;
+  static final long MIN_COST_MILLIS = 5;
+  // beyond this factor of the latency target, skipping remote rules won't help enough:
+  static final double REJECT_FACTOR = 2.0;
+  private static final double SMOOTHING = 0.1;
+
+  private final long latencyTargetMillis;
+  private final int checkThreads;
+  private final boolean remoteRules;
+  private final AtomicLong[] inProgressCost = new AtomicLong[Lane.values().length];
+  private final Map<String, Double> millisPerChar = new ConcurrentHashMap<>();
+
+  /**
+   * @param latencyTargetMillis the latency that checks should not exceed
+   * @param checkThreads the number of checks that can run in parallel
+   * @param remoteRules whether remote rules are configured, i.e. whether checks can be degraded
+   */
+  AdmissionController(long latencyTargetMillis, int checkThreads, boolean remoteRules) {
+    if (latencyTargetMillis <= 0) {
+      throw new IllegalArgumentException("latencyTargetMillis must be > 0: " + latencyTargetMillis);
+    }
+    this.latencyTargetMillis = latencyTargetMillis;
+    this.checkThreads = Math.max(1, checkThreads);
+    this.remoteRules = remoteRules;
+    for (int i = 0; i < inProgressCost.length; i++) {
+      inProgressCost[i] = new AtomicLong();
+    }
+  }
+
+  static Lane getLane(boolean premium, JLanguageTool.Mode mode) {
+    boolean textLevelOnly = mode == JLanguageTool.Mode.TEXTLEVEL_ONLY;
+    if (premium) {
+      return textLevelOnly ? Lane.PREMIUM_TEXTLEVEL : Lane.PREMIUM;
+    }
+    return textLevelOnly ? Lane.FREE_TEXTLEVEL : Lane.FREE;
+  }
+
+  /**
+   * @return a ticket that must be {@link Ticket#done(int, long) closed} when the check has finished,
+   *    or {@code null} if the check should be rejected
+   */
+  Ticket admit(Language lang, int textLength, JLanguageTool.Mode mode, JLanguageTool.Level level, boolean premium) {
+    String key = getKey(lang, mode, level);
+    long cost = estimateCost(key, textLength);
+    Lane lane = getLane(premium, mode);
+    long waitMillis = getWaitMillis(lane);
+    long projectedMillis = waitMillis + cost;
+    boolean degraded = false;
+    if (projectedMillis > latencyTargetMillis) {
+      // remote rules are never run for text-level checks, so there's nothing to degrade:
+      boolean canDegrade = remoteRules && mode != JLanguageTool.Mode.TEXTLEVEL_ONLY;
+      // a check that's too slow even without waiting won't get faster later, so it's not rejected:
+      if (waitMillis > 0 && (!canDegrade || projectedMillis > latencyTargetMillis * REJECT_FACTOR)) {
+        return null;
+      }
+      degraded = canDegrade;
+    }
+    inProgressCost[lane.ordinal()].addAndGet(cost);
+    return new Ticket(key, lane, cost, projectedMillis, degraded);
+  }
+
+  /**
+   * The estimated time until a new check in the given lane gets a thread.
+   */
+  long getWaitMillis(Lane lane) {
+    long cost = 0;
+    for (int i = 0; i <= lane.ordinal(); i++) {
+      cost += inProgressCost[i].get();
+    }
+    return cost / checkThreads;
+  }
+
+  long estimateCost(Language lang, int textLength, JLanguageTool.Mode mode, JLanguageTool.Level level) {
+    return estimateCost(getKey(lang, mode, level), textLength);
+  }
+
+  private long estimateCost(String key, int textLength) {
+    double speed = millisPerChar.getOrDefault(key, DEFAULT_MILLIS_PER_CHAR);
+    return Math.max(MIN_COST_MILLIS, (long) (textLength * speed));
+  }
+
+  private static String getKey(Language lang, JLanguageTool.Mode mode, JLanguageTool.Level level) {
+    return lang.getShortCodeWithCountryAndVariant() + "/" + mode + "/" + level;
+  }
+
+  class Ticket {
+
+    private final String key;
+    private final Lane lane;
+    private final long cost;
+    private final long projectedMillis;
+    private final boolean degraded;
+    private boolean done;
+
+    private Ticket(String key, Lane lane, long cost, long projectedMillis, boolean degraded) {
+      this.key = key;
+      this.lane = lane;
+      this.cost = cost;
+      this.projectedMillis = projectedMillis;
+      this.degraded = degraded;
+    }
+
+    Lane getLane() {
+      return lane;
+    }
+
+    long getProjectedMillis() {
+      return projectedMillis;
+    }
+
+    /**
+     * Whether remote rules should be skipped for this check.
+     */
+    boolean isDegraded() {
+      return degraded;
+    }
+
+    /**
+     * Release the check's cost and learn from its actual speed. Degraded checks
+     * are not used for learning, as they don't run all rules.
+     */
+    synchronized void done(int textLength, long computationMillis) {
+      if (done) {
+        return;
+      }
+      release();
+      if (!degraded && textLength > 0) {
+        double observed = (double) computationMillis / textLength;
+        millisPerChar.merge(key, observed, (old, val) -> old * (1 - SMOOTHING) + val * SMOOTHING);
+      }
+    }
+
+    /**
+     * Release the check's cost without learning from it, e.g. because the check never ran.
+     */
+    synchronized void release() {
+      if (done) {
+        return;
+      }
+      done = true;
+      inProgressCost[lane.ordinal()].addAndGet(-cost);
+    }
+  }
+
+}
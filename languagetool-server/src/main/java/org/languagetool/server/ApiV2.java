@@ -32,6 +32,7 @@ import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.CorrectExample;
 import org.languagetool.rules.IncorrectExample;
 import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleProfiler;
 import org.languagetool.rules.TextLevelRule;
 
 import java.io.IOException;
@@ -83,6 +84,9 @@ class ApiV2 {
     } else if (path.equals("log")) {
       // private (i.e. undocumented) API for our own use only
       handleLogRequest(httpExchange, parameters);
+    } else if (path.equals("admin/ruleprofile")) {
+      // private (i.e. undocumented) API for our own use only
+      handleRuleProfileRequest(httpExchange, parameters);
     } else {
       throw new PathNotFoundException("Unsupported action: '" + path + "'. Please see " + API_DOC_URL);
     }
@@ -125,26 +129,31 @@ class ApiV2 {
   }
 
   private void handleCheckRequest(HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter, String remoteAddress) throws Exception {
-    AnnotatedText aText;
-    if (parameters.containsKey("text") && parameters.containsKey("data")) {
+    AnnotatedText aText = (AnnotatedText) httpExchange.getAttribute(RequestBodyReader.ANNOTATED_TEXT_ATTRIBUTE);
+    if (aText != null) {
+      // already decoded from a JSON request body
+    } else if (parameters.containsKey("text") && parameters.containsKey("data")) {
       throw new IllegalArgumentException("Set only 'text' or 'data' parameter, not both");
     } else if (parameters.containsKey("text")) {
       aText = new AnnotatedTextBuilder().addText(parameters.get("text")).build();
     } else if (parameters.containsKey("data")) {
       ObjectMapper mapper = new ObjectMapper();
-      JsonNode data = mapper.readTree(parameters.get("data"));
-      if (data.get("text") != null && data.get("annotation") != null) {
-        throw new IllegalArgumentException("'data' key in JSON requires either 'text' or 'annotation' key, not both");
-      } else if (data.get("text") != null) {
-        aText = getAnnotatedTextFromString(data, data.get("text").asText());
-      } else if (data.get("annotation") != null) {
-        aText = getAnnotatedTextFromJson(data);
-      } else {
-        throw new IllegalArgumentException("'data' key in JSON requires 'text' or 'annotation' key");
-      }
+      aText = getAnnotatedTextFromData(mapper.readTree(parameters.get("data")));
     } else {
       throw new IllegalArgumentException("Missing 'text' or 'data' parameter");
     }
+    if ("true".equals(parameters.get("delta")) && !parameters.containsKey("textSessionId")) {
+      // the delta refers to the previous check of the same text session
+      throw new IllegalArgumentException("'delta=true' requires the 'textSessionId' parameter");
+    }
+    if (parameters.containsKey("stream")) {
+      if (!TextChecker.STREAM_NDJSON.equals(parameters.get("stream"))) {
+        throw new IllegalArgumentException("Unsupported value for 'stream', use 'stream=" + TextChecker.STREAM_NDJSON + "': " + parameters.get("stream"));
+      }
+      if ("true".equals(parameters.get("delta")) || parameters.containsKey("callback")) {
+        throw new IllegalArgumentException("'stream' cannot be combined with 'delta' or 'callback'");
+      }
+    }
     textChecker.checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress);
   }
 
@@ -230,6 +239,40 @@ class ApiV2 {
     sendJson(httpExchange, sw);
   }
 
+  private void handleRuleProfileRequest(HttpExchange httpExchange, Map<String, String> params) throws Exception {
+    ensureGetMethod(httpExchange, "/admin/ruleprofile");
+    // only for direct access from the server itself, not via a load balancer:
+    if (!httpExchange.getRemoteAddress().getAddress().isLoopbackAddress() ||
+        httpExchange.getRequestHeaders().getFirst("X-forwarded-for") != null) {
+      throw new AuthException("/admin/ruleprofile can only be accessed from localhost");
+    }
+    RuleProfiler profiler = textChecker.getRuleProfiler();
+    if (profiler == null) {
+      throw new PathNotFoundException("Rule profiling is not enabled on this server, set 'ruleProfilingSampleRate' to enable it");
+    }
+    int limit = Integer.parseInt(params.getOrDefault("limit", "50"));
+    StringWriter sw = new StringWriter();
+    try (JsonGenerator g = factory.createGenerator(sw)) {
+      g.writeStartObject();
+      g.writeStringField("warning", "*** This is not a public API - it may change anytime ***");
+      g.writeNumberField("sampleRate", profiler.getSampleRate());
+      g.writeArrayFieldStart("rules");
+      for (RuleProfiler.RuleStats stats : profiler.getSlowestRules(limit)) {
+        g.writeStartObject();
+        g.writeStringField("ruleId", stats.getRuleId());
+        g.writeNumberField("samples", stats.getSamples());
+        g.writeNumberField("totalMillis", stats.getTotalNanos() / 1_000_000);
+        g.writeNumberField("avgMillis", stats.getAverageMillis());
+        g.writeNumberField("allocatedBytes", stats.getAllocatedBytes());
+        g.writeNumberField("matches", stats.getMatches());
+        g.writeEndObject();
+      }
+      g.writeEndArray();
+      g.writeEndObject();
+    }
+    sendJson(httpExchange, sw);
+  }
+
   private void ensureGetMethod(HttpExchange httpExchange, String url) {
     if (!httpExchange.getRequestMethod().equalsIgnoreCase("get")) {
       throw new IllegalArgumentException(url + " needs to be called with GET");
@@ -296,7 +339,23 @@ class ApiV2 {
     ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
   }
 
-  private AnnotatedText getAnnotatedTextFromString(JsonNode data, String text) {
+  /**
+   * Get the text to check from the value of the {@code data} parameter, which has either
+   * a {@code text} (optionally with {@code metaData}) or an {@code annotation} key.
+   */
+  static AnnotatedText getAnnotatedTextFromData(JsonNode data) {
+    if (data.get("text") != null && data.get("annotation") != null) {
+      throw new IllegalArgumentException("'data' key in JSON requires either 'text' or 'annotation' key, not both");
+    } else if (data.get("text") != null) {
+      return getAnnotatedTextFromString(data, data.get("text").asText());
+    } else if (data.get("annotation") != null) {
+      return getAnnotatedTextFromJson(data);
+    } else {
+      throw new IllegalArgumentException("'data' key in JSON requires 'text' or 'annotation' key");
+    }
+  }
+
+  private static AnnotatedText getAnnotatedTextFromString(JsonNode data, String text) {
     AnnotatedTextBuilder textBuilder = new AnnotatedTextBuilder().addText(text);
     if (data.has("metaData")) {
       JsonNode metaData = data.get("metaData");
@@ -315,7 +374,7 @@ class ApiV2 {
     return textBuilder.build();
   }
 
-  private AnnotatedText getAnnotatedTextFromJson(JsonNode data) {
+  private static AnnotatedText getAnnotatedTextFromJson(JsonNode data) {
     AnnotatedTextBuilder atb = new AnnotatedTextBuilder();
     // Expected format:
     // annotation: [
@@ -0,0 +1,141 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
+
+/**
+ * Handler for {@link HTTPServerConfig.ServerMode#ASYNC}: the request is read on one of the HTTP
+ * server's I/O threads and then handed to a bounded pool of check threads, which run
+ * the check and write the response. The I/O threads never wait for a check, and connections
+ * waiting for their next request are only held by the HTTP server's selector, so they don't
+ * cost a thread.
+ * @since 5.3
+ */
+class AsyncHttpHandler implements HttpHandler {
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncHttpHandler.class);
+  // larger bodies are read by the check thread, so an I/O thread never holds more than this per request:
+  static final int MAX_BUFFERED_BYTES = 1024 * 1024;
+
+  private final HttpHandler handler;
+  private final ExecutorService checkExecutor;
+  private final LinkedBlockingQueue<Runnable> workQueue;
+  private final int maxWorkQueueSize;
+  private final String allowOriginUrl;
+
+  /**
+   * @param handler the handler that does the actual work, run on {@code checkExecutor}
+   * @param workQueue the queue of {@code checkExecutor}
+   */
+  AsyncHttpHandler(HttpHandler handler, ExecutorService checkExecutor, LinkedBlockingQueue<Runnable> workQueue, HTTPServerConfig config) {
+    this.handler = handler;
+    this.checkExecutor = checkExecutor;
+    this.workQueue = workQueue;
+    this.maxWorkQueueSize = config.getMaxWorkQueueSize();
+    this.allowOriginUrl = config.getAllowOriginUrl();
+  }
+
+  @Override
+  public void handle(HttpExchange httpExchange) throws IOException {
+    try {
+      bufferRequestBody(httpExchange);
+    } catch (IOException e) {
+      // client went away while sending the request
+      httpExchange.close();
+      throw e;
+    }
+    int queueSize = workQueue.size();
+    if (maxWorkQueueSize != 0 && queueSize > maxWorkQueueSize) {
+      logger.warn("Rejecting request from " + httpExchange.getRemoteAddress() + ", queue size: " + queueSize +
+                  ", maximum size: " + maxWorkQueueSize);
+      if (httpExchange.getRequestURI().getPath().endsWith("/healthcheck")) {
+        ServerMetricsCollector.getInstance().logFailedHealthcheck();
+      } else {
+        ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.QUEUE_FULL);
+      }
+      reject(httpExchange, "Error: There are currently too many parallel requests. Please try again later.");
+      return;
+    }
+    try {
+      checkExecutor.execute(() -> handleOnCheckThread(httpExchange));
+    } catch (RejectedExecutionException e) {
+      // server is shutting down
+      reject(httpExchange, "Error: The server is shutting down.");
+    }
+  }
+
+  /**
+   * Send a 503 response on the I/O thread, without running the handler.
+   */
+  private void reject(HttpExchange httpExchange, String message) throws IOException {
+    try {
+      ServerTools.setAllowOrigin(httpExchange, allowOriginUrl);
+      byte[] response = message.getBytes(StandardCharsets.UTF_8);
+      httpExchange.sendResponseHeaders(HTTP_UNAVAILABLE, response.length);
+      httpExchange.getResponseBody().write(response);
+      ServerMetricsCollector.getInstance().logResponse(HTTP_UNAVAILABLE);
+    } finally {
+      httpExchange.close();
+    }
+  }
+
+  private void handleOnCheckThread(HttpExchange httpExchange) {
+    try {
+      handler.handle(httpExchange);
+    } catch (IOException e) {
+      logger.warn("Could not send response to " + httpExchange.getRemoteAddress() + ": " + e.getMessage());
+      httpExchange.close();
+    }
+  }
+
+  /**
+   * Read the request body so that the check thread doesn't need to wait for the client.
+   * The reads are blocking, so a slow client occupies an I/O thread until its body is sent.
+   * Bodies longer than {@link #MAX_BUFFERED_BYTES} are only partially buffered, the check
+   * thread then reads the rest.
+   */
+  private void bufferRequestBody(HttpExchange httpExchange) throws IOException {
+    InputStream body = httpExchange.getRequestBody();
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    byte[] chunk = new byte[8192];
+    int read;
+    while (buffer.size() < MAX_BUFFERED_BYTES && (read = body.read(chunk)) != -1) {
+      buffer.write(chunk, 0, read);
+    }
+    InputStream buffered = new ByteArrayInputStream(buffer.toByteArray());
+    httpExchange.setStreams(new SequenceInputStream(buffered, body), null);
+  }
+
+}
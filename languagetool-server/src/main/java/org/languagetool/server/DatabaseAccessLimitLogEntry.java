@@ -66,4 +66,9 @@ public class DatabaseAccessLimitLogEntry extends DatabaseLogEntry {
   public String getMappingIdentifier() {
     return "org.languagetool.server.LogMapper.accessLimit";
   }
+
+  @Override
+  public String getBatchMappingIdentifier() {
+    return "org.languagetool.server.LogMapper.accessLimitBatch";
+  }
 }
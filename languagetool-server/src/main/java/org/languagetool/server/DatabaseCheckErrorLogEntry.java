@@ -70,4 +70,9 @@ public class DatabaseCheckErrorLogEntry extends DatabaseLogEntry {
   public String getMappingIdentifier() {
     return "org.languagetool.server.LogMapper.checkError";
   }
+
+  @Override
+  public String getBatchMappingIdentifier() {
+    return "org.languagetool.server.LogMapper.checkErrorBatch";
+  }
 }
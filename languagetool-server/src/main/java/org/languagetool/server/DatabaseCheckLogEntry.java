@@ -86,6 +86,11 @@ class DatabaseCheckLogEntry extends DatabaseLogEntry {
     return "org.languagetool.server.LogMapper.logCheck";
   }
 
+  @Override
+  public String getBatchMappingIdentifier() {
+    return "org.languagetool.server.LogMapper.logCheckBatch";
+  }
+
   @Override
   public DatabaseLogEntry followup() {
     if (ruleMatches == null) {
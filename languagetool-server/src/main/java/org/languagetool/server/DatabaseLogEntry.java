@@ -41,6 +41,17 @@ public abstract class DatabaseLogEntry {
    */
   public abstract String getMappingIdentifier();
 
+  /**
+   * @return identifier for a mybatis SQL statement that inserts several entries of this type with one
+   * statement (parameter {@code entries}: a list of {@link #getMapping()} results), or {@code null} if
+   * there's none. Only used for entries without {@link #followup()}.
+   * @since 5.3
+   */
+  @Nullable
+  public String getBatchMappingIdentifier() {
+    return null;
+  }
+
   /**
    * for interdependent log entries, i.e. with foreign keys referencing other entries
    * @return null if no followup needed, else log entry that needs to be inserted directly afterwards
@@ -21,15 +21,22 @@
 
 package org.languagetool.server;
 
+import com.google.common.collect.Lists;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Writes log entries to the database asynchronously, in batches, using {@link #WRITER_THREADS} threads.
+ * The queue is bounded: if the database can't keep up, only a sample of the new entries is kept
+ * once the queue is half full, and new entries are dropped when it's full.
  * @since 4.3
  */
 class DatabaseLogger {
@@ -41,8 +48,12 @@ class DatabaseLogger {
   static final int POLLING_TIME = 1000;
   static int SQL_BATCH_SIZE = 1000;
   static int SQL_BATCH_WAITING_TIME = 10000; // milliseconds to wait until batch gets committed anyway
-  
+  static int WRITER_THREADS = 2;
+
   private static final int MAX_QUEUE_SIZE = 50000; // drop entries after limit is reached, to avoid running out of memory
+  private static final int SAMPLING_QUEUE_SIZE = MAX_QUEUE_SIZE / 2;  // keep only a sample of new entries above this
+  private static final int MULTI_ROW_INSERT_SIZE = 100;  // rows per multi-row INSERT statement
+  private static final long DROP_WARNING_INTERVAL_MILLIS = 60 * 1000;
 
   /**
    * @return an instance that will be disabled until initialized by DatabaseAccess
@@ -62,47 +73,90 @@ class DatabaseLogger {
     getInstance().start(factory);
   }
 
+  private static class QueuedEntry {
+    private final DatabaseLogEntry entry;
+    private final long queuedAt = System.currentTimeMillis();
+    QueuedEntry(DatabaseLogEntry entry) {
+      this.entry = entry;
+    }
+  }
+
   private class WorkerThread extends Thread {
+    WorkerThread(int number) {
+      super("lt-database-logger-" + number);
+      setDaemon(true);
+    }
+
     @Override
     public void run() {
-      try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
-        while (!Thread.currentThread().isInterrupted()) {
-          int batchSize = 0;
-          long batchTime = System.currentTimeMillis();
-          // commit when batch size is reached or after waiting period elapsed
-          while(!Thread.currentThread().isInterrupted()
-            && batchSize < SQL_BATCH_SIZE
-            && System.currentTimeMillis() - batchTime < SQL_BATCH_WAITING_TIME)  {
-            if (messages.size() > SQL_BATCH_SIZE) {
-              ServerTools.print(String.format("Logging queue filling up: %d entries", messages.size()));
-            }
-            // polling to be able to react when waiting time has elapsed
-            DatabaseLogEntry entry = messages.poll(POLLING_TIME, TimeUnit.MILLISECONDS);
-            if (entry == null) {
-              continue;
+      List<QueuedEntry> batch = new ArrayList<>();
+      while (!Thread.currentThread().isInterrupted()) {
+        try (SqlSession session = sessionFactory.openSession(ExecutorType.BATCH, false)) {
+          while (!Thread.currentThread().isInterrupted()) {
+            long batchTime = System.currentTimeMillis();
+            // commit when batch size is reached or after waiting period elapsed
+            while (!Thread.currentThread().isInterrupted()
+              && batch.size() < SQL_BATCH_SIZE
+              && System.currentTimeMillis() - batchTime < SQL_BATCH_WAITING_TIME) {
+              // polling to be able to react when waiting time has elapsed
+              QueuedEntry entry = messages.poll(POLLING_TIME, TimeUnit.MILLISECONDS);
+              if (entry != null) {
+                batch.add(entry);
+                messages.drainTo(batch, SQL_BATCH_SIZE - batch.size());
+              }
+              ServerMetricsCollector.getInstance().logDatabaseLogQueueSize(messages.size());
             }
-            batchSize++;
-            session.insert(entry.getMappingIdentifier(), entry.getMapping());
-            DatabaseLogEntry followup = entry.followup();
-            if (followup != null) { // followup statements need to be inserted directly afterwards, dependant on e.g. generated primary keys
-              session.insert(followup.getMappingIdentifier(), followup.getMapping());
-              batchSize++;
+            if (!batch.isEmpty()) {
+              insert(session, batch);
+              session.commit();
+              long oldest = batch.stream().mapToLong(e -> e.queuedAt).min().getAsLong();
+              ServerMetricsCollector.getInstance().logDatabaseLogBatch(batch.size(), System.currentTimeMillis() - oldest);
+              batch.clear();
             }
           }
-          session.commit();
+        } catch (InterruptedException e) {
+          break;
+        } catch (Exception e) {
+          e.printStackTrace();
+          ServerMetricsCollector.getInstance().logDatabaseLogEntries("failed", batch.size());
+          batch.clear();
+          try {
+            Thread.sleep(POLLING_TIME);  // don't retry in a busy loop while the database is down
+          } catch (InterruptedException ex) {
+            break;
+          }
         }
-      } catch (Exception e) {
-        e.printStackTrace();
-        if (!Thread.currentThread().isInterrupted()) {
-          new WorkerThread().start();
+      }
+    }
+
+    private void insert(SqlSession session, List<QueuedEntry> batch) {
+      // entries that don't depend on each other are combined into multi-row INSERTs per statement:
+      Map<String, List<Map<Object, Object>>> multiRowInserts = new LinkedHashMap<>();
+      for (QueuedEntry queued : batch) {
+        DatabaseLogEntry entry = queued.entry;
+        DatabaseLogEntry followup = entry.followup();
+        String batchIdentifier = entry.getBatchMappingIdentifier();
+        if (followup == null && batchIdentifier != null) {
+          multiRowInserts.computeIfAbsent(batchIdentifier, k -> new ArrayList<>()).add(entry.getMapping());
+        } else {
+          session.insert(entry.getMappingIdentifier(), entry.getMapping());
+          if (followup != null) { // followup statements need to be inserted directly afterwards, dependant on e.g. generated primary keys
+            session.insert(followup.getMappingIdentifier(), followup.getMapping());
+          }
+        }
+      }
+      for (Map.Entry<String, List<Map<Object, Object>>> inserts : multiRowInserts.entrySet()) {
+        for (List<Map<Object, Object>> rows : Lists.partition(inserts.getValue(), MULTI_ROW_INSERT_SIZE)) {
+          session.insert(inserts.getKey(), Collections.singletonMap("entries", rows));
         }
       }
     }
   }
 
-  private final BlockingQueue<DatabaseLogEntry> messages = new LinkedBlockingQueue<>();
+  private final BlockingQueue<QueuedEntry> messages = new ArrayBlockingQueue<>(MAX_QUEUE_SIZE);
+  private final AtomicLong lastDropWarning = new AtomicLong();
+  private final List<WorkerThread> workers = new ArrayList<>();
   private SqlSessionFactory sessionFactory = null;
-  private WorkerThread worker = null;
   private boolean disabled = true;
 
   private DatabaseLogger() {
@@ -111,32 +165,52 @@ class DatabaseLogger {
   private void start(SqlSessionFactory factory) {
     sessionFactory = factory;
     disabled = false;
-    worker = new WorkerThread();
-    worker.start();
+    for (int i = 0; i < WRITER_THREADS; i++) {
+      WorkerThread worker = new WorkerThread(i);
+      workers.add(worker);
+      worker.start();
+    }
   }
 
   public void disableLogging() {
     this.disabled = true;
-    if (worker != null) {
+    for (WorkerThread worker : workers) {
       worker.interrupt();
     }
+    workers.clear();
   }
 
   public boolean isLogging() {
     return !this.disabled;
   }
 
+  /**
+   * Queue the entry for writing. Never blocks: if the queue is filling up, the entry may be dropped.
+   */
   public void log(DatabaseLogEntry entry) {
-    try {
-      if (!disabled) {
-        if (messages.size() < MAX_QUEUE_SIZE) {
-          messages.put(entry);
-        } else {
-          ServerTools.print("Logging queue has reached size limit; discarding new messages.");
-        }
+    if (disabled) {
+      return;
+    }
+    int queueSize = messages.size();
+    if (queueSize >= SAMPLING_QUEUE_SIZE) {
+      // the database can't keep up - keep fewer entries the fuller the queue gets:
+      double keepProbability = (double) (MAX_QUEUE_SIZE - queueSize) / (MAX_QUEUE_SIZE - SAMPLING_QUEUE_SIZE);
+      if (ThreadLocalRandom.current().nextDouble() >= keepProbability) {
+        dropped("sampled_out", queueSize);
+        return;
       }
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+    }
+    if (!messages.offer(new QueuedEntry(entry))) {
+      dropped("dropped", queueSize);
+    }
+  }
+
+  private void dropped(String reason, int queueSize) {
+    ServerMetricsCollector.getInstance().logDatabaseLogEntries(reason, 1);
+    long lastWarning = lastDropWarning.get();
+    long now = System.currentTimeMillis();
+    if (now - lastWarning > DROP_WARNING_INTERVAL_MILLIS && lastDropWarning.compareAndSet(lastWarning, now)) {
+      ServerTools.print(String.format("Logging queue filling up (%d entries, limit: %d); discarding some new messages.", queueSize, MAX_QUEUE_SIZE));
     }
   }
 
@@ -57,4 +57,9 @@ public class DatabaseMiscLogEntry extends DatabaseLogEntry {
   public String getMappingIdentifier() {
     return "org.languagetool.server.LogMapper.miscLogs";
   }
+
+  @Override
+  public String getBatchMappingIdentifier() {
+    return "org.languagetool.server.LogMapper.miscLogsBatch";
+  }
 }
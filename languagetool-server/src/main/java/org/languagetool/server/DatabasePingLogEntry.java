@@ -51,6 +51,11 @@ public class DatabasePingLogEntry extends DatabaseLogEntry {
     return "org.languagetool.server.LogMapper.pings";
   }
 
+  @Override
+  public String getBatchMappingIdentifier() {
+    return "org.languagetool.server.LogMapper.pingsBatch";
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -20,7 +20,6 @@ package org.languagetool.server;
 
 import org.languagetool.JLanguageTool;
 
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -55,10 +54,7 @@ class ErrorRequestLimiter extends RequestLimiter {
    * @param params the request's query parameters
    */
   void logAccess(String ipAddress, Map<String, List<String>> httpHeader, Map<String, String> params) {
-    while (requestEvents.size() > REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
-    }
-    requestEvents.add(new RequestEvent(ipAddress, new Date(), 0, computeFingerprint(httpHeader, params), JLanguageTool.Mode.ALL));
+    logRequest(ipAddress, 0, computeFingerprint(httpHeader, params), JLanguageTool.Mode.ALL);
   }
   
 }
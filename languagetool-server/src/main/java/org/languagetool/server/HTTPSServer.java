@@ -60,6 +60,7 @@ public class HTTPSServer extends Server {
     this.port = config.getPort();
     this.host = host;
     try {
+      checkServerMode(config);
       if (host == null) {
         server = HttpsServer.create(new InetSocketAddress(port), 0);
       } else {
@@ -72,8 +73,7 @@ public class HTTPSServer extends Server {
       ErrorRequestLimiter errorLimiter = getErrorRequestLimiterOrNull(config);
       LinkedBlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>();
       httpHandler = new LanguageToolHttpHandler(config, allowedIps, runInternally, limiter, errorLimiter, workQueue, this);
-      server.createContext("/", httpHandler);
-      executorService = getExecutorService(workQueue, config);
+      executorService = setUpHandler(workQueue, config);
       server.setExecutor(executorService);
     } catch (BindException e) {
       ResourceBundle messages = JLanguageTool.getMessageBundle();
@@ -104,10 +104,10 @@ public class HTTPServer extends Server {
       LinkedBlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>();
       httpHandler = new LanguageToolHttpHandler(config, allowedIps, runInternally, limiter, errorLimiter, workQueue, this);
 
+      checkServerMode(config);
       InetSocketAddress address = host != null ? new InetSocketAddress(host, port) : new InetSocketAddress(port);
       server = HttpServer.create(address, 0);
-      server.createContext("/", httpHandler);
-      executorService = getExecutorService(workQueue, config);
+      executorService = setUpHandler(workQueue, config);
       server.setExecutor(executorService);
 
       if (config.isPrometheusMonitoring()) {
@@ -39,6 +39,14 @@ public class HTTPServerConfig {
 
   enum Mode { LanguageTool }
 
+  /**
+   * How requests are served: {@code THREADS} handles each request on one thread from reading
+   * to writing the response, {@code ASYNC} reads requests on a few I/O threads and checks them
+   * on a separate, bounded pool of {@code maxCheckThreads} threads.
+   * @since 5.3
+   */
+  enum ServerMode { THREADS, ASYNC }
+
   public static final String DEFAULT_HOST = "localhost";
 
   /** The default port on which the server is running (8081). */
@@ -61,6 +69,9 @@ public class HTTPServerConfig {
   protected long maxCheckTimeMillis = -1;
   protected long maxCheckTimeWithApiKeyMillis = -1;
   protected int maxCheckThreads = 10;
+  protected ServerMode serverMode = ServerMode.THREADS;
+  protected int ioThreads = Runtime.getRuntime().availableProcessors();
+  protected long admissionLatencyTargetMillis = 0;
   protected Mode mode;
   protected File languageModelDir = null;
   protected File word2vecModelDir = null;
@@ -68,6 +79,7 @@ public class HTTPServerConfig {
   protected boolean pipelinePrewarming = false;
 
   protected int maxPipelinePoolSize;
+  protected int pipelineWarmPoolSize = 0;
   protected int pipelineExpireTime;
   protected File fasttextModel = null;
   protected File fasttextBinary = null;
@@ -85,6 +97,7 @@ public class HTTPServerConfig {
   protected File remoteRulesConfigFile = null;
   protected int cacheSize = 0;
   protected long cacheTTLSeconds = 300;
+  protected File sharedCacheDir = null;
   protected float maxErrorsPerWordRate = 0;
   protected int maxSpellingSuggestions = 0;
   protected List<String> blockedReferrers = new ArrayList<>();
@@ -108,6 +121,7 @@ public class HTTPServerConfig {
   protected boolean skipLoggingChecks = false;
 
   protected int slowRuleLoggingThreshold = -1; // threshold in milliseconds, used by SlowRuleLogger; < 0 - disabled
+  protected int ruleProfilingSampleRate = 0; // profile one in n sentences; 0 - disabled
 
   protected String abTest = null;
   protected Pattern abTestClients = null;
@@ -115,7 +129,7 @@ public class HTTPServerConfig {
   protected File ngramLangIdentData;
 
   private static final List<String> KNOWN_OPTION_KEYS = Arrays.asList("abTest", "abTestClients", "abTestRollout",
-    "beolingusFile", "blockedReferrers", "cacheSize", "cacheTTLSeconds",
+    "beolingusFile", "blockedReferrers", "cacheSize", "cacheTTLSeconds", "sharedCacheDir",
     "dbDriver", "dbPassword", "dbUrl", "dbUsername", "disabledRuleIds", "fasttextBinary", "fasttextModel", "grammalectePassword",
     "grammalecteServer", "grammalecteUser", "hiddenMatchesLanguages", "hiddenMatchesServer", "hiddenMatchesServerFailTimeout",
     "hiddenMatchesServerTimeout", "hiddenMatchesServerFall", "ipFingerprintFactor", "languageModel", "maxCheckThreads", "maxCheckTimeMillis",
@@ -123,11 +137,11 @@ public class HTTPServerConfig {
     "maxTextLength", "maxTextLengthWithApiKey", "maxWorkQueueSize", "neuralNetworkModel", "pipelineCaching",
     "pipelineExpireTimeInSeconds", "pipelinePrewarming", "prometheusMonitoring", "prometheusPort", "remoteRulesFile",
     "requestLimit", "requestLimitInBytes", "requestLimitPeriodInSeconds", "requestLimitWhitelistUsers", "requestLimitWhitelistLimit",
-    "rulesFile", "secretTokenKey", "serverURL",
+    "ruleProfilingSampleRate", "rulesFile", "secretTokenKey", "serverURL",
     "skipLoggingChecks", "skipLoggingRuleMatches", "timeoutRequestLimit", "trustXForwardForHeader", "warmUp", "word2vecModel",
     "keystore", "password", "maxTextLengthPremium", "maxTextLengthAnonymous", "maxTextLengthLoggedIn", "gracefulDatabaseFailure",
-    "ngramLangIdentData",
-    "redisPassword", "redisHost", "dbLogging", "premiumOnly");
+    "ngramLangIdentData", "serverMode", "ioThreads", "admissionLatencyTargetMillis",
+    "pipelineWarmPoolSize", "redisPassword", "redisHost", "dbLogging", "premiumOnly");
 
   /**
    * Create a server configuration for the default port ({@link #DEFAULT_PORT}).
@@ -230,6 +244,10 @@ public class HTTPServerConfig {
         pipelinePrewarming = Boolean.parseBoolean(getOptionalProperty(props, "pipelinePrewarming", "false").trim());
         maxPipelinePoolSize = Integer.parseInt(getOptionalProperty(props, "maxPipelinePoolSize", "5"));
         pipelineExpireTime = Integer.parseInt(getOptionalProperty(props, "pipelineExpireTimeInSeconds", "10"));
+        pipelineWarmPoolSize = Integer.parseInt(getOptionalProperty(props, "pipelineWarmPoolSize", "0"));
+        if (pipelineWarmPoolSize < 0) {
+          throw new IllegalArgumentException("Invalid value for pipelineWarmPoolSize, must be >= 0: " + pipelineWarmPoolSize);
+        }
         requestLimitPeriodInSeconds = Integer.parseInt(getOptionalProperty(props, "requestLimitPeriodInSeconds", "0"));
         ipFingerprintFactor = Integer.parseInt(getOptionalProperty(props, "ipFingerprintFactor", "1"));
         trustXForwardForHeader = Boolean.valueOf(getOptionalProperty(props, "trustXForwardForHeader", "false").trim());
@@ -253,13 +271,24 @@ public class HTTPServerConfig {
         }
         String fasttextModel = getOptionalProperty(props, "fasttextModel", null);
         String fasttextBinary = getOptionalProperty(props, "fasttextBinary", null);
-        if (fasttextBinary != null && fasttextModel != null) {
+        if (fasttextModel != null) {
           setFasttextPaths(fasttextModel, fasttextBinary);
         }
         maxCheckThreads = Integer.parseInt(getOptionalProperty(props, "maxCheckThreads", "10"));
         if (maxCheckThreads < 1) {
           throw new IllegalArgumentException("Invalid value for maxCheckThreads, must be >= 1: " + maxCheckThreads);
         }
+        String serverModeStr = getOptionalProperty(props, "serverMode", "threads").trim();
+        try {
+          serverMode = ServerMode.valueOf(serverModeStr.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Invalid value for serverMode, must be 'threads' or 'async': " + serverModeStr);
+        }
+        ioThreads = Integer.parseInt(getOptionalProperty(props, "ioThreads", String.valueOf(ioThreads)));
+        if (ioThreads < 1) {
+          throw new IllegalArgumentException("Invalid value for ioThreads, must be >= 1: " + ioThreads);
+        }
+        admissionLatencyTargetMillis = Long.parseLong(getOptionalProperty(props, "admissionLatencyTargetMillis", "0"));
         boolean atdMode = getOptionalProperty(props, "mode", "LanguageTool").equalsIgnoreCase("AfterTheDeadline");
         if (atdMode) {
           throw new IllegalArgumentException("The AfterTheDeadline mode is not supported anymore in LanguageTool 3.8 or later");
@@ -286,6 +315,19 @@ public class HTTPServerConfig {
           throw new IllegalArgumentException("Use of cacheTTLSeconds without also setting cacheSize has no effect.");
         }
         cacheTTLSeconds = Integer.parseInt(getOptionalProperty(props, "cacheTTLSeconds", "300"));
+        String sharedCacheDirPath = getOptionalProperty(props, "sharedCacheDir", null);
+        if (sharedCacheDirPath != null) {
+          if (!props.containsKey("cacheSize")) {
+            throw new IllegalArgumentException("Use of sharedCacheDir without also setting cacheSize has no effect.");
+          }
+          sharedCacheDir = new File(sharedCacheDirPath);
+          if (!sharedCacheDir.isDirectory()) {
+            throw new IllegalArgumentException("sharedCacheDir is not a directory: " + sharedCacheDir);
+          }
+          if (cacheTTLSeconds <= 0) {
+            throw new IllegalArgumentException("cacheTTLSeconds must be > 0 when using sharedCacheDir, as entries are deleted after that time");
+          }
+        }
         if (props.containsKey("warmUp")) {
           System.err.println("Setting ignored: 'warmUp'. Look into using pipelineCaching and pipelinePrewarming instead.");
         }
@@ -315,6 +357,10 @@ public class HTTPServerConfig {
           throw new IllegalArgumentException("dbLogging can only be true if dbDriver, dbUrl, dbUsername, and dbPassword are all set");
         }
         slowRuleLoggingThreshold = Integer.valueOf(getOptionalProperty(props, "slowRuleLoggingThreshold", "-1"));
+        ruleProfilingSampleRate = Integer.parseInt(getOptionalProperty(props, "ruleProfilingSampleRate", "0"));
+        if (ruleProfilingSampleRate < 0) {
+          throw new IllegalArgumentException("Invalid value for ruleProfilingSampleRate, must be >= 0: " + ruleProfilingSampleRate);
+        }
         disabledRuleIds = Arrays.asList(getOptionalProperty(props, "disabledRuleIds", "").split(",\\s*"));
         globalConfig.setGrammalecteServer(getOptionalProperty(props, "grammalecteServer", null));
         globalConfig.setGrammalecteUser(getOptionalProperty(props, "grammalecteUser", null));
@@ -407,12 +453,15 @@ public class HTTPServerConfig {
     }
   }
 
-  private void setFasttextPaths(String fasttextModelPath, String fasttextBinaryPath) {
+  private void setFasttextPaths(String fasttextModelPath, @Nullable String fasttextBinaryPath) {
     fasttextModel = new File(fasttextModelPath);
-    fasttextBinary = new File(fasttextBinaryPath);
     if (!fasttextModel.exists() || fasttextModel.isDirectory()) {
       throw new RuntimeException("Fasttext model path not valid (file doesn't exist or is a directory): " + fasttextModelPath);
     }
+    if (fasttextBinaryPath == null) {
+      return;
+    }
+    fasttextBinary = new File(fasttextBinaryPath);
     if (!fasttextBinary.exists() || fasttextBinary.isDirectory() || !fasttextBinary.canExecute()) {
       throw new RuntimeException("Fasttext binary path not valid (file doesn't exist, is a directory or not executable): " + fasttextBinaryPath);
     }
@@ -678,6 +727,43 @@ public class HTTPServerConfig {
     return maxCheckThreads;
   }
 
+  /**
+   * @param serverMode {@link ServerMode#ASYNC} to read requests on {@link #getIoThreads()} I/O threads and
+   * check them on {@link #getMaxCheckThreads()} separate threads, so slow checks never block reading
+   * new requests and idle keep-alive connections don't cost a thread
+   * @since 5.3
+   */
+  void setServerMode(ServerMode serverMode) {
+    this.serverMode = Objects.requireNonNull(serverMode);
+  }
+
+  /** @since 5.3 */
+  ServerMode getServerMode() {
+    return serverMode;
+  }
+
+  /**
+   * The number of threads reading requests in {@link ServerMode#ASYNC} mode.
+   * @since 5.3
+   */
+  int getIoThreads() {
+    return ioThreads;
+  }
+
+  /**
+   * @param admissionLatencyTargetMillis if &gt; 0, checks whose estimated latency exceeds this
+   *    are run without remote rules or rejected, see {@link AdmissionController}
+   * @since 5.3
+   */
+  void setAdmissionLatencyTargetMillis(long admissionLatencyTargetMillis) {
+    this.admissionLatencyTargetMillis = admissionLatencyTargetMillis;
+  }
+
+  /** @since 5.3 */
+  long getAdmissionLatencyTargetMillis() {
+    return admissionLatencyTargetMillis;
+  }
+
   /**
    * Set to {@code true} if this is running behind a (reverse) proxy which
    * sets the {@code X-forwarded-for} HTTP header. The last IP address (but not local IP addresses)
@@ -755,6 +841,20 @@ public class HTTPServerConfig {
     this.pipelineExpireTime = pipelineExpireTime;
   }
 
+  /**
+   * @param pipelineWarmPoolSize if &gt; 0 (and pipeline caching is enabled), keep this many unused pipelines
+   *    ready for each of the most frequently requested settings, see {@link PipelinePoolManager}
+   * @since 5.3
+   */
+  void setPipelineWarmPoolSize(int pipelineWarmPoolSize) {
+    this.pipelineWarmPoolSize = pipelineWarmPoolSize;
+  }
+
+  /** @since 5.3 */
+  int getPipelineWarmPoolSize() {
+    return pipelineWarmPoolSize;
+  }
+
   /**
    * Cache size (in number of sentences).
    * @since 3.7
@@ -787,6 +887,22 @@ public class HTTPServerConfig {
     this.cacheTTLSeconds = cacheTTLSeconds;
   }
 
+  /**
+   * Directory used as a second cache tier that several servers can share, or {@code null}.
+   * @since 5.3
+   */
+  @Nullable
+  File getSharedCacheDir() {
+    return sharedCacheDir;
+  }
+
+  /**
+   * @since 5.3
+   */
+  void setSharedCacheDir(File sharedCacheDir) {
+    this.sharedCacheDir = sharedCacheDir;
+  }
+
   /**
    * Maximum errors per word rate, checking will stop if the rate is higher.
    * For example, with a rate of 0.33, the checking would stop if the user's
@@ -985,6 +1101,21 @@ public class HTTPServerConfig {
     return slowRuleLoggingThreshold;
   }
 
+  /**
+   * @since 5.3
+   * @return measure rule run times for one in this many sentences, 0 means profiling is disabled
+   */
+  public int getRuleProfilingSampleRate() {
+    return ruleProfilingSampleRate;
+  }
+
+  /**
+   * @since 5.3
+   */
+  void setRuleProfilingSampleRate(int ruleProfilingSampleRate) {
+    this.ruleProfilingSampleRate = ruleProfilingSampleRate;
+  }
+
   /**
    * @since 4.5
    */
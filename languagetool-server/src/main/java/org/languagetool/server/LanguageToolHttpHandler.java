@@ -18,6 +18,7 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import org.apache.commons.lang3.StringUtils;
@@ -25,12 +26,15 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.languagetool.ErrorRateTooHighException;
+import org.languagetool.markup.AnnotatedText;
 import org.languagetool.tools.StringTools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
@@ -218,6 +222,10 @@ class LanguageToolHttpHandler implements HttpHandler {
       } else if (e instanceof PathNotFoundException || rootCause instanceof PathNotFoundException) {
         errorCode = HttpURLConnection.HTTP_NOT_FOUND;
         response = e.getMessage();
+      } else if (e instanceof OverloadedException || rootCause instanceof OverloadedException) {
+        errorCode = HTTP_UNAVAILABLE;
+        response = e.getMessage();
+        logStacktrace = false;
       } else if (e instanceof TimeoutException || rootCause instanceof TimeoutException) {
         errorCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
         response = "Checking took longer than " + config.getMaxCheckTimeMillis()/1000.0f + " seconds, which is this server's limit. " +
@@ -377,6 +385,21 @@ class LanguageToolHttpHandler implements HttpHandler {
   }
 
   private void sendError(HttpExchange httpExchange, int httpReturnCode, String response) throws IOException {
+    if (httpExchange.getResponseCode() != -1 &&
+        TextChecker.NDJSON_CONTENT_TYPE.equals(httpExchange.getResponseHeaders().getFirst("Content-Type"))) {
+      // a streamed response has already been started with status 200, so report the error as its last line,
+      // after anything still buffered in the stream the lines have been written to:
+      OutputStream out = (OutputStream) httpExchange.getAttribute(TextChecker.STREAM_OUT_ATTRIBUTE);
+      if (out == null) {
+        out = httpExchange.getResponseBody();
+      }
+      Map<String, String> error = new HashMap<>();
+      error.put("error", response);
+      out.write((new ObjectMapper().writeValueAsString(error) + "\n").getBytes(ENCODING));
+      out.flush();
+      ServerMetricsCollector.getInstance().logResponse(httpReturnCode);
+      return;
+    }
     ServerTools.setAllowOrigin(httpExchange, config.getAllowOriginUrl());
     httpExchange.sendResponseHeaders(httpReturnCode, response.getBytes(ENCODING).length);
     httpExchange.getResponseBody().write(response.getBytes(ENCODING));
@@ -386,8 +409,17 @@ class LanguageToolHttpHandler implements HttpHandler {
   private Map<String, String> getRequestQuery(HttpExchange httpExchange, URI requestedUri) throws IOException {
     Map<String, String> params = new HashMap<>();
     if ("post".equalsIgnoreCase(httpExchange.getRequestMethod())) {
-      try (InputStreamReader isr = new InputStreamReader(httpExchange.getRequestBody(), ENCODING)) {
-        params.putAll(parseQuery(readerToString(isr, config.getMaxTextHardLength()), httpExchange));
+      // don't stop at maxTextLength as that's the text length, but here also other parameters are included
+      // and one character can be encoded as e.g. "%D8" (still we need a limit so we don't OOM if someone posts a few hundred MB)...
+      long maxBytes = config.getMaxTextHardLength() * 10L;
+      try (InputStream body = RequestBodyReader.getBody(httpExchange, maxBytes)) {
+        if (RequestBodyReader.isJson(httpExchange)) {
+          // the text is decoded directly, without the copies that URL-decoding a form would need:
+          AnnotatedText aText = RequestBodyReader.readJson(body, params);
+          httpExchange.setAttribute(RequestBodyReader.ANNOTATED_TEXT_ATTRIBUTE, aText);
+        } else {
+          params.putAll(parseQuery(readerToString(new InputStreamReader(body, ENCODING)), httpExchange));
+        }
         params.putAll(parseQuery(requestedUri.getRawQuery(), httpExchange));  // POST requests can have query parameters, too
         return params;
       }
@@ -396,7 +428,7 @@ class LanguageToolHttpHandler implements HttpHandler {
     }
   }
 
-  private String readerToString(Reader reader, int maxTextLength) throws IOException {
+  private String readerToString(Reader reader) throws IOException {
     StringBuilder sb = new StringBuilder();
     char[] chars = new char[4000];
     while (true) {
@@ -404,21 +436,11 @@ class LanguageToolHttpHandler implements HttpHandler {
       if (readBytes <= 0) {
         break;
       }
-      int generousMaxLength = maxTextLength * 10;  // one character can be encoded as e.g. "%D8", plus estimated space for sending data (JSON)
-      if (generousMaxLength < 0) {  // might happen as it can overflow
-        generousMaxLength = Integer.MAX_VALUE;
-      }
-      if (sb.length() > 0 && sb.length() > generousMaxLength) {
-        // don't stop at maxTextLength as that's the text length, but here also other parameters
-        // are included (still we need this check here so we don't OOM if someone posts a few hundred MB)...
-        throw new TextTooLongException("Your text's length exceeds this server's hard limit of " + generousMaxLength + " characters.");
-      }
-      sb.append(new String(chars, 0, readBytes));
+      sb.append(chars, 0, readBytes);
     }
     return sb.toString();
   }
 
-
   private Map<String, String> parseQuery(String query, HttpExchange httpExchange) throws UnsupportedEncodingException {
     Map<String, String> parameters = new HashMap<>();
     if (query != null) {
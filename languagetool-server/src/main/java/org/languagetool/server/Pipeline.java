@@ -97,6 +97,12 @@ class Pipeline extends JLanguageTool {
     super.setMaxErrorsPerWordRate(maxErrorsPerWordRate);
   }
 
+  @Override
+  public void setRuleProfiler(RuleProfiler ruleProfiler) {
+    preventModificationAfterSetup();
+    super.setRuleProfiler(ruleProfiler);
+  }
+
   @Override
   public void setOutput(PrintStream printStream) {
     preventModificationAfterSetup();
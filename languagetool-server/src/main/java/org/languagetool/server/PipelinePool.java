@@ -29,8 +29,12 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.languagetool.*;
 import org.languagetool.gui.Configuration;
+import org.languagetool.languagemodel.BaseLanguageModel;
+import org.languagetool.languagemodel.LanguageModel;
 import org.languagetool.rules.DictionaryMatchFilter;
 import org.languagetool.rules.RemoteRuleConfig;
+import org.languagetool.rules.RuleProfiler;
+import org.languagetool.tagging.BaseTagger;
 import org.languagetool.tools.Tools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,10 +43,13 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -52,6 +59,7 @@ import java.util.stream.Collectors;
 class PipelinePool {
 
   private static final Logger logger = LoggerFactory.getLogger(PipelinePool.class);
+  private static final Set<String> monitoredTaggerCaches = ConcurrentHashMap.newKeySet();
 
   static final long PIPELINE_EXPIRE_TIME = 15 * 60 * 1000;
 
@@ -113,17 +121,22 @@ class PipelinePool {
   private final ResultCache cache;
   private final LoadingCache<PipelineSettings, ConcurrentLinkedQueue<Pipeline>> pool;
   private final boolean internalServer;
+  private final RuleProfiler ruleProfiler;
+  private final PipelinePoolManager manager;
 
-  private long pipelineExpireCheckTimestamp;
   // stats
-  private long pipelinesUsed;
-  private long requests;
+  private final AtomicLong pipelinesUsed = new AtomicLong();
+  private final AtomicLong requests = new AtomicLong();
 
   PipelinePool(HTTPServerConfig config, ResultCache cache, boolean internalServer) {
+    this(config, cache, internalServer, null);
+  }
+
+  PipelinePool(HTTPServerConfig config, ResultCache cache, boolean internalServer, RuleProfiler ruleProfiler) {
     this.internalServer = internalServer;
+    this.ruleProfiler = ruleProfiler;
     this.config = config;
     this.cache = cache;
-    this.pipelineExpireCheckTimestamp = System.currentTimeMillis();
     int maxPoolSize = config.getMaxPipelinePoolSize();
     int expireTime = config.getPipelineExpireTime();
     if (config.isPipelineCachingEnabled()) {
@@ -136,41 +149,31 @@ class PipelinePool {
             return new ConcurrentLinkedQueue<>();
           }
         });
+      this.manager = new PipelinePoolManager(this, config.getPipelineWarmPoolSize(), maxPoolSize);
     } else {
       this.pool = null;
+      this.manager = null;
     }
   }
 
   Pipeline getPipeline(PipelineSettings settings) throws Exception {
     if (pool != null) {
-      // expire old pipelines in queues (where settings may be used, but some of the created pipelines are unused)
-      long expireCheckDelta = System.currentTimeMillis() - pipelineExpireCheckTimestamp;
-      if (expireCheckDelta > PIPELINE_EXPIRE_TIME) {
-        AtomicInteger removed = new AtomicInteger();
-        pipelineExpireCheckTimestamp = System.currentTimeMillis();
-        //pool.asMap().forEach((s, queue) -> queue.removeIf(Pipeline::isExpired));
-        pool.asMap().forEach((s, queue) -> queue.removeIf(pipeline -> {
-          if (pipeline.isExpired()) {
-            removed.getAndIncrement();
-            return true;
-          } else {
-            return false;
-          }
-        }));
-        ServerTools.print("Removing " + removed.get() + " expired pipelines");
-      }
-
-      requests++;
+      // expired pipelines are removed by the manager, not here on the request thread
+      manager.recordRequest(settings);
+      long requestCount = requests.incrementAndGet();
       ConcurrentLinkedQueue<Pipeline> pipelines = pool.get(settings);
-      if (requests % 1000 == 0) {
-        logger.info(String.format("Pipeline cache stats: %f hit rate", (double) pipelinesUsed / requests));
+      if (requestCount % 1000 == 0) {
+        logger.info(String.format("Pipeline cache stats: %f hit rate", (double) pipelinesUsed.get() / requestCount));
       }
       Pipeline pipeline = pipelines.poll();
+      ServerMetricsCollector.getInstance().logPipelineRequest(pipeline != null);
       if (pipeline == null) {
         //ServerTools.print(String.format("No prepared pipeline found for %s; creating one.", settings));
+        long start = System.currentTimeMillis();
         pipeline = createPipeline(settings.lang, settings.motherTongue, settings.query, settings.globalConfig, settings.user, config.getDisabledRuleIds());
+        ServerMetricsCollector.getInstance().logPipelineCreation(System.currentTimeMillis() - start, false);
       } else {
-        pipelinesUsed++;
+        pipelinesUsed.incrementAndGet();
         //ServerTools.print(String.format("Prepared pipeline found for %s; using it.", settings));
       }
       return pipeline;
@@ -186,6 +189,55 @@ class PipelinePool {
     pipelines.add(pipeline);
   }
 
+  /**
+   * Create a pipeline for the given settings ahead of demand, run a simple check on it and add it to the pool.
+   * @since 5.3
+   */
+  void prewarm(PipelineSettings settings) throws Exception {
+    long start = System.currentTimeMillis();
+    Pipeline pipeline = createPipeline(settings.lang, settings.motherTongue, settings.query, settings.globalConfig, settings.user, config.getDisabledRuleIds());
+    pipeline.check("LanguageTool");
+    ServerMetricsCollector.getInstance().logPipelineCreation(System.currentTimeMillis() - start, true);
+    returnPipeline(settings, pipeline);
+  }
+
+  /**
+   * @return the number of unused pipelines in the pool for the given settings
+   * @since 5.3
+   */
+  int getIdleCount(PipelineSettings settings) {
+    if (pool == null) return 0;
+    ConcurrentLinkedQueue<Pipeline> pipelines = pool.getIfPresent(settings);
+    return pipelines != null ? pipelines.size() : 0;
+  }
+
+  /**
+   * Remove the pipelines that haven't been used for some time from the queues
+   * (where settings may still be used, but some of the created pipelines are unused).
+   * @return the number of removed pipelines
+   * @since 5.3
+   */
+  int removeExpired() {
+    if (pool == null) return 0;
+    AtomicInteger removed = new AtomicInteger();
+    pool.asMap().forEach((s, queue) -> queue.removeIf(pipeline -> {
+      if (pipeline.isExpired()) {
+        removed.getAndIncrement();
+        return true;
+      } else {
+        return false;
+      }
+    }));
+    return removed.get();
+  }
+
+  /** @since 5.3 */
+  void shutdown() {
+    if (manager != null) {
+      manager.shutdown();
+    }
+  }
+
   /**
    * Create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
    * Uses Pipeline wrapper to safely share objects
@@ -197,9 +249,20 @@ class PipelinePool {
     throws Exception { // package-private for mocking
     Pipeline lt = new Pipeline(lang, params.altLanguages, motherTongue, cache, globalConfig, userConfig, params.inputLogging);
     lt.setMaxErrorsPerWordRate(config.getMaxErrorsPerWordRate());
+    lt.setRuleProfiler(ruleProfiler);
+    String taggerCacheName = "languagetool_tagger_cache_" + lang.getShortCodeWithCountryAndVariant();
+    // the tagger is shared by all pipelines of a language, so its cache only needs to be registered once:
+    if (lang.getTagger() instanceof BaseTagger && monitoredTaggerCaches.add(taggerCacheName)) {
+      ServerMetricsCollector.getInstance().monitorCache(taggerCacheName, ((BaseTagger) lang.getTagger()).getTagCache());
+    }
     lt.disableRules(disabledRuleIds);
     if (config.getLanguageModelDir() != null) {
       lt.activateLanguageModelRules(config.getLanguageModelDir());
+      // the language model is shared by all pipelines of a language, like the tagger:
+      LanguageModel languageModel = lang.getLanguageModel(config.getLanguageModelDir());
+      if (languageModel instanceof BaseLanguageModel) {
+        ServerMetricsCollector.getInstance().monitorNgramCountCache(lang.getShortCodeWithCountryAndVariant(), (BaseLanguageModel) languageModel);
+      }
     }
     if (config.getWord2VecModelDir () != null) {
       lt.activateWord2VecModelRules(config.getWord2VecModelDir());
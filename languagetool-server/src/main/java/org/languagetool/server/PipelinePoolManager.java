@@ -0,0 +1,142 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains a {@link PipelinePool} on a low-priority background thread, so requests don't have to:
+ * removes expired pipelines and, if {@code warmPoolSize} &gt; 0, keeps that many unused pipelines
+ * ready for each of the most frequently requested settings. Creating a pipeline for a setting that
+ * is not in the pool can take hundreds of milliseconds.
+ * @since 5.3
+ */
+class PipelinePoolManager {
+
+  private static final Logger logger = LoggerFactory.getLogger(PipelinePoolManager.class);
+
+  private static final long SWEEP_INTERVAL_MILLIS = 60 * 1000;
+  private static final long WARM_INTERVAL_MILLIS = 10 * 1000;
+  private static final int MAX_HOT_SETTINGS = 20;
+  private static final int MAX_TRACKED_SETTINGS = 10_000;
+  private static final int MIN_DEMAND = 2;  // (decayed) number of requests before a setting is considered hot
+
+  private final PipelinePool pool;
+  private final int warmPoolSize;
+  private final int maxHotSettings;
+  private final Map<PipelinePool.PipelineSettings, LongAdder> demand = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService executor;
+
+  /**
+   * @param maxPoolSize the maximum number of settings in the pool, more hot settings would only evict each other
+   */
+  PipelinePoolManager(PipelinePool pool, int warmPoolSize, int maxPoolSize) {
+    this.pool = pool;
+    this.warmPoolSize = warmPoolSize;
+    this.maxHotSettings = Math.min(MAX_HOT_SETTINGS, maxPoolSize);
+    this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+      .setNameFormat("lt-pipeline-pool-manager-%d")
+      .setDaemon(true)
+      .setPriority(Thread.MIN_PRIORITY)
+      .build());
+    executor.scheduleWithFixedDelay(this::removeExpired, SWEEP_INTERVAL_MILLIS, SWEEP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    if (warmPoolSize > 0) {
+      executor.scheduleWithFixedDelay(this::warmUp, WARM_INTERVAL_MILLIS, WARM_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Called for every pipeline request, must be cheap.
+   */
+  void recordRequest(PipelinePool.PipelineSettings settings) {
+    if (warmPoolSize == 0) {
+      return;
+    }
+    LongAdder count = demand.get(settings);
+    if (count == null) {
+      if (demand.size() >= MAX_TRACKED_SETTINGS) {
+        return;
+      }
+      count = demand.computeIfAbsent(settings, k -> new LongAdder());
+    }
+    count.increment();
+  }
+
+  /**
+   * The most frequently requested settings. Also halves all counts, so the result follows the current traffic.
+   */
+  List<PipelinePool.PipelineSettings> getHotSettings() {
+    Map<PipelinePool.PipelineSettings, Long> counts = new HashMap<>();
+    for (Map.Entry<PipelinePool.PipelineSettings, LongAdder> entry : demand.entrySet()) {
+      long count = entry.getValue().sumThenReset();
+      counts.put(entry.getKey(), count);
+      if (count / 2 > 0) {
+        entry.getValue().add(count / 2);
+      } else {
+        demand.remove(entry.getKey(), entry.getValue());
+      }
+    }
+    return counts.entrySet().stream()
+      .filter(e -> e.getValue() >= MIN_DEMAND)
+      .sorted(Map.Entry.<PipelinePool.PipelineSettings, Long>comparingByValue().reversed())
+      .limit(maxHotSettings)
+      .map(Map.Entry::getKey)
+      .collect(Collectors.toList());
+  }
+
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void warmUp() {
+    // exceptions must not escape, they would stop the scheduled runs:
+    for (PipelinePool.PipelineSettings settings : getHotSettings()) {
+      try {
+        int missing = warmPoolSize - pool.getIdleCount(settings);
+        for (int i = 0; i < missing && !executor.isShutdown(); i++) {
+          pool.prewarm(settings);
+        }
+      } catch (Exception e) {
+        logger.warn("Could not prewarm pipeline for " + settings, e);
+      }
+    }
+  }
+
+  private void removeExpired() {
+    try {
+      int removed = pool.removeExpired();
+      if (removed > 0) {
+        ServerTools.print("Removing " + removed + " expired pipelines");
+      }
+    } catch (Exception e) {
+      logger.warn("Could not remove expired pipelines", e);
+    }
+  }
+
+}
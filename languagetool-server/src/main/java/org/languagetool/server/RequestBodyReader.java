@@ -0,0 +1,177 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads POST bodies without first copying them into a string: optionally gzip-compressed
+ * ({@code Content-Encoding: gzip}) and, for {@code Content-Type: application/json}, decoded
+ * directly into an {@link AnnotatedText}. The size limit is enforced while reading, on
+ * the uncompressed data.
+ * @since 5.3
+ */
+class RequestBodyReader {
+
+  /** Exchange attribute that holds the {@link AnnotatedText} of a JSON request. */
+  static final String ANNOTATED_TEXT_ATTRIBUTE = "org.languagetool.server.annotatedText";
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private RequestBodyReader() {
+  }
+
+  static boolean isJson(HttpExchange httpExchange) {
+    String contentType = httpExchange.getRequestHeaders().getFirst("Content-Type");
+    return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("application/json");
+  }
+
+  /**
+   * @param maxBytes the maximum number of (uncompressed) bytes, a {@link TextTooLongException} is thrown
+   *                 as soon as more data is read
+   */
+  static InputStream getBody(HttpExchange httpExchange, long maxBytes) throws IOException {
+    InputStream in = httpExchange.getRequestBody();
+    String encoding = httpExchange.getRequestHeaders().getFirst("Content-Encoding");
+    if (encoding != null && encoding.trim().equalsIgnoreCase("gzip")) {
+      in = new GZIPInputStream(in);
+    } else if (encoding != null && !encoding.trim().isEmpty() && !encoding.trim().equalsIgnoreCase("identity")) {
+      throw new IllegalArgumentException("Unsupported Content-Encoding: " + encoding + ", only 'gzip' is supported");
+    }
+    return new LimitedInputStream(in, maxBytes);
+  }
+
+  /**
+   * Read a JSON object like {@code {"language": "en-US", "text": "..."}}. Instead of {@code text},
+   * {@code data} can be used with the same structure as the {@code data} parameter of a form request.
+   * All other values are added to {@code params}, and so is {@code text} (the same string, not a copy)
+   * or {@code data}, as the size limits and logging use them.
+   */
+  static AnnotatedText readJson(InputStream in, Map<String, String> params) throws IOException {
+    AnnotatedText aText = null;
+    try (JsonParser parser = MAPPER.getFactory().createParser(in)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IllegalArgumentException("JSON request body must be an object");
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken token = parser.nextToken();
+        if (field.equals("text") || field.equals("data")) {
+          if (aText != null) {
+            throw new IllegalArgumentException("Set only 'text' or 'data' parameter, not both");
+          }
+          if (field.equals("text")) {
+            String text = getString(parser, "text");
+            aText = new AnnotatedTextBuilder().addText(text).build();
+            params.put("text", text);
+          } else if (token == JsonToken.START_OBJECT) {
+            JsonNode data = MAPPER.readTree(parser);
+            aText = ApiV2.getAnnotatedTextFromData(data);
+            params.put("data", data.toString());
+          } else {
+            throw new IllegalArgumentException("'data' must be a JSON object");
+          }
+        } else if (token.isScalarValue()) {
+          if (token != JsonToken.VALUE_NULL) {
+            params.put(field, parser.getValueAsString());
+          }
+        } else {
+          throw new IllegalArgumentException("Unsupported value for '" + field + "', only strings, numbers and booleans are supported");
+        }
+      }
+    }
+    if (aText == null) {
+      throw new IllegalArgumentException("Missing 'text' or 'data' parameter");
+    }
+    return aText;
+  }
+
+  private static String getString(JsonParser parser, String field) throws IOException {
+    if (!parser.currentToken().isScalarValue() || parser.currentToken() == JsonToken.VALUE_NULL) {
+      throw new IllegalArgumentException("'" + field + "' must be a string");
+    }
+    return parser.getValueAsString();
+  }
+
+  /**
+   * Stops reading with a {@link TextTooLongException} as soon as more than the allowed number of bytes has been read,
+   * so a large (or highly compressed) request cannot fill the memory.
+   */
+  static class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long readBytes;
+
+    LimitedInputStream(InputStream in, long maxBytes) {
+      super(in);
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1) {
+        count(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        count(n);
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      count(skipped);
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private void count(long bytes) {
+      readBytes += bytes;
+      if (readBytes > maxBytes) {
+        throw new TextTooLongException("Your request's size exceeds this server's hard limit of " + maxBytes + " bytes.");
+      }
+    }
+  }
+
+}
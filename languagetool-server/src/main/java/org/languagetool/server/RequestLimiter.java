@@ -18,21 +18,29 @@
  */
 package org.languagetool.server;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.languagetool.JLanguageTool;
 
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Limit the maximum number of request per IP address for a given time range.
+ * Requests are counted per IP address and per IP address plus fingerprint in sliding windows
+ * that consist of {@link #BUCKETS} time buckets, so checking and counting a request takes constant
+ * time. As whole buckets expire, requests count for at least {@code (BUCKETS-1)/BUCKETS} and at most
+ * all of the time period.
  */
 class RequestLimiter {
 
-  // TODO: this only works if the period covered is larger than requestLimitPeriodInSeconds -
-  // we should add a sanity check that warns if that's not the case
-  static final int REQUEST_QUEUE_SIZE = 1000;
+  static final int BUCKETS = 10;
+  // keys not seen for a whole period are dropped anyway, this only protects against floods of new keys:
+  static final int MAX_KEYS = 200_000;
 
-  final List<RequestEvent> requestEvents = new CopyOnWriteArrayList<>();
+  private final Cache<String, SlidingWindow> windows;
+  private final long bucketMillis;
   
   private final int ipFingerprintFactor;
   private final List<String> whitelistUsers;
@@ -66,6 +74,12 @@ class RequestLimiter {
       this.ipRequestLimit = requestLimit;
       this.ipRequestLimitInBytes = requestLimitInBytes;
     }
+    this.bucketMillis = Math.max(1, requestLimitPeriodInSeconds * 1000L / BUCKETS);
+    this.windows = CacheBuilder.newBuilder()
+      .expireAfterAccess(Math.max(1, requestLimitPeriodInSeconds), TimeUnit.SECONDS)
+      .maximumSize(MAX_KEYS)
+      .recordStats()
+      .build();
     this.logger = DatabaseLogger.getInstance();
     if (this.logger.isLogging()) {
       DatabaseAccess db = DatabaseAccess.getInstance();
@@ -105,6 +119,14 @@ class RequestLimiter {
     return requestLimitPeriodInSeconds;
   }
 
+  /**
+   * The sliding windows by key, for monitoring.
+   * @since 5.3
+   */
+  Cache<String, SlidingWindow> getWindows() {
+    return windows;
+  }
+
   String computeFingerprint(Map<String, List<String>> httpHeader, Map<String, String> parameters) {
     List<String> empty = Collections.singletonList("");
     String separator = "|";
@@ -126,13 +148,41 @@ class RequestLimiter {
       return;
     }
     int reqSize = getRequestSize(params);
-    while (requestEvents.size() > REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
-    }
-    requestEvents.add(new RequestEvent(ipAddress, new Date(), reqSize, computeFingerprint(httpHeader, params), ServerTools.getMode(params)));
+    logRequest(ipAddress, reqSize, computeFingerprint(httpHeader, params), ServerTools.getMode(params));
     checkLimit(ipAddress, params, httpHeader);
   }
 
+  /**
+   * Count a request in the windows of its IP address and its fingerprint.
+   */
+  void logRequest(String ipAddress, int sizeInBytes, String fingerprint, JLanguageTool.Mode mode) {
+    // text level rules cause much less load, so count them accordingly
+    float modeFactor = mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? 0.1f : 1f;
+    long bucket = currentBucket();
+    getWindow(ipKey(ipAddress)).add(bucket, sizeInBytes * modeFactor);
+    getWindow(fingerprintKey(ipAddress, fingerprint)).add(bucket, sizeInBytes * modeFactor);
+  }
+
+  private SlidingWindow getWindow(String key) {
+    try {
+      return windows.get(key, () -> new SlidingWindow(BUCKETS));
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private long currentBucket() {
+    return System.currentTimeMillis() / bucketMillis;
+  }
+
+  private static String ipKey(String ipAddress) {
+    return "ip:" + ipAddress;
+  }
+
+  private static String fingerprintKey(String ipAddress, String fingerprint) {
+    return "fp:" + ipAddress + "|" + fingerprint;
+  }
+
   private int getRequestSize(Map<String, String> params) {
     String text = params.get("text");
     if (text != null) {
@@ -176,104 +226,107 @@ class RequestLimiter {
   }
 
   void checkLimit(String ipAddress, Map<String, String> parameters, Map<String, List<String>> httpHeader) {
-    int requestsByIp = 0;
-    int requestSizeByIp = 0;
-    int requestsByFingerprint = 0;
-    int requestSizeByFingerprint = 0;
-    // all requests before this date are considered old:
-    Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000L);
     String fingerprint = computeFingerprint(httpHeader, parameters);
-    String referer = getReferer(httpHeader);
-    String userAgent = getUserAgent(httpHeader);
-    Long clientId = getClientId(parameters);
+    long bucket = currentBucket();
+    SlidingWindow ipWindow = windows.getIfPresent(ipKey(ipAddress));
+    if (ipWindow == null) {
+      return;
+    }
+    int requestsByIp = ipWindow.getRequests(bucket);
+    double requestSizeByIp = ipWindow.getSize(bucket);
+    if (requestsByIp == 0) {
+      return;
+    }
     String user = parameters.get("username");
     boolean whitelistedUser = user != null && whitelistUsers.contains(user);
-    for (RequestEvent event : requestEvents) {
-      if (event.ip.equals(ipAddress) && event.date.after(thresholdDate)) {
-        // text level rules cause much less load, so count them accordingly
-        float modeFactor = event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? 0.1f : 1f;
-        requestsByIp++;
-        requestSizeByIp += event.getSizeInBytes() * modeFactor;
-        if (whitelistedUser) {
-          if (whitelistLimit <= 0 || requestsByIp < whitelistLimit) {
-            continue;
-          } else {
-            String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriodIp", server, clientId, null, msg, referer, userAgent));
-            throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
-        if (event.fingerprint.equals(fingerprint)) {
-          requestsByFingerprint++;
-          requestSizeByFingerprint += event.getSizeInBytes() * modeFactor;
-        }
-        if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
-          String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-          logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriodFingerprint", server, clientId, null, msg, referer, userAgent));
-          throw new TooManyRequestsException("Client request limit of " + requestLimit + " requests per " +
-            requestLimitPeriodInSeconds + " seconds exceeded"); }
-        if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
-          String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-          logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriodIp", server, clientId, null, msg, referer, userAgent));
-          throw new TooManyRequestsException("IP request limit of " + ipRequestLimit + " requests per " +
-            requestLimitPeriodInSeconds + " seconds exceeded");
-        }
-        if (event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
-          if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriodFingerprint", server, clientId, null, msg, referer, userAgent));
-            throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-          if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriodIp", server, clientId, null, msg, referer, userAgent));
-            throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-        } else {
-          if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
-            String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriodFingerprint", server, clientId, null, msg, referer, userAgent));
-            throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-          if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
-            String msg = "limit: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            logger.log(new DatabaseAccessLimitLogEntry("MaxRequestSizePerPeriodIp", server, clientId, null, msg, referer, userAgent));
-            throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
+    if (whitelistedUser) {
+      if (whitelistLimit <= 0 || requestsByIp < whitelistLimit) {
+        return;
       }
+      String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      logger.log(new DatabaseAccessLimitLogEntry("MaxRequestPerPeriodIp", server, getClientId(parameters), null, msg, getReferer(httpHeader), getUserAgent(httpHeader)));
+      throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
+    }
+    SlidingWindow fingerprintWindow = windows.getIfPresent(fingerprintKey(ipAddress, fingerprint));
+    int requestsByFingerprint = fingerprintWindow != null ? fingerprintWindow.getRequests(bucket) : 0;
+    double requestSizeByFingerprint = fingerprintWindow != null ? fingerprintWindow.getSize(bucket) : 0;
+    String limitType = null;
+    String msg = null;
+    String exceptionMsg = null;
+    // text level checks get a separate message, as their size counts less:
+    String textLevelInfo = ServerTools.getMode(parameters) == JLanguageTool.Mode.TEXTLEVEL_ONLY ? " in text-level checks" : "";
+    String limitPrefix = textLevelInfo.isEmpty() ? "limit: " : "limit in Mode.TEXTLEVEL_ONLY: ";
+    if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
+      limitType = "MaxRequestPerPeriodFingerprint";
+      msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      exceptionMsg = "Client request limit of " + requestLimit + " requests per " + requestLimitPeriodInSeconds + " seconds exceeded";
+    } else if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
+      limitType = "MaxRequestPerPeriodIp";
+      msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      exceptionMsg = "IP request limit of " + ipRequestLimit + " requests per " + requestLimitPeriodInSeconds + " seconds exceeded";
+    } else if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
+      limitType = "MaxRequestSizePerPeriodFingerprint";
+      msg = limitPrefix + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + (int) requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      exceptionMsg = "Client request size limit of " + requestLimitInBytes + " bytes per " + requestLimitPeriodInSeconds + " seconds exceeded" + textLevelInfo;
+    } else if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
+      limitType = "MaxRequestSizePerPeriodIp";
+      msg = limitPrefix + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + (int) requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
+      exceptionMsg = "IP request size limit of " + ipRequestLimitInBytes + " bytes per " + requestLimitPeriodInSeconds + " seconds exceeded" + textLevelInfo;
+    }
+    if (limitType != null) {
+      logger.log(new DatabaseAccessLimitLogEntry(limitType, server, getClientId(parameters), null, msg, getReferer(httpHeader), getUserAgent(httpHeader)));
+      throw new TooManyRequestsException(exceptionMsg);
     }
   }
-  
-  protected static class RequestEvent {
 
-    private final String ip;
-    private final Date date;
-    private final int sizeInBytes;
-    private final String fingerprint;
-    private final JLanguageTool.Mode mode;
+  /**
+   * Request count and size of one key in the last {@code buckets} time buckets. Buckets are
+   * re-used in a ring, a bucket is reset when it's used for a new time bucket.
+   */
+  static class SlidingWindow {
+
+    private final long[] bucketIds;
+    private final int[] requests;
+    private final double[] sizes;
 
-    RequestEvent(String ip, Date date, int sizeInBytes, String fingerprint, JLanguageTool.Mode mode) {
-      this.ip = ip;
-      this.date = new Date(date.getTime());
-      this.sizeInBytes = sizeInBytes;
-      this.fingerprint = fingerprint;
-      this.mode = mode;
+    SlidingWindow(int buckets) {
+      bucketIds = new long[buckets];
+      Arrays.fill(bucketIds, Long.MIN_VALUE);
+      requests = new int[buckets];
+      sizes = new double[buckets];
     }
 
-    protected Date getDate() {
-      return date;
+    synchronized void add(long bucketId, double size) {
+      int slot = (int) (bucketId % bucketIds.length);
+      if (bucketIds[slot] != bucketId) {
+        bucketIds[slot] = bucketId;
+        requests[slot] = 0;
+        sizes[slot] = 0;
+      }
+      requests[slot]++;
+      sizes[slot] += size;
     }
-    
-    int getSizeInBytes() {
-      return sizeInBytes;
+
+    synchronized int getRequests(long currentBucketId) {
+      int sum = 0;
+      for (int i = 0; i < bucketIds.length; i++) {
+        if (bucketIds[i] > currentBucketId - bucketIds.length) {
+          sum += requests[i];
+        }
+      }
+      return sum;
     }
 
+    synchronized double getSize(long currentBucketId) {
+      double sum = 0;
+      for (int i = 0; i < bucketIds.length; i++) {
+        if (bucketIds[i] > currentBucketId - bucketIds.length) {
+          sum += sizes[i];
+        }
+      }
+      return sum;
+    }
   }
 
 }
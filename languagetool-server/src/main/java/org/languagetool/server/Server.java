@@ -24,6 +24,8 @@ import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -45,10 +47,13 @@ abstract class Server {
             "127.0.0.1"
     ));
 
+  private static final String MAX_IDLE_CONNECTIONS_PROPERTY = "sun.net.httpserver.maxIdleConnections";
+
   protected int port;
   protected String host;
   protected HttpServer server;
   protected LanguageToolHttpHandler httpHandler;
+  protected ExecutorService checkExecutorService;  // only used in ServerMode.ASYNC
 
   private boolean isRunning;
 
@@ -71,6 +76,9 @@ abstract class Server {
     if (httpHandler != null) {
       httpHandler.shutdown();
     }
+    if (checkExecutorService != null) {
+      checkExecutorService.shutdownNow();
+    }
     if (server != null) {
       ServerTools.print("Stopping server...");
       server.stop(5);
@@ -96,8 +104,10 @@ abstract class Server {
     List<String> requestLimitWhitelistUsers = config.getRequestLimitWhitelistUsers();
     int requestLimitWhitelistLimit = config.getRequestLimitWhitelistLimit();
     if ((requestLimit > 0 || requestLimitInBytes > 0) && requestLimitPeriodInSeconds > 0) {
-      return new RequestLimiter(requestLimit, requestLimitInBytes, requestLimitPeriodInSeconds, ipFingerprintFactor,
+      RequestLimiter limiter = new RequestLimiter(requestLimit, requestLimitInBytes, requestLimitPeriodInSeconds, ipFingerprintFactor,
         requestLimitWhitelistUsers, requestLimitWhitelistLimit);
+      ServerMetricsCollector.getInstance().monitorCache("languagetool_request_limiter_windows", limiter.getWindows());
+      return limiter;
     }
     return null;
   }
@@ -107,7 +117,9 @@ abstract class Server {
     int requestLimit = config.getTimeoutRequestLimit();
     int requestLimitPeriodInSeconds = config.getRequestLimitPeriodInSeconds();
     if (requestLimit > 0 && requestLimitPeriodInSeconds > 0) {
-      return new ErrorRequestLimiter(requestLimit, requestLimitPeriodInSeconds);
+      ErrorRequestLimiter limiter = new ErrorRequestLimiter(requestLimit, requestLimitPeriodInSeconds);
+      ServerMetricsCollector.getInstance().monitorCache("languagetool_error_request_limiter_windows", limiter.getWindows());
+      return limiter;
     }
     return null;
   }
@@ -127,6 +139,9 @@ abstract class Server {
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
     System.out.println("                 'cacheSize' - size of internal cache in number of sentences (optional, default: 0)");
     System.out.println("                 'cacheTTLSeconds' - how many seconds sentences are kept in cache (optional, default: 300 if 'cacheSize' is set)");
+    System.out.println("                 'sharedCacheDir' - directory to share cached sentence matches with other servers using the same directory,\n" +
+                       "                                    e.g. on a network file system; entries are deleted after 'cacheTTLSeconds'\n" +
+                       "                                    (optional, requires 'cacheSize')");
     System.out.println("                 'requestLimit' - maximum number of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'requestLimitInBytes' - maximum aggregated size of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'timeoutRequestLimit' - maximum number of timeout request (optional)");
@@ -137,9 +152,18 @@ abstract class Server {
     System.out.println("                  https://github.com/languagetool-org/languagetool/blob/master/languagetool-standalone/CHANGES.md#word2vec");
     System.out.println("                 'fasttextModel' - a model file for better language detection (optional), see");
     System.out.println("                  https://fasttext.cc/docs/en/language-identification.html");
+    System.out.println("                  (a .bin model is run in-process, so 'fasttextBinary' is only needed for other models)");
     System.out.println("                 'fasttextBinary' - compiled fasttext executable for language detection (optional), see");
     System.out.println("                  https://fasttext.cc/docs/en/support.html");
     System.out.println("                 'maxWorkQueueSize' - reject request if request queue gets larger than this (optional)");
+    System.out.println("                 'serverMode' - 'threads' (default) or 'async': read requests on a few I/O threads and run the checks");
+    System.out.println("                  on 'maxCheckThreads' separate threads, so idle keep-alive connections don't need a thread (optional);");
+    System.out.println("                  start Java with -D" + MAX_IDLE_CONNECTIONS_PROPERTY + "=20000 or similar to keep them open");
+    System.out.println("                 'ioThreads' - number of threads reading requests in 'async' mode (optional, default: number of cores)");
+    System.out.println("                 'admissionLatencyTargetMillis' - estimate the latency of each check from the current load and skip remote rules");
+    System.out.println("                  for checks that would take longer, or reject them if they would take much longer (optional)");
+    System.out.println("                 'pipelineWarmPoolSize' - with 'pipelineCaching', keep this many unused pipelines ready for each of the");
+    System.out.println("                  most frequently requested settings, built in the background (optional, default: 0 = off)");
     System.out.println("                 'rulesFile' - a file containing rules configuration, such as .langugagetool.cfg (optional)");
     System.out.println("                 'warmUp' - set to 'true' to warm up server at start, i.e. run a short check with all languages (optional)");
     System.out.println("                 'blockedReferrers' - a comma-separated list of HTTP referrers (and 'Origin' headers) that are blocked and will not be served (optional)");
@@ -175,6 +199,37 @@ abstract class Server {
     }
   }
   
+  /**
+   * The JDK's {@link HttpServer} reads its idle connection limit from a system property once per JVM,
+   * so it can only be set on the command line. Warns if it's not set in {@link HTTPServerConfig.ServerMode#ASYNC} mode.
+   * @since 5.3
+   */
+  protected static void checkServerMode(HTTPServerConfig config) {
+    if (config.getServerMode() == HTTPServerConfig.ServerMode.ASYNC && System.getProperty(MAX_IDLE_CONNECTIONS_PROPERTY) == null) {
+      // the default of 200 would close most idle editor connections:
+      ServerTools.print("WARNING: 'async' mode works best with many idle keep-alive connections, consider starting Java with " +
+        "-D" + MAX_IDLE_CONNECTIONS_PROPERTY + "=20000 (default: 200)");
+    }
+  }
+
+  /**
+   * Register the handler at {@link #server} and create the executor that the server needs to be set to.
+   * In {@link HTTPServerConfig.ServerMode#ASYNC} mode, that executor only reads requests and the checks
+   * run on {@link #checkExecutorService}, whose queue is {@code workQueue}.
+   * @since 5.3
+   */
+  protected ExecutorService setUpHandler(LinkedBlockingQueue<Runnable> workQueue, HTTPServerConfig config) {
+    if (config.getServerMode() == HTTPServerConfig.ServerMode.ASYNC) {
+      checkExecutorService = getExecutorService(workQueue, config);
+      server.createContext("/", new AsyncHttpHandler(httpHandler, checkExecutorService, workQueue, config));
+      ServerTools.print("Setting up " + config.getIoThreads() + " I/O threads");
+      return Executors.newFixedThreadPool(config.getIoThreads(),
+        new ThreadFactoryBuilder().setNameFormat("lt-server-io-thread-%d").build());
+    }
+    server.createContext("/", httpHandler);
+    return getExecutorService(workQueue, config);
+  }
+
   protected ThreadPoolExecutor getExecutorService(LinkedBlockingQueue<Runnable> workQueue, HTTPServerConfig config) {
     int threadPoolSize = config.getMaxCheckThreads();
     ServerTools.print("Setting up thread pool with " + threadPoolSize + " threads");
@@ -19,7 +19,10 @@
 package org.languagetool.server;
 
 import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import io.prometheus.client.Collector;
 import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.Histogram;
 import io.prometheus.client.exporter.HTTPServer;
@@ -27,8 +30,15 @@ import io.prometheus.client.guava.cache.CacheMetricsCollector;
 import io.prometheus.client.hotspot.DefaultExports;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
+import org.languagetool.ResultCache;
+import org.languagetool.languagemodel.BaseLanguageModel;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ServerMetricsCollector {
 
@@ -39,7 +49,8 @@ public class ServerMetricsCollector {
     TOO_MANY_ERRORS,
     MAX_CHECK_TIME,
     MAX_TEXT_SIZE,
-    INVALID_REQUEST
+    INVALID_REQUEST,
+    OVERLOADED
   }
 
   private static final double[] LATENCY_BUCKETS = {
@@ -55,6 +66,17 @@ public class ServerMetricsCollector {
     10, 100, 500, 1000, 2500, 5000, 7500, 10000, 20000, 50000
   };
 
+  // per-rule run times are much shorter than check times, and there are thousands of rules,
+  // so keep the number of buckets small
+  private static final double[] RULE_LATENCY_BUCKETS = {
+    0.0001, 0.001, 0.01, .1, 1.
+  };
+
+  // database incidents can delay logging for minutes
+  private static final double[] DATABASE_LOG_LATENCY_BUCKETS = {
+    .1, .5, 1., 2.5, 5., 10., 30., 60., 300.
+  };
+
   private static final ServerMetricsCollector collector = new ServerMetricsCollector();
   
   private static HTTPServer server;
@@ -110,8 +132,39 @@ public class ServerMetricsCollector {
     .build("languagetool_hidden_matches_server_requests_total", "Number of hidden server requests by status")
     .labelNames("status").register();
 
+  // only observed for the sample of sentences measured by RuleProfiler
+  private final Histogram ruleLatency = Histogram
+    .build("languagetool_rule_latency_seconds", "Histogram of sampled rule run times")
+    .buckets(RULE_LATENCY_BUCKETS).labelNames("rule_id").register();
+  private final Counter ruleMatchCounter = Counter
+    .build("languagetool_rule_sampled_matches_total", "Matches of sampled rule runs")
+    .labelNames("rule_id").register();
+  private final Counter ruleAllocationCounter = Counter
+    .build("languagetool_rule_sampled_allocated_bytes_total", "Memory allocated by sampled rule runs")
+    .labelNames("rule_id").register();
+
+  private final Counter pipelineRequestCounter = Counter
+    .build("languagetool_pipeline_requests_total", "Pipeline requests by result (hit: a prepared pipeline was available)")
+    .labelNames("result").register();
+  private final Histogram pipelineCreationTime = Histogram
+    .build("languagetool_pipeline_creation_seconds", "Histogram of pipeline creation times")
+    .buckets(LATENCY_BUCKETS).labelNames("source").register();
+
+  private final Gauge databaseLogQueueSize = Gauge
+    .build("languagetool_database_log_queue_size", "Log entries waiting to be written to the database").register();
+  private final Counter databaseLogEntries = Counter
+    .build("languagetool_database_log_entries_total", "Database log entries by result (written, sampled_out, dropped, failed)")
+    .labelNames("result").register();
+  private final Histogram databaseLogLatency = Histogram
+    .build("languagetool_database_log_latency_seconds", "Histogram of the time from queueing the oldest entry of a batch until it was committed")
+    .buckets(DATABASE_LOG_LATENCY_BUCKETS).register();
+
   private final CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
 
+  private final ResultCacheTierCollector resultCacheTierMetrics = new ResultCacheTierCollector().register();
+
+  private final NgramCountCacheCollector ngramCountCacheMetrics = new NgramCountCacheCollector().register();
+
 
   public static void init(int port) throws IOException {
     DefaultExports.initialize();
@@ -130,6 +183,21 @@ public class ServerMetricsCollector {
     cacheMetrics.addCache(name, cache);
   }
 
+  /**
+   * Export hits and misses of the sentence matches cache per tier (local and shared).
+   */
+  public void monitorResultCacheTiers(ResultCache cache) {
+    resultCacheTierMetrics.cache = cache;
+  }
+
+  /**
+   * Export hits and misses of the ngram count cache of a language's language model.
+   * Only the first model registered for a language is monitored.
+   */
+  public void monitorNgramCountCache(String language, BaseLanguageModel languageModel) {
+    ngramCountCacheMetrics.languageModels.putIfAbsent(language, languageModel);
+  }
+
   public void logHiddenServerConfiguration(boolean enabled) {
     hiddenMatchesServerEnabled.set(enabled ? 1.0 : 0.0);
   }
@@ -174,6 +242,36 @@ public class ServerMetricsCollector {
     checkSpeed.labels("", modeLabel).observe(speed);
   }
 
+  public void logPipelineRequest(boolean hit) {
+    pipelineRequestCounter.labels(hit ? "hit" : "miss").inc();
+  }
+
+  /**
+   * @param prewarmed whether the pipeline was created in the background, ahead of a request
+   */
+  public void logPipelineCreation(long milliseconds, boolean prewarmed) {
+    pipelineCreationTime.labels(prewarmed ? "prewarm" : "request").observe(milliseconds / 1000.0);
+  }
+
+  public void logDatabaseLogQueueSize(int size) {
+    databaseLogQueueSize.set(size);
+  }
+
+  public void logDatabaseLogEntries(String result, int count) {
+    databaseLogEntries.labels(result).inc(count);
+  }
+
+  public void logDatabaseLogBatch(int count, long maxLatencyMillis) {
+    databaseLogEntries.labels("written").inc(count);
+    databaseLogLatency.observe(maxLatencyMillis / 1000.0);
+  }
+
+  public void logRuleProfile(String ruleId, long nanoseconds, long allocatedBytes, int matchCount) {
+    ruleLatency.labels(ruleId).observe(nanoseconds / 1e9);
+    ruleMatchCounter.labels(ruleId).inc(matchCount);
+    ruleAllocationCounter.labels(ruleId).inc(allocatedBytes);
+  }
+
   public void logRequestError(RequestErrorType type) {
     requestErrorCounter.labels(type.name().toLowerCase()).inc();
   }
@@ -190,4 +288,48 @@ public class ServerMetricsCollector {
     failedHealthcheckCounter.inc();
   }
 
+  private static class ResultCacheTierCollector extends Collector {
+
+    private volatile ResultCache cache;
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      ResultCache cache = this.cache;
+      if (cache == null) {
+        return Collections.emptyList();
+      }
+      CounterMetricFamily requests = new CounterMetricFamily("languagetool_result_cache_requests_total",
+        "Sentence match cache lookups by tier and result", Arrays.asList("tier", "result"));
+      CacheStats localStats = cache.getMatchesCache().stats();
+      requests.addMetric(Arrays.asList("local", "hit"), localStats.hitCount());
+      requests.addMetric(Arrays.asList("local", "miss"), localStats.missCount());
+      requests.addMetric(Arrays.asList("shared", "hit"), cache.getSharedHitCount());
+      requests.addMetric(Arrays.asList("shared", "miss"), cache.getSharedMissCount());
+      requests.addMetric(Arrays.asList("shared", "error"), cache.getSharedErrorCount());
+      CounterMetricFamily droppedWrites = new CounterMetricFamily("languagetool_result_cache_shared_dropped_writes_total",
+        "Writes to the shared result cache tier skipped because too many were pending", Collections.emptyList());
+      droppedWrites.addMetric(Collections.emptyList(), cache.getSharedDroppedWriteCount());
+      return Arrays.asList(requests, droppedWrites);
+    }
+  }
+
+  private static class NgramCountCacheCollector extends Collector {
+
+    private final Map<String, BaseLanguageModel> languageModels = new ConcurrentHashMap<>();
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      if (languageModels.isEmpty()) {
+        return Collections.emptyList();
+      }
+      CounterMetricFamily requests = new CounterMetricFamily("languagetool_ngram_count_cache_requests_total",
+        "Ngram count cache lookups of the language models by language and result", Arrays.asList("language", "result"));
+      for (Map.Entry<String, BaseLanguageModel> entry : languageModels.entrySet()) {
+        requests.addMetric(Arrays.asList(entry.getKey(), "hit"), entry.getValue().getCountCacheHitCount());
+        requests.addMetric(Arrays.asList(entry.getKey(), "miss"), entry.getValue().getCountCacheMissCount());
+      }
+      return Collections.singletonList(requests);
+    }
+  }
+
 }
@@ -27,6 +27,7 @@ import java.io.PrintStream;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.regex.Pattern;
@@ -126,6 +127,26 @@ final class ServerTools {
     setAllowOrigin(httpExchange, allowOriginUrl);
   }
 
+  /**
+   * Whether the client accepts a gzip-compressed response.
+   * @since 5.3
+   */
+  static boolean acceptsGzip(HttpExchange httpExchange) {
+    List<String> values = httpExchange.getRequestHeaders().get("Accept-Encoding");
+    if (values != null) {
+      for (String value : values) {
+        for (String encoding : value.split(",")) {
+          String[] nameAndParams = encoding.split(";");
+          if (nameAndParams[0].trim().equalsIgnoreCase("gzip")) {
+            // "gzip;q=0" means the client explicitly doesn't accept gzip
+            return nameAndParams.length == 1 || !nameAndParams[1].trim().matches("q=0(\\.0*)?");
+          }
+        }
+      }
+    }
+    return false;
+  }
+
   static void setAllowOrigin(HttpExchange httpExchange, String allowOriginUrl) {
     if (allowOriginUrl != null) {
       httpExchange.getResponseHeaders().set("Access-Control-Allow-Origin", allowOriginUrl);
@@ -34,21 +34,28 @@ import org.languagetool.rules.CategoryId;
 import org.languagetool.rules.DictionaryMatchFilter;
 import org.languagetool.rules.RemoteRule;
 import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.RuleProfiler;
 import org.languagetool.rules.bitext.BitextRule;
+import org.languagetool.rules.spelling.morfologik.MorfologikMultiSpeller;
 import org.languagetool.rules.spelling.morfologik.suggestions_ordering.SuggestionsOrdererConfig;
 import org.languagetool.tools.Tools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * @since 3.4
@@ -58,10 +65,21 @@ abstract class TextChecker {
   private static final int PINGS_CLEAN_MILLIS = 60 * 1000;  // internal pings database will be cleaned this often
   private static final int PINGS_MAX_SIZE = 5000;
   private static final int NGRAM_THRESHOLD = 50;
+  private static final int DELTA_MAX_SESSIONS = 10_000;
+  private static final int DELTA_SESSION_EXPIRE_MINUTES = 30;
+  private static final int RESPONSE_BUFFER_SIZE = 8192;
+  private static final long STREAM_INTERVAL_MILLIS = 50;
+  static final String STREAM_NDJSON = "ndjson";
+  static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+  /** Exchange attribute that holds the stream of an NDJSON response, so errors can be written to it, too. */
+  static final String STREAM_OUT_ATTRIBUTE = "org.languagetool.server.streamOut";
 
   protected abstract void setHeaders(HttpExchange httpExchange);
-  protected abstract String getResponse(AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
-                                        List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint);
+  protected abstract void writeResponse(OutputStream out, AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue,
+                                        List<RuleMatch> matches, List<RuleMatch> hiddenMatches, @Nullable IncrementalChecker.Delta delta,
+                                        String incompleteResultReason, int compactMode, boolean showPremiumHint) throws IOException;
+  protected abstract void writePartialMatches(OutputStream out, AnnotatedText text, Language language, List<RuleMatch> matches,
+                                              int compactMode) throws IOException;
   @NotNull
   protected abstract List<String> getPreferredVariants(Map<String, String> parameters);
   protected abstract DetectedLanguage getLanguage(String text, Map<String, String> parameters, List<String> preferredVariants,
@@ -92,6 +110,8 @@ abstract class TextChecker {
   private long hiddenMatchesServerFailures = 0;
   private final LanguageIdentifier fastTextIdentifier;
   private final ExecutorService executorService;
+  // cancels checks that run on the request's own thread, see runOnCurrentThread():
+  private final ScheduledExecutorService timeoutScheduler;
   private final ResultCache cache;
   private final DatabaseLogger databaseLogger;
   private final Long logServerId;
@@ -99,6 +119,9 @@ abstract class TextChecker {
   private final Set<DatabasePingLogEntry> pings = new HashSet<>();
   private long pingsCleanDateMillis = System.currentTimeMillis();
   private LanguageIdentifier ngramIdentifier = null;
+  private final RuleProfiler ruleProfiler;
+  private final IncrementalChecker incrementalChecker = new IncrementalChecker(DELTA_MAX_SESSIONS, DELTA_SESSION_EXPIRE_MINUTES);
+  private final AdmissionController admissionController;
   PipelinePool pipelinePool; // mocked in test -> package-private / not final
 
   TextChecker(HTTPServerConfig config, boolean internalServer, Queue<Runnable> workQueue, RequestCounter reqCounter) {
@@ -112,8 +135,15 @@ abstract class TextChecker {
       this.ngramIdentifier.enableNgrams(config.getNgramLangIdentData());
     }
     this.executorService = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("lt-textchecker-thread-%d").build());
+    this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setNameFormat("lt-textchecker-timeout-%d").setDaemon(true).build());
+    this.admissionController = config.getAdmissionLatencyTargetMillis() > 0 ?
+      new AdmissionController(config.getAdmissionLatencyTargetMillis(), config.getMaxCheckThreads(),
+        config.getRemoteRulesConfigFile() != null) : null;
     this.cache = config.getCacheSize() > 0 ? new ResultCache(
-      config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+      config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS,
+      config.getSharedCacheDir() != null ?
+        new FileSharedResultCache(config.getSharedCacheDir(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null) : null;
     this.databaseLogger = DatabaseLogger.getInstance();
     if (databaseLogger.isLogging()) {
       this.logServerId = DatabaseAccess.getInstance().getOrCreateServerId();
@@ -122,15 +152,24 @@ abstract class TextChecker {
     }
 
     ServerMetricsCollector.getInstance().logHiddenServerConfiguration(config.getHiddenMatchesServer() != null);
+    ServerMetricsCollector.getInstance().monitorCache("languagetool_spelling_suggestions_cache", MorfologikMultiSpeller.getSuggestionCache());
 
     if (cache != null) {
       ServerMetricsCollector.getInstance().monitorCache("languagetool_matches_cache", cache.getMatchesCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_sentences_cache", cache.getSentenceCache());
       ServerMetricsCollector.getInstance().monitorCache("languagetool_remote_matches_cache", cache.getRemoteMatchesCache());
+      ServerMetricsCollector.getInstance().monitorResultCacheTiers(cache);
     }
 
-    pipelinePool = new PipelinePool(config, cache, internalServer);
+    if (config.getRuleProfilingSampleRate() > 0) {
+      this.ruleProfiler = new RuleProfiler(config.getRuleProfilingSampleRate());
+      this.ruleProfiler.addListener(ServerMetricsCollector.getInstance()::logRuleProfile);
+    } else {
+      this.ruleProfiler = null;
+    }
+
+    pipelinePool = new PipelinePool(config, cache, internalServer, ruleProfiler);
     if (config.isPipelinePrewarmingEnabled()) {
       logger.info("Prewarming pipelines...");
       prewarmPipelinePool();
@@ -193,8 +232,26 @@ abstract class TextChecker {
     }
   }
 
+  /**
+   * @return the profiler all pipelines record rule run times to, or {@code null} if rule profiling is disabled
+   */
+  @Nullable
+  RuleProfiler getRuleProfiler() {
+    return ruleProfiler;
+  }
+
+  /**
+   * @return the controller that admits checks by their projected latency, or {@code null} if admission control is disabled
+   */
+  @Nullable
+  AdmissionController getAdmissionController() {
+    return admissionController;
+  }
+
   void shutdownNow() {
     executorService.shutdownNow();
+    timeoutScheduler.shutdownNow();
+    pipelinePool.shutdown();
     RemoteRule.shutdown();
   }
 
@@ -362,75 +419,140 @@ abstract class TextChecker {
 
     int textSize = aText.getPlainText().length();
 
-    List<RuleMatch> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
+    // delta mode: only return what changed since the previous check of the same text session
+    boolean deltaMode = "true".equals(parameters.get("delta")) && textSessionId != null && mode == JLanguageTool.Mode.ALL &&
+      parameters.get("sourceText") == null && "false".equals(parameters.getOrDefault("multilingual", "false"));
+    AtomicReference<IncrementalChecker.Delta> deltaResult = deltaMode ? new AtomicReference<>() : null;
+    // text session ids are chosen by the client, so sessions are scoped to the user or, if anonymous, the remote address:
+    String deltaSessionOwner = limits.getPremiumUid() != null ? "user:" + limits.getPremiumUid() : "addr:" + remoteAddress;
 
-    Future<List<RuleMatch>> future = executorService.submit(new Callable<List<RuleMatch>>() {
-      @Override
-      public List<RuleMatch> call() throws Exception {
-        // use to fake OOM in thread for testing:
-        /*if (Math.random() < 0.1) {
-          throw new OutOfMemoryError();
-        }*/
-        return getRuleMatches(aText, lang, motherTongue, parameters, params, userConfig, detLang, preferredLangs, preferredVariants, f -> ruleMatchesSoFar.add(f));
+    int compactMode = Integer.parseInt(parameters.getOrDefault("c", "0"));
+    // stream mode: send the matches found so far as one JSON object per line while checking, then the complete result
+    OutputStream streamOut = null;
+    if (STREAM_NDJSON.equals(parameters.get("stream"))) {
+      setHeaders(httpExchange);
+      httpExchange.getResponseHeaders().set("Content-Type", NDJSON_CONTENT_TYPE);
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      streamOut = new BufferedOutputStream(httpExchange.getResponseBody(), RESPONSE_BUFFER_SIZE);
+      httpExchange.setAttribute(STREAM_OUT_ATTRIBUTE, streamOut);
+    }
+
+    AdmissionController.Ticket admission = null;
+    if (admissionController != null && !limits.getSkipLimits()) {
+      admission = admissionController.admit(lang, textSize, mode, level, limits.getPremiumUid() != null);
+      if (admission == null) {
+        ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.OVERLOADED);
+        throw new OverloadedException("The server is too busy to check " + textSize + " characters in time. Please try again later.");
       }
-    });
+    }
+    AdmissionController.Ticket finalAdmission = admission;
+    boolean checkRemoteRules = admission == null || !admission.isDegraded();
+
+    // set once the check runs, from then on the check releases its admission cost itself:
+    AtomicBoolean checkStarted = new AtomicBoolean();
+    List<RuleMatch> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
     String incompleteResultReason = null;
     List<RuleMatch> matches;
+    // in async mode, the request already has its own thread from the bounded check pool, so use that
+    // instead of waiting for another one (stream mode needs it to send the matches found so far):
+    boolean checkOnCurrentThread = config.getServerMode() == HTTPServerConfig.ServerMode.ASYNC && streamOut == null;
+    Future<List<RuleMatch>> future = null;
     try {
-      if (limits.getMaxCheckTimeMillis() < 0) {
-        matches = future.get();
-      } else {
-        matches = future.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
-      }
-    } catch (ExecutionException e) {
-      future.cancel(true);
-      if (ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
-        ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.TOO_MANY_ERRORS);
-        databaseLogger.log(new DatabaseCheckErrorLogEntry("ErrorRateTooHigh", logServerId, agentId, userId, lang, detLang.getDetectedLanguage(), textSize, "matches: " + ruleMatchesSoFar.size()));
-      }
-      if (params.allowIncompleteResults && ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
-        logger.warn(e.getMessage() + " - returning " + ruleMatchesSoFar.size() + " matches found so far. " +
-          "Detected language: " + detLang + ", " + ServerTools.getLoggingInfo(remoteAddress, null, -1, httpExchange,
-          parameters, System.currentTimeMillis()-timeStart, reqCounter));
-        matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
-        incompleteResultReason = "Results are incomplete: " + ExceptionUtils.getRootCause(e).getMessage();
-      } else if (e.getCause() != null && e.getCause() instanceof OutOfMemoryError) {
-        throw (OutOfMemoryError)e.getCause();
-      } else {
-        throw new RuntimeException(ServerTools.cleanUserTextFromMessage(e.getMessage(), parameters) + ", detected: " + detLang, e);
-      }
-    } catch (TimeoutException e) {
-      boolean cancelled = future.cancel(true);
-      Path loadFile = Paths.get("/proc/loadavg");  // works in Linux only(?)
-      String loadInfo = loadFile.toFile().exists() ? Files.readAllLines(loadFile).toString() : "(unknown)";
-      if (errorRequestLimiter != null) {
-        errorRequestLimiter.logAccess(remoteAddress, httpExchange.getRequestHeaders(), parameters);
-      }
-      String message = "Text checking took longer than allowed maximum of " + limits.getMaxCheckTimeMillis() +
-                       " milliseconds (cancelled: " + cancelled +
-                       ", lang: " + lang.getShortCodeWithCountryAndVariant() +
-                       ", detected: " + detLang +
-                       ", #" + count +
-                       ", " + aText.getPlainText().length() + " characters of text" +
-                       ", mode: " + mode.toString().toLowerCase() +
-                       ", h: " + reqCounter.getHandleCount() +
-                       ", r: " + reqCounter.getRequestCount() +
-                       ", requestId: " + requestId +
-                       ", system load: " + loadInfo + ")";
-      if (params.allowIncompleteResults) {
-        logger.info(message + " - returning " + ruleMatchesSoFar.size() + " matches found so far");
-        matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
-        incompleteResultReason = "Results are incomplete: text checking took longer than allowed maximum of " +
-                String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis()/1000.0) + " seconds";
-      } else {
-        ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.MAX_CHECK_TIME);
-        databaseLogger.log(new DatabaseCheckErrorLogEntry("MaxCheckTimeExceeded",
-          logServerId, agentId, limits.getPremiumUid(), lang, detLang.getDetectedLanguage(), textSize, "load: "+ loadInfo));
-        throw new RuntimeException(message, e);
+      Callable<List<RuleMatch>> check = new Callable<List<RuleMatch>>() {
+        @Override
+        public List<RuleMatch> call() throws Exception {
+          // use to fake OOM in thread for testing:
+          /*if (Math.random() < 0.1) {
+            throw new OutOfMemoryError();
+          }*/
+          checkStarted.set(true);
+          long checkStart = System.currentTimeMillis();
+          try {
+            return getRuleMatches(aText, lang, motherTongue, parameters, params, userConfig, detLang, preferredLangs, preferredVariants,
+              f -> ruleMatchesSoFar.add(f), deltaResult, deltaSessionOwner, checkRemoteRules);
+          } finally {
+            // release the cost only now, as the check can keep running after a timeout:
+            if (finalAdmission != null) {
+              finalAdmission.done(textSize, System.currentTimeMillis() - checkStart);
+            }
+          }
+        }
+      };
+      future = checkOnCurrentThread ? new FutureTask<>(check) : executorService.submit(check);
+      try {
+        if (streamOut != null) {
+          matches = getMatchesStreaming(future, limits.getMaxCheckTimeMillis(), ruleMatchesSoFar, streamOut, aText, lang, compactMode);
+        } else if (checkOnCurrentThread) {
+          matches = runOnCurrentThread((FutureTask<List<RuleMatch>>) future, limits.getMaxCheckTimeMillis());
+        } else if (limits.getMaxCheckTimeMillis() < 0) {
+          matches = future.get();
+        } else {
+          matches = future.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+      } catch (ExecutionException e) {
+        future.cancel(true);
+        if (deltaMode) {
+          incrementalChecker.forget(deltaSessionOwner, textSessionId);
+        }
+        if (ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
+          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.TOO_MANY_ERRORS);
+          databaseLogger.log(new DatabaseCheckErrorLogEntry("ErrorRateTooHigh", logServerId, agentId, userId, lang, detLang.getDetectedLanguage(), textSize, "matches: " + ruleMatchesSoFar.size()));
+        }
+        if (params.allowIncompleteResults && ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
+          logger.warn(e.getMessage() + " - returning " + ruleMatchesSoFar.size() + " matches found so far. " +
+            "Detected language: " + detLang + ", " + ServerTools.getLoggingInfo(remoteAddress, null, -1, httpExchange,
+            parameters, System.currentTimeMillis()-timeStart, reqCounter));
+          matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
+          incompleteResultReason = "Results are incomplete: " + ExceptionUtils.getRootCause(e).getMessage();
+        } else if (e.getCause() != null && e.getCause() instanceof OutOfMemoryError) {
+          throw (OutOfMemoryError)e.getCause();
+        } else {
+          throw new RuntimeException(ServerTools.cleanUserTextFromMessage(e.getMessage(), parameters) + ", detected: " + detLang, e);
+        }
+      } catch (TimeoutException e) {
+        boolean cancelled = future.cancel(true) || future.isCancelled();
+        if (deltaMode) {
+          // the client won't get the result the session would be compared to next time
+          incrementalChecker.forget(deltaSessionOwner, textSessionId);
+        }
+        Path loadFile = Paths.get("/proc/loadavg");  // works in Linux only(?)
+        String loadInfo = loadFile.toFile().exists() ? Files.readAllLines(loadFile).toString() : "(unknown)";
+        if (errorRequestLimiter != null) {
+          errorRequestLimiter.logAccess(remoteAddress, httpExchange.getRequestHeaders(), parameters);
+        }
+        String message = "Text checking took longer than allowed maximum of " + limits.getMaxCheckTimeMillis() +
+                         " milliseconds (cancelled: " + cancelled +
+                         ", lang: " + lang.getShortCodeWithCountryAndVariant() +
+                         ", detected: " + detLang +
+                         ", #" + count +
+                         ", " + aText.getPlainText().length() + " characters of text" +
+                         ", mode: " + mode.toString().toLowerCase() +
+                         ", h: " + reqCounter.getHandleCount() +
+                         ", r: " + reqCounter.getRequestCount() +
+                         ", requestId: " + requestId +
+                         ", system load: " + loadInfo + ")";
+        if (params.allowIncompleteResults) {
+          logger.info(message + " - returning " + ruleMatchesSoFar.size() + " matches found so far");
+          matches = new ArrayList<>(ruleMatchesSoFar);  // threads might still be running, so make a copy
+          incompleteResultReason = "Results are incomplete: text checking took longer than allowed maximum of " +
+                  String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis()/1000.0) + " seconds";
+        } else {
+          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.MAX_CHECK_TIME);
+          databaseLogger.log(new DatabaseCheckErrorLogEntry("MaxCheckTimeExceeded",
+            logServerId, agentId, limits.getPremiumUid(), lang, detLang.getDetectedLanguage(), textSize, "load: "+ loadInfo));
+          throw new RuntimeException(message, e);
+        }
+      }
+    } finally {
+      // the check never ran (e.g. the task was rejected or cancelled before it started), so release its cost here:
+      if (finalAdmission != null && !checkStarted.get() && (future == null || future.isCancelled() || future.cancel(false))) {
+        finalAdmission.release();
       }
     }
 
-    setHeaders(httpExchange);
+    if (streamOut == null) {
+      setHeaders(httpExchange);
+    }
 
     List<RuleMatch> hiddenMatches = new ArrayList<>();
     if (config.getHiddenMatchesServer() != null && params.enableHiddenRules &&
@@ -466,18 +588,42 @@ abstract class TextChecker {
         }
       }
     }
-    int compactMode = Integer.parseInt(parameters.getOrDefault("c", "0"));
-    String response = getResponse(aText, lang, detLang, motherTongue, matches, hiddenMatches, incompleteResultReason, compactMode, limits.getPremiumUid() == null);
-    if (params.callback != null) {
-      // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
-      // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
-      response = params.callback + "(" + response + ");";
+    if (deltaMode && config.getRemoteRulesConfigFile() != null && incompleteResultReason == null) {
+      // the incremental check doesn't run remote rules, not even on the changed paragraphs:
+      incompleteResultReason = "Results are incomplete: remote rules are not run in delta mode";
+    } else if (!checkRemoteRules && !deltaMode && incompleteResultReason == null) {
+      incompleteResultReason = "Results are incomplete: some rules were skipped because the server is busy";
     }
+    IncrementalChecker.Delta delta = deltaResult != null ? deltaResult.get() : null;
     String messageSent = "sent";
     String languageMessage = lang.getShortCodeWithCountryAndVariant();
     try {
-      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      OutputStream out;
+      if (streamOut != null) {
+        out = streamOut;  // headers have already been sent
+      } else {
+        // write the response while it's being serialized (chunked), long results would otherwise be copied several times:
+        boolean gzip = ServerTools.acceptsGzip(httpExchange);
+        if (gzip) {
+          httpExchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+        out = gzip ? new GZIPOutputStream(httpExchange.getResponseBody(), RESPONSE_BUFFER_SIZE)
+                   : new BufferedOutputStream(httpExchange.getResponseBody(), RESPONSE_BUFFER_SIZE);
+      }
+      if (params.callback != null) {
+        // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
+        // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
+        out.write((params.callback + "(").getBytes(ENCODING));
+      }
+      writeResponse(out, aText, lang, detLang, motherTongue, matches, hiddenMatches, delta, incompleteResultReason, compactMode, limits.getPremiumUid() == null);
+      if (params.callback != null) {
+        out.write(");".getBytes(ENCODING));
+      }
+      if (streamOut != null) {
+        out.write('\n');
+      }
+      out.close();
       ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
     } catch (IOException exception) {
       // the client is disconnected
@@ -560,6 +706,67 @@ abstract class TextChecker {
     return db.getUserDictWords(userId);
   }
 
+  /**
+   * Wait for the check to finish and meanwhile send the matches found so far every {@link #STREAM_INTERVAL_MILLIS}
+   * milliseconds, one line per batch. These partial matches come directly from the rules, so unlike the final
+   * result they have not been filtered yet (e.g. for overlapping matches).
+   */
+  /**
+   * Run the check on the calling thread and interrupt it once it takes longer than allowed.
+   * @throws TimeoutException if the check was cancelled because of the time limit
+   */
+  private List<RuleMatch> runOnCurrentThread(FutureTask<List<RuleMatch>> task, long maxCheckTimeMillis)
+                                            throws InterruptedException, ExecutionException, TimeoutException {
+    ScheduledFuture<?> timeout = maxCheckTimeMillis < 0 ? null :
+      timeoutScheduler.schedule(() -> task.cancel(true), maxCheckTimeMillis, TimeUnit.MILLISECONDS);
+    try {
+      task.run();
+    } finally {
+      if (timeout != null) {
+        timeout.cancel(false);
+      }
+    }
+    if (task.isCancelled()) {
+      // clear the cancellation's interrupt, this thread still needs to send the response:
+      Thread.interrupted();
+      throw new TimeoutException();
+    }
+    return task.get();
+  }
+
+  private List<RuleMatch> getMatchesStreaming(Future<List<RuleMatch>> future, long maxCheckTimeMillis, List<RuleMatch> ruleMatchesSoFar,
+                                              OutputStream out, AnnotatedText aText, Language lang, int compactMode)
+                                              throws InterruptedException, ExecutionException, TimeoutException, IOException {
+    long deadline = maxCheckTimeMillis < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + maxCheckTimeMillis;
+    int sentMatches = 0;
+    while (true) {
+      long waitMillis = Math.min(STREAM_INTERVAL_MILLIS, deadline - System.currentTimeMillis());
+      if (waitMillis <= 0) {
+        throw new TimeoutException();
+      }
+      try {
+        return future.get(waitMillis, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        List<RuleMatch> newMatches;
+        synchronized (ruleMatchesSoFar) {
+          newMatches = new ArrayList<>(ruleMatchesSoFar.subList(sentMatches, ruleMatchesSoFar.size()));
+        }
+        if (newMatches.size() > 0) {
+          try {
+            writePartialMatches(out, aText, lang, newMatches, compactMode);
+            out.write('\n');
+            out.flush();
+          } catch (IOException ex) {
+            // the client is disconnected, no need to continue checking
+            future.cancel(true);
+            throw ex;
+          }
+          sentMatches += newMatches.size();
+        }
+      }
+    }
+  }
+
   protected void checkParams(Map<String, String> parameters) {
     if (parameters.get("text") == null && parameters.get("data") == null) {
       throw new IllegalArgumentException("Missing 'text' or 'data' parameter");
@@ -571,7 +778,8 @@ abstract class TextChecker {
                                          QueryParams params, UserConfig userConfig,
                                          DetectedLanguage detLang,
                                          List<String> preferredLangs, List<String> preferredVariants,
-                                         RuleMatchListener listener) throws Exception {
+                                         RuleMatchListener listener, @Nullable AtomicReference<IncrementalChecker.Delta> deltaResult,
+                                         String deltaSessionOwner, boolean checkRemoteRules) throws Exception {
     if (cache != null && cache.requestCount() > 0 && cache.requestCount() % CACHE_STATS_PRINT == 0) {
       double hitRate = cache.hitRate();
       String hitPercentage = String.format(Locale.ENGLISH, "%.2f", hitRate * 100.0f);
@@ -598,7 +806,7 @@ abstract class TextChecker {
       List<RuleMatch> matches = new ArrayList<>();
 
       if (preferredLangs.size() < 2 || parameters.get("multilingual") == null || parameters.get("multilingual").equals("false")) {
-        matches.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener));
+        matches.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener, deltaResult, deltaSessionOwner, checkRemoteRules));
       } else {
         // support for multilingual texts:
         try {
@@ -617,12 +825,12 @@ abstract class TextChecker {
           langs.addAll(secondLangs);
           Map<Language, AnnotatedTextBuilder> lang2builder = getBuilderMap(fragments, new HashSet<>(langs));
           for (Map.Entry<Language, AnnotatedTextBuilder> entry : lang2builder.entrySet()) {
-            matches.addAll(getPipelineResults(entry.getValue().build(), entry.getKey(), motherTongue, params, userConfig, listener));
+            matches.addAll(getPipelineResults(entry.getValue().build(), entry.getKey(), motherTongue, params, userConfig, listener, null, null, checkRemoteRules));
           }
         } catch (Exception e) {
           logger.error("Problem with multilingual mode (preferredLangs=" + preferredLangs+ ", preferredVariants=" + preferredVariants + "), " +
             "falling back to single language.", e);
-          matches.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener));
+          matches.addAll(getPipelineResults(aText, lang, motherTongue, params, userConfig, listener, null, null, checkRemoteRules));
         }
       }
       return matches;
@@ -638,7 +846,15 @@ abstract class TextChecker {
     return Languages.getLanguageForShortCode(langCode);
   }
 
-  private List<RuleMatch> getPipelineResults(AnnotatedText aText, Language lang, Language motherTongue, QueryParams params, UserConfig userConfig, RuleMatchListener listener) throws Exception {
+  /**
+   * @param deltaResult if not null, check incrementally against the previous check of the text session
+   *                    and set the delta in here (the returned list still contains all matches)
+   * @param deltaSessionOwner the user or client the text session belongs to, only used with {@code deltaResult}
+   * @param checkRemoteRules false to skip remote rules (delta mode never runs them)
+   */
+  private List<RuleMatch> getPipelineResults(AnnotatedText aText, Language lang, Language motherTongue, QueryParams params, UserConfig userConfig,
+                                             RuleMatchListener listener, @Nullable AtomicReference<IncrementalChecker.Delta> deltaResult,
+                                             @Nullable String deltaSessionOwner, boolean checkRemoteRules) throws Exception {
     PipelinePool.PipelineSettings settings = null;
     Pipeline lt = null;
     List<RuleMatch> matches = new ArrayList<>();
@@ -649,8 +865,14 @@ abstract class TextChecker {
       if (params.regressionTestMode) {
         textSessionId = -2L; // magic value for remote rule roll-out - includes all results, even from disabled models
       }
-      matches.addAll(lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener,
-        params.mode, params.level, executorService, textSessionId));
+      if (deltaResult != null && textSessionId != null) {
+        IncrementalChecker.Delta delta = incrementalChecker.check(lt, deltaSessionOwner, textSessionId, settings, aText, params.level);
+        deltaResult.set(delta);
+        matches.addAll(delta.getMatches());
+      } else {
+        matches.addAll(lt.check(aText, true, JLanguageTool.ParagraphHandling.NORMAL, listener,
+          params.mode, params.level, executorService, textSessionId, checkRemoteRules));
+      }
     } finally {
       if (lt != null) {
         pipelinePool.returnPipeline(settings, lt);
@@ -20,7 +20,9 @@ package org.languagetool.server;
 
 import com.sun.net.httpserver.HttpExchange;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.DetectedLanguage;
+import org.languagetool.IncrementalChecker;
 import org.languagetool.Language;
 import org.languagetool.Languages;
 import org.languagetool.markup.AnnotatedText;
@@ -28,6 +30,8 @@ import org.languagetool.rules.RuleMatch;
 import org.languagetool.tools.StringTools;
 import org.languagetool.tools.RuleMatchesAsJsonSerializer;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 
 import static org.languagetool.server.ServerTools.setCommonHeaders;
@@ -50,10 +54,21 @@ class V2TextChecker extends TextChecker {
   }
 
   @Override
-  protected String getResponse(AnnotatedText text, Language usedLang, DetectedLanguage lang, Language motherTongue, List<RuleMatch> matches,
-                               List<RuleMatch> hiddenMatches, String incompleteResultsReason, int compactMode, boolean showPremiumHint) {
+  protected void writeResponse(OutputStream out, AnnotatedText text, Language usedLang, DetectedLanguage lang, Language motherTongue,
+                               List<RuleMatch> matches, List<RuleMatch> hiddenMatches, @Nullable IncrementalChecker.Delta delta,
+                               String incompleteResultsReason, int compactMode, boolean showPremiumHint) throws IOException {
     RuleMatchesAsJsonSerializer serializer = new RuleMatchesAsJsonSerializer(compactMode, usedLang);
-    return serializer.ruleMatchesToJson(matches, hiddenMatches, text, CONTEXT_SIZE, lang, incompleteResultsReason, showPremiumHint);
+    if (delta != null) {
+      serializer.ruleMatchesToJson(delta, hiddenMatches, text, CONTEXT_SIZE, lang, incompleteResultsReason, showPremiumHint, out);
+    } else {
+      serializer.ruleMatchesToJson(matches, hiddenMatches, text, CONTEXT_SIZE, lang, incompleteResultsReason, showPremiumHint, out);
+    }
+  }
+
+  @Override
+  protected void writePartialMatches(OutputStream out, AnnotatedText text, Language language, List<RuleMatch> matches,
+                                     int compactMode) throws IOException {
+    new RuleMatchesAsJsonSerializer(compactMode, language).ruleMatchesToJson("partialMatches", matches, text, CONTEXT_SIZE, out);
   }
 
   @NotNull
@@ -0,0 +1,82 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class AdmissionControllerTest {
+
+  private static final JLanguageTool.Mode ALL = JLanguageTool.Mode.ALL;
+  private static final JLanguageTool.Mode TEXTLEVEL = JLanguageTool.Mode.TEXTLEVEL_ONLY;
+  private static final JLanguageTool.Level LEVEL = JLanguageTool.Level.DEFAULT;
+
+  private final Language lang = Languages.getLanguageForShortCode("en-US");
+
+  @Test
+  public void testDegradeAndReject() {
+    // 1 thread, default speed: 2000 chars cost 100ms
+    AdmissionController controller = new AdmissionController(150, 1, true);
+    AdmissionController.Ticket first = controller.admit(lang, 2000, ALL, LEVEL, false);
+    assertThat(first.isDegraded(), is(false));
+    AdmissionController.Ticket second = controller.admit(lang, 2000, ALL, LEVEL, false);  // 200ms projected
+    assertThat(second.isDegraded(), is(true));
+    assertThat(controller.admit(lang, 3000, ALL, LEVEL, false), is(nullValue()));  // 350ms projected
+    // text-level checks don't wait for full checks:
+    AdmissionController.Ticket textLevel = controller.admit(lang, 1000, TEXTLEVEL, LEVEL, false);
+    assertThat(textLevel.isDegraded(), is(false));
+    assertThat(controller.getWaitMillis(AdmissionController.Lane.FREE_TEXTLEVEL), is(50L));
+    assertThat(controller.getWaitMillis(AdmissionController.Lane.PREMIUM), is(0L));
+    assertThat(controller.getWaitMillis(AdmissionController.Lane.FREE), is(250L));
+    first.done(2000, 100);
+    second.done(2000, 50);
+    second.done(2000, 50);  // no effect
+    textLevel.done(1000, 50);
+    assertThat(controller.getWaitMillis(AdmissionController.Lane.FREE), is(0L));
+  }
+
+  @Test
+  public void testNoDegradingWithoutRemoteRules() {
+    AdmissionController controller = new AdmissionController(150, 1, false);
+    AdmissionController.Ticket first = controller.admit(lang, 2000, ALL, LEVEL, false);
+    assertThat(controller.admit(lang, 2000, ALL, LEVEL, false), is(nullValue()));
+    first.done(2000, 100);
+    // never rejected without other checks in progress, even if too long:
+    AdmissionController.Ticket large = controller.admit(lang, 100_000, ALL, LEVEL, false);
+    assertThat(large.isDegraded(), is(false));
+  }
+
+  @Test
+  public void testLearnsSpeed() {
+    AdmissionController controller = new AdmissionController(1000, 1, true);
+    assertThat(controller.estimateCost(lang, 2000, ALL, LEVEL), is(100L));
+    controller.admit(lang, 2000, ALL, LEVEL, false).done(2000, 1000);
+    assertThat(controller.estimateCost(lang, 2000, ALL, LEVEL), is(1000L));
+    controller.admit(lang, 2000, ALL, LEVEL, false).done(2000, 0);
+    assertThat(controller.estimateCost(lang, 2000, ALL, LEVEL), is(900L));
+    assertThat(controller.estimateCost(lang, 2000, TEXTLEVEL, LEVEL), is(100L));
+  }
+
+}
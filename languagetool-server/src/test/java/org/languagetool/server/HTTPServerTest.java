@@ -18,6 +18,8 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -312,6 +314,60 @@ public class HTTPServerTest {
     }
   }
 
+  @Test
+  public void testAsyncServerMode() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort(), false);
+    config.setServerMode(HTTPServerConfig.ServerMode.ASYNC);
+    HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      String result = checkV2(new GermanyGerman(), "ein kleiner test. Und wieder Erwarten noch was.");
+      assertTrue("Got result without 'WIEDER_WILLEN': " + result, result.contains("WIEDER_WILLEN"));
+      assertTrue(checkByPOST(new Romanian(), "greșit greșit").contains("greșit"));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testStreamNdjson() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort(), false);
+    HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      String result = checkV2(new GermanyGerman(), "ein kleiner test. Und wieder Erwarten noch was.", "&stream=ndjson");
+      String[] lines = result.trim().split("\n");
+      ObjectMapper mapper = new ObjectMapper();
+      for (String line : lines) {
+        assertTrue("Not a JSON object: " + line, mapper.readTree(line).isObject());
+      }
+      JsonNode last = mapper.readTree(lines[lines.length - 1]);
+      assertTrue("Got result without 'matches': " + result, last.has("matches"));
+      assertTrue("Got result without 'WIEDER_WILLEN': " + result, last.toString().contains("WIEDER_WILLEN"));
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testStreamNdjsonError() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort(), false);
+    config.setMaxCheckTimeMillis(1);
+    HTTPServer server = new HTTPServer(config, false);
+    try {
+      server.run();
+      System.out.println("=== Testing timeout in stream mode now, please ignore the following exception ===");
+      // the response has already been started with status 200, so the error is its last line:
+      String result = checkV2(new GermanyGerman(), "Einq Tesz miit fieln Fehlan, desshalb sehee laagnsam bee dr Rechtschriebpürfung. " +
+                                                   "hir stet noc mer text mt nochh meh feheln.", "&stream=ndjson");
+      String[] lines = result.trim().split("\n");
+      JsonNode last = new ObjectMapper().readTree(lines[lines.length - 1]);
+      assertTrue("Got result without 'error': " + result, last.has("error"));
+    } finally {
+      server.stop();
+    }
+  }
+
   @Test
   public void testHealthcheck() throws Exception {
     HTTPServerConfig config = new HTTPServerConfig(HTTPTools.getDefaultPort(), false);
@@ -0,0 +1,69 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.Languages;
+import org.languagetool.UserConfig;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class PipelinePoolManagerTest {
+
+  @Test
+  public void testHotSettings() {
+    PipelinePool.PipelineSettings en = new PipelinePool.PipelineSettings(Languages.getLanguageForShortCode("en-US"), null, null, null, new UserConfig());
+    PipelinePool.PipelineSettings de = new PipelinePool.PipelineSettings(Languages.getLanguageForShortCode("de-DE"), null, null, null, new UserConfig());
+    PipelinePool.PipelineSettings fr = new PipelinePool.PipelineSettings(Languages.getLanguageForShortCode("fr"), null, null, null, new UserConfig());
+    PipelinePoolManager manager = new PipelinePoolManager(null, 1, 10);
+    try {
+      for (int i = 0; i < 5; i++) {
+        manager.recordRequest(en);
+      }
+      for (int i = 0; i < 3; i++) {
+        manager.recordRequest(de);
+      }
+      manager.recordRequest(fr);
+      assertThat(manager.getHotSettings(), is(Arrays.asList(en, de)));
+      // counts are halved: en=2, de=1
+      assertThat(manager.getHotSettings(), is(Collections.singletonList(en)));
+      assertThat(manager.getHotSettings(), is(Collections.emptyList()));
+    } finally {
+      manager.shutdown();
+    }
+  }
+
+  @Test
+  public void testDisabled() {
+    PipelinePool.PipelineSettings en = new PipelinePool.PipelineSettings(Languages.getLanguageForShortCode("en-US"), null, null, null, new UserConfig());
+    PipelinePoolManager manager = new PipelinePoolManager(null, 0, 10);
+    try {
+      manager.recordRequest(en);
+      manager.recordRequest(en);
+      assertThat(manager.getHotSettings(), is(Collections.emptyList()));
+    } finally {
+      manager.shutdown();
+    }
+  }
+
+}
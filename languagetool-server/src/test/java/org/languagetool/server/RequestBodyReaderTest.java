@@ -0,0 +1,120 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2021 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import com.sun.net.httpserver.Headers;
+import org.junit.Test;
+import org.languagetool.markup.AnnotatedText;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class RequestBodyReaderTest {
+
+  @Test
+  public void testReadJson() throws IOException {
+    Map<String, String> params = new HashMap<>();
+    AnnotatedText aText = RequestBodyReader.readJson(stream("{\"language\": \"en-US\", \"text\": \"A test\", \"c\": 1, \"level\": null}"), params);
+    assertThat(aText.getPlainText(), is("A test"));
+    assertThat(params.get("language"), is("en-US"));
+    assertThat(params.get("c"), is("1"));
+    assertFalse(params.containsKey("level"));
+    assertThat(params.get("text"), is("A test"));
+  }
+
+  @Test
+  public void testReadJsonWithAnnotation() throws IOException {
+    String json = "{\"data\": {\"annotation\": [{\"text\": \"A \"}, {\"markup\": \"<b>\"}, {\"text\": \"test\"}, " +
+                  "{\"markup\": \"<br/>\", \"interpretAs\": \"\n\n\"}]}, \"language\": \"en\"}";
+    Map<String, String> params = new HashMap<>();
+    AnnotatedText aText = RequestBodyReader.readJson(stream(json), params);
+    assertThat(aText.getPlainText(), is("A test\n\n"));
+    assertThat(aText.getOriginalTextPositionFor(2, false), is(5));
+    assertThat(params.get("language"), is("en"));
+    assertTrue(params.containsKey("data"));
+  }
+
+  @Test
+  public void testReadJsonWithTextDataAndMetaData() throws IOException {
+    String json = "{\"data\": {\"text\": \"A test\", \"metaData\": {\"EmailToAddress\": \"foo@example.com\"}}}";
+    AnnotatedText aText = RequestBodyReader.readJson(stream(json), new HashMap<>());
+    assertThat(aText.getPlainText(), is("A test"));
+    assertThat(aText.getGlobalMetaData(AnnotatedText.MetaDataKey.EmailToAddress, ""), is("foo@example.com"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadJsonWithTextAndData() throws IOException {
+    RequestBodyReader.readJson(stream("{\"text\": \"A test\", \"data\": {\"text\": \"A test\"}}"), new HashMap<>());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testReadJsonWithoutText() throws IOException {
+    RequestBodyReader.readJson(stream("{\"language\": \"en\"}"), new HashMap<>());
+  }
+
+  @Test
+  public void testGzipBody() throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(bos)) {
+      out.write("{\"text\": \"compressed\"}".getBytes(StandardCharsets.UTF_8));
+    }
+    InputStream body = RequestBodyReader.getBody(exchange(bos.toByteArray(), "gzip"), 1000);
+    assertThat(RequestBodyReader.readJson(body, new HashMap<>()).getPlainText(), is("compressed"));
+  }
+
+  @Test(expected = TextTooLongException.class)
+  public void testSizeLimit() throws IOException {
+    InputStream body = RequestBodyReader.getBody(exchange(new byte[10_000], null), 5000);
+    byte[] buffer = new byte[1000];
+    while (body.read(buffer) != -1) {
+      // keep reading
+    }
+  }
+
+  private InputStream stream(String s) {
+    return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private FakeHttpExchange exchange(byte[] body, String contentEncoding) {
+    Headers headers = new Headers();
+    if (contentEncoding != null) {
+      headers.add("Content-Encoding", contentEncoding);
+    }
+    return new FakeHttpExchange() {
+      @Override
+      public Headers getRequestHeaders() {
+        return headers;
+      }
+      @Override
+      public InputStream getRequestBody() {
+        return new ByteArrayInputStream(body);
+      }
+    };
+  }
+
+}
@@ -25,6 +25,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
 public class RequestLimiterTest {
@@ -101,6 +103,22 @@ public class RequestLimiterTest {
     assertOkayWithSkippingLimits(limiter, firstIp, params, firstHeader);
   }
 
+  @Test
+  public void testSlidingWindow() {
+    RequestLimiter.SlidingWindow window = new RequestLimiter.SlidingWindow(3);
+    window.add(10, 5);
+    window.add(10, 5);
+    window.add(11, 1);
+    assertThat(window.getRequests(11), is(3));
+    assertThat(window.getSize(11), is(11.0));
+    assertThat(window.getRequests(12), is(3));
+    assertThat(window.getRequests(13), is(1));  // bucket 10 has expired
+    window.add(13, 2);  // re-uses the slot of bucket 10
+    assertThat(window.getRequests(13), is(2));
+    assertThat(window.getSize(13), is(3.0));
+    assertThat(window.getRequests(20), is(0));
+  }
+
   private void assertOkay(RequestLimiter limiter, String ip, Map<String, String> params, Map<String, List<String>> header) {
     try {
       limiter.checkAccess(ip, params, header, UserLimits.getDefaultLimits(config));
@@ -18,6 +18,7 @@
  */
 package org.languagetool.server;
 
+import com.sun.net.httpserver.Headers;
 import org.junit.Test;
 
 import java.util.HashMap;
@@ -40,4 +41,26 @@ public class ServerToolsTest {
     assertThat(ServerTools.cleanUserTextFromMessage("<sentcontent>my\ntest</sentcontent>", loggingOff), is("<< content removed >>"));
   }
 
+  @Test
+  public void testAcceptsGzip() {
+    assertFalse(ServerTools.acceptsGzip(exchangeWithAcceptEncoding(null)));
+    assertFalse(ServerTools.acceptsGzip(exchangeWithAcceptEncoding("deflate, br")));
+    assertTrue(ServerTools.acceptsGzip(exchangeWithAcceptEncoding("gzip")));
+    assertTrue(ServerTools.acceptsGzip(exchangeWithAcceptEncoding("deflate, GZIP;q=0.5")));
+    assertFalse(ServerTools.acceptsGzip(exchangeWithAcceptEncoding("gzip;q=0, deflate")));
+  }
+
+  private FakeHttpExchange exchangeWithAcceptEncoding(String acceptEncoding) {
+    Headers headers = new Headers();
+    if (acceptEncoding != null) {
+      headers.add("Accept-Encoding", acceptEncoding);
+    }
+    return new FakeHttpExchange() {
+      @Override
+      public Headers getRequestHeaders() {
+        return headers;
+      }
+    };
+  }
+
 }
@@ -51,6 +51,24 @@ public class TextCheckerTest {
     assertTrue(httpExchange.getOutput().endsWith(");"));
   }
   
+  @Test
+  public void testInvalidParameterReleasesAdmission() throws Exception {
+    Map<String, String> params = new HashMap<>();
+    params.put("text", "not used");
+    params.put("language", "en");
+    params.put("c", "invalid");
+    HTTPServerConfig config1 = new HTTPServerConfig(HTTPTools.getDefaultPort());
+    config1.setAdmissionLatencyTargetMillis(1000);
+    TextChecker checker = new V2TextChecker(config1, false, null, new RequestCounter());
+    try {
+      checker.checkText(new AnnotatedTextBuilder().addText("some random text").build(), new FakeHttpExchange(), params, null, null);
+      fail();
+    } catch (NumberFormatException ignore) {}
+    for (AdmissionController.Lane lane : AdmissionController.Lane.values()) {
+      assertThat(checker.getAdmissionController().getWaitMillis(lane), is(0L));
+    }
+  }
+
   @Test
   public void testMaxTextLength() throws Exception {
     Map<String, String> params = new HashMap<>();